@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.questdb;
+
+import io.questdb.std.Rnd;
+import io.questdb.std.datetime.microtime.DayCachingTimestampFormat;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.StringSink;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimestampFormatBenchmark {
+
+    private static final int N = 1024;
+    private final long[] timestamps = new long[N];
+    private final StringSink sink = new StringSink();
+    private final DayCachingTimestampFormat dayCachingFormat = new DayCachingTimestampFormat(TimestampFormatUtils.USEC_UTC_FORMAT, "Z");
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TimestampFormatBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setUp() {
+        // ascending timestamps a few seconds apart, as in a typical time series export
+        Rnd rnd = new Rnd();
+        long ts = 1_640_995_200_000_000L;
+        for (int i = 0; i < N; i++) {
+            ts += rnd.nextPositiveLong() % (10 * Timestamps.SECOND_MICROS);
+            timestamps[i] = ts;
+        }
+    }
+
+    @Benchmark
+    public int testCompiledFormat() {
+        sink.clear();
+        for (int i = 0; i < N; i++) {
+            TimestampFormatUtils.USEC_UTC_FORMAT.format(timestamps[i], null, "Z", sink);
+        }
+        return sink.length();
+    }
+
+    @Benchmark
+    public int testDayCachingFormat() {
+        sink.clear();
+        for (int i = 0; i < N; i++) {
+            dayCachingFormat.format(timestamps[i], sink);
+        }
+        return sink.length();
+    }
+}
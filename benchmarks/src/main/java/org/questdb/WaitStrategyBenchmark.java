@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.mp.*;
+import io.questdb.std.ObjectFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares wait strategies of a consumer thread waiting on SCSequence. Round trip measures
+ * ping-pong latency between two threads, idle pause before each ping lets the waiting side
+ * give up spinning. Publish measures single producer throughput with consumer draining the
+ * queue. Run with "-prof perfnorm" or watch CPU usage to compare idle cost.
+ */
+public class WaitStrategyBenchmark {
+    private static final long STOP = Long.MIN_VALUE;
+    private static final int CYCLE = 1024;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(WaitStrategyBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void testPublish(PublishState state) {
+        final long cursor = state.pubSeq.nextBully();
+        state.queue.get(cursor).value = cursor;
+        state.pubSeq.done(cursor);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long testRoundTrip(RoundTripState state) {
+        long cursor = state.pingPubSeq.nextBully();
+        state.pingQueue.get(cursor).value = cursor;
+        state.pingPubSeq.done(cursor);
+
+        cursor = state.pongSubSeq.waitForNext();
+        final long value = state.pongQueue.get(cursor).value;
+        state.pongSubSeq.done(cursor);
+        return value;
+    }
+
+    private static WaitStrategy newWaitStrategy(String name) {
+        switch (name) {
+            case "busy":
+                return NullWaitStrategy.INSTANCE;
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "spinpark":
+                return new SpinParkWaitStrategy(1000, TimeUnit.MILLISECONDS.toNanos(10));
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    private static void publish(RingQueue<Item> queue, Sequence pubSeq, long value) {
+        final long cursor = pubSeq.nextBully();
+        queue.get(cursor).value = value;
+        pubSeq.done(cursor);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PublishState {
+        @Param({"busy", "yielding", "spinpark"})
+        public String strategy;
+        private RingQueue<Item> queue;
+        private SPSequence pubSeq;
+        private Thread consumer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            queue = new RingQueue<>(Item.FACTORY, CYCLE);
+            pubSeq = new SPSequence(CYCLE);
+            final SCSequence subSeq = new SCSequence(newWaitStrategy(strategy));
+            pubSeq.then(subSeq).then(pubSeq);
+            consumer = new Thread(() -> {
+                while (true) {
+                    final long cursor = subSeq.waitForNext();
+                    final long value = queue.get(cursor).value;
+                    subSeq.done(cursor);
+                    if (value == STOP) {
+                        break;
+                    }
+                }
+            });
+            consumer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            publish(queue, pubSeq, STOP);
+            consumer.join();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RoundTripState {
+        @Param({"busy", "yielding", "spinpark"})
+        public String strategy;
+        @Param({"0", "100", "1000"})
+        public int idleMicros;
+        private RingQueue<Item> pingQueue;
+        private RingQueue<Item> pongQueue;
+        private SPSequence pingPubSeq;
+        private SCSequence pongSubSeq;
+        private Thread echo;
+
+        @Setup(Level.Invocation)
+        public void idle() {
+            if (idleMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleMicros));
+            }
+        }
+
+        @Setup(Level.Trial)
+        public void setup() {
+            pingQueue = new RingQueue<>(Item.FACTORY, CYCLE);
+            pongQueue = new RingQueue<>(Item.FACTORY, CYCLE);
+            pingPubSeq = new SPSequence(CYCLE);
+            final SCSequence pingSubSeq = new SCSequence(newWaitStrategy(strategy));
+            pingPubSeq.then(pingSubSeq).then(pingPubSeq);
+            final SPSequence pongPubSeq = new SPSequence(CYCLE);
+            pongSubSeq = new SCSequence(newWaitStrategy(strategy));
+            pongPubSeq.then(pongSubSeq).then(pongPubSeq);
+            echo = new Thread(() -> {
+                while (true) {
+                    final long cursor = pingSubSeq.waitForNext();
+                    final long value = pingQueue.get(cursor).value;
+                    pingSubSeq.done(cursor);
+                    if (value == STOP) {
+                        break;
+                    }
+                    publish(pongQueue, pongPubSeq, value);
+                }
+            });
+            echo.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            publish(pingQueue, pingPubSeq, STOP);
+            echo.join();
+        }
+    }
+
+    public static class Item {
+        static final ObjectFactory<Item> FACTORY = Item::new;
+        long value;
+    }
+}
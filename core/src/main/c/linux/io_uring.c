@@ -0,0 +1,44 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+#define _GNU_SOURCE
+
+#include <jni.h>
+#include <linux/io_uring.h>
+#include <sys/syscall.h>
+#include <unistd.h>
+
+// Rings are mapped and driven from Java via Files.mmap0() and Unsafe,
+// native code is limited to the two system calls that cannot be done from Java.
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_IOURingAccessor_setup
+        (JNIEnv *e, jclass cl, jint entries, jlong params) {
+    return (jint) syscall(__NR_io_uring_setup, (unsigned) entries, (struct io_uring_params *) params);
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_IOURingAccessor_enter
+        (JNIEnv *e, jclass cl, jint fd, jint toSubmit, jint minComplete, jint flags) {
+    return (jint) syscall(__NR_io_uring_enter, fd, (unsigned) toSubmit, (unsigned) minComplete, (unsigned) flags, NULL, 0);
+}
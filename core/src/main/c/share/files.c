@@ -248,6 +248,60 @@ JNIEXPORT jint JNICALL Java_io_questdb_std_Files_fsync(JNIEnv *e, jclass cl, jlo
     return fsync((int) fd);
 }
 
+static int to_madv(jint advice) {
+    switch (advice) {
+        case com_questdb_std_Files_ADVICE_RANDOM:
+            return MADV_RANDOM;
+        case com_questdb_std_Files_ADVICE_SEQUENTIAL:
+            return MADV_SEQUENTIAL;
+        case com_questdb_std_Files_ADVICE_WILLNEED:
+            return MADV_WILLNEED;
+        case com_questdb_std_Files_ADVICE_DONTNEED:
+            return MADV_DONTNEED;
+        default:
+            return MADV_NORMAL;
+    }
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_madvise0
+        (JNIEnv *e, jclass cl, jlong address, jlong len, jint advice) {
+    // madvise() rather than posix_madvise(): glibc turns POSIX_MADV_DONTNEED into a no-op,
+    // whereas MADV_DONTNEED actually drops the pages of a read-only file mapping
+    return madvise((void *) address, (size_t) len, to_madv(advice));
+}
+
+#ifdef __APPLE__
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_fadvise0
+        (JNIEnv *e, jclass cl, jlong fd, jlong offset, jlong len, jint advice) {
+    // no posix_fadvise on OSX, page cache hints are best effort
+    return 0;
+}
+
+#else
+
+static int to_posix_fadv(jint advice) {
+    switch (advice) {
+        case com_questdb_std_Files_ADVICE_RANDOM:
+            return POSIX_FADV_RANDOM;
+        case com_questdb_std_Files_ADVICE_SEQUENTIAL:
+            return POSIX_FADV_SEQUENTIAL;
+        case com_questdb_std_Files_ADVICE_WILLNEED:
+            return POSIX_FADV_WILLNEED;
+        case com_questdb_std_Files_ADVICE_DONTNEED:
+            return POSIX_FADV_DONTNEED;
+        default:
+            return POSIX_FADV_NORMAL;
+    }
+}
+
+JNIEXPORT jint JNICALL Java_io_questdb_std_Files_fadvise0
+        (JNIEnv *e, jclass cl, jlong fd, jlong offset, jlong len, jint advice) {
+    return posix_fadvise((int) fd, (off_t) offset, (off_t) len, to_posix_fadv(advice));
+}
+
+#endif
+
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_remove
         (JNIEnv *e, jclass cl, jlong lpsz) {
     return (jboolean) (remove((const char *) lpsz) == 0);
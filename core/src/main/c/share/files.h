@@ -29,6 +29,16 @@ extern "C" {
 #define com_questdb_std_Files_MAP_RO 1L
 #undef com_questdb_std_Files_MAP_RW
 #define com_questdb_std_Files_MAP_RW 2L
+#undef com_questdb_std_Files_ADVICE_NORMAL
+#define com_questdb_std_Files_ADVICE_NORMAL 0L
+#undef com_questdb_std_Files_ADVICE_RANDOM
+#define com_questdb_std_Files_ADVICE_RANDOM 1L
+#undef com_questdb_std_Files_ADVICE_SEQUENTIAL
+#define com_questdb_std_Files_ADVICE_SEQUENTIAL 2L
+#undef com_questdb_std_Files_ADVICE_WILLNEED
+#define com_questdb_std_Files_ADVICE_WILLNEED 3L
+#undef com_questdb_std_Files_ADVICE_DONTNEED
+#define com_questdb_std_Files_ADVICE_DONTNEED 4L
 /*
  * Class:     com_questdb_std_Files
  * Method:    append
@@ -53,6 +53,12 @@ public interface MessageBus extends Closeable {
 
     Sequence getLatestBySubSeq();
 
+    Sequence getLatestByScanPubSeq();
+
+    RingQueue<LatestByScanTask> getLatestByScanQueue();
+
+    Sequence getLatestByScanSubSeq();
+
     MPSequence getO3CallbackPubSeq();
 
     RingQueue<O3CallbackTask> getO3CallbackQueue();
@@ -89,6 +95,12 @@ public interface MessageBus extends Closeable {
 
     MCSequence getO3PurgeSubSeq();
 
+    Sequence getTextImportPubSeq();
+
+    RingQueue<TextImportTask> getTextImportQueue();
+
+    Sequence getTextImportSubSeq();
+
     MPSequence getTableWriterCommandPubSeq();
 
     RingQueue<TableWriterTask> getTableWriterCommandQueue();
@@ -68,6 +68,14 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
 
+    private final RingQueue<LatestByScanTask> latestByScanQueue;
+    private final MPSequence latestByScanPubSeq;
+    private final MCSequence latestByScanSubSeq;
+
+    private final RingQueue<TextImportTask> textImportQueue;
+    private final MPSequence textImportPubSeq;
+    private final MCSequence textImportSubSeq;
+
     private final RingQueue<TableWriterTask> tableWriterCommandQueue;
     private final MPSequence tableWriterCommandPubSeq;
     private final FanOut tableWriterCommandSubSeq;
@@ -124,6 +132,16 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.latestByScanQueue = new RingQueue<>(LatestByScanTask::new, configuration.getLatestByQueueCapacity());
+        this.latestByScanPubSeq = new MPSequence(latestByScanQueue.getCycle());
+        this.latestByScanSubSeq = new MCSequence(latestByScanQueue.getCycle());
+        latestByScanPubSeq.then(latestByScanSubSeq).then(latestByScanPubSeq);
+
+        this.textImportQueue = new RingQueue<>(TextImportTask::new, configuration.getSqlCopyQueueCapacity());
+        this.textImportPubSeq = new MPSequence(textImportQueue.getCycle());
+        this.textImportSubSeq = new MCSequence(textImportQueue.getCycle());
+        textImportPubSeq.then(textImportSubSeq).then(textImportPubSeq);
+
         // todo: move to configuration
         this.tableWriterCommandQueue = new RingQueue<>(
                 TableWriterTask::new,
@@ -182,6 +200,21 @@ public class MessageBusImpl implements MessageBus {
         return latestBySubSeq;
     }
 
+    @Override
+    public Sequence getLatestByScanPubSeq() {
+        return latestByScanPubSeq;
+    }
+
+    @Override
+    public RingQueue<LatestByScanTask> getLatestByScanQueue() {
+        return latestByScanQueue;
+    }
+
+    @Override
+    public Sequence getLatestByScanSubSeq() {
+        return latestByScanSubSeq;
+    }
+
     @Override
     public MPSequence getO3CallbackPubSeq() {
         return o3CallbackPubSeq;
@@ -312,6 +345,21 @@ public class MessageBusImpl implements MessageBus {
         return vectorAggregateQueue;
     }
 
+    @Override
+    public Sequence getTextImportPubSeq() {
+        return textImportPubSeq;
+    }
+
+    @Override
+    public RingQueue<TextImportTask> getTextImportQueue() {
+        return textImportQueue;
+    }
+
+    @Override
+    public Sequence getTextImportSubSeq() {
+        return textImportSubSeq;
+    }
+
     @Override
     public Sequence getVectorAggregateSubSeq() {
         return vectorAggregateSubSeq;
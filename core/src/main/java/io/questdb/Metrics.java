@@ -24,24 +24,54 @@
 
 package io.questdb;
 
+import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.pool.PoolMetrics;
+import io.questdb.cutlass.http.HttpConnectionMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
+import io.questdb.cutlass.line.tcp.LineTcpMetrics;
 import io.questdb.metrics.MetricsRegistry;
 import io.questdb.metrics.MetricsRegistryImpl;
 import io.questdb.metrics.NullMetricsRegistry;
 import io.questdb.metrics.Scrapable;
+import io.questdb.mp.WorkerPoolMetrics;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 
-public class Metrics implements Scrapable {
+import java.io.Closeable;
+
+public class Metrics implements Scrapable, Closeable {
     private final boolean enabled;
+    private final HttpConnectionMetrics httpConnection;
     private final JsonQueryMetrics jsonQuery;
+    private final TableWriterMetrics tableWriter;
+    private final LineTcpMetrics lineTcp;
+    private final PoolMetrics pools;
+    private final WorkerPoolMetrics workerPool;
     private final MetricsRegistry metricsRegistry;
 
     Metrics(boolean enabled, MetricsRegistry metricsRegistry) {
         this.enabled = enabled;
+        this.httpConnection = new HttpConnectionMetrics(metricsRegistry);
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
+        this.tableWriter = new TableWriterMetrics(metricsRegistry);
+        this.lineTcp = new LineTcpMetrics(metricsRegistry);
+        this.pools = new PoolMetrics(metricsRegistry);
+        this.workerPool = new WorkerPoolMetrics(metricsRegistry);
+        final CharSequence[] memoryTags = new CharSequence[MemoryTag.SIZE];
+        for (int i = 0; i < MemoryTag.SIZE; i++) {
+            memoryTags[i] = MemoryTag.nameOf(i);
+        }
+        metricsRegistry.newVirtualGauge("memory_bytes", Unsafe::getMemUsed);
+        metricsRegistry.newVirtualGauge("memory_tag_bytes", "tag", memoryTags, Unsafe::getMemUsedByTag);
         this.metricsRegistry = metricsRegistry;
     }
 
+    @Override
+    public void close() {
+        metricsRegistry.close();
+    }
+
     public static Metrics enabled() {
         return new Metrics(true, new MetricsRegistryImpl());
     }
@@ -50,6 +80,10 @@ public class Metrics implements Scrapable {
         return new Metrics(false, new NullMetricsRegistry());
     }
 
+    public HttpConnectionMetrics httpConnection() {
+        return httpConnection;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -58,6 +92,22 @@ public class Metrics implements Scrapable {
         return jsonQuery;
     }
 
+    public LineTcpMetrics lineTcp() {
+        return lineTcp;
+    }
+
+    public PoolMetrics pools() {
+        return pools;
+    }
+
+    public TableWriterMetrics tableWriter() {
+        return tableWriter;
+    }
+
+    public WorkerPoolMetrics workerPool() {
+        return workerPool;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
@@ -80,6 +80,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final CharSequence defaultMapType;
     private final boolean defaultSymbolCacheFlag;
     private final int defaultSymbolCapacity;
+    private final boolean symbolCapacityAutoGrow;
     private final int fileOperationRetryCount;
     private final long idleCheckInterval;
     private final long inactiveReaderTTL;
@@ -89,7 +90,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int mkdirMode;
     private final int parallelIndexThreshold;
     private final int readerPoolMaxSegments;
+    private final long queryResultCacheSize;
+    private final long queryResultCacheMaxEntrySize;
     private final long spinLockTimeoutUs;
+    private final long slowQueryLogThresholdUs;
+    private final int slowQueryLogQueueCapacity;
     private final int sqlCacheRows;
     private final int sqlCacheBlocks;
     private final int sqlCharacterStoreCapacity;
@@ -107,6 +112,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapMaxResizes;
     private final int sqlModelPoolCapacity;
     private final long sqlSortKeyPageSize;
+    private final int sqlScanHotPartitionCount;
     private final int sqlSortKeyMaxPages;
     private final long sqlSortLightValuePageSize;
     private final int sqlSortLightValueMaxPages;
@@ -142,6 +148,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean lineUdpUnicast;
     private final boolean lineUdpOwnThread;
     private final int sqlCopyBufferSize;
+    private final long sqlCopyParallelChunkSize;
+    private final int sqlCopyQueueCapacity;
     private final long writerDataAppendPageSize;
     private final long writerMiscAppendPageSize;
     private final int sqlAnalyticColumnPoolCapacity;
@@ -230,6 +238,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private CharSequence indexFileName;
     private String publicDirectory;
     private int httpActiveConnectionLimit;
+    private int httpDispatcherShardCount;
     private int httpEventCapacity;
     private int httpIOQueueCapacity;
     private long httpIdleConnectionTimeout;
@@ -257,6 +266,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineUdpBindIPV4Address;
     private int lineUdpPort;
     private int jsonQueryFloatScale;
+    private int httpArrowBatchRowCount;
     private int jsonQueryDoubleScale;
     private int jsonQueryConnectionCheckFrequency;
     private boolean httpFrozenClock;
@@ -266,6 +276,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int interruptorNIterationsPerCheck;
     private int interruptorBufferSize;
     private int pgNetActiveConnectionLimit;
+    private int pgNetDispatcherShardCount;
     private int pgNetBindIPv4Address;
     private int pgNetBindPort;
     private int pgNetEventCapacity;
@@ -303,6 +314,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgNamesStatementPoolCapacity;
     private int pgPendingWritersCacheCapacity;
     private int lineTcpNetActiveConnectionLimit;
+    private int lineTcpNetDispatcherShardCount;
     private int lineTcpNetBindIPv4Address;
     private int lineTcpNetBindPort;
     private int lineTcpNetEventCapacity;
@@ -317,11 +329,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpMsgBufferSize;
     private int lineTcpMaxMeasurementSize;
     private int lineTcpWriterQueueCapacity;
+    private int lineTcpWriterTableQueueLimit;
     private int lineTcpWriterWorkerCount;
     private int[] lineTcpWriterWorkerAffinity;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
     private long lineTcpWriterWorkerYieldThreshold;
     private long lineTcpWriterWorkerSleepThreshold;
+    private long lineTcpWriterWorkerSleepTimeout;
     private int lineTcpIOWorkerCount;
     private int[] lineTcpIOWorkerAffinity;
     private boolean lineTcpIOWorkerPoolHaltOnError;
@@ -330,6 +344,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNUpdatesPerLoadRebalance;
     private double lineTcpMaxLoadRatio;
     private long lineTcpMaintenanceInterval;
+    private long lineTcpCommitLatencyTarget;
     private String lineTcpAuthDbPath;
     private int lineDefaultPartitionBy;
     private int lineTcpAggressiveReadRetryCount;
@@ -469,6 +484,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 }
 
                 this.httpActiveConnectionLimit = getInt(properties, env, "http.net.active.connection.limit", 256);
+                this.httpDispatcherShardCount = getInt(properties, env, "http.net.dispatcher.shard.count", 1);
                 this.httpEventCapacity = getInt(properties, env, "http.net.event.capacity", 1024);
                 this.httpIOQueueCapacity = getInt(properties, env, "http.net.io.queue.capacity", 1024);
                 this.httpIdleConnectionTimeout = getLong(properties, env, "http.net.idle.connection.timeout", 5 * 60 * 1000L);
@@ -494,6 +510,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.jsonQueryConnectionCheckFrequency = getInt(properties, env, "http.json.query.connection.check.frequency", 1_000_000);
                 this.jsonQueryFloatScale = getInt(properties, env, "http.json.query.float.scale", 4);
                 this.jsonQueryDoubleScale = getInt(properties, env, "http.json.query.double.scale", 12);
+                this.httpArrowBatchRowCount = getInt(properties, env, "http.arrow.batch.row.count", 65536);
                 this.readOnlySecurityContext = getBoolean(properties, env, "http.security.readonly", false);
                 this.maxHttpQueryResponseRowLimit = getLong(properties, env, "http.security.max.response.rows", Long.MAX_VALUE);
                 this.interruptOnClosedConnection = getBoolean(properties, env, "http.security.interrupt.on.closed.connection", true);
@@ -518,6 +535,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.pgEnabled = getBoolean(properties, env, "pg.enabled", true);
             if (pgEnabled) {
                 pgNetActiveConnectionLimit = getInt(properties, env, "pg.net.active.connection.limit", 10);
+                pgNetDispatcherShardCount = getInt(properties, env, "pg.net.dispatcher.shard.count", 1);
                 parseBindTo(properties, env, "pg.net.bind.to", "0.0.0.0:8812", (a, p) -> {
                     pgNetBindIPv4Address = a;
                     pgNetBindPort = p;
@@ -569,6 +587,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.defaultMapType = getString(properties, env, "cairo.default.map.type", "fast");
             this.defaultSymbolCacheFlag = getBoolean(properties, env, "cairo.default.symbol.cache.flag", true);
             this.defaultSymbolCapacity = getInt(properties, env, "cairo.default.symbol.capacity", 256);
+            this.symbolCapacityAutoGrow = getBoolean(properties, env, "cairo.symbol.capacity.auto.grow", true);
             this.fileOperationRetryCount = getInt(properties, env, "cairo.file.operation.retry.count", 30);
             this.idleCheckInterval = getLong(properties, env, "cairo.idle.check.interval", 5 * 60 * 1000L);
             this.inactiveReaderTTL = getLong(properties, env, "cairo.inactive.reader.ttl", 120_000);
@@ -577,7 +596,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxSwapFileCount = getInt(properties, env, "cairo.max.swap.file.count", 30);
             this.parallelIndexThreshold = getInt(properties, env, "cairo.parallel.index.threshold", 100000);
             this.readerPoolMaxSegments = getInt(properties, env, "cairo.reader.pool.max.segments", 5);
+            this.queryResultCacheSize = getLongSize(properties, env, "cairo.sql.result.cache.size", 0);
+            this.queryResultCacheMaxEntrySize = getLongSize(properties, env, "cairo.sql.result.cache.max.entry.size", 16 * Numbers.SIZE_1MB);
             this.spinLockTimeoutUs = getLong(properties, env, "cairo.spin.lock.timeout", 1_000_000);
+            this.slowQueryLogThresholdUs = getLong(properties, env, "cairo.sql.slow.query.log.threshold", 0) * 1000;
+            this.slowQueryLogQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.slow.query.log.queue.capacity", 64));
             this.sqlCacheRows = getInt(properties, env, "cairo.cache.rows", 16);
             this.sqlCacheBlocks = getIntSize(properties, env, "cairo.cache.blocks", 4);
             this.sqlCharacterStoreCapacity = getInt(properties, env, "cairo.character.store.capacity", 1024);
@@ -595,6 +618,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlModelPoolCapacity = getInt(properties, env, "cairo.model.pool.capacity", 1024);
             this.sqlSortKeyPageSize = getLongSize(properties, env, "cairo.sql.sort.key.page.size", 4 * 1024 * 1024);
             this.sqlSortKeyMaxPages = getIntSize(properties, env, "cairo.sql.sort.key.max.pages", Integer.MAX_VALUE);
+            this.sqlScanHotPartitionCount = getInt(properties, env, "cairo.sql.scan.hot.partition.count", 0);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, "cairo.sql.sort.light.value.page.size", 8 * 1048576);
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.light.value.max.pages", Integer.MAX_VALUE);
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, "cairo.sql.hash.join.value.page.size", 16777216);
@@ -616,6 +640,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlInsertModelPoolCapacity = getInt(properties, env, "cairo.sql.insert.model.pool.capacity", 64);
             this.sqlCopyModelPoolCapacity = getInt(properties, env, "cairo.sql.copy.model.pool.capacity", 32);
             this.sqlCopyBufferSize = getIntSize(properties, env, "cairo.sql.copy.buffer.size", 2 * 1024 * 1024);
+            this.sqlCopyParallelChunkSize = getLongSize(properties, env, "cairo.sql.copy.parallel.chunk.size", 16 * 1024 * 1024);
+            this.sqlCopyQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.copy.queue.capacity", 32));
 
             this.writerDataIndexKeyAppendPageSize = Files.ceilPageSize(getLongSize(properties, env, "cairo.writer.data.index.key.append.page.size", 512 * 1024));
             this.writerDataIndexValueAppendPageSize = Files.ceilPageSize(getLongSize(properties, env, "cairo.writer.data.index.value.append.page.size", 16 * 1024 * 1024));
@@ -700,6 +726,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineTcpEnabled = getBoolean(properties, env, "line.tcp.enabled", true);
             if (lineTcpEnabled) {
                 lineTcpNetActiveConnectionLimit = getInt(properties, env, "line.tcp.net.active.connection.limit", 256);
+                lineTcpNetDispatcherShardCount = getInt(properties, env, "line.tcp.net.dispatcher.shard.count", 1);
                 parseBindTo(properties, env, "line.tcp.net.bind.to", "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -721,12 +748,14 @@ public class PropServerConfiguration implements ServerConfiguration {
                             "line.tcp.max.measurement.size (" + this.lineTcpMaxMeasurementSize + ") cannot be more than line.tcp.msg.buffer.size (" + this.lineTcpMsgBufferSize + ")");
                 }
                 this.lineTcpWriterQueueCapacity = getInt(properties, env, "line.tcp.writer.queue.capacity", 128);
+                this.lineTcpWriterTableQueueLimit = getInt(properties, env, "line.tcp.writer.table.queue.limit", 0);
                 this.lineTcpWriterWorkerCount = getInt(properties, env, "line.tcp.writer.worker.count", 1);
                 cpuUsed += this.lineTcpWriterWorkerCount;
                 this.lineTcpWriterWorkerAffinity = getAffinity(properties, env, "line.tcp.writer.worker.affinity", lineTcpWriterWorkerCount);
                 this.lineTcpWriterWorkerPoolHaltOnError = getBoolean(properties, env, "line.tcp.writer.halt.on.error", false);
                 this.lineTcpWriterWorkerYieldThreshold = getLong(properties, env, "line.tcp.writer.worker.yield.threshold", 10);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, "line.tcp.writer.worker.sleep.threshold", 10000);
+                this.lineTcpWriterWorkerSleepTimeout = getLong(properties, env, "line.tcp.writer.worker.sleep.timeout", 1);
                 this.symbolCacheWaitUsBeforeReload = getLong(properties, env, "line.tcp.symbol.cache.wait.us.before.reload", 500_000);
 
                 int ilpTcpWorkerCount;
@@ -746,6 +775,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpNUpdatesPerLoadRebalance = getInt(properties, env, "line.tcp.n.updates.per.load.balance", 10_000_000);
                 this.lineTcpMaxLoadRatio = getDouble(properties, env, "line.tcp.max.load.ratio", 1.9);
                 this.lineTcpMaintenanceInterval = getInt(properties, env, "line.tcp.maintenance.job.interval", 30_000);
+                this.lineTcpCommitLatencyTarget = getLong(properties, env, "line.tcp.commit.latency.target", 0);
                 this.lineTcpAuthDbPath = getString(properties, env, "line.tcp.auth.db.path", null);
                 String defaultPartitionByProperty = getString(properties, env, "line.tcp.default.partition.by", "DAY");
                 this.lineDefaultPartitionBy = PartitionBy.fromString(defaultPartitionByProperty);
@@ -1078,6 +1108,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherShardCount() {
+            return httpDispatcherShardCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-server";
@@ -1504,6 +1539,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCopyBufferSize;
         }
 
+        @Override
+        public long getSqlCopyParallelChunkSize() {
+            return sqlCopyParallelChunkSize;
+        }
+
+        @Override
+        public int getSqlCopyQueueCapacity() {
+            return sqlCopyQueueCapacity;
+        }
+
         @Override
         public int getCopyPoolCapacity() {
             return sqlCopyModelPoolCapacity;
@@ -1529,6 +1574,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return defaultSymbolCapacity;
         }
 
+        @Override
+        public boolean isSymbolCapacityAutoGrowEnabled() {
+            return symbolCapacityAutoGrow;
+        }
+
         @Override
         public int getFileOperationRetryCount() {
             return fileOperationRetryCount;
@@ -1594,6 +1644,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public long getQueryResultCacheMaxEntrySize() {
+            return queryResultCacheMaxEntrySize;
+        }
+
+        @Override
+        public long getQueryResultCacheSize() {
+            return queryResultCacheSize;
+        }
+
         @Override
         public int getReaderPoolMaxSegments() {
             return readerPoolMaxSegments;
@@ -1639,6 +1699,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return backupMkdirMode;
         }
 
+        @Override
+        public int getSlowQueryLogQueueCapacity() {
+            return slowQueryLogQueueCapacity;
+        }
+
+        @Override
+        public long getSlowQueryLogThresholdUs() {
+            return slowQueryLogThresholdUs;
+        }
+
         @Override
         public long getSpinLockTimeoutUs() {
             return spinLockTimeoutUs;
@@ -1724,6 +1794,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortKeyPageSize;
         }
 
+        @Override
+        public int getSqlScanHotPartitionCount() {
+            return sqlScanHotPartitionCount;
+        }
+
         @Override
         public int getSqlSortKeyMaxPages() {
             return sqlSortKeyMaxPages;
@@ -2094,6 +2169,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherShardCount() {
+            return lineTcpNetDispatcherShardCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "tcp-line-server";
@@ -2191,6 +2271,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterWorkerSleepThreshold;
         }
 
+        @Override
+        public long getSleepTimeout() {
+            return lineTcpWriterWorkerSleepTimeout;
+        }
+
         @Override
         public boolean isEnabled() {
             return true;
@@ -2271,6 +2356,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpMaintenanceInterval;
         }
 
+        @Override
+        public long getCommitLatencyTarget() {
+            return lineTcpCommitLatencyTarget;
+        }
+
         @Override
         public double getMaxLoadRatio() {
             return lineTcpMaxLoadRatio;
@@ -2326,6 +2416,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public int getWriterTableQueueLimit() {
+            return lineTcpWriterTableQueueLimit;
+        }
+
         @Override
         public WorkerPoolAwareConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
@@ -2343,6 +2438,11 @@ public class PropServerConfiguration implements ServerConfiguration {
     }
 
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
+        @Override
+        public int getArrowBatchRowCount() {
+            return httpArrowBatchRowCount;
+        }
+
         @Override
         public MillisecondClock getClock() {
             return httpFrozenClock ? StationaryMillisClock.INSTANCE : MillisecondClockImpl.INSTANCE;
@@ -2461,6 +2561,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherShardCount() {
+            return pgNetDispatcherShardCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "pg-server";
@@ -36,6 +36,7 @@ import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
+import io.questdb.mp.JobPriority;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.NetworkError;
 import io.questdb.std.*;
@@ -134,9 +135,20 @@ public class ServerMain {
         );
         final ObjList<Closeable> instancesToClean = new ObjList<>();
 
+        final Metrics metrics;
+        if (configuration.getMetricsConfiguration().isEnabled()) {
+            metrics = Metrics.enabled();
+        } else {
+            metrics = Metrics.disabled();
+        }
+        metrics.workerPool().of(workerPool);
+        if (metrics.isEnabled()) {
+            workerPool.setMetrics(metrics.workerPool());
+        }
+
         LogFactory.configureFromSystemProperties(workerPool);
-        final CairoEngine cairoEngine = new CairoEngine(configuration.getCairoConfiguration());
-        workerPool.assign(cairoEngine.getWriterMaintenanceJob());
+        final CairoEngine cairoEngine = new CairoEngine(configuration.getCairoConfiguration(), metrics);
+        workerPool.assign(cairoEngine.getWriterMaintenanceJob(), JobPriority.LOW);
         instancesToClean.add(cairoEngine);
 
         if (!configuration.getCairoConfiguration().getTelemetryConfiguration().getDisableCompletely()) {
@@ -144,26 +156,27 @@ public class ServerMain {
             instancesToClean.add(telemetryJob);
 
             if (configuration.getCairoConfiguration().getTelemetryConfiguration().getEnabled()) {
-                workerPool.assign(telemetryJob);
+                workerPool.assign(telemetryJob, JobPriority.LOW);
             }
         }
 
+        if (configuration.getCairoConfiguration().getSlowQueryLogThresholdUs() > 0) {
+            final SlowQueryLogJob slowQueryLogJob = new SlowQueryLogJob(cairoEngine, functionFactoryCache);
+            instancesToClean.add(slowQueryLogJob);
+            workerPool.assign(slowQueryLogJob, JobPriority.LOW);
+        }
+
         workerPool.assignCleaner(Path.CLEANER);
-        workerPool.assign(new O3CallbackJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new O3PartitionJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new O3OpenColumnJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new O3CopyJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new O3PurgeDiscoveryJob(cairoEngine.getMessageBus(), workerPool.getWorkerCount()));
-        workerPool.assign(new O3PurgeJob(cairoEngine.getMessageBus()));
+        workerPool.assignCleaner(FilesFacadeImpl.CLEANER);
+        // writers wait for O3 jobs to commit, these are part of ingestion
+        workerPool.assign(new O3CallbackJob(cairoEngine.getMessageBus()), JobPriority.HIGH);
+        workerPool.assign(new O3PartitionJob(cairoEngine.getMessageBus()), JobPriority.HIGH);
+        workerPool.assign(new O3OpenColumnJob(cairoEngine.getMessageBus()), JobPriority.HIGH);
+        workerPool.assign(new O3CopyJob(cairoEngine.getMessageBus()), JobPriority.HIGH);
+        workerPool.assign(new O3PurgeDiscoveryJob(cairoEngine.getMessageBus(), workerPool.getWorkerCount()), JobPriority.LOW);
+        workerPool.assign(new O3PurgeJob(cairoEngine.getMessageBus()), JobPriority.LOW);
         O3Utils.initBuf(workerPool.getWorkerCount() + 1);
 
-        Metrics metrics;
-        if (configuration.getMetricsConfiguration().isEnabled()) {
-            metrics = Metrics.enabled();
-        } else {
-            metrics = Metrics.disabled();
-        }
-
         try {
             initQuestDb(workerPool, cairoEngine, log);
 
@@ -203,6 +216,8 @@ public class ServerMain {
                     log,
                     cairoEngine
             ));
+            // metrics are freed after everything that updates them
+            instancesToClean.add(metrics);
 
             startQuestDb(workerPool, cairoEngine, log);
             if (configuration.getHttpServerConfiguration().isEnabled()) {
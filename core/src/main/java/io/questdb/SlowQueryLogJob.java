@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.QueueConsumer;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.Misc;
+import io.questdb.tasks.SlowQueryTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Writes queries published by {@link QueryRegistry} as slow to the slow query log table. Queries are
+ * logged off the connection threads, the job commits once per batch of queued queries.
+ */
+public class SlowQueryLogJob extends SynchronizedJob implements Closeable {
+    static final CharSequence TABLE_NAME = "slow_query_log";
+    private static final Log LOG = LogFactory.getLog(SlowQueryLogJob.class);
+    private static final String WRITER_LOCK_REASON = "slowQueryLogJob";
+    private final RingQueue<SlowQueryTask> queue;
+    private final SCSequence subSeq;
+    private final QueueConsumer<SlowQueryTask> myConsumer = this::newRowConsumer;
+    private TableWriter writer;
+
+    public SlowQueryLogJob(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) throws SqlException {
+        final QueryRegistry registry = engine.getQueryRegistry();
+        this.queue = registry.getSlowQueryQueue();
+        this.subSeq = registry.getSlowQuerySubSequence();
+        assert queue != null && subSeq != null;
+
+        try (final SqlCompiler compiler = new SqlCompiler(engine, functionFactoryCache)) {
+            final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+            sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+            compiler.compile(
+                    "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                            "started timestamp, " +
+                            "query_id long, " +
+                            "source symbol, " +
+                            "fd long, " +
+                            "elapsed_micros long, " +
+                            "rows long, " +
+                            "cancelled boolean, " +
+                            "query string" +
+                            ") timestamp(started) partition by DAY",
+                    sqlExecutionContext
+            );
+        }
+
+        try {
+            this.writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, TABLE_NAME, WRITER_LOCK_REASON);
+        } catch (CairoException ex) {
+            LOG.error()
+                    .$("could not open [table=`").utf8(TABLE_NAME)
+                    .$("`, ex=").$(ex.getFlyweightMessage())
+                    .$(", errno=").$(ex.getErrno())
+                    .$(']').$();
+            this.writer = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer != null) {
+            runSerially();
+            writer = Misc.free(writer);
+        }
+    }
+
+    @Override
+    public boolean runSerially() {
+        if (writer != null && subSeq.consumeAll(queue, myConsumer)) {
+            writer.commit();
+            return true;
+        }
+        return false;
+    }
+
+    private void newRowConsumer(SlowQueryTask task) {
+        try {
+            final TableWriter.Row row = writer.newRow(task.startMicros);
+            row.putLong(1, task.id);
+            row.putSym(2, task.source);
+            row.putLong(3, task.fd);
+            row.putLong(4, task.elapsedMicros);
+            row.putLong(5, task.rowCount);
+            row.putBool(6, task.cancelled);
+            row.putStr(7, task.query);
+            row.append();
+        } catch (CairoException e) {
+            LOG.error()
+                    .$("could not log slow query [id=").$(task.id)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .$(']').$();
+        }
+    }
+}
@@ -26,16 +26,29 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.std.Files;
 
 public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
     protected final FullTableDataFrame frame = new FullTableDataFrame();
+    // number of most recent partitions, which are not evicted from page cache once scanned, 0 disables eviction
+    private final int hotPartitionCount;
     protected TableReader reader;
     protected int partitionHi;
     protected int partitionIndex;
+    private int scannedPartitionIndex = -1;
+
+    public AbstractFullDataFrameCursor() {
+        this(0);
+    }
+
+    public AbstractFullDataFrameCursor(int hotPartitionCount) {
+        this.hotPartitionCount = hotPartitionCount;
+    }
 
     @Override
     public void close() {
         if (reader != null) {
+            releaseScannedPartition();
             reader.close();
             reader = null;
         }
@@ -66,11 +79,43 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
 
     public DataFrameCursor of(TableReader reader) {
         this.reader = reader;
+        this.scannedPartitionIndex = -1;
         this.partitionHi = reader.getPartitionCount();
         toTop();
         return this;
     }
 
+    protected DataFrame nextFrame(int partitionIndex, long rowHi, int advice) {
+        releaseScannedPartition();
+        reader.advisePartition(partitionIndex, advice);
+        scannedPartitionIndex = partitionIndex;
+        frame.partitionIndex = partitionIndex;
+        frame.rowHi = rowHi;
+        return frame;
+    }
+
+    // Kernel reads pages of the partition, which is scanned next, while the current one is scanned.
+    protected void readAhead(int partitionIndex) {
+        if (partitionIndex > -1 && partitionIndex < partitionHi && reader.openPartition(partitionIndex) > 0) {
+            reader.advisePartition(partitionIndex, Files.ADVICE_WILLNEED);
+        }
+    }
+
+    // Partitions outside of hot set are scanned once, typically by historical queries. Their pages are
+    // dropped from page cache as soon as cursor moves on, so that they do not evict live partitions.
+    // Hints of other partitions are reverted, column memory is shared by all users of pooled reader
+    // and scan pattern of this cursor must not outlive it.
+    private void releaseScannedPartition() {
+        if (scannedPartitionIndex > -1) {
+            if (hotPartitionCount > 0 && scannedPartitionIndex < partitionHi - hotPartitionCount) {
+                reader.advisePartition(scannedPartitionIndex, Files.ADVICE_DONTNEED);
+            } else {
+                reader.advisePartition(scannedPartitionIndex, Files.ADVICE_NORMAL);
+            }
+            scannedPartitionIndex = -1;
+        }
+    }
+
     protected class FullTableDataFrame implements DataFrame {
         final static private long rowLo = 0;
         protected long rowHi;
@@ -78,6 +123,8 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
 
         @Override
         public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            // rows are going to be fetched by index lookups rather than scanned
+            reader.advisePartition(partitionIndex, Files.ADVICE_RANDOM);
             return reader.getBitmapIndexReader(partitionIndex, columnIndex, direction);
         }
 
@@ -30,6 +30,7 @@ import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
+import io.questdb.std.Files;
 import io.questdb.std.LongList;
 
 public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor {
@@ -54,6 +55,8 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     private int initialIntervalsHi;
     private int initialPartitionLo;
     private int initialPartitionHi;
+    // partition, which was hinted for random access by index lookups, hint is reverted when cursor moves on
+    private int randomAccessPartitionIndex = -1;
 
     public AbstractIntervalDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
         assert timestampIndex > -1;
@@ -78,6 +81,7 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     @Override
     public void close() {
         if (reader != null) {
+            restoreAccessAdvice();
             reader.close();
             reader = null;
         }
@@ -104,6 +108,7 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
 
     public void of(TableReader reader, SqlExecutionContext sqlContext) throws SqlException {
         this.reader = reader;
+        this.randomAccessPartitionIndex = -1;
         this.intervals = this.intervalsModel.calculateIntervals(sqlContext);
         calculateRanges(intervals);
     }
@@ -274,6 +279,14 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         this.initialPartitionHi = Math.min(reader.getPartitionCount(), reader.getPartitionIndexByTimestamp(intervalHi) + 1);
     }
 
+    // column memory is shared by all users of pooled reader, hint must not outlive this cursor
+    private void restoreAccessAdvice() {
+        if (randomAccessPartitionIndex > -1) {
+            reader.advisePartition(randomAccessPartitionIndex, Files.ADVICE_NORMAL);
+            randomAccessPartitionIndex = -1;
+        }
+    }
+
     protected class IntervalDataFrame implements DataFrame {
 
         protected long rowLo = 0;
@@ -282,6 +295,12 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
 
         @Override
         public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            // rows are going to be fetched by index lookups rather than scanned
+            if (randomAccessPartitionIndex != partitionIndex) {
+                restoreAccessAdvice();
+                reader.advisePartition(partitionIndex, Files.ADVICE_RANDOM);
+                randomAccessPartitionIndex = partitionIndex;
+            }
             return reader.getBitmapIndexReader(partitionIndex, columnIndex, direction);
         }
 
@@ -162,6 +162,21 @@ public interface CairoConfiguration {
 
     int getParallelIndexThreshold();
 
+    /**
+     * Maximum size of a single query result in the query result cache. Larger results
+     * are not cached.
+     *
+     * @return size in bytes
+     */
+    long getQueryResultCacheMaxEntrySize();
+
+    /**
+     * Total size of query results cached by the engine. Zero disables the cache.
+     *
+     * @return size in bytes
+     */
+    long getQueryResultCacheSize();
+
     default Rnd getRandom() {
         Rnd rnd = RANDOM.get();
         if (rnd == null) {
@@ -183,6 +198,21 @@ public interface CairoConfiguration {
 
     long getMiscAppendPageSize();
 
+    /**
+     * Capacity of the queue of slow queries waiting to be written to the slow query log table.
+     * Slow queries are dropped from the log when the queue is full.
+     *
+     * @return queue capacity, power of two
+     */
+    int getSlowQueryLogQueueCapacity();
+
+    /**
+     * Queries running longer than this are written to the slow query log table. Zero disables the log.
+     *
+     * @return threshold in microseconds
+     */
+    long getSlowQueryLogThresholdUs();
+
     long getSpinLockTimeoutUs();
 
     int getSqlAnalyticRowIdMaxPages();
@@ -207,6 +237,11 @@ public interface CairoConfiguration {
 
     int getSqlCopyBufferSize();
 
+    // size of input slice tokenized by a single worker during COPY, 0 disables parallel COPY
+    long getSqlCopyParallelChunkSize();
+
+    int getSqlCopyQueueCapacity();
+
     int getSqlDistinctTimestampKeyCapacity();
 
     double getSqlDistinctTimestampLoadFactor();
@@ -248,6 +283,9 @@ public interface CairoConfiguration {
 
     int getSqlModelPoolCapacity();
 
+    // number of most recent partitions kept in page cache after a full scan, older partitions are released, 0 disables release
+    int getSqlScanHotPartitionCount();
+
     int getSqlSortKeyMaxPages();
 
     long getSqlSortKeyPageSize();
@@ -277,4 +315,7 @@ public interface CairoConfiguration {
     boolean isO3QuickSortEnabled();
 
     boolean isParallelIndexingEnabled();
+
+    // when true, symbol map capacity doubles on commit once symbol count exceeds it
+    boolean isSymbolCapacityAutoGrowEnabled();
 }
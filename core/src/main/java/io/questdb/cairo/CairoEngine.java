@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.MessageBus;
 import io.questdb.MessageBusImpl;
+import io.questdb.Metrics;
 import io.questdb.cairo.mig.EngineMigration;
 import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.pool.ReaderPool;
@@ -33,6 +34,8 @@ import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.engine.cache.QueryResultCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
@@ -58,16 +61,27 @@ public class CairoEngine implements Closeable, WriterSource {
     private final SCSequence telemetrySubSeq;
     private final RingQueue<TableWriterTask> tableWriterCmdQueue;
     private final MCSequence tableWriterCmdSubSeq;
+    private final QueryResultCache queryResultCache;
+    private final QueryRegistry queryRegistry;
+    private final Metrics metrics;
     private final long tableIdMemSize;
     private long tableIdFd = -1;
     private long tableIdMem = 0;
 
     public CairoEngine(CairoConfiguration configuration) {
+        this(configuration, Metrics.disabled());
+    }
+
+    public CairoEngine(CairoConfiguration configuration, Metrics metrics) {
         this.configuration = configuration;
+        this.metrics = metrics;
         this.messageBus = new MessageBusImpl(configuration);
-        this.writerPool = new WriterPool(configuration, messageBus);
+        this.writerPool = new WriterPool(configuration, messageBus, metrics.tableWriter());
         this.readerPool = new ReaderPool(configuration);
+        metrics.pools().of(writerPool, readerPool);
         this.writerMaintenanceJob = new WriterMaintenanceJob(configuration);
+        this.queryResultCache = new QueryResultCache(configuration);
+        this.queryRegistry = new QueryRegistry(configuration);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -93,6 +107,7 @@ public class CairoEngine implements Closeable, WriterSource {
     }
 
     public boolean clear() {
+        queryResultCache.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         return b1 & b2;
@@ -102,6 +117,7 @@ public class CairoEngine implements Closeable, WriterSource {
     public void close() {
         Misc.free(writerPool);
         Misc.free(readerPool);
+        Misc.free(queryResultCache);
         freeTableId();
         Misc.free(messageBus);
     }
@@ -187,6 +203,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return messageBus;
     }
 
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     public long getNextTableId() {
         long next;
         long x = Unsafe.getUnsafe().getLong(tableIdMem);
@@ -206,6 +226,14 @@ public class CairoEngine implements Closeable, WriterSource {
         this.readerPool.setPoolListener(poolListener);
     }
 
+    public QueryRegistry getQueryRegistry() {
+        return queryRegistry;
+    }
+
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public TableReader getReader(
             CairoSecurityContext securityContext,
             CharSequence tableName
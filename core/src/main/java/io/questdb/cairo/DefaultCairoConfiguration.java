@@ -93,6 +93,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 * 1024;
     }
 
+    @Override
+    public long getSqlCopyParallelChunkSize() {
+        return 16 * 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlCopyQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public int getCopyPoolCapacity() {
         return 16;
@@ -183,6 +193,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100000;
     }
 
+    @Override
+    public long getQueryResultCacheMaxEntrySize() {
+        return 16 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public long getQueryResultCacheSize() {
+        return 0;
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return 5;
@@ -228,6 +248,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 509;
     }
 
+    @Override
+    public int getSlowQueryLogQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public long getSlowQueryLogThresholdUs() {
+        return 0;
+    }
+
     @Override
     public long getSpinLockTimeoutUs() {
         return 5000000;
@@ -310,6 +340,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getSqlScanHotPartitionCount() {
+        return 0;
+    }
+
     @Override
     public long getSqlSortKeyPageSize() {
         return 4 * Numbers.SIZE_1MB;
@@ -405,6 +440,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 10000;
     }
 
+    @Override
+    public boolean isSymbolCapacityAutoGrowEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isParallelIndexingEnabled() {
         return true;
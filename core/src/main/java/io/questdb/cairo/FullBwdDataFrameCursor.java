@@ -25,9 +25,17 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrame;
+import io.questdb.std.Files;
 
 public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
 
+    public FullBwdDataFrameCursor() {
+    }
+
+    public FullBwdDataFrameCursor(int hotPartitionCount) {
+        super(hotPartitionCount);
+    }
+
     @Override
     public DataFrame next() {
         while (this.partitionIndex > -1) {
@@ -36,11 +44,11 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
                 // this partition is missing, skip
                 partitionIndex--;
             } else {
-                frame.partitionIndex = partitionIndex;
-                frame.rowHi = hi;
-                partitionIndex--;
+                // rows of the partition are still read in pages, kernel read-ahead is kept and
+                // preceding partition is read ahead explicitly
+                final DataFrame frame = nextFrame(partitionIndex--, hi, Files.ADVICE_NORMAL);
+                readAhead(partitionIndex);
                 return frame;
-
             }
         }
         return null;
@@ -28,10 +28,11 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.griffin.SqlExecutionContext;
 
 public class FullBwdDataFrameCursorFactory extends AbstractDataFrameCursorFactory {
-    private final FullBwdDataFrameCursor cursor = new FullBwdDataFrameCursor();
+    private final FullBwdDataFrameCursor cursor;
 
     public FullBwdDataFrameCursorFactory(CairoEngine engine, String tableName, int tableId, long tableVersion) {
         super(engine, tableName, tableId, tableVersion);
+        this.cursor = new FullBwdDataFrameCursor(engine.getConfiguration().getSqlScanHotPartitionCount());
     }
 
     @Override
@@ -25,10 +25,18 @@
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrame;
+import io.questdb.std.Files;
 import org.jetbrains.annotations.Nullable;
 
 public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
 
+    public FullFwdDataFrameCursor() {
+    }
+
+    public FullFwdDataFrameCursor(int hotPartitionCount) {
+        super(hotPartitionCount);
+    }
+
     @Override
     public @Nullable DataFrame next() {
         while (this.partitionIndex < partitionHi) {
@@ -37,11 +45,9 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
                 // this partition is missing, skip
                 partitionIndex++;
             } else {
-                frame.partitionIndex = partitionIndex;
-                frame.rowHi = hi;
-                partitionIndex++;
+                final DataFrame frame = nextFrame(partitionIndex++, hi, Files.ADVICE_SEQUENTIAL);
+                readAhead(partitionIndex);
                 return frame;
-
             }
         }
         return null;
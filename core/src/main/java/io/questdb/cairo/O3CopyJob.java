@@ -154,8 +154,13 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 break;
             case O3_BLOCK_DATA:
                 copyData(
+                        tableWriter.getFilesFacade(),
                         columnType,
+                        srcDataFixFd,
+                        srcDataFixOffset,
                         srcDataFixAddr + srcDataFixOffset,
+                        srcDataVarFd,
+                        srcDataVarOffset,
                         srcDataVarAddr + srcDataVarOffset,
                         srcDataLo,
                         srcDataHi,
@@ -753,9 +758,16 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         tableWriter.getO3PartitionUpdatePubSeq().done(cursor);
     }
 
+    // source columns are mapped from the start of the file, bytes are copied from the file
+    // rather than the mapping when asynchronous I/O is available
     private static void copyData(
+            FilesFacade ff,
             int columnType,
+            long srcFixFd,
+            long srcFixOffset,
             long srcFixAddr,
+            long srcVarFd,
+            long srcVarOffset,
             long srcVarAddr,
             long srcLo,
             long srcHi,
@@ -767,25 +779,15 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.STRING:
             case ColumnType.BINARY:
-                copyVarSizeCol(
-                        srcFixAddr,
-                        srcVarAddr,
-                        srcLo,
-                        srcHi,
-                        dstFixAddr,
-                        dstVarAddr,
-                        dstVarOffset,
-                        dstVarAdjust
-                );
+                final long lo = O3Utils.findVarOffset(srcFixAddr, srcLo);
+                final long hi = O3Utils.findVarOffset(srcFixAddr, srcHi + 1);
+                O3Utils.copyFromFile(ff, srcVarFd, srcVarOffset + lo, srcVarAddr + lo, dstVarAddr + dstVarOffset, hi - lo);
+                copyVarSizeColOffsets(srcFixAddr, srcLo, srcHi, lo, dstFixAddr, dstVarOffset, dstVarAdjust);
                 break;
             default:
-                copyFixedSizeCol(
-                        srcFixAddr,
-                        srcLo,
-                        srcHi,
-                        dstFixAddr,
-                        ColumnType.pow2SizeOf(Math.abs(columnType))
-                );
+                final int shl = ColumnType.pow2SizeOf(Math.abs(columnType));
+                final long offset = srcLo << shl;
+                O3Utils.copyFromFile(ff, srcFixFd, srcFixOffset + offset, srcFixAddr + offset, dstFixAddr, (srcHi - srcLo + 1) << shl);
                 break;
         }
     }
@@ -878,11 +880,23 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         final long dest = dstVarAddr + dstVarOffset;
         final long len = hi - lo;
         Vect.memcpy(dest, srcVarAddr + lo, len);
+        copyVarSizeColOffsets(srcFixAddr, srcLo, srcHi, lo, dstFixAddr, dstVarOffset, dstVarAdjust);
+    }
+
+    private static void copyVarSizeColOffsets(
+            long srcFixAddr,
+            long srcLo,
+            long srcHi,
+            long srcVarLo,
+            long dstFixAddr,
+            long dstVarOffset,
+            long dstVarAdjust
+    ) {
         final long offset = dstVarOffset + dstVarAdjust;
-        if (lo == offset) {
+        if (srcVarLo == offset) {
             copyFixedSizeCol(srcFixAddr, srcLo, srcHi + 1, dstFixAddr, 3);
         } else {
-            O3Utils.shiftCopyFixedSizeColumnData(lo - offset, srcFixAddr, srcLo, srcHi + 1, dstFixAddr);
+            O3Utils.shiftCopyFixedSizeColumnData(srcVarLo - offset, srcFixAddr, srcLo, srcHi + 1, dstFixAddr);
         }
     }
 
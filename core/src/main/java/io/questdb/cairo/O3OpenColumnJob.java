@@ -1770,7 +1770,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                     srcDataFixSize = srcDataActualBytes + srcDataMaxBytes;
                     srcDataFixAddr = mapRW(ff, srcFixFd, srcDataFixSize, MemoryTag.MMAP_O3);
                     setNull(columnType, srcDataFixAddr + srcDataActualBytes, srcDataTop);
-                    Vect.memcpy(srcDataFixAddr + srcDataMaxBytes, srcDataFixAddr, srcDataActualBytes);
+                    O3Utils.copyFromFile(ff, srcFixFd, 0, srcDataFixAddr, srcDataFixAddr + srcDataMaxBytes, srcDataActualBytes);
                     srcDataTop = 0;
                     srcDataFixOffset = srcDataActualBytes;
                 } else {
@@ -2007,7 +2007,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         // null strings we just added
                         Vect.setVarColumnRefs32Bit(srcDataFixAddr + srcDataActualBytes, 0, srcDataTop);
 
-                        Vect.memcpy(srcDataVarAddr + srcDataVarOffset + srcDataTop * Integer.BYTES, srcDataVarAddr, srcDataVarOffset);
+                        O3Utils.copyFromFile(ff, srcVarFd, 0, srcDataVarAddr, srcDataVarAddr + srcDataVarOffset + srcDataTop * Integer.BYTES, srcDataVarOffset);
                     } else {
                         srcDataVarOffset = srcDataVarSize;
                         srcDataVarSize += srcDataTop * Long.BYTES + srcDataVarSize;
@@ -2022,7 +2022,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         // null strings we just added
                         Vect.setVarColumnRefs64Bit(srcDataFixAddr + srcDataActualBytes, 0, srcDataTop);
 
-                        Vect.memcpy(srcDataVarAddr + srcDataVarOffset + srcDataTop * Long.BYTES, srcDataVarAddr, srcDataVarOffset);
+                        O3Utils.copyFromFile(ff, srcVarFd, 0, srcDataVarAddr, srcDataVarAddr + srcDataVarOffset + srcDataTop * Long.BYTES, srcDataVarOffset);
                     }
                     srcDataTop = 0;
                     srcDataFixOffset = srcDataActualBytes;
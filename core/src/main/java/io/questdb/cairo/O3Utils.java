@@ -34,6 +34,8 @@ import io.questdb.std.Vect;
 public class O3Utils {
 
     private static final Log LOG = LogFactory.getLog(O3Utils.class);
+    // smaller copies are not worth a system call
+    private static final long ASYNC_COPY_MIN_SIZE = 1024 * 1024;
     private static long[] temp8ByteBuf;
 
     public static void freeBuf() {
@@ -56,6 +58,23 @@ public class O3Utils {
         }
     }
 
+    /**
+     * Copies bytes of the mapped file to memory. Large copies are read from the file via
+     * asynchronous I/O, when it is available, rather than by faulting in pages of the source
+     * mapping one by one.
+     *
+     * @param fd     file descriptor of the source file, negative values are shared descriptors
+     * @param offset offset of the source bytes in the file
+     * @param src    address of the source bytes in the file mapping
+     * @param dst    address to copy bytes to
+     * @param len    number of bytes to copy
+     */
+    static void copyFromFile(FilesFacade ff, long fd, long offset, long src, long dst, long len) {
+        if (len < ASYNC_COPY_MIN_SIZE || fd == 0 || !ff.readAsync(Math.abs(fd), dst, len, offset)) {
+            Vect.memcpy(dst, src, len);
+        }
+    }
+
     static long get8ByteBuf(int worker) {
         return temp8ByteBuf[worker];
     }
@@ -34,6 +34,7 @@ import io.questdb.std.*;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
 
 public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private static final Log LOG = LogFactory.getLog(SymbolMapReaderImpl.class);
@@ -47,6 +48,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private long maxOffset;
     private int symbolCapacity;
     private boolean nullValue;
+    private int indexVersion;
+    private CairoConfiguration configuration;
+    private String rootPath;
+    private String columnName;
 
     public SymbolMapReaderImpl() {
     }
@@ -82,6 +87,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
 
     @Override
     public void updateSymbolCount(int symbolCount) {
+        if (offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION) != indexVersion) {
+            // writer has grown symbol capacity, hash index has been replaced
+            openIndex(Path.getThreadLocal(rootPath), columnName);
+        }
         if (symbolCount > this.symbolCount) {
             this.symbolCount = symbolCount;
             this.maxOffset = SymbolMapWriter.keyToOffset(symbolCount);
@@ -109,6 +118,7 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
 
     public void of(CairoConfiguration configuration, Path path, CharSequence columnName, int symbolCount) {
         FilesFacade ff = configuration.getFilesFacade();
+        this.configuration = configuration;
         this.symbolCount = symbolCount;
         this.maxOffset = SymbolMapWriter.keyToOffset(symbolCount);
         final int plen = path.length();
@@ -133,12 +143,13 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             final long offsetMemSize = SymbolMapWriter.keyToOffset(symbolCount) + Long.SIZE;
             LOG.debug().$("offsetMem.of [columnName=").$(path).$(",offsetMemSize=").$(offsetMemSize).I$();
             this.offsetMem.of(ff, path, offsetMemSize, offsetMemSize, MemoryTag.MMAP_INDEX_READER);
-            symbolCapacity = offsetMem.getInt(SymbolMapWriter.HEADER_CAPACITY);
             this.cached = offsetMem.getBool(SymbolMapWriter.HEADER_CACHE_ENABLED);
             this.nullValue = offsetMem.getBool(SymbolMapWriter.HEADER_NULL_FLAG);
 
-            // index writer is used to identify attempts to store duplicate symbol value
-            this.indexReader.of(configuration, path.trimTo(plen), columnName, 0, -1);
+            // index is used to look up keys of symbol values
+            this.rootPath = Chars.toString(path.trimTo(plen));
+            this.columnName = Chars.toString(columnName);
+            openIndex(path.trimTo(plen), columnName);
 
             // this is the place where symbol values are stored
             this.charMem.wholeFile(ff, SymbolMapWriter.charFileName(path.trimTo(plen), columnName), MemoryTag.MMAP_INDEX_READER);
@@ -146,10 +157,6 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // move append pointer for symbol values in the correct place
             this.charMem.extend(this.offsetMem.getLong(maxOffset));
 
-            // we use index hash maximum equals to half of symbol capacity, which
-            // theoretically should require 2 value cells in index per hash
-            // we use 4 cells to compensate for occasionally unlucky hash distribution
-            this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
             if (cached) {
                 this.cache.setPos(symbolCapacity);
             }
@@ -211,6 +218,33 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return null;
     }
 
+    private void openIndex(Path path, CharSequence columnName) {
+        // capacity in header is consistent with index files only while version is even and unchanged
+        final int plen = path.length();
+        final long deadline = configuration.getMicrosecondClock().getTicks() + configuration.getSpinLockTimeoutUs();
+        while (true) {
+            final int version = offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION);
+            if ((version & 1) == 0) {
+                Unsafe.getUnsafe().loadFence();
+                final int capacity = offsetMem.getInt(SymbolMapWriter.HEADER_CAPACITY);
+                this.indexReader.of(configuration, path.trimTo(plen), columnName, 0, -1);
+                Unsafe.getUnsafe().loadFence();
+                if (offsetMem.getInt(SymbolMapWriter.HEADER_INDEX_VERSION) == version) {
+                    this.indexVersion = version;
+                    this.symbolCapacity = capacity;
+                    this.maxHash = SymbolMapWriter.maxHash(capacity);
+                    return;
+                }
+            }
+
+            if (configuration.getMicrosecondClock().getTicks() > deadline) {
+                LOG.error().$("symbol index is being rebuilt [path=").$(path.trimTo(plen).concat(columnName).$()).$(", version=").$(version).I$();
+                throw CairoException.instance(0).put("symbol index is being rebuilt [path=").put(path.trimTo(plen).concat(columnName)).put(']');
+            }
+            LockSupport.parkNanos(1);
+        }
+    }
+
     private CharSequence cachedValue(int key) {
         String symbol = cache.getQuiet(key);
         return symbol != null ? symbol : fetchAndCache(key);
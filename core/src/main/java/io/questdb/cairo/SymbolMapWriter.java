@@ -44,14 +44,20 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
     public static final int HEADER_CAPACITY = 0;
     public static final int HEADER_CACHE_ENABLED = 4;
     public static final int HEADER_NULL_FLAG = 8;
+    // even value means index files match capacity in header, odd value means index is being rebuilt
+    public static final int HEADER_INDEX_VERSION = 12;
     private static final Log LOG = LogFactory.getLog(SymbolMapWriter.class);
-    private final BitmapIndexWriter indexWriter;
+    private static final int MAX_AUTO_CAPACITY = 1 << 30;
+    private final CairoConfiguration configuration;
+    private final BitmapIndexWriter indexWriter = new BitmapIndexWriter();
     private final MemoryMARW charMem;
     private final MemoryMARW offsetMem;
     private final CharSequenceIntHashMap cache;
     private final DirectCharSequence tmpSymbol;
-    private final int maxHash;
     private final SymbolValueCountCollector valueCountCollector;
+    private boolean capacityAutoGrow;
+    private int symbolCapacity;
+    private int maxHash;
     private boolean nullValue = false;
     private int symbolIndexInTxWriter;
 
@@ -64,6 +70,8 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
             @NotNull SymbolValueCountCollector valueCountCollector
     ) {
         final int plen = path.length();
+        this.configuration = configuration;
+        this.capacityAutoGrow = configuration.isSymbolCapacityAutoGrowEnabled();
         try {
             final FilesFacade ff = configuration.getFilesFacade();
             final long mapPageSize = configuration.getMiscAppendPageSize();
@@ -86,30 +94,28 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
             // open "offset" memory and make sure we start appending from where
             // we left off. Where we left off is stored externally to symbol map
             this.offsetMem = Vm.getWholeMARWInstance(ff, path, mapPageSize, MemoryTag.MMAP_INDEX_WRITER);
-            final int symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
+            this.symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
             final boolean useCache = offsetMem.getBool(HEADER_CACHE_ENABLED);
             this.offsetMem.jumpTo(keyToOffset(symbolCount) + Long.BYTES);
 
-            // index writer is used to identify attempts to store duplicate symbol value
-            // symbol table index stores int keys and long values, e.g. value = key * 2 storage size
-            this.indexWriter = new BitmapIndexWriter(
-                    configuration,
-                    path.trimTo(plen),
-                    name,
-                    configuration.getDataIndexKeyAppendPageSize(),
-                    configuration.getDataIndexKeyAppendPageSize() * 2
-            );
-
             // this is the place where symbol values are stored
             this.charMem = Vm.getWholeMARWInstance(ff, charFileName(path.trimTo(plen), name), mapPageSize, MemoryTag.MMAP_INDEX_WRITER);
 
+            if ((offsetMem.getInt(HEADER_INDEX_VERSION) & 1) == 1) {
+                // previous writer did not finish rebuilding index, files on disk
+                // may belong to either capacity, rebuild them from scratch
+                LOG.info().$("recovering symbol index [name=").$(path.trimTo(plen).concat(name).$()).I$();
+                rebuildIndex(path.trimTo(plen), name, symbolCount, symbolCapacity, true);
+            } else {
+                // index writer is used to identify attempts to store duplicate symbol value
+                // symbol table index stores int keys and long values, e.g. value = key * 2 storage size
+                openIndexWriter(path.trimTo(plen), name);
+            }
+
             // move append pointer for symbol values in the correct place
             jumpCharMemToSymbolCount(symbolCount);
 
-            // we use index hash maximum equals to half of symbol capacity, which
-            // theoretically should require 2 value cells in index per hash
-            // we use 4 cells to compensate for occasionally unlucky hash distribution
-            this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
+            this.maxHash = maxHash(symbolCapacity);
 
             if (useCache) {
                 this.cache = new CharSequenceIntHashMap(symbolCapacity);
@@ -172,6 +178,14 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         return path.concat(columnName).put(".o").$();
     }
 
+    private static Path rebuildKeyFileName(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(".k.r").$();
+    }
+
+    private static Path rebuildValueFileName(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(".v.r").$();
+    }
+
     public void appendSymbolCharsBlock(long blockSize, long sourceAddress) {
         long appendOffset = charMem.getAppendOffset();
         try {
@@ -225,6 +239,45 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         return offsetToKey(offsetMem.getAppendOffset() - Long.BYTES);
     }
 
+    /**
+     * Doubles symbol capacity until it accommodates all symbols and rebuilds hash index to
+     * match. Keys of existing symbols do not change, only index files are replaced. This method
+     * must be called before transaction is committed, so that readers pick up new index together
+     * with new symbol count.
+     *
+     * @param path       table path
+     * @param columnName symbol column name
+     * @return true when capacity has been increased
+     */
+    public boolean growCapacity(Path path, CharSequence columnName) {
+        final int symbolCount = getSymbolCount();
+        if (!capacityAutoGrow || symbolCount <= symbolCapacity) {
+            return false;
+        }
+
+        int newCapacity = symbolCapacity;
+        while (newCapacity < symbolCount && newCapacity < MAX_AUTO_CAPACITY) {
+            newCapacity = Math.max(newCapacity << 1, 2);
+        }
+        if (newCapacity == symbolCapacity) {
+            return false;
+        }
+
+        final int plen = path.length();
+        try {
+            LOG.info()
+                    .$("growing symbol capacity [name=").$(path.concat(columnName).$())
+                    .$(", symbolCount=").$(symbolCount)
+                    .$(", capacity=").$(symbolCapacity)
+                    .$(", newCapacity=").$(newCapacity)
+                    .I$();
+            rebuildIndex(path.trimTo(plen), columnName, symbolCount, newCapacity, false);
+            return symbolCapacity == newCapacity;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     public int put(char c) {
         return put(SingleCharCharSequence.get(c));
     }
@@ -268,6 +321,13 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         offsetMem.putBool(HEADER_NULL_FLAG, flag);
     }
 
+    static int maxHash(int symbolCapacity) {
+        // we use index hash maximum equals to half of symbol capacity, which
+        // theoretically should require 2 value cells in index per hash
+        // we use 4 cells to compensate for occasionally unlucky hash distribution
+        return Numbers.ceilPow2(symbolCapacity / 2) - 1;
+    }
+
     static int offsetToKey(long offset) {
         return (int) ((offset - HEADER_SIZE) / 8L);
     }
@@ -300,6 +360,106 @@ public class SymbolMapWriter implements Closeable, SymbolCountProvider {
         return put0(symbol, hash);
     }
 
+    private void openIndexWriter(Path path, CharSequence columnName) {
+        indexWriter.of(
+                configuration,
+                path,
+                columnName,
+                configuration.getDataIndexKeyAppendPageSize(),
+                configuration.getDataIndexKeyAppendPageSize() * 2
+        );
+    }
+
+    private void rebuildIndex(Path path, CharSequence columnName, int symbolCount, int newCapacity, boolean recovery) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int plen = path.length();
+        final int newMaxHash = maxHash(newCapacity);
+        final int version = offsetMem.getInt(HEADER_INDEX_VERSION);
+        final int oddVersion = version | 1;
+        try {
+            // build new index next to the live one, live files are still in use by readers
+            try {
+                buildIndex(path.trimTo(plen), columnName, symbolCount, newMaxHash);
+            } catch (CairoException e) {
+                if (recovery) {
+                    // live index is not usable, there is nothing to carry on with
+                    throw e;
+                }
+                // live index has not been touched yet and writer can carry on with existing capacity
+                LOG.error().$("could not rebuild symbol index, capacity will not grow [path=").$(path.trimTo(plen).concat(columnName).$())
+                        .$(", errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+                capacityAutoGrow = false;
+                ff.remove(rebuildKeyFileName(path.trimTo(plen), columnName));
+                ff.remove(rebuildValueFileName(path.trimTo(plen), columnName));
+                return;
+            }
+
+            // readers do not trust index while version is odd
+            offsetMem.putInt(HEADER_INDEX_VERSION, oddVersion);
+            Unsafe.getUnsafe().storeFence();
+
+            // live index files have to be closed before they can be replaced on all OSes,
+            // from here on this writer is unusable until index writer is reopened
+            indexWriter.close();
+            try (Path other = new Path().of(path.trimTo(plen))) {
+                final int olen = other.length();
+                if (!ff.rename(rebuildKeyFileName(path.trimTo(plen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(olen), columnName))) {
+                    if (recovery) {
+                        throw CairoException.instance(ff.errno()).put("could not replace symbol index [path=").put(path.trimTo(plen).concat(columnName)).put(']');
+                    }
+                    // live index is intact, this happens on OS that do not allow renaming over open files,
+                    // carry on with existing capacity rather than retrying on every commit
+                    LOG.error().$("could not replace symbol index, capacity will not grow [path=").$(path.trimTo(plen).concat(columnName).$())
+                            .$(", errno=").$(ff.errno())
+                            .I$();
+                    capacityAutoGrow = false;
+                    ff.remove(rebuildKeyFileName(path.trimTo(plen), columnName));
+                    ff.remove(rebuildValueFileName(path.trimTo(plen), columnName));
+                    newCapacity = symbolCapacity;
+                } else if (!ff.rename(rebuildValueFileName(path.trimTo(plen), columnName), BitmapIndexUtils.valueFileName(other.trimTo(olen), columnName))) {
+                    // Key file has been replaced and value file is stale, neither of the indexes can be opened.
+                    // Version stays odd for the next writer to finish the rebuild. Table writer has to be
+                    // discarded, it goes into distressed state.
+                    throw CairoException.instance(ff.errno()).put("could not replace symbol index [path=").put(path.trimTo(plen).concat(columnName)).put(']');
+                }
+            }
+
+            offsetMem.putInt(HEADER_CAPACITY, newCapacity);
+            this.symbolCapacity = newCapacity;
+            this.maxHash = maxHash(newCapacity);
+            Unsafe.getUnsafe().storeFence();
+            offsetMem.putInt(HEADER_INDEX_VERSION, oddVersion + 1);
+            openIndexWriter(path.trimTo(plen), columnName);
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void buildIndex(Path path, CharSequence columnName, int symbolCount, int maxHash) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int plen = path.length();
+        final long keyFd = TableUtils.openRW(ff, rebuildKeyFileName(path, columnName), LOG);
+        final long valueFd;
+        try {
+            valueFd = TableUtils.openRW(ff, rebuildValueFileName(path.trimTo(plen), columnName), LOG);
+        } catch (Throwable e) {
+            ff.close(keyFd);
+            throw e;
+        } finally {
+            path.trimTo(plen);
+        }
+        try (BitmapIndexWriter rebuildWriter = new BitmapIndexWriter()) {
+            rebuildWriter.of(configuration, keyFd, valueFd, true);
+            for (int i = 0; i < symbolCount; i++) {
+                final long offsetOffset = keyToOffset(i);
+                final CharSequence symbol = charMem.getStr(offsetMem.getLong(offsetOffset));
+                rebuildWriter.add(Hash.boundedHash(symbol, maxHash), offsetOffset);
+            }
+        }
+    }
+
     private int lookupPutAndCache(int index, CharSequence symbol) {
         int result;
         result = lookupAndPut(symbol);
@@ -132,6 +132,27 @@ public class TableReader implements Closeable, SymbolTableSource {
         return 2 + base + index * 2;
     }
 
+    /**
+     * Hints kernel how column files of open partition are about to be accessed.
+     *
+     * @param partitionIndex index of partition, partition must be open
+     * @param advice         one of Files.ADVICE_* constants
+     */
+    public void advisePartition(int partitionIndex, int advice) {
+        final int columnBase = getColumnBase(partitionIndex);
+        for (int i = 0; i < columnCount; i++) {
+            final int index = getPrimaryColumnIndex(columnBase, i);
+            final MemoryMR primary = columns.getQuick(index);
+            if (primary != null) {
+                primary.advise(advice);
+            }
+            final MemoryMR secondary = columns.getQuick(index + 1);
+            if (secondary != null) {
+                secondary.advise(advice);
+            }
+        }
+    }
+
     public double avgDouble(int columnIndex) {
         double result = 0;
         long countTotal = 0;
@@ -759,7 +780,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         return txFile.getTransientRowCount();
     }
 
-    long getTxn() {
+    public long getTxn() {
         return txn;
     }
 
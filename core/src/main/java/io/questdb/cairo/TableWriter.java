@@ -40,6 +40,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.NativeLPSZ;
@@ -110,6 +111,8 @@ public class TableWriter implements Closeable {
     // To indicate ownership, the message bus owned by the writer will be assigned to `ownMessageBus`. This reference
     // will be released by the writer
     private final MessageBus messageBus;
+    private final TableWriterMetrics metrics;
+    private final MicrosecondClock microClock;
     private final MessageBus ownMessageBus;
     private final boolean parallelIndexerEnabled;
     private final Timestamps.TimestampFloorMethod timestampFloorMethod;
@@ -209,9 +212,24 @@ public class TableWriter implements Closeable {
             boolean lock,
             LifecycleManager lifecycleManager,
             CharSequence root
+    ) {
+        this(configuration, tableName, messageBus, ownMessageBus, lock, lifecycleManager, root, TableWriterMetrics.DISABLED);
+    }
+
+    public TableWriter(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            MessageBus messageBus,
+            MessageBus ownMessageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            TableWriterMetrics metrics
     ) {
         LOG.info().$("open '").utf8(tableName).$('\'').$();
         this.configuration = configuration;
+        this.metrics = metrics;
+        this.microClock = configuration.getMicrosecondClock();
         this.ownMessageBus = ownMessageBus;
         if (ownMessageBus != null) {
             this.messageBus = ownMessageBus;
@@ -1313,6 +1331,7 @@ public class TableWriter implements Closeable {
         if (o3InError || inTransaction()) {
             try {
                 LOG.info().$("tx rollback [name=").$(tableName).$(']').$();
+                metrics.addRollback();
                 if ((masterRef & 1) != 0) {
                     masterRef++;
                 }
@@ -1833,8 +1852,11 @@ public class TableWriter implements Closeable {
         }
 
         if (inTransaction()) {
+            final long start = microClock.getTicks();
 
             if (hasO3() && o3Commit(commitLag)) {
+                // all rows are within commit lag, nothing is committed but O3 rows were sorted and moved
+                metrics.addCommit(microClock.getTicks() - start);
                 return;
             }
 
@@ -1843,13 +1865,39 @@ public class TableWriter implements Closeable {
             }
 
             updateIndexes();
+            growSymbolMapCapacities();
             txWriter.commit(commitMode, this.denseSymbolMapWriters);
             o3ProcessPartitionRemoveCandidates();
+            metrics.addCommit(microClock.getTicks() - start);
         }
 
         tick();
     }
 
+    // Symbol index rebuild stays on commit path. Readers switch to the new index when they observe
+    // symbol count of the transaction that grew it, so it has to be in place before txn is committed.
+    // Doing it asynchronously would require a second writer of symbol map files while this writer keeps
+    // adding symbols to them. Cost is bounded: rebuild is linear in symbol count and capacity doubles,
+    // so it happens at most log2(symbolCount) times per column over table lifetime. New capacity is
+    // persisted in symbol map header, which is where capacity is kept from table creation onwards.
+    private void growSymbolMapCapacities() {
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final SymbolMapWriter symbolMapWriter = symbolMapWriters.getQuick(i);
+                if (symbolMapWriter != null) {
+                    symbolMapWriter.growCapacity(path.trimTo(rootLen), metadata.getColumnName(i));
+                }
+            }
+        } catch (Throwable e) {
+            // symbol map writer failed half way through replacing its index and cannot be used,
+            // next writer finishes the rebuild on open
+            LOG.error().$("could not grow symbol capacity [table=").$(tableName).$(", e=").$(e).$(']').$();
+            throwDistressException(e);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void configureAppendPosition() {
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || partitionBy == PartitionBy.NONE) {
             openFirstPartition(this.txWriter.getMaxTimestamp());
@@ -2770,6 +2818,8 @@ public class TableWriter implements Closeable {
                 }
             }
 
+            metrics.addO3Commit(srcOooMax, pCount);
+
             if (o3LagRowCount > 0) {
                 o3ShiftLagRowsUp(timestampIndex, o3LagRowCount, srcOooMax);
             }
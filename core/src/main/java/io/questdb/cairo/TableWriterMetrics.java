@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Histogram;
+import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.NullMetricsRegistry;
+
+public class TableWriterMetrics {
+    public static final TableWriterMetrics DISABLED = new TableWriterMetrics(new NullMetricsRegistry());
+    private final Counter commitCounter;
+    private final Histogram commitLatency;
+    private final Counter o3CommitCounter;
+    private final Counter o3RowCounter;
+    private final Counter o3PartitionCounter;
+    private final Counter rollbackCounter;
+
+    public TableWriterMetrics(MetricsRegistry metricsRegistry) {
+        this.commitCounter = metricsRegistry.newCounter("table_writer_commits");
+        this.commitLatency = metricsRegistry.newHistogram("table_writer_commit_latency_micros");
+        this.o3CommitCounter = metricsRegistry.newCounter("table_writer_o3_commits");
+        this.o3RowCounter = metricsRegistry.newCounter("table_writer_o3_rows");
+        this.o3PartitionCounter = metricsRegistry.newCounter("table_writer_o3_partitions");
+        this.rollbackCounter = metricsRegistry.newCounter("table_writer_rollbacks");
+    }
+
+    public void addCommit(long latencyMicros) {
+        commitCounter.inc();
+        commitLatency.record(latencyMicros);
+    }
+
+    public void addO3Commit(long rowCount, int partitionCount) {
+        o3CommitCounter.inc();
+        o3RowCounter.add(rowCount);
+        o3PartitionCounter.add(partitionCount);
+    }
+
+    public void addRollback() {
+        rollbackCounter.inc();
+    }
+}
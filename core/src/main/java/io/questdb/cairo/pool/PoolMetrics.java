@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.pool;
+
+import io.questdb.metrics.MetricsRegistry;
+
+/**
+ * Reader and writer pool gauges. Pool state is sampled when metrics are scraped,
+ * pools are not touched on their hot paths.
+ */
+public class PoolMetrics {
+    private WriterPool writerPool;
+    private ReaderPool readerPool;
+
+    public PoolMetrics(MetricsRegistry metricsRegistry) {
+        metricsRegistry.newVirtualGauge("writer_pool_busy", this::getWriterBusyCount);
+        metricsRegistry.newVirtualGauge("writer_pool_locked", this::getWriterLockedCount);
+        metricsRegistry.newVirtualGauge("reader_pool_busy", this::getReaderBusyCount);
+    }
+
+    public void of(WriterPool writerPool, ReaderPool readerPool) {
+        this.writerPool = writerPool;
+        this.readerPool = readerPool;
+    }
+
+    private long getReaderBusyCount() {
+        final ReaderPool pool = readerPool;
+        return pool != null ? pool.getBusyCount() : 0;
+    }
+
+    private long getWriterBusyCount() {
+        final WriterPool pool = writerPool;
+        return pool != null ? pool.getBusyCount() : 0;
+    }
+
+    private long getWriterLockedCount() {
+        final WriterPool pool = writerPool;
+        return pool != null ? pool.getLockedCount() : 0;
+    }
+}
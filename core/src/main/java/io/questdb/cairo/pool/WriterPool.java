@@ -71,6 +71,7 @@ public class WriterPool extends AbstractPool {
     private final CharSequence root;
     @NotNull
     private final MessageBus messageBus;
+    private final TableWriterMetrics metrics;
 
     /**
      * Pool constructor. WriterPool root directory is passed via configuration.
@@ -79,9 +80,14 @@ public class WriterPool extends AbstractPool {
      * @param messageBus    message bus instance to allow index tasks to be communicated to available threads.
      */
     public WriterPool(CairoConfiguration configuration, @NotNull MessageBus messageBus) {
+        this(configuration, messageBus, TableWriterMetrics.DISABLED);
+    }
+
+    public WriterPool(CairoConfiguration configuration, @NotNull MessageBus messageBus, TableWriterMetrics metrics) {
         super(configuration, configuration.getInactiveWriterTTL());
         this.configuration = configuration;
         this.messageBus = messageBus;
+        this.metrics = metrics;
         this.clock = configuration.getMicrosecondClock();
         this.root = configuration.getRoot();
         notifyListener(Thread.currentThread().getId(), null, PoolListener.EV_POOL_OPEN);
@@ -223,6 +229,22 @@ public class WriterPool extends AbstractPool {
         return count;
     }
 
+    /**
+     * Counts tables locked via {@link #lock(CharSequence, CharSequence)}, such tables have
+     * no writer and cannot be written to until unlocked.
+     *
+     * @return number of locked tables.
+     */
+    public int getLockedCount() {
+        int count = 0;
+        for (Entry e : entries.values()) {
+            if (e.lockFd != -1L && e.writer == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private TableWriter checkClosedAndGetWriter(CharSequence tableName, Entry e, CharSequence lockReason) {
         if (null == lockReason) {
             throw new NullPointerException();
@@ -272,7 +294,7 @@ public class WriterPool extends AbstractPool {
                 // we cache the writer in the writerPool whose access via the engine is thread safe
                 assert writer == null && e.lockFd != -1;
                 LOG.info().$("created [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
-                writer = new TableWriter(configuration, name, messageBus, null, false, e, root);
+                writer = new TableWriter(configuration, name, messageBus, null, false, e, root, metrics);
             }
 
             if (writer == null) {
@@ -393,7 +415,7 @@ public class WriterPool extends AbstractPool {
         try {
             checkClosed();
             LOG.info().$("open [table=`").utf8(name).$("`, thread=").$(thread).$(']').$();
-            e.writer = new TableWriter(configuration, name, messageBus, null, true, e, root);
+            e.writer = new TableWriter(configuration, name, messageBus, null, true, e, root, metrics);
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
@@ -37,6 +37,7 @@ import io.questdb.std.str.LPSZ;
 public class MemoryCMRImpl extends AbstractMemoryCR implements MemoryCMR {
     private static final Log LOG = LogFactory.getLog(MemoryCMRImpl.class);
     private int memoryTag = MemoryTag.MMAP_DEFAULT;
+    private int advice = Files.ADVICE_NORMAL;
 
     public MemoryCMRImpl(FilesFacade ff, LPSZ name, long size, int memoryTag) {
         of(ff, name, 0, size, memoryTag);
@@ -45,6 +46,34 @@ public class MemoryCMRImpl extends AbstractMemoryCR implements MemoryCMR {
     public MemoryCMRImpl() {
     }
 
+    @Override
+    public void advise(int advice) {
+        if (advice == Files.ADVICE_DONTNEED) {
+            // one-off, drop pages of this file from page cache so that cold data does not evict hot partitions
+            if (pageAddress != 0) {
+                if (this.advice != Files.ADVICE_NORMAL) {
+                    // dropping pages does not revert access pattern of the mapping
+                    ff.madvise(pageAddress, size, Files.ADVICE_NORMAL);
+                }
+                ff.madvise(pageAddress, size, advice);
+            }
+            if (fd != -1) {
+                ff.fadvise(fd, 0, size, advice);
+            }
+            this.advice = Files.ADVICE_NORMAL;
+        } else if (advice == Files.ADVICE_WILLNEED) {
+            // one-off, start reading pages in the background, access pattern of the mapping is kept
+            if (pageAddress != 0) {
+                ff.madvise(pageAddress, size, advice);
+            }
+        } else if (this.advice != advice) {
+            this.advice = advice;
+            if (pageAddress != 0) {
+                ff.madvise(pageAddress, size, advice);
+            }
+        }
+    }
+
     @Override
     public void close() {
         if (pageAddress != 0) {
@@ -58,6 +87,7 @@ public class MemoryCMRImpl extends AbstractMemoryCR implements MemoryCMR {
             fd = -1;
         }
         grownLength = 0;
+        advice = Files.ADVICE_NORMAL;
     }
 
     @Override
@@ -111,6 +141,10 @@ public class MemoryCMRImpl extends AbstractMemoryCR implements MemoryCMR {
                 pageAddress = TableUtils.mapRO(ff, fd, newSize, memoryTag);
             }
             size = newSize;
+            if (advice != Files.ADVICE_NORMAL) {
+                // new mapping does not inherit hint of the old one
+                ff.madvise(pageAddress, size, advice);
+            }
         } catch (Throwable e) {
             close();
             throw e;
@@ -29,6 +29,7 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.vm.api.MemoryMAR;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.str.LPSZ;
 
@@ -128,6 +129,8 @@ public class MemoryPMARImpl extends MemoryPARWImpl implements MemoryMAR {
     public long mapPage(int page) {
         // set page to "not mapped" in case mapping fails
         final long address = TableUtils.mapRW(ff, fd, getExtendSegmentSize(), pageOffset(page), memoryTag);
+        // pages are only ever appended to
+        ff.madvise(address, getExtendSegmentSize(), Files.ADVICE_SEQUENTIAL);
         mappedPage = page;
         return address;
     }
@@ -25,6 +25,17 @@
 package io.questdb.cairo.vm.api;
 
 public interface MemoryMR extends MemoryM, MemoryR {
+
+    /**
+     * Hints kernel how mapped memory is about to be accessed. Hint is retained
+     * across remaps, except for Files.ADVICE_DONTNEED, which is applied once
+     * to release cached pages.
+     *
+     * @param advice one of Files.ADVICE_* constants
+     */
+    default void advise(int advice) {
+    }
+
     default void growToFileSize() {
         extend(getFilesFacade().length(getFd()));
     }
@@ -0,0 +1,766 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+import io.questdb.std.str.AbstractCharSink;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectCharSequence;
+
+import java.io.Closeable;
+
+/**
+ * Encodes query result as Apache Arrow IPC stream: schema message, followed by record batches
+ * and end-of-stream marker. Each message is exposed as list of memory segments, which caller
+ * copies to the wire in order.
+ * <p>
+ * When result supports page frames, fixed width column values are referenced directly from
+ * page frame memory, nulls are only scanned to build validity bitmaps. Booleans, strings,
+ * symbols and binary values are converted into per-column scratch buffers. Results that do
+ * not support page frames are appended into scratch buffers one record at a time.
+ * <p>
+ * QuestDB types map to Arrow as follows: SYMBOL and STRING to Utf8, DATE to Date64,
+ * TIMESTAMP to Timestamp(MICROSECOND) without time zone, CHAR to UInt16, LONG256 to
+ * FixedSizeBinary(32) and geohashes to signed integers of their storage size.
+ */
+public class ArrowStreamEncoder implements Closeable, Mutable {
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+    // string and binary offsets are 32-bit, batch is cut before variable size data gets close to the limit
+    private static final long MAX_VAR_DATA_SIZE = 1L << 30;
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_FIXED_SIZE_BINARY = 15;
+    private static final short PRECISION_SINGLE = 1;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short DATE_UNIT_MILLISECOND = 1;
+    private static final short TIME_UNIT_MICROSECOND = 2;
+    private static final long SCRATCH_PAGE_SIZE = 64 * 1024;
+
+    private final FlatBufferBuilder fbb = new FlatBufferBuilder(1024);
+    private final ObjList<ArrowColumn> columns = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final IntList fieldOffsets = new IntList();
+    private final LongList buffers = new LongList();
+    private final LongList segments = new LongList();
+    private final DirectCharSequence directCharSequence = new DirectCharSequence();
+    private final ScratchSink utf8Sink = new ScratchSink();
+    private final long prefix;
+    private final long eos;
+    private final long zeros;
+    private RecordMetadata metadata;
+    private int columnCount;
+    private long rowCount;
+
+    public ArrowStreamEncoder() {
+        this.prefix = Unsafe.calloc(24, MemoryTag.NATIVE_HTTP_CONN);
+        this.eos = prefix + 8;
+        this.zeros = prefix + 16;
+        Unsafe.getUnsafe().putInt(eos, CONTINUATION);
+    }
+
+    public void appendRecord(Record record) {
+        final long row = rowCount++;
+        for (int i = 0; i < columnCount; i++) {
+            final ArrowColumn column = columns.getQuick(i);
+            final MemoryCARW data = column.data;
+            switch (ColumnType.tagOf(columnTypes.getQuick(i))) {
+                case ColumnType.BOOLEAN:
+                    column.bit(data, row, record.getBool(i));
+                    break;
+                case ColumnType.BYTE:
+                    data.putByte(record.getByte(i));
+                    break;
+                case ColumnType.SHORT:
+                    data.putShort(record.getShort(i));
+                    break;
+                case ColumnType.CHAR:
+                    data.putChar(record.getChar(i));
+                    break;
+                case ColumnType.INT:
+                    final int intValue = record.getInt(i);
+                    column.valid(row, intValue != Numbers.INT_NaN);
+                    data.putInt(intValue);
+                    break;
+                case ColumnType.LONG:
+                    final long longValue = record.getLong(i);
+                    column.valid(row, longValue != Numbers.LONG_NaN);
+                    data.putLong(longValue);
+                    break;
+                case ColumnType.DATE:
+                    final long dateValue = record.getDate(i);
+                    column.valid(row, dateValue != Numbers.LONG_NaN);
+                    data.putLong(dateValue);
+                    break;
+                case ColumnType.TIMESTAMP:
+                    final long timestampValue = record.getTimestamp(i);
+                    column.valid(row, timestampValue != Numbers.LONG_NaN);
+                    data.putLong(timestampValue);
+                    break;
+                case ColumnType.FLOAT:
+                    final float floatValue = record.getFloat(i);
+                    column.valid(row, floatValue == floatValue);
+                    data.putFloat(floatValue);
+                    break;
+                case ColumnType.DOUBLE:
+                    final double doubleValue = record.getDouble(i);
+                    column.valid(row, doubleValue == doubleValue);
+                    data.putDouble(doubleValue);
+                    break;
+                case ColumnType.GEOBYTE:
+                    final byte geoByte = record.getGeoByte(i);
+                    column.valid(row, geoByte != GeoHashes.BYTE_NULL);
+                    data.putByte(geoByte);
+                    break;
+                case ColumnType.GEOSHORT:
+                    final short geoShort = record.getGeoShort(i);
+                    column.valid(row, geoShort != GeoHashes.SHORT_NULL);
+                    data.putShort(geoShort);
+                    break;
+                case ColumnType.GEOINT:
+                    final int geoInt = record.getGeoInt(i);
+                    column.valid(row, geoInt != GeoHashes.INT_NULL);
+                    data.putInt(geoInt);
+                    break;
+                case ColumnType.GEOLONG:
+                    final long geoLong = record.getGeoLong(i);
+                    column.valid(row, geoLong != GeoHashes.NULL);
+                    data.putLong(geoLong);
+                    break;
+                case ColumnType.LONG256:
+                    final Long256 long256 = record.getLong256A(i);
+                    column.valid(row, !Long256Impl.NULL_LONG256.equals(long256));
+                    data.putLong256(long256);
+                    break;
+                case ColumnType.STRING:
+                    putUtf8(column, row, record.getStr(i));
+                    break;
+                case ColumnType.SYMBOL:
+                    putUtf8(column, row, record.getSym(i));
+                    break;
+                case ColumnType.BINARY:
+                    final BinarySequence bin = record.getBin(i);
+                    if (bin != null) {
+                        final long len = bin.length();
+                        bin.copyTo(data.appendAddressFor(len), 0, len);
+                    }
+                    column.valid(row, bin != null);
+                    column.offsets.putInt((int) data.getAppendOffset());
+                    break;
+                default:
+                    column.nullCount++;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Prepares scratch buffers for new batch of records, which are added via {@link #appendRecord(Record)}.
+     */
+    public void beginBatch() {
+        rowCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            columns.getQuick(i).of(columnTypes.getQuick(i));
+        }
+    }
+
+    @Override
+    public void clear() {
+        metadata = null;
+        columnCount = 0;
+        columnTypes.clear();
+        segments.clear();
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(columns);
+        Misc.free(fbb);
+        Unsafe.free(prefix, 24, MemoryTag.NATIVE_HTTP_CONN);
+    }
+
+    /**
+     * Encodes record batch from records added since {@link #beginBatch()}.
+     */
+    public void endBatch() {
+        encodeRecordBatch();
+    }
+
+    /**
+     * Encodes end-of-stream marker.
+     */
+    public void eos() {
+        segments.clear();
+        addSegment(eos, 8);
+    }
+
+    /**
+     * Encodes record batch straight from page frame.
+     *
+     * @param frame  page frame
+     * @param cursor cursor that produced the frame, used to resolve symbols
+     * @param lo     first row of the frame to encode, inclusive
+     * @param hi     last row of the frame to encode, exclusive
+     */
+    public void frameBatch(PageFrame frame, PageFrameCursor cursor, long lo, long hi) {
+        final long n = hi - lo;
+        rowCount = n;
+        for (int i = 0; i < columnCount; i++) {
+            final ArrowColumn column = columns.getQuick(i);
+            final int type = columnTypes.getQuick(i);
+            column.of(type);
+            final long address = frame.getPageAddress(i);
+            switch (ColumnType.tagOf(type)) {
+                case ColumnType.BOOLEAN:
+                    frameBooleans(column, address, lo, n);
+                    break;
+                case ColumnType.STRING:
+                    frameStrings(column, address, frame.getIndexPageAddress(i), lo, n);
+                    break;
+                case ColumnType.BINARY:
+                    frameBinaries(column, address, frame.getIndexPageAddress(i), lo, n);
+                    break;
+                case ColumnType.SYMBOL:
+                    frameSymbols(column, address, lo, n, cursor.getSymbolMapReader(i));
+                    break;
+                case ColumnType.NULL:
+                    column.nullCount = n;
+                    break;
+                default:
+                    frameFixed(column, type, address, lo, n);
+                    break;
+            }
+        }
+        encodeRecordBatch();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getSegmentCount() {
+        return segments.size() / 2;
+    }
+
+    public long getSegmentAddress(int index) {
+        return segments.getQuick(index * 2);
+    }
+
+    public long getSegmentSize(int index) {
+        return segments.getQuick(index * 2 + 1);
+    }
+
+    /**
+     * @param maxRows batch row limit
+     * @return true when no more records should be appended to current batch
+     */
+    public boolean isBatchFull(int maxRows) {
+        if (rowCount >= maxRows) {
+            return true;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (columns.getQuick(i).data.getAppendOffset() > MAX_VAR_DATA_SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ArrowStreamEncoder of(RecordMetadata metadata) {
+        this.metadata = metadata;
+        this.columnCount = metadata.getColumnCount();
+        columnTypes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes.add(metadata.getColumnType(i));
+            if (i == columns.size()) {
+                columns.add(new ArrowColumn());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Encodes schema message. Must be the first message of the stream.
+     */
+    public void schema() {
+        fbb.clear();
+        fieldOffsets.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final short tag = ColumnType.tagOf(columnTypes.getQuick(i));
+            final int name = fbb.createString(metadata.getColumnName(i));
+            final int type = encodeType(tag);
+            fbb.startVector(Integer.BYTES, 0, Integer.BYTES);
+            final int children = fbb.endVector();
+            fbb.startTable(6);
+            fbb.addFieldOffset(0, name);
+            fbb.addFieldOffset(3, type);
+            fbb.addFieldOffset(5, children);
+            fbb.addFieldByte(2, arrowTypeOf(tag));
+            fbb.addFieldBool(1, true);
+            fieldOffsets.add(fbb.endTable());
+        }
+        fbb.startVector(Integer.BYTES, columnCount, Integer.BYTES);
+        for (int i = columnCount - 1; i > -1; i--) {
+            fbb.addOffset(fieldOffsets.getQuick(i));
+        }
+        final int fields = fbb.endVector();
+        fbb.startTable(2);
+        fbb.addFieldOffset(1, fields);
+        // little endian
+        fbb.addFieldShort(0, (short) 0);
+        encodeMessage(HEADER_SCHEMA, fbb.endTable(), 0);
+    }
+
+    private static long align8(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static byte arrowTypeOf(short tag) {
+        switch (tag) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOL;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return TYPE_INT;
+            case ColumnType.DATE:
+                return TYPE_DATE;
+            case ColumnType.TIMESTAMP:
+                return TYPE_TIMESTAMP;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return TYPE_FLOATING_POINT;
+            case ColumnType.LONG256:
+                return TYPE_FIXED_SIZE_BINARY;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return TYPE_UTF8;
+            case ColumnType.BINARY:
+                return TYPE_BINARY;
+            default:
+                return TYPE_NULL;
+        }
+    }
+
+    private static boolean isNull(short tag, long address) {
+        switch (tag) {
+            case ColumnType.INT:
+                return Unsafe.getUnsafe().getInt(address) == Numbers.INT_NaN;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN;
+            case ColumnType.FLOAT:
+                return Float.isNaN(Unsafe.getUnsafe().getFloat(address));
+            case ColumnType.DOUBLE:
+                return Double.isNaN(Unsafe.getUnsafe().getDouble(address));
+            case ColumnType.GEOBYTE:
+                return Unsafe.getUnsafe().getByte(address) == GeoHashes.BYTE_NULL;
+            case ColumnType.GEOSHORT:
+                return Unsafe.getUnsafe().getShort(address) == GeoHashes.SHORT_NULL;
+            case ColumnType.GEOINT:
+                return Unsafe.getUnsafe().getInt(address) == GeoHashes.INT_NULL;
+            case ColumnType.GEOLONG:
+                return Unsafe.getUnsafe().getLong(address) == GeoHashes.NULL;
+            case ColumnType.LONG256:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES * 2) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES * 3) == Numbers.LONG_NaN;
+            default:
+                // byte, short and char have no null
+                return false;
+        }
+    }
+
+    private static boolean isNullable(short tag) {
+        switch (tag) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void addBuffer(long address, long size) {
+        buffers.add(address, size);
+    }
+
+    private void addSegment(long address, long size) {
+        if (size > 0) {
+            segments.add(address, size);
+        }
+    }
+
+    private void encodeMessage(byte headerType, int header, long bodyLength) {
+        fbb.startTable(4);
+        fbb.addFieldLong(3, bodyLength);
+        fbb.addFieldOffset(2, header);
+        fbb.addFieldShort(0, METADATA_VERSION_V5);
+        fbb.addFieldByte(1, headerType);
+        fbb.finish(fbb.endTable());
+
+        // body has to start at 8-byte boundary, continuation and length prefix are 8 bytes
+        final int metadataSize = fbb.getBufferSize();
+        final int paddedSize = (int) align8(metadataSize);
+        Unsafe.getUnsafe().putInt(prefix, CONTINUATION);
+        Unsafe.getUnsafe().putInt(prefix + Integer.BYTES, paddedSize);
+        segments.clear();
+        addSegment(prefix, 8);
+        addSegment(fbb.getBufferAddress(), metadataSize);
+        addSegment(zeros, paddedSize - metadataSize);
+    }
+
+    private void encodeRecordBatch() {
+        buffers.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final ArrowColumn column = columns.getQuick(i);
+            switch (arrowTypeOf(ColumnType.tagOf(columnTypes.getQuick(i)))) {
+                case TYPE_NULL:
+                    break;
+                case TYPE_UTF8:
+                case TYPE_BINARY:
+                    addBuffer(column.validityAddress(), column.validitySize());
+                    addBuffer(column.offsets.getAddress(), column.offsets.getAppendOffset());
+                    addBuffer(column.dataAddress(), column.dataSize());
+                    break;
+                default:
+                    addBuffer(column.validityAddress(), column.validitySize());
+                    addBuffer(column.dataAddress(), column.dataSize());
+                    break;
+            }
+        }
+
+        fbb.clear();
+        final int bufferCount = buffers.size() / 2;
+        long bodyLength = 0;
+        for (int i = 0; i < bufferCount; i++) {
+            bodyLength += align8(buffers.getQuick(i * 2 + 1));
+        }
+        fbb.startVector(2 * Long.BYTES, bufferCount, Long.BYTES);
+        long offset = bodyLength;
+        for (int i = bufferCount - 1; i > -1; i--) {
+            final long size = buffers.getQuick(i * 2 + 1);
+            offset -= align8(size);
+            fbb.addStructLongLong(offset, size);
+        }
+        final int bufferVector = fbb.endVector();
+
+        fbb.startVector(2 * Long.BYTES, columnCount, Long.BYTES);
+        for (int i = columnCount - 1; i > -1; i--) {
+            fbb.addStructLongLong(rowCount, columns.getQuick(i).nullCount);
+        }
+        final int nodeVector = fbb.endVector();
+
+        fbb.startTable(3);
+        fbb.addFieldLong(0, rowCount);
+        fbb.addFieldOffset(1, nodeVector);
+        fbb.addFieldOffset(2, bufferVector);
+        encodeMessage(HEADER_RECORD_BATCH, fbb.endTable(), bodyLength);
+
+        for (int i = 0; i < bufferCount; i++) {
+            final long size = buffers.getQuick(i * 2 + 1);
+            addSegment(buffers.getQuick(i * 2), size);
+            addSegment(zeros, align8(size) - size);
+        }
+    }
+
+    private int encodeType(short tag) {
+        switch (tag) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                return encodeIntType(8, true);
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                return encodeIntType(16, true);
+            case ColumnType.CHAR:
+                return encodeIntType(16, false);
+            case ColumnType.INT:
+            case ColumnType.GEOINT:
+                return encodeIntType(32, true);
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                return encodeIntType(64, true);
+            case ColumnType.DATE:
+                fbb.startTable(1);
+                fbb.addFieldShort(0, DATE_UNIT_MILLISECOND);
+                return fbb.endTable();
+            case ColumnType.TIMESTAMP:
+                fbb.startTable(2);
+                fbb.addFieldShort(0, TIME_UNIT_MICROSECOND);
+                return fbb.endTable();
+            case ColumnType.FLOAT:
+                fbb.startTable(1);
+                fbb.addFieldShort(0, PRECISION_SINGLE);
+                return fbb.endTable();
+            case ColumnType.DOUBLE:
+                fbb.startTable(1);
+                fbb.addFieldShort(0, PRECISION_DOUBLE);
+                return fbb.endTable();
+            case ColumnType.LONG256:
+                fbb.startTable(1);
+                fbb.addFieldInt(0, 32);
+                return fbb.endTable();
+            default:
+                // Bool, Utf8, Binary and Null have no properties
+                fbb.startTable(0);
+                return fbb.endTable();
+        }
+    }
+
+    private int encodeIntType(int bitWidth, boolean signed) {
+        fbb.startTable(2);
+        fbb.addFieldInt(0, bitWidth);
+        fbb.addFieldBool(1, signed);
+        return fbb.endTable();
+    }
+
+    private void frameBinaries(ArrowColumn column, long address, long indexAddress, long lo, long n) {
+        final MemoryCARW data = column.data;
+        if (address == 0) {
+            column.nulls(n);
+            return;
+        }
+        final long base = Unsafe.getUnsafe().getLong(indexAddress);
+        for (long r = 0; r < n; r++) {
+            final long p = address + Unsafe.getUnsafe().getLong(indexAddress + ((lo + r) << 3)) - base;
+            final long len = Unsafe.getUnsafe().getLong(p);
+            if (len != TableUtils.NULL_LEN) {
+                Vect.memcpy(data.appendAddressFor(len), p + Long.BYTES, len);
+            }
+            column.valid(r, len != TableUtils.NULL_LEN);
+            column.offsets.putInt((int) data.getAppendOffset());
+        }
+    }
+
+    private void frameBooleans(ArrowColumn column, long address, long lo, long n) {
+        final MemoryCARW data = column.data;
+        final long size = (n + 7) >>> 3;
+        final long bits = data.appendAddressFor(size);
+        if (address == 0) {
+            Vect.memset(bits, size, 0);
+            return;
+        }
+        final long src = address + lo;
+        for (long r = 0; r < n; r += 8) {
+            final long m = Math.min(8, n - r);
+            int b = 0;
+            for (int j = 0; j < m; j++) {
+                if (Unsafe.getUnsafe().getByte(src + r + j) != 0) {
+                    b |= 1 << j;
+                }
+            }
+            Unsafe.getUnsafe().putByte(bits + (r >>> 3), (byte) b);
+        }
+    }
+
+    private void frameFixed(ArrowColumn column, int type, long address, long lo, long n) {
+        final int shift = ColumnType.pow2SizeOf(type);
+        final long size = n << shift;
+        if (address == 0) {
+            // column top, all values are null
+            Vect.memset(column.data.appendAddressFor(size), size, 0);
+            column.nulls(n);
+            return;
+        }
+
+        final long src = address + (lo << shift);
+        column.directDataAddress = src;
+        column.directDataSize = size;
+
+        final short tag = ColumnType.tagOf(type);
+        if (!isNullable(tag)) {
+            return;
+        }
+
+        final long bits = column.validity.appendAddressFor((n + 7) >>> 3);
+        long nullCount = 0;
+        for (long r = 0; r < n; r += 8) {
+            final long m = Math.min(8, n - r);
+            int b = 0;
+            for (int j = 0; j < m; j++) {
+                if (isNull(tag, src + ((r + j) << shift))) {
+                    nullCount++;
+                } else {
+                    b |= 1 << j;
+                }
+            }
+            Unsafe.getUnsafe().putByte(bits + (r >>> 3), (byte) b);
+        }
+        column.nullCount = nullCount;
+    }
+
+    private void frameStrings(ArrowColumn column, long address, long indexAddress, long lo, long n) {
+        if (address == 0) {
+            column.nulls(n);
+            return;
+        }
+        final long base = Unsafe.getUnsafe().getLong(indexAddress);
+        for (long r = 0; r < n; r++) {
+            final long p = address + Unsafe.getUnsafe().getLong(indexAddress + ((lo + r) << 3)) - base;
+            final int len = Unsafe.getUnsafe().getInt(p);
+            if (len != TableUtils.NULL_LEN) {
+                utf8Sink.of(column.data).encodeUtf8(directCharSequence.of(p + Integer.BYTES, p + Integer.BYTES + ((long) len << 1)));
+            }
+            column.valid(r, len != TableUtils.NULL_LEN);
+            column.offsets.putInt((int) column.data.getAppendOffset());
+        }
+    }
+
+    private void frameSymbols(ArrowColumn column, long address, long lo, long n, SymbolTable symbolTable) {
+        if (address == 0) {
+            column.nulls(n);
+            return;
+        }
+        final long src = address + (lo << 2);
+        for (long r = 0; r < n; r++) {
+            final int key = Unsafe.getUnsafe().getInt(src + (r << 2));
+            putUtf8(column, r, key != SymbolTable.VALUE_IS_NULL ? symbolTable.valueOf(key) : null);
+        }
+    }
+
+    private void putUtf8(ArrowColumn column, long row, CharSequence value) {
+        if (value != null) {
+            utf8Sink.of(column.data).encodeUtf8(value);
+        }
+        column.valid(row, value != null);
+        column.offsets.putInt((int) column.data.getAppendOffset());
+    }
+
+    private static class ArrowColumn implements Closeable {
+        private final MemoryCARW validity = Vm.getCARWInstance(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+        private final MemoryCARW offsets = Vm.getCARWInstance(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+        private final MemoryCARW data = Vm.getCARWInstance(SCRATCH_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+        private long nullCount;
+        private long directDataAddress;
+        private long directDataSize;
+        private boolean variableSize;
+
+        @Override
+        public void close() {
+            Misc.free(validity);
+            Misc.free(offsets);
+            Misc.free(data);
+        }
+
+        private void bit(MemoryCARW mem, long row, boolean value) {
+            if ((row & 7) == 0) {
+                mem.putByte((byte) 0);
+            }
+            if (value) {
+                final long p = mem.getAddress() + (row >>> 3);
+                Unsafe.getUnsafe().putByte(p, (byte) (Unsafe.getUnsafe().getByte(p) | (1 << (row & 7))));
+            }
+        }
+
+        private long dataAddress() {
+            return directDataAddress != 0 ? directDataAddress : data.getAddress();
+        }
+
+        private long dataSize() {
+            return directDataAddress != 0 ? directDataSize : data.getAppendOffset();
+        }
+
+        private void nulls(long n) {
+            final long size = (n + 7) >>> 3;
+            Vect.memset(validity.appendAddressFor(size), size, 0);
+            nullCount = n;
+            if (variableSize) {
+                Vect.memset(offsets.appendAddressFor(n << 2), n << 2, 0);
+            }
+        }
+
+        private void of(int type) {
+            validity.jumpTo(0);
+            offsets.jumpTo(0);
+            data.jumpTo(0);
+            nullCount = 0;
+            directDataAddress = 0;
+            directDataSize = 0;
+            final short tag = ColumnType.tagOf(type);
+            variableSize = tag == ColumnType.STRING || tag == ColumnType.SYMBOL || tag == ColumnType.BINARY;
+            if (variableSize) {
+                offsets.putInt(0);
+            }
+        }
+
+        private void valid(long row, boolean valid) {
+            bit(validity, row, valid);
+            if (!valid) {
+                nullCount++;
+            }
+        }
+
+        // validity bitmap is omitted when there are no nulls
+        private long validityAddress() {
+            return nullCount > 0 ? validity.getAddress() : 0;
+        }
+
+        private long validitySize() {
+            return nullCount > 0 ? validity.getAppendOffset() : 0;
+        }
+    }
+
+    private static class ScratchSink extends AbstractCharSink {
+        private MemoryCARW mem;
+
+        @Override
+        public CharSink put(char c) {
+            mem.putByte((byte) c);
+            return this;
+        }
+
+        private ScratchSink of(MemoryCARW mem) {
+            this.mem = mem;
+            return this;
+        }
+    }
+}
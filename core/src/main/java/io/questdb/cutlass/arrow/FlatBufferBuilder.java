@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.std.*;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal FlatBuffers builder, sufficient to encode Arrow IPC message metadata. Like
+ * the reference implementation, buffer is built back to front, children before parents,
+ * so that offsets always point forward. Offsets returned by this builder are measured
+ * from the end of buffer. Vtables are not de-duplicated, Arrow metadata is too small
+ * for this to matter.
+ */
+public class FlatBufferBuilder implements Closeable, Mutable {
+    private final IntList vtable = new IntList();
+    private long lo;
+    private long capacity;
+    private long space;
+    private int minAlign = 1;
+    private int objectStart;
+    private int vectorElementCount;
+
+    public FlatBufferBuilder(long initialCapacity) {
+        this.capacity = initialCapacity;
+        this.lo = Unsafe.malloc(initialCapacity, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public void addBool(boolean value) {
+        addByte((byte) (value ? 1 : 0));
+    }
+
+    public void addByte(byte value) {
+        prep(Byte.BYTES, 0);
+        putByte(value);
+    }
+
+    public void addFieldBool(int slot, boolean value) {
+        addBool(value);
+        slot(slot);
+    }
+
+    public void addFieldByte(int slot, byte value) {
+        addByte(value);
+        slot(slot);
+    }
+
+    public void addFieldInt(int slot, int value) {
+        addInt(value);
+        slot(slot);
+    }
+
+    public void addFieldLong(int slot, long value) {
+        addLong(value);
+        slot(slot);
+    }
+
+    public void addFieldOffset(int slot, int offset) {
+        addOffset(offset);
+        slot(slot);
+    }
+
+    public void addFieldShort(int slot, short value) {
+        addShort(value);
+        slot(slot);
+    }
+
+    public void addInt(int value) {
+        prep(Integer.BYTES, 0);
+        putInt(value);
+    }
+
+    public void addLong(long value) {
+        prep(Long.BYTES, 0);
+        putLong(value);
+    }
+
+    public void addOffset(int offset) {
+        prep(Integer.BYTES, 0);
+        assert offset <= offset();
+        putInt(offset() - offset + Integer.BYTES);
+    }
+
+    public void addShort(short value) {
+        prep(Short.BYTES, 0);
+        putShort(value);
+    }
+
+    /**
+     * Adds struct of two longs to vector of structs. Arrow's FieldNode and Buffer both have this layout.
+     *
+     * @param first  value of the first struct field
+     * @param second value of the second struct field
+     */
+    public void addStructLongLong(long first, long second) {
+        prep(Long.BYTES, 2 * Long.BYTES);
+        putLong(second);
+        putLong(first);
+    }
+
+    @Override
+    public void clear() {
+        space = 0;
+        minAlign = 1;
+        vtable.clear();
+    }
+
+    @Override
+    public void close() {
+        if (lo != 0) {
+            Unsafe.free(lo, capacity, MemoryTag.NATIVE_DEFAULT);
+            lo = 0;
+        }
+    }
+
+    public int createString(CharSequence value) {
+        final byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        prep(Integer.BYTES, bytes.length + 1);
+        putByte((byte) 0);
+        for (int i = bytes.length - 1; i > -1; i--) {
+            putByte(bytes[i]);
+        }
+        putInt(bytes.length);
+        return offset();
+    }
+
+    public int endTable() {
+        addInt(0);
+        final int objectOffset = offset();
+        for (int i = vtable.size() - 1; i > -1; i--) {
+            final int fieldOffset = vtable.getQuick(i);
+            addShort((short) (fieldOffset != 0 ? objectOffset - fieldOffset : 0));
+        }
+        addShort((short) (objectOffset - objectStart));
+        addShort((short) ((vtable.size() + 2) * Short.BYTES));
+        // soffset from table to its vtable, vtable is in front of the table
+        Unsafe.getUnsafe().putInt(lo + capacity - objectOffset, offset() - objectOffset);
+        vtable.clear();
+        return objectOffset;
+    }
+
+    public int endVector() {
+        putInt(vectorElementCount);
+        return offset();
+    }
+
+    public void finish(int rootTable) {
+        prep(minAlign, Integer.BYTES);
+        addOffset(rootTable);
+    }
+
+    /**
+     * @return address of the first byte of finished buffer
+     */
+    public long getBufferAddress() {
+        return lo + capacity - space;
+    }
+
+    public int getBufferSize() {
+        return (int) space;
+    }
+
+    public int offset() {
+        return (int) space;
+    }
+
+    public void startTable(int fieldCount) {
+        vtable.setAll(fieldCount, 0);
+        objectStart = offset();
+    }
+
+    public void startVector(int elementSize, int elementCount, int alignment) {
+        final int size = elementSize * elementCount;
+        prep(Integer.BYTES, size);
+        prep(alignment, size);
+        vectorElementCount = elementCount;
+    }
+
+    private void grow(long required) {
+        if (capacity - space < required) {
+            long newCapacity = capacity;
+            while (newCapacity - space < required) {
+                newCapacity *= 2;
+            }
+            lo = Unsafe.realloc(lo, capacity, newCapacity, MemoryTag.NATIVE_DEFAULT);
+            // data lives at the end of the buffer, move it back there
+            Vect.memmove(lo + newCapacity - space, lo + capacity - space, space);
+            capacity = newCapacity;
+        }
+    }
+
+    private void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        final int alignSize = (int) ((~(space + additionalBytes) + 1) & (size - 1));
+        grow(alignSize + size + additionalBytes);
+        for (int i = 0; i < alignSize; i++) {
+            putByte((byte) 0);
+        }
+    }
+
+    private void putByte(byte value) {
+        space += Byte.BYTES;
+        Unsafe.getUnsafe().putByte(lo + capacity - space, value);
+    }
+
+    private void putInt(int value) {
+        space += Integer.BYTES;
+        Unsafe.getUnsafe().putInt(lo + capacity - space, value);
+    }
+
+    private void putLong(long value) {
+        space += Long.BYTES;
+        Unsafe.getUnsafe().putLong(lo + capacity - space, value);
+    }
+
+    private void putShort(short value) {
+        space += Short.BYTES;
+        Unsafe.getUnsafe().putShort(lo + capacity - space, value);
+    }
+
+    private void slot(int slot) {
+        vtable.setQuick(slot, offset());
+    }
+}
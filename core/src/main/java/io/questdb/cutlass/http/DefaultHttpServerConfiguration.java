@@ -71,6 +71,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         }
     };
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new JsonQueryProcessorConfiguration() {
+        @Override
+        public int getArrowBatchRowCount() {
+            return 65536;
+        }
+
         @Override
         public MillisecondClock getClock() {
             return httpContextConfiguration.getClock();
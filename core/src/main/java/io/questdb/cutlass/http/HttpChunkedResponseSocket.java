@@ -35,6 +35,15 @@ public interface HttpChunkedResponseSocket extends CharSink {
 
     HttpResponseHeader headers();
 
+    /**
+     * Copies raw bytes into response buffer, as many as the buffer can accommodate.
+     *
+     * @param lo  address of the first byte
+     * @param len number of bytes to copy
+     * @return number of bytes copied, 0 when buffer is full
+     */
+    long putDirect(long lo, long len);
+
     boolean resetToBookmark();
 
     void sendChunk(boolean done) throws PeerDisconnectedException, PeerIsSlowToReadException;
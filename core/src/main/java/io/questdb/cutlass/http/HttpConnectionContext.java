@@ -31,6 +31,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StdoutSink;
 
@@ -59,6 +60,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
     };
     private final boolean serverKeepAlive;
     private final Runnable onPeerDisconnect;
+    private final MillisecondClock clock;
+    private final HttpConnectionMetrics metrics;
     private long fd;
     private HttpRequestProcessor resumeProcessor = null;
     private boolean pendingRetry = false;
@@ -66,8 +69,20 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
     private int nCompletedRequests;
     private long totalBytesSent;
     private int receivedBytes;
+    // number of bytes at the start of receive buffer, which belong to
+    // requests client pipelined behind the one we are currently serving
+    private int pipelinedBytes;
+    private long pipelinedRecvTimestamp;
+    private long requestRecvTimestamp = Numbers.LONG_NaN;
+    private int nPipelinedRequests;
+    private long totalQueueTime;
+    private long maxQueueTime;
 
     public HttpConnectionContext(HttpContextConfiguration configuration) {
+        this(configuration, HttpConnectionMetrics.DISABLED);
+    }
+
+    public HttpConnectionContext(HttpContextConfiguration configuration, HttpConnectionMetrics metrics) {
         this.nf = configuration.getNetworkFacade();
         this.csPool = new ObjectPool<>(DirectByteCharSequence.FACTORY, configuration.getConnectionStringPoolCapacity());
         this.headerParser = new HttpHeaderParser(configuration.getRequestHeaderBufferSize(), csPool);
@@ -82,6 +97,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         this.cairoSecurityContext = new CairoSecurityContextImpl(!configuration.readOnlySecurityContext());
         this.serverKeepAlive = configuration.getServerKeepAlive();
         this.onPeerDisconnect = configuration.onPeerDisconnect();
+        this.clock = configuration.getClock();
+        this.metrics = metrics;
     }
 
     @Override
@@ -105,6 +122,7 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         this.retryAttemptAttributes.lastRunTimestamp = 0;
         this.retryAttemptAttributes.attempt = 0;
         this.receivedBytes = 0;
+        this.requestRecvTimestamp = Numbers.LONG_NaN;
     }
 
     @Override
@@ -124,6 +142,7 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         }
         this.pendingRetry = false;
         this.receivedBytes = 0;
+        resetPipeline();
         LOG.debug().$("closed").$();
     }
 
@@ -219,6 +238,29 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         return nCompletedRequests;
     }
 
+    /**
+     * @return number of requests on this connection, which were read from the
+     * receive buffer behind an earlier request rather than from the socket
+     */
+    public int getNPipelinedRequests() {
+        return nPipelinedRequests;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, a request waited on this connection
+     * between being received and its processing starting
+     */
+    public long getMaxQueueTime() {
+        return maxQueueTime;
+    }
+
+    /**
+     * @return the sum of queue times, in milliseconds, of all requests served on this connection
+     */
+    public long getTotalQueueTime() {
+        return totalQueueTime;
+    }
+
     public HttpRawSocket getRawResponseSocket() {
         return responseSink.getRawSocket();
     }
@@ -262,6 +304,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
     }
 
     public HttpConnectionContext of(long fd, IODispatcher<HttpConnectionContext> dispatcher) {
+        // report the connection being released before fd is overwritten
+        resetPipeline();
         this.fd = fd;
         this.dispatcher = dispatcher;
         this.responseSink.of(fd);
@@ -499,6 +543,17 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
             int read = 0;
             final boolean newRequest = headerParser.isIncomplete();
             if (newRequest) {
+                if (pipelinedBytes > 0) {
+                    // the next request arrived together with the previous one,
+                    // it is already in our receive buffer
+                    read = pipelinedBytes;
+                    pipelinedBytes = 0;
+                    nPipelinedRequests++;
+                    metrics.addPipelinedRequest();
+                    requestRecvTimestamp = pipelinedRecvTimestamp;
+                    headerEnd = headerParser.parse(recvBuffer, recvBuffer + read, true);
+                }
+
                 while (headerParser.isIncomplete()) {
                     // read headers
                     read = nf.recv(fd, recvBuffer, recvBufferSize);
@@ -520,8 +575,12 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
                     }
 
                     dumpBuffer(recvBuffer, read);
+                    if (requestRecvTimestamp == Numbers.LONG_NaN) {
+                        requestRecvTimestamp = clock.getTicks();
+                    }
                     headerEnd = headerParser.parse(recvBuffer, recvBuffer + read, true);
                 }
+                updateQueueTime();
             }
 
             final CharSequence url = headerParser.getUrl();
@@ -540,23 +599,36 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
             try {
                 if (multipartRequest && !multipartProcessor) {
                     // bad request - multipart request for processor that doesn't expect multipart
-                    busyRecv = rejectRequest("Bad request. non-multipart GET expected.");
+                    busyRecv = rejectRequest("Bad request. non-multipart GET expected.", headerEnd, read, true);
                 } else if (!multipartRequest && multipartProcessor) {
                     // bad request - regular request for processor that expects multipart
-                    busyRecv = rejectRequest("Bad request. Multipart POST expected.");
+                    busyRecv = rejectRequest("Bad request. Multipart POST expected.", headerEnd, read, false);
                 } else if (multipartProcessor) {
                     busyRecv = consumeMultipart(fd, processor, headerEnd, read, newRequest, rescheduleContext);
                 } else {
+                    // HTTP/1.1 clients can pipeline requests, e.g. send several GETs
+                    // without waiting for responses. Whatever follows the header is
+                    // the beginning of the next request. We keep it at the start of
+                    // the receive buffer and get to it as soon as current response is sent.
+                    final long bufferEnd = recvBuffer + read;
+                    if (headerEnd < bufferEnd) {
+                        pipelinedBytes = (int) (bufferEnd - headerEnd);
+                        pipelinedRecvTimestamp = requestRecvTimestamp;
+                        Vect.memmove(recvBuffer, headerEnd, pipelinedBytes);
+                    } else if (pipelinedBytes == 0) {
+                        // we will not call processor if client has disconnected
+                        // before we had a chance to reply
+                        read = nf.recv(fd, recvBuffer, recvBufferSize);
+                        if (read > 0) {
+                            dumpBuffer(recvBuffer, read);
+                            pipelinedBytes = read;
+                            pipelinedRecvTimestamp = clock.getTicks();
+                        }
+                    }
 
-                    // Do not expect any more bytes to be sent to us before
-                    // we respond back to client. We will disconnect the client when
-                    // they abuse protocol. In addition, we will not call processor
-                    // if client has disconnected before we had a chance to reply.
-                    read = nf.recv(fd, recvBuffer, 1);
-                    if (read != 0) {
-                        dumpBuffer(recvBuffer, read);
+                    if (read < 0) {
                         LOG.info().$("disconnect after request [fd=").$(fd).$(']').$();
-                        handlePeerDisconnect(DISCONNECT_REASON_KICKED_OUT_AT_EXTRA_BYTES);
+                        handlePeerDisconnect(DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV);
                         busyRecv = false;
                     } else {
                         processor.onHeadersReady(this);
@@ -644,12 +716,55 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable, Retr
         return false;
     }
 
-    private boolean rejectRequest(CharSequence userMessage) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        clear();
+    private boolean rejectRequest(
+            CharSequence userMessage,
+            long headerEnd,
+            int read,
+            boolean multipartRequest
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
         LOG.error().$(userMessage).$();
+        if (multipartRequest) {
+            // multipart body follows the header and we cannot tell where it ends,
+            // the only way to stay in sync with the client is to close the connection
+            clear();
+            simpleResponse().sendStatus(404, userMessage);
+            throw ServerDisconnectException.INSTANCE;
+        }
+        // whatever follows the header is the next pipelined request
+        final long bufferEnd = recvBuffer + read;
+        if (headerEnd < bufferEnd) {
+            pipelinedBytes = (int) (bufferEnd - headerEnd);
+            pipelinedRecvTimestamp = requestRecvTimestamp;
+            Vect.memmove(recvBuffer, headerEnd, pipelinedBytes);
+        }
         simpleResponse().sendStatus(404, userMessage);
-        dispatcher.registerChannel(this, IOOperation.READ);
-        return false;
+        clear();
+        return true;
+    }
+
+    private void resetPipeline() {
+        if (nPipelinedRequests > 0) {
+            LOG.info()
+                    .$("pipelined requests [fd=").$(fd)
+                    .$(", count=").$(nPipelinedRequests)
+                    .$(", totalQueueTime=").$(totalQueueTime)
+                    .$(", maxQueueTime=").$(maxQueueTime)
+                    .$(']').$();
+        }
+        pipelinedBytes = 0;
+        requestRecvTimestamp = Numbers.LONG_NaN;
+        nPipelinedRequests = 0;
+        totalQueueTime = 0;
+        maxQueueTime = 0;
+    }
+
+    private void updateQueueTime() {
+        if (requestRecvTimestamp != Numbers.LONG_NaN) {
+            final long queueTime = clock.getTicks() - requestRecvTimestamp;
+            totalQueueTime += queueTime;
+            maxQueueTime = Math.max(maxQueueTime, queueTime);
+            metrics.addQueueTime(queueTime);
+        }
     }
 
     private void shiftReceiveBufferUnprocessedBytes(long start, int receivedBytes) {
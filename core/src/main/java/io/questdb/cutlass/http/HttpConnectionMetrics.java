@@ -0,0 +1,49 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Histogram;
+import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.NullMetricsRegistry;
+
+public class HttpConnectionMetrics {
+    public static final HttpConnectionMetrics DISABLED = new HttpConnectionMetrics(new NullMetricsRegistry());
+    private final Counter pipelinedRequestsCounter;
+    private final Histogram queueTime;
+
+    public HttpConnectionMetrics(MetricsRegistry metricsRegistry) {
+        this.pipelinedRequestsCounter = metricsRegistry.newCounter("http_pipelined_requests");
+        this.queueTime = metricsRegistry.newHistogram("http_request_queue_time_millis");
+    }
+
+    public void addPipelinedRequest() {
+        pipelinedRequestsCounter.inc();
+    }
+
+    public void addQueueTime(long queueTimeMillis) {
+        queueTime.record(queueTimeMillis);
+    }
+}
@@ -39,6 +39,7 @@ import java.io.Closeable;
 
 public class HttpResponseSink implements Closeable, Mutable {
     private final static Log LOG = LogFactory.getLog(HttpResponseSink.class);
+    private static final int MIN_CHUNK_SIZE = 4096;
     private static final IntObjHashMap<String> httpStatusMap = new IntObjHashMap<>();
 
     static {
@@ -61,6 +62,7 @@ public class HttpResponseSink implements Closeable, Mutable {
     private final HttpRawSocketImpl rawSocket = new HttpRawSocketImpl();
     private final NetworkFacade nf;
     private final int responseBufferSize;
+    private final int minChunkSize;
     private final boolean dumpNetworkTraffic;
     private final String httpVersion;
     private long fd;
@@ -69,6 +71,9 @@ public class HttpResponseSink implements Closeable, Mutable {
     private int crc = 0;
     private long total = 0;
     private long totalBytesSent = 0;
+    // size of chunked response data we accumulate before sending, it adapts
+    // to how fast peer drains the socket
+    private int chunkSize;
     private final boolean connectionCloseHeader;
     private boolean headersSent;
     private boolean chunkedRequestDone;
@@ -80,6 +85,8 @@ public class HttpResponseSink implements Closeable, Mutable {
         this.responseBufferSize = Numbers.ceilPow2(configuration.getSendBufferSize());
         this.nf = configuration.getNetworkFacade();
         this.buffer = new ChunkBuffer(responseBufferSize);
+        this.minChunkSize = Math.min(MIN_CHUNK_SIZE, responseBufferSize);
+        this.chunkSize = responseBufferSize;
         this.headerImpl = new HttpResponseHeaderImpl(configuration.getClock());
         this.dumpNetworkTraffic = configuration.getDumpNetworkTraffic();
         this.httpVersion = configuration.getHttpVersion();
@@ -96,6 +103,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         totalBytesSent = 0;
         headersSent = false;
         chunkedRequestDone = false;
+        buffer.resetWriteLimit();
         resetZip();
     }
 
@@ -235,8 +243,13 @@ public class HttpResponseSink implements Closeable, Mutable {
         return rawSocket;
     }
 
+    int getChunkSize() {
+        return chunkSize;
+    }
+
     void of(long fd) {
         this.fd = fd;
+        this.chunkSize = responseBufferSize;
     }
 
     private void prepareHeaderSink() {
@@ -538,10 +551,22 @@ public class HttpResponseSink implements Closeable, Mutable {
             return headerImpl;
         }
 
+        @Override
+        public long putDirect(long lo, long len) {
+            final long n = Math.min(len, buffer.getWriteNAvailable());
+            if (n > 0) {
+                Vect.memcpy(buffer._wptr, lo, n);
+                buffer.onWrite((int) n);
+            }
+            return n;
+        }
+
         @Override
         public boolean resetToBookmark() {
             buffer._wptr = bookmark;
-            return bookmark != buffer.bufStartOfData;
+            // when single unit of data does not fit the adapted chunk
+            // we let it use the whole buffer before giving up
+            return bookmark != buffer.bufStartOfData || buffer.resetWriteLimit();
         }
 
         @Override
@@ -552,7 +577,18 @@ public class HttpResponseSink implements Closeable, Mutable {
                 if (!deflateBeforeSend) {
                     buffer.prepareToReadFromBuffer(true, chunkedRequestDone);
                 }
-                resumeSend();
+                try {
+                    resumeSend();
+                } catch (PeerIsSlowToReadException e) {
+                    // peer did not drain the whole chunk, smaller chunks
+                    // get to the wire sooner and make us park less data
+                    chunkSize = Math.max(minChunkSize, chunkSize >> 1);
+                    buffer.setWriteLimit(chunkSize);
+                    throw e;
+                }
+                // socket took the whole chunk, larger chunks mean fewer sends
+                chunkSize = Math.min(responseBufferSize, chunkSize << 1);
+                buffer.setWriteLimit(chunkSize);
             }
         }
 
@@ -562,6 +598,7 @@ public class HttpResponseSink implements Closeable, Mutable {
             prepareHeaderSink();
             flushSingle();
             buffer.clearAndPrepareToWriteToBuffer();
+            buffer.setWriteLimit(chunkSize);
         }
 
         @Override
@@ -584,6 +621,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         private long bufStart;
         private final long bufStartOfData;
         private long bufEndOfData;
+        private long writeLimit;
         private long _wptr;
         private long _rptr;
 
@@ -591,6 +629,7 @@ public class HttpResponseSink implements Closeable, Mutable {
             bufStart = Unsafe.malloc(sz + MAX_CHUNK_HEADER_SIZE + EOF_CHUNK.length(), MemoryTag.NATIVE_HTTP_CONN);
             bufStartOfData = bufStart + MAX_CHUNK_HEADER_SIZE;
             bufEndOfData = bufStartOfData + sz;
+            writeLimit = bufEndOfData;
             clear();
         }
 
@@ -598,7 +637,7 @@ public class HttpResponseSink implements Closeable, Mutable {
         public void close() {
             if (0 != bufStart) {
                 Unsafe.free(bufStart, bufEndOfData - bufStart + EOF_CHUNK.length(), MemoryTag.NATIVE_HTTP_CONN);
-                bufStart = bufEndOfData = _wptr = _rptr = 0;
+                bufStart = bufEndOfData = writeLimit = _wptr = _rptr = 0;
             }
         }
 
@@ -629,7 +668,19 @@ public class HttpResponseSink implements Closeable, Mutable {
         }
 
         long getWriteNAvailable() {
-            return bufEndOfData - _wptr;
+            return writeLimit - _wptr;
+        }
+
+        boolean resetWriteLimit() {
+            if (writeLimit < bufEndOfData) {
+                writeLimit = bufEndOfData;
+                return true;
+            }
+            return false;
+        }
+
+        void setWriteLimit(int size) {
+            writeLimit = Math.min(bufEndOfData, bufStartOfData + size);
         }
 
         void onWrite(int nWrite) {
@@ -29,9 +29,11 @@ import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
 import io.questdb.cutlass.http.processors.*;
+import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.LatestByScanJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.EagerThreadSetup;
@@ -60,6 +62,10 @@ public class HttpServer implements Closeable {
 
 
     public HttpServer(HttpMinServerConfiguration configuration, WorkerPool pool, boolean localPool) {
+        this(configuration, pool, localPool, HttpConnectionMetrics.DISABLED);
+    }
+
+    public HttpServer(HttpMinServerConfiguration configuration, WorkerPool pool, boolean localPool, HttpConnectionMetrics metrics) {
         this.workerCount = pool.getWorkerCount();
         this.selectors = new ObjList<>(workerCount);
 
@@ -72,10 +78,11 @@ public class HttpServer implements Closeable {
             selectors.add(new HttpRequestProcessorSelectorImpl());
         }
 
-        this.httpContextFactory = new HttpContextFactory(configuration.getHttpContextConfiguration());
+        this.httpContextFactory = new HttpContextFactory(configuration.getHttpContextConfiguration(), metrics);
         this.dispatcher = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
-                httpContextFactory
+                httpContextFactory,
+                workerCount
         );
         pool.assign(dispatcher);
         this.rescheduleContext = new WaitProcessor(configuration.getWaitProcessorConfiguration());
@@ -90,7 +97,7 @@ public class HttpServer implements Closeable {
 
                 @Override
                 public boolean run(int workerId) {
-                    boolean useful = dispatcher.processIOQueue(processor);
+                    boolean useful = dispatcher.processIOQueue(workerId, processor);
                     useful |= rescheduleContext.runReruns(selector);
 
                     return useful;
@@ -184,6 +191,8 @@ public class HttpServer implements Closeable {
         workerPool.assign(new ColumnIndexerJob(cairoEngine.getMessageBus()));
         workerPool.assign(new GroupByJob(cairoEngine.getMessageBus()));
         workerPool.assign(new LatestByAllIndexedJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new LatestByScanJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new TextImportJob(cairoEngine.getMessageBus()));
     }
 
     @Nullable
@@ -274,7 +283,7 @@ public class HttpServer implements Closeable {
             FunctionFactoryCache functionFactoryCache,
             Metrics metrics
     ) {
-        final HttpServer s = new HttpServer(configuration, workerPool, localPool);
+        final HttpServer s = new HttpServer(configuration, workerPool, localPool, metrics.httpConnection());
         QueryCache.configure(configuration);
         HttpRequestProcessorBuilder jsonQueryProcessorBuilder = () -> new JsonQueryProcessor(
                 configuration.getJsonQueryProcessorConfiguration(),
@@ -294,7 +303,7 @@ public class HttpServer implements Closeable {
             FunctionFactoryCache functionFactoryCache,
             Metrics metrics
     ) {
-        final HttpServer s = new HttpServer(configuration, workerPool, localPool);
+        final HttpServer s = new HttpServer(configuration, workerPool, localPool, metrics.httpConnection());
         s.bind(new HttpRequestProcessorFactory() {
             @Override
             public HttpRequestProcessor newInstance() {
@@ -355,9 +364,9 @@ public class HttpServer implements Closeable {
         private final ThreadLocal<WeakObjectPool<HttpConnectionContext>> contextPool;
         private boolean closed = false;
 
-        public HttpContextFactory(HttpContextConfiguration configuration) {
+        public HttpContextFactory(HttpContextConfiguration configuration, HttpConnectionMetrics metrics) {
             this.contextPool = new ThreadLocal<>(() -> new WeakObjectPool<>(() ->
-                    new HttpConnectionContext(configuration), configuration.getConnectionPoolInitialCapacity()));
+                    new HttpConnectionContext(configuration, metrics), configuration.getConnectionPoolInitialCapacity()));
         }
 
         @Override
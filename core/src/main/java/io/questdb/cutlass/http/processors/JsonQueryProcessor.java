@@ -62,6 +62,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final NanosecondClock nanosecondClock;
     private final HttpSqlExecutionInterruptor interruptor;
     private final Metrics metrics;
+    private final QueryRegistry queryRegistry;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -105,10 +106,13 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.queryExecutors.extendAndSet(CompiledQuery.INSERT_AS_SELECT, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.COPY_REMOTE, JsonQueryProcessor::cannotCopyRemote);
         this.queryExecutors.extendAndSet(CompiledQuery.BACKUP_TABLE, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.COPY_OUT, this::executeNewSelect);
+        this.queryExecutors.extendAndSet(CompiledQuery.CANCEL_QUERY, sendConfirmation);
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.interruptor = new HttpSqlExecutionInterruptor(configuration.getInterruptorConfiguration());
         this.metrics = metrics;
+        this.queryRegistry = engine.getQueryRegistry();
     }
 
     @Override
@@ -124,7 +128,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         final HttpConnectionContext context = state.getHttpConnectionContext();
         // do not set random for new request to avoid copying random from previous request into next one
         // the only time we need to copy random from state is when we resume request execution
-        sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), interruptor.of(context.getFd()));
+        sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), state.registerQuery(context.getFd(), interruptor.of(context.getFd())));
         state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
         final RecordCursorFactory factory = QueryCache.getInstance().poll(state.getQuery());
         try {
@@ -146,13 +150,13 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         } catch (SqlException e) {
             syntaxError(context.getChunkedResponseSocket(), e, state, configuration.getKeepAliveHeader());
-            readyForNextRequest(context);
+            readyForNextRequest(state);
         } catch (EntryUnavailableException e) {
             LOG.info().$("[fd=").$(context.getFd()).$("] Resource busy, will retry").$();
             throw RetryOperationException.INSTANCE;
         } catch (CairoError | CairoException e) {
             internalError(context.getChunkedResponseSocket(), e.getFlyweightMessage(), e, state);
-            readyForNextRequest(context);
+            readyForNextRequest(state);
         } catch (PeerIsSlowToReadException | PeerDisconnectedException e) {
             // re-throw the exception
             throw e;
@@ -172,7 +176,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                     context,
                     nanosecondClock,
                     configuration.getFloatScale(),
-                    configuration.getDoubleScale()
+                    configuration.getDoubleScale(),
+                    queryRegistry
             ));
         }
 
@@ -182,7 +187,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (parseUrl(state, configuration.getKeepAliveHeader())) {
             execute0(state);
         } else {
-            readyForNextRequest(context);
+            readyForNextRequest(state);
         }
     }
 
@@ -193,7 +198,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         final JsonQueryProcessorState state = LV.get(context);
         if (state != null) {
             // we are resuming request execution, we need to copy random to execution context
-            sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), interruptor.of(context.getFd()));
+            sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), state.getInterruptor(interruptor.of(context.getFd())));
             doResumeSend(state, context);
         }
     }
@@ -219,6 +224,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
 
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         while (true) {
+            if (state.isQueryCancelled()) {
+                // query is cancelled half-way through the response, the only way to tell client is to disconnect
+                state.info().$("query cancelled [q=`").utf8(state.getQuery()).$("`]").$();
+                throw PeerDisconnectedException.INSTANCE;
+            }
             try {
                 state.resume(socket);
                 break;
@@ -236,7 +246,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             }
         }
         // reached the end naturally?
-        readyForNextRequest(context);
+        readyForNextRequest(state);
     }
 
     private static void cannotCopyRemote(
@@ -256,7 +266,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         socket.sendHeader();
     }
 
-    private static void readyForNextRequest(HttpConnectionContext context) {
+    private static void readyForNextRequest(JsonQueryProcessorState state) {
+        final HttpConnectionContext context = state.getHttpConnectionContext();
+        state.unregisterQuery();
         LOG.info().$("all sent [fd=").$(context.getFd()).$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent()).$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
                 .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
     }
@@ -271,7 +283,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         header(socket, keepAliveHeader);
         socket.put('{').putQuoted("ddl").put(':').putQuoted("OK").put('}').put('\n');
         socket.sendChunk(true);
-        readyForNextRequest(context);
+        readyForNextRequest(state);
     }
 
     static void sendException(
@@ -377,7 +389,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 header(context.getChunkedResponseSocket(), keepAliveHeader);
                 doResumeSend(state, context);
             } else {
-                readyForNextRequest(context);
+                readyForNextRequest(state);
             }
         } catch (CairoException ex) {
             state.setQueryCacheable(ex.isCacheable());
@@ -30,6 +30,9 @@ import io.questdb.std.datetime.millitime.MillisecondClock;
 
 public interface JsonQueryProcessorConfiguration {
 
+    // max number of rows in Arrow record batch sent by /exp?fmt=arrow
+    int getArrowBatchRowCount();
+
     MillisecondClock getClock();
 
     int getConnectionCheckFrequency();
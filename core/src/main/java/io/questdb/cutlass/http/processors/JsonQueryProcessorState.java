@@ -35,14 +35,18 @@ import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.griffin.QueryRegistry;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.DayCachingTimestampFormat;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StringSink;
@@ -67,9 +71,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final ObjList<String> columnNames = new ObjList<>();
     private final HttpConnectionContext httpConnectionContext;
     private final IntList columnSkewList = new IntList();
+    private final DayCachingTimestampFormat timestampFormat = new DayCachingTimestampFormat(TimestampFormatUtils.USEC_UTC_FORMAT, "Z");
     private final NanosecondClock nanosecondClock;
     private final int floatScale;
     private final int doubleScale;
+    private final QueryRegistry queryRegistry;
+    private QueryRegistry.Entry queryEntry;
     private Rnd rnd;
     private RecordCursorFactory recordCursorFactory;
     private RecordCursor cursor;
@@ -92,7 +99,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             HttpConnectionContext httpConnectionContext,
             NanosecondClock nanosecondClock,
             int floatScale,
-            int doubleScale
+            int doubleScale,
+            QueryRegistry queryRegistry
     ) {
         this.httpConnectionContext = httpConnectionContext;
         resumeActions.extendAndSet(QUERY_PREFIX, this::onQueryPrefix);
@@ -107,10 +115,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.nanosecondClock = nanosecondClock;
         this.floatScale = floatScale;
         this.doubleScale = doubleScale;
+        this.queryRegistry = queryRegistry;
     }
 
     @Override
     public void clear() {
+        unregisterQuery();
         columnCount = 0;
         columnSkewList.clear();
         columnTypesAndFlags.clear();
@@ -134,6 +144,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
 
     @Override
     public void close() {
+        unregisterQuery();
         cursor = Misc.free(cursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
     }
@@ -158,6 +169,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return LOG.error().$('[').$(getFd()).$("] ");
     }
 
+    /**
+     * @param interruptor interruptor of the connection on the current worker
+     * @return interruptor that also checks whether registered query was cancelled
+     */
+    public SqlExecutionInterruptor getInterruptor(SqlExecutionInterruptor interruptor) {
+        return queryEntry != null ? queryEntry.of(interruptor) : interruptor;
+    }
+
     public HttpConnectionContext getHttpConnectionContext() {
         return httpConnectionContext;
     }
@@ -206,6 +225,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 $("`]").$();
     }
 
+    public SqlExecutionInterruptor registerQuery(long fd, SqlExecutionInterruptor interruptor) {
+        unregisterQuery();
+        queryEntry = queryRegistry.register(query, fd, QueryRegistry.SOURCE_HTTP, interruptor);
+        return queryEntry;
+    }
+
     public void setCompilerNanos(long compilerNanos) {
         this.compilerNanos = compilerNanos;
     }
@@ -214,6 +239,13 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.executeStartNanos = nanosecondClock.getTicks();
     }
 
+    public void unregisterQuery() {
+        if (queryEntry != null) {
+            queryRegistry.unregister(queryEntry);
+            queryEntry = null;
+        }
+    }
+
     static void prepareExceptionJson(HttpChunkedResponseSocket socket, int position, CharSequence message, CharSequence query) throws PeerDisconnectedException, PeerIsSlowToReadException {
         socket.put('{').
                 putQuoted("query").put(':').encodeUtf8AndQuote(query == null ? "" : query).put(',').
@@ -298,13 +330,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         putStringOrNull(socket, rec.getSym(col));
     }
 
-    private static void putTimestampValue(HttpChunkedResponseSocket socket, Record rec, int col) {
+    private void putTimestampValue(HttpChunkedResponseSocket socket, Record rec, int col) {
         final long t = rec.getTimestamp(col);
         if (t == Long.MIN_VALUE) {
             socket.put("null");
             return;
         }
-        socket.put('"').putISODate(t).put('"');
+        socket.put('"');
+        timestampFormat.format(t, socket);
+        socket.put('"');
     }
 
     private static void putGeoHashStringByteValue(HttpChunkedResponseSocket socket, Record rec, int col, int bitFlags) {
@@ -418,13 +452,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private boolean doQueryNextRecord() {
-        if (cursor.hasNext()) {
-            if (count < stop) {
-                return true;
-            } else {
-                onNoMoreData();
-            }
+        // check the limit before advancing cursor, there is no point
+        // fetching the record we are not going to send
+        if (count < stop) {
+            return cursor.hasNext();
         }
+        onNoMoreData();
         return false;
     }
 
@@ -527,6 +560,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private void doQueryRecordSuffix(HttpChunkedResponseSocket socket) {
         queryState = QUERY_RECORD_SUFFIX;
         count++;
+        if (queryEntry != null) {
+            queryEntry.setRowCount(count);
+        }
         socket.bookmark();
         socket.put(']');
     }
@@ -661,7 +697,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             final long size = cursor.size();
             if (size < 0) {
                 LOG.info().$("counting").$();
-                long count = 1;
+                long count = 0;
                 while (cursor.hasNext()) {
                     count++;
                 }
@@ -721,6 +757,12 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private boolean onQuerySetupFirstRecord() {
         if (skip > 0) {
             final RecordCursor cursor = this.cursor;
+            final long size = cursor.size();
+            if (size > -1 && skip >= size) {
+                // cursor knows its size, we don't have to scroll it
+                // to find out there is nothing to send
+                return false;
+            }
             long target = skip + 1;
             while (target > 0 && cursor.hasNext()) {
                 target--;
@@ -748,6 +790,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         socket.put(rec.getFloat(col), floatScale);
     }
 
+    boolean isQueryCancelled() {
+        return queryEntry != null && queryEntry.isCancelled();
+    }
+
     void resume(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         resumeActions.getQuick(queryState).onResume(socket, columnCount);
     }
@@ -32,6 +32,7 @@ import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cutlass.arrow.ArrowStreamEncoder;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
@@ -46,6 +47,8 @@ import io.questdb.std.Chars;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
+import io.questdb.std.datetime.microtime.DayCachingTimestampFormat;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectByteCharSequence;
@@ -67,6 +70,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final MillisecondClock clock;
     private final int doubleScale;
     private final HttpSqlExecutionInterruptor interruptor;
+    private final DayCachingTimestampFormat timestampFormat = new DayCachingTimestampFormat(TimestampFormatUtils.USEC_UTC_FORMAT, "Z");
 
     public TextQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
@@ -128,7 +132,11 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     boolean runQuery = true;
                     do {
                         try {
-                            state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            if (state.arrow && state.recordCursorFactory.supportPageFrameCursor()) {
+                                state.pageFrameCursor = state.recordCursorFactory.getPageFrameCursor(sqlExecutionContext);
+                            } else {
+                                state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            }
                             runQuery = false;
                         } catch (ReaderOutOfDateException e) {
                             info(state).$(e.getFlyweightMessage()).$();
@@ -138,7 +146,14 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                         }
                     } while (runQuery);
                     state.metadata = state.recordCursorFactory.getMetadata();
-                    header(context.getChunkedResponseSocket(), state);
+                    if (state.arrow) {
+                        if (state.arrowEncoder == null) {
+                            state.arrowEncoder = new ArrowStreamEncoder();
+                        }
+                        arrowHeader(context.getChunkedResponseSocket(), state);
+                    } else {
+                        header(context.getChunkedResponseSocket(), state);
+                    }
                     resumeSend(context);
                 } catch (CairoException e) {
                     state.setQueryCacheable(e.isCacheable());
@@ -184,7 +199,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
-        if (state == null || state.cursor == null) {
+        if (state == null || (state.cursor == null && state.pageFrameCursor == null)) {
             return;
         }
 
@@ -193,6 +208,12 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         LOG.debug().$("resume [fd=").$(context.getFd()).$(']').$();
 
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        if (state.arrow) {
+            resumeArrow(socket, state);
+            readyForNextRequest(context);
+            return;
+        }
+
         final int columnCount = state.metadata.getColumnCount();
 
         OUT:
@@ -308,6 +329,40 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                 .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
     }
 
+    private static void sendArrowMessage(
+            HttpChunkedResponseSocket socket,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final ArrowStreamEncoder encoder = state.arrowEncoder;
+        final int segmentCount = encoder.getSegmentCount();
+        while (state.segmentIndex < segmentCount) {
+            final long size = encoder.getSegmentSize(state.segmentIndex);
+            state.segmentOffset += socket.putDirect(
+                    encoder.getSegmentAddress(state.segmentIndex) + state.segmentOffset,
+                    size - state.segmentOffset
+            );
+            if (state.segmentOffset == size) {
+                state.segmentIndex++;
+                state.segmentOffset = 0;
+            } else {
+                // response buffer is full
+                socket.sendChunk(false);
+            }
+        }
+    }
+
+    protected void arrowHeader(HttpChunkedResponseSocket socket, TextQueryProcessorState state) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        socket.status(200, ArrowStreamEncoder.CONTENT_TYPE);
+        if (state.fileName != null && state.fileName.length() > 0) {
+            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(".arrow\"").put(Misc.EOL);
+        } else {
+            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(".arrow\"").put(Misc.EOL);
+        }
+
+        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        socket.sendHeader();
+    }
+
     private LogRecord error(TextQueryProcessorState state) {
         return LOG.error().$('[').$(state.getFd()).$("] ");
     }
@@ -406,6 +461,54 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         state.stop = stop;
         state.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         state.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
+        state.arrow = Chars.equalsNc("arrow", request.getUrlParam("fmt"));
+        return true;
+    }
+
+    private boolean nextArrowBatch(TextQueryProcessorState state) {
+        final ArrowStreamEncoder encoder = state.arrowEncoder;
+        final int batchRowCount = configuration.getArrowBatchRowCount();
+        if (state.pageFrameCursor != null) {
+            while (true) {
+                if (state.pageFrame == null || state.frameRowLo == state.frameRowHi) {
+                    state.pageFrame = state.pageFrameCursor.next();
+                    if (state.pageFrame == null) {
+                        return false;
+                    }
+                    state.frameRowLo = 0;
+                    state.frameRowHi = state.pageFrame.getPartitionHi() - state.pageFrame.getPartitionLo();
+                    continue;
+                }
+
+                if (state.count < state.skip) {
+                    final long skipped = Math.min(state.skip - state.count, state.frameRowHi - state.frameRowLo);
+                    state.frameRowLo += skipped;
+                    state.count += skipped;
+                    continue;
+                }
+
+                final long n = Math.min(Math.min(state.frameRowHi - state.frameRowLo, batchRowCount), state.stop - state.count);
+                if (n < 1) {
+                    return false;
+                }
+                encoder.frameBatch(state.pageFrame, state.pageFrameCursor, state.frameRowLo, state.frameRowLo + n);
+                state.frameRowLo += n;
+                state.count += n;
+                return true;
+            }
+        }
+
+        encoder.beginBatch();
+        final Record record = state.cursor.getRecord();
+        while (state.count < state.stop && !encoder.isBatchFull(batchRowCount) && state.cursor.hasNext()) {
+            if (state.count++ >= state.skip) {
+                encoder.appendRecord(record);
+            }
+        }
+        if (encoder.getRowCount() == 0) {
+            return false;
+        }
+        encoder.endBatch();
         return true;
     }
 
@@ -450,7 +553,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             case ColumnType.TIMESTAMP:
                 l = rec.getTimestamp(col);
                 if (l > Long.MIN_VALUE) {
-                    socket.put('"').putISODate(l).put('"');
+                    socket.put('"');
+                    timestampFormat.format(l, socket);
+                    socket.put('"');
                 }
                 break;
             case ColumnType.SHORT:
@@ -479,6 +584,37 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private void resumeArrow(
+            HttpChunkedResponseSocket socket,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        while (true) {
+            if (state.arrowSending) {
+                sendArrowMessage(socket, state);
+                state.arrowSending = false;
+            }
+
+            switch (state.arrowState) {
+                case TextQueryProcessorState.ARROW_SCHEMA:
+                    state.arrowEncoder.of(state.metadata).schema();
+                    state.arrowState = TextQueryProcessorState.ARROW_BATCH;
+                    break;
+                case TextQueryProcessorState.ARROW_BATCH:
+                    if (!nextArrowBatch(state)) {
+                        state.arrowEncoder.eos();
+                        state.arrowState = TextQueryProcessorState.ARROW_DONE;
+                    }
+                    break;
+                default:
+                    socket.done();
+                    return;
+            }
+            state.arrowSending = true;
+            state.segmentIndex = 0;
+            state.segmentOffset = 0;
+        }
+    }
+
     private void sendConfirmation(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         socket.put("DDL Success\n");
         socket.sendChunk(true);
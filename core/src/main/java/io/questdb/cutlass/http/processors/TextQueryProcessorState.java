@@ -24,10 +24,8 @@
 
 package io.questdb.cutlass.http.processors;
 
-import io.questdb.cairo.sql.Record;
-import io.questdb.cairo.sql.RecordCursor;
-import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.*;
+import io.questdb.cutlass.arrow.ArrowStreamEncoder;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
@@ -37,6 +35,9 @@ import io.questdb.std.str.StringSink;
 import java.io.Closeable;
 
 public class TextQueryProcessorState implements Mutable, Closeable {
+    static final int ARROW_SCHEMA = 0;
+    static final int ARROW_BATCH = 1;
+    static final int ARROW_DONE = 2;
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
     boolean countRows = false;
@@ -53,6 +54,16 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     int columnIndex;
     private boolean queryCacheable = false;
     String fileName;
+    boolean arrow = false;
+    ArrowStreamEncoder arrowEncoder;
+    PageFrameCursor pageFrameCursor;
+    PageFrame pageFrame;
+    long frameRowLo;
+    long frameRowHi;
+    int arrowState;
+    boolean arrowSending;
+    int segmentIndex;
+    long segmentOffset;
 
     public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
         this.httpConnectionContext = httpConnectionContext;
@@ -62,6 +73,8 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     public void clear() {
         metadata = null;
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        pageFrame = null;
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
@@ -76,12 +89,20 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         queryState = JsonQueryProcessorState.QUERY_PREFIX;
         columnIndex = 0;
         countRows = false;
+        arrow = false;
+        arrowState = ARROW_SCHEMA;
+        arrowSending = false;
+        frameRowLo = frameRowHi = 0;
+        segmentIndex = 0;
+        segmentOffset = 0;
     }
 
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
+        arrowEncoder = Misc.free(arrowEncoder);
     }
 
     public long getFd() {
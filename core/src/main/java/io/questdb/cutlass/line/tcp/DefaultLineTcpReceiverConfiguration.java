@@ -87,6 +87,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public int getWriterTableQueueLimit() {
+        return 0;
+    }
+
     @Override
     public MicrosecondClock getMicrosecondClock() {
         return MicrosecondClockImpl.INSTANCE;
@@ -122,6 +127,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 100;
     }
 
+    @Override
+    public long getCommitLatencyTarget() {
+        return 0;
+    }
+
     @Override
     public String getAuthDbPath() {
         return null;
@@ -45,6 +45,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     private static final long QUEUE_FULL_LOG_HYSTERESIS_IN_MS = 10_000;
     protected final NetworkFacade nf;
     private final LineTcpMeasurementScheduler scheduler;
+    private final LineTcpMetrics metrics;
     private final MillisecondClock milliClock;
     private final DirectByteCharSequence byteCharSequence = new DirectByteCharSequence();
     private final LineTcpParser protoParser = new LineTcpParser();
@@ -62,6 +63,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler) {
         nf = configuration.getNetworkFacade();
         this.scheduler = scheduler;
+        this.metrics = scheduler.getMetrics();
         this.milliClock = configuration.getMillisecondClock();
         recvBufStart = Unsafe.malloc(configuration.getNetMsgBufferSize(), MemoryTag.NATIVE_DEFAULT);
         recvBufEnd = recvBufStart + configuration.getNetMsgBufferSize();
@@ -179,7 +181,9 @@ class LineTcpConnectionContext implements IOContext, Mutable {
                                 }
                                 return IOContextResult.QUEUE_FULL;
                             }
+                            metrics.incrementLines();
                         } else {
+                            metrics.incrementErrors();
                             int position = (int) (protoParser.getBufferAddress() - recvBufStartOfMeasurement);
                             LOG.error().$('[').$(fd).$("] could not parse measurement, code ").$(protoParser.getErrorCode()).$(" at ").$(position)
                                     .$(" line (may be mangled due to partial parsing) is ")
@@ -242,6 +246,7 @@ class LineTcpConnectionContext implements IOContext, Mutable {
         if (bufferRemaining > 0 && !peerDisconnected) {
             int bytesRead = nf.recv(fd, recvBufPos, bufferRemaining);
             if (bytesRead > 0) {
+                metrics.addBytes(bytesRead);
                 recvBufPos += bytesRead;
                 bufferRemaining -= bytesRead;
             } else {
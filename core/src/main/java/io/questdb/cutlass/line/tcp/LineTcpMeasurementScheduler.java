@@ -34,6 +34,7 @@ import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.cutlass.line.tcp.LineTcpParser.ProtoEntity;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.LabelledGaugeSource;
 import io.questdb.mp.*;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.IOOperation;
@@ -47,6 +48,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import static io.questdb.network.IODispatcher.DISCONNECT_REASON_UNKNOWN_OPERATION;
@@ -62,18 +64,28 @@ class LineTcpMeasurementScheduler implements Closeable {
     private static final int INCOMPLETE_EVENT_ID = -2;
     private static final int RELEASE_WRITER_EVENT_ID = -3;
     private static final int[] DEFAULT_COLUMN_TYPES = new int[LineTcpParser.N_ENTITY_TYPES];
+    // Visibility latency is bucketed by powers of two milliseconds, the last bucket collects
+    // everything above 2^(VISIBILITY_LATENCY_BUCKET_COUNT - 2) ms
+    static final int VISIBILITY_LATENCY_BUCKET_COUNT = 16;
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
     private final CairoConfiguration cairoConfiguration;
     private final MillisecondClock milliClock;
+    private final MicrosecondClock microClock;
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsByTableName;
     private final CharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsByTableName;
     private final int[] loadByWriterThread;
     private final int processedEventCountBeforeReshuffle;
+    // Maximum number of queued, not yet applied, measurements per table. Connections that publish
+    // to a table at this limit are parked by their IO job until the writer catches up
+    private final int tableQueueLimit;
     private final double maxLoadRatio;
     private final long maintenanceInterval;
+    private final long commitLatencyTarget;
+    // Writer threads check commit deadlines more often when there is a latency target
+    private final long writerMaintenanceInterval;
     private final long writerIdleTimeout;
     private final int defaultPartitionBy;
     private final int commitMode;
@@ -82,6 +94,7 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final Path path = new Path();
     private final MemoryMARW ddlMem = Vm.getMARWInstance();
     private final LineTcpReceiverConfiguration configuration;
+    private final LineTcpMetrics metrics;
     private Sequence pubSeq;
     private int loadCheckCycles = 0;
     private int reshuffleCount = 0;
@@ -99,13 +112,15 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.cairoConfiguration = engine.getConfiguration();
         this.configuration = lineConfiguration;
         this.milliClock = cairoConfiguration.getMillisecondClock();
+        this.microClock = lineConfiguration.getMicrosecondClock();
+        this.metrics = engine.getMetrics().lineTcp();
         this.commitMode = cairoConfiguration.getCommitMode();
 
         this.netIoJobs = new NetworkIOJob[ioWorkerPool.getWorkerCount()];
         for (int i = 0; i < ioWorkerPool.getWorkerCount(); i++) {
             NetworkIOJob netIoJob = createNetworkIOJob(dispatcher, i);
             netIoJobs[i] = netIoJob;
-            ioWorkerPool.assign(i, netIoJob);
+            ioWorkerPool.assign(i, netIoJob, JobPriority.HIGH);
             ioWorkerPool.assign(i, netIoJob::close);
         }
 
@@ -129,31 +144,36 @@ class LineTcpMeasurementScheduler implements Closeable {
         );
 
         pubSeq = new MPSequence(queueSize);
+        int tableQueueLimit = lineConfiguration.getWriterTableQueueLimit();
+        this.tableQueueLimit = tableQueueLimit > 0 ? Math.min(tableQueueLimit, queueSize) : Math.max(1, queueSize / 2);
 
         int nWriterThreads = writerWorkerPool.getWorkerCount();
         if (nWriterThreads > 1) {
             FanOut fanOut = new FanOut();
             for (int n = 0; n < nWriterThreads; n++) {
-                SCSequence subSeq = new SCSequence();
+                SCSequence subSeq = new SCSequence(writerWorkerPool.getWakeUpStrategy());
                 fanOut.and(subSeq);
                 WriterJob writerJob = new WriterJob(n, subSeq);
-                writerWorkerPool.assign(n, writerJob);
+                writerWorkerPool.assign(n, writerJob, JobPriority.HIGH);
                 writerWorkerPool.assign(n, writerJob::close);
             }
             pubSeq.then(fanOut).then(pubSeq);
         } else {
-            SCSequence subSeq = new SCSequence();
+            SCSequence subSeq = new SCSequence(writerWorkerPool.getWakeUpStrategy());
             pubSeq.then(subSeq).then(pubSeq);
             WriterJob writerJob = new WriterJob(0, subSeq);
-            writerWorkerPool.assign(0, writerJob);
+            writerWorkerPool.assign(0, writerJob, JobPriority.HIGH);
             writerWorkerPool.assign(0, writerJob::close);
         }
 
         processedEventCountBeforeReshuffle = lineConfiguration.getNUpdatesPerLoadRebalance();
         maxLoadRatio = lineConfiguration.getMaxLoadRatio();
         maintenanceInterval = lineConfiguration.getMaintenanceInterval();
+        commitLatencyTarget = lineConfiguration.getCommitLatencyTarget();
+        writerMaintenanceInterval = commitLatencyTarget > 0 ? Math.min(maintenanceInterval, Math.max(1, commitLatencyTarget / 2)) : maintenanceInterval;
         defaultPartitionBy = lineConfiguration.getDefaultPartitionBy();
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+        metrics.of(this);
     }
 
     @Override
@@ -189,6 +209,14 @@ class LineTcpMeasurementScheduler implements Closeable {
         return Numbers.ceilPow2((long) (maxMeasurementSize / 4) * (Integer.BYTES + Double.BYTES + 1));
     }
 
+    private static void scrapePendingEventCounts(CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsByTableName, LabelledGaugeSource.Sink sink) {
+        ObjList<CharSequence> tableNames = tableUpdateDetailsByTableName.keys();
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            final CharSequence tableName = tableNames.getQuick(i);
+            sink.put(tableName, tableUpdateDetailsByTableName.get(tableName).getPendingEventCount());
+        }
+    }
+
     @NotNull
     private TableUpdateDetails assignTableToWriterThread(String tableName) {
         TableUpdateDetails tableUpdateDetails;
@@ -407,6 +435,12 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         if (null != tableUpdateDetails) {
+            if (tableUpdateDetails.pendingEventCount.get() >= tableQueueLimit) {
+                // Writer of this table is behind, stop reading from this connection without
+                // holding up connections that write to other tables
+                netIoJob.throttle(tableUpdateDetails);
+                return true;
+            }
             long seq = getNextPublisherEventSequence();
             if (seq >= 0) {
                 try {
@@ -414,6 +448,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     event.threadId = INCOMPLETE_EVENT_ID;
                     TableUpdateDetails.ThreadLocalDetails localDetails = tableUpdateDetails.startNewMeasurementEvent(netIoJob.getWorkerId());
                     event.createMeasurementEvent(tableUpdateDetails, localDetails, protoParser, charSink);
+                    tableUpdateDetails.pendingEventCount.incrementAndGet();
                     return false;
                 } finally {
                     pubSeq.done(seq);
@@ -442,6 +477,88 @@ class LineTcpMeasurementScheduler implements Closeable {
         ObjList<SymbolCache> getUnusedSymbolCaches();
 
         int getWorkerId();
+
+        void throttle(TableUpdateDetails tableUpdateDetails);
+    }
+
+    LineTcpMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return number of queued measurements not yet applied, across all tables
+     */
+    int getPendingEventCount() {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            int count = 0;
+            ObjList<CharSequence> tableNames = tableUpdateDetailsByTableName.keys();
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                count += tableUpdateDetailsByTableName.get(tableNames.getQuick(i)).getPendingEventCount();
+            }
+            return count;
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
+    int getPendingEventCount(CharSequence tableName) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            TableUpdateDetails tableUpdateDetails = tableUpdateDetailsByTableName.get(tableName);
+            if (tableUpdateDetails == null) {
+                tableUpdateDetails = idleTableUpdateDetailsByTableName.get(tableName);
+            }
+            return tableUpdateDetails != null ? tableUpdateDetails.getPendingEventCount() : 0;
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes number of queued measurements not yet applied to the sink, per table.
+     * Idle tables are included, their count is zero unless they have been reactivated.
+     */
+    void scrapePendingEventCounts(LabelledGaugeSource.Sink sink) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            scrapePendingEventCounts(tableUpdateDetailsByTableName, sink);
+            scrapePendingEventCounts(idleTableUpdateDetailsByTableName, sink);
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
+    int getTableQueueLimit() {
+        return tableQueueLimit;
+    }
+
+    /**
+     * Copies per table histogram of the time rows spent waiting to be committed. Element n
+     * counts commits where the oldest row waited less than 2^n ms. Rows are only timed when
+     * commit latency target is set, otherwise all counts stay at zero.
+     *
+     * @param tableName table name
+     * @param sink      receives VISIBILITY_LATENCY_BUCKET_COUNT counts
+     * @return false when the table is unknown to the scheduler
+     */
+    boolean getVisibilityLatencyHistogram(CharSequence tableName, LongList sink) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            TableUpdateDetails tableUpdateDetails = tableUpdateDetailsByTableName.get(tableName);
+            if (tableUpdateDetails == null) {
+                tableUpdateDetails = idleTableUpdateDetailsByTableName.get(tableName);
+                if (tableUpdateDetails == null) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < VISIBILITY_LATENCY_BUCKET_COUNT; i++) {
+                sink.add(Unsafe.arrayGetVolatile(tableUpdateDetails.visibilityLatencyCounts, i));
+            }
+            return true;
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
     }
 
     private class LineTcpMeasurementEvent implements Closeable {
@@ -1002,6 +1119,8 @@ class LineTcpMeasurementScheduler implements Closeable {
     class TableUpdateDetails implements Closeable {
         final String tableName;
         private final ThreadLocalDetails[] localDetailsArray;
+        // Measurements published to the queue and not yet consumed by the writer thread
+        private final AtomicInteger pendingEventCount = new AtomicInteger();
         private int writerThreadId;
         // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
         // multiple threads without synchronisation
@@ -1011,6 +1130,11 @@ class LineTcpMeasurementScheduler implements Closeable {
         private long lastMeasurementMillis = Long.MAX_VALUE;
         private long lastCommitMillis;
         private int networkIOOwnerCount = 0;
+        // Append time of the oldest uncommitted row, Long.MAX_VALUE when there is none
+        private long firstUncommittedRowMillis = Long.MAX_VALUE;
+        // Moving average of commit duration, used to start latency driven commits early enough
+        private long commitCostMicros;
+        private final long[] visibilityLatencyCounts = new long[VISIBILITY_LATENCY_BUCKET_COUNT];
 
         private TableUpdateDetails(String tableName, int writerThreadId, NetworkIOJob[] netIoJobs) {
             this.tableName = tableName;
@@ -1057,6 +1181,10 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
         }
 
+        int getPendingEventCount() {
+            return pendingEventCount.get();
+        }
+
         int getSymbolIndex(ThreadLocalDetails localDetails, int colIndex, CharSequence symValue) {
             if (colIndex >= 0) {
                 return localDetails.getSymbolIndex(colIndex, symValue);
@@ -1072,9 +1200,57 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         void handleRowAppended() {
+            // row append time is only tracked when there is latency target to meet,
+            // otherwise we keep the clock read off the per row path
+            if (commitLatencyTarget > 0) {
+                final long ticks = milliClock.getTicks();
+                if (firstUncommittedRowMillis == Long.MAX_VALUE) {
+                    firstUncommittedRowMillis = ticks;
+                } else if (isCommitLatencyTargetDue(ticks)) {
+                    commitForLatencyTarget(true);
+                    return;
+                }
+            }
             if (writer.checkMaxAndCommitLag(commitMode)) {
-                lastCommitMillis = milliClock.getTicks();
+                onCommit(milliClock.getTicks());
+            }
+        }
+
+        /**
+         * @param rowsArriving true when called on row append, rows held back by commit lag
+         *                     are then committed with the next batch. Otherwise, e.g. when
+         *                     the table went idle, everything is committed so that no row
+         *                     waits longer than the latency target.
+         */
+        private void commitForLatencyTarget(boolean rowsArriving) {
+            final long start = microClock.getTicks();
+            if (rowsArriving && writer.getO3RowCount() > 0) {
+                // keep the table's lag so that out of order rows are merged in fewer, larger batches
+                writer.commitWithLag(commitMode);
+            } else {
+                writer.commit(commitMode);
             }
+            final long cost = microClock.getTicks() - start;
+            commitCostMicros = commitCostMicros == 0 ? cost : (commitCostMicros * 7 + cost) >> 3;
+            onCommit(milliClock.getTicks());
+        }
+
+        private boolean isCommitLatencyTargetDue(long ticks) {
+            return firstUncommittedRowMillis != Long.MAX_VALUE
+                    && ticks - firstUncommittedRowMillis + commitCostMicros / 1000 >= commitLatencyTarget;
+        }
+
+        private void onCommit(long ticks) {
+            if (firstUncommittedRowMillis != Long.MAX_VALUE) {
+                final long latency = Math.max(0, ticks - firstUncommittedRowMillis);
+                final int bucket = Math.min(VISIBILITY_LATENCY_BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(latency));
+                // single writer thread updates the counts, ordered write publishes them to readers
+                Unsafe.arrayPutOrdered(visibilityLatencyCounts, bucket, visibilityLatencyCounts[bucket] + 1);
+                metrics.addVisibilityLatency(latency);
+                // rows held back by commit lag remain uncommitted
+                firstUncommittedRowMillis = writer != null && writer.getO3RowCount() > 0 ? ticks : Long.MAX_VALUE;
+            }
+            lastCommitMillis = ticks;
         }
 
         void handleWriterRelease(boolean commit) {
@@ -1091,24 +1267,36 @@ class LineTcpMeasurementScheduler implements Closeable {
                     // do not leave writer locked
                     writer = Misc.free(writer);
                 }
-                lastCommitMillis = milliClock.getTicks();
+                onCommit(milliClock.getTicks());
             }
         }
 
         void handleWriterThreadMaintenance(long ticks) {
-            if (ticks - lastCommitMillis < maintenanceInterval) {
+            if (null == writer) {
                 return;
             }
-            if (null != writer) {
-                LOG.debug().$("maintenance commit [table=").$(writer.getTableName()).I$();
+            if (isCommitLatencyTargetDue(ticks)) {
+                LOG.debug().$("latency target commit [table=").$(writer.getTableName()).I$();
                 try {
-                    writer.commit();
+                    commitForLatencyTarget(false);
                 } catch (Throwable e) {
-                    LOG.error().$("could not commit [table=").$(writer.getTableName()).I$();
+                    LOG.error().$("could not commit [table=").$(writer.getTableName()).$(",ex=").$(e).I$();
                     writer = Misc.free(writer);
+                    onCommit(milliClock.getTicks());
                 }
-                lastCommitMillis = milliClock.getTicks();
+                return;
             }
+            if (ticks - lastCommitMillis < maintenanceInterval) {
+                return;
+            }
+            LOG.debug().$("maintenance commit [table=").$(writer.getTableName()).I$();
+            try {
+                writer.commit();
+            } catch (Throwable e) {
+                LOG.error().$("could not commit [table=").$(writer.getTableName()).$(",ex=").$(e).I$();
+                writer = Misc.free(writer);
+            }
+            onCommit(milliClock.getTicks());
         }
 
         ThreadLocalDetails startNewMeasurementEvent(int workerId) {
@@ -1294,7 +1482,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         private void doMaintenance() {
             final long millis = milliClock.getTicks();
-            if (millis - lastMaintenanceMillis < maintenanceInterval) {
+            if (millis - lastMaintenanceMillis < writerMaintenanceInterval) {
                 return;
             }
 
@@ -1326,9 +1514,11 @@ class LineTcpMeasurementScheduler implements Closeable {
                                 LOG.info().$("assigned table to writer thread [tableName=").$(event.tableUpdateDetails.tableName).$(", threadId=").$(workerId).I$();
                             }
                             event.processMeasurementEvent(this);
+                            event.tableUpdateDetails.pendingEventCount.decrementAndGet();
                             eventProcessed = true;
                         } catch (Throwable ex) {
                             LOG.error().$("closing writer for because of error [table=").$(event.tableUpdateDetails.tableName).$(",ex=").$(ex).I$();
+                            event.tableUpdateDetails.pendingEventCount.decrementAndGet();
                             event.createWriterReleaseEvent(event.tableUpdateDetails, false);
                             eventProcessed = false;
                         }
@@ -1426,6 +1616,11 @@ class LineTcpMeasurementScheduler implements Closeable {
         private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
         // Context blocked on LineTcpMeasurementScheduler queue
         private LineTcpConnectionContext busyContext = null;
+        // Contexts blocked on a table whose writer is behind, these are not registered with the
+        // dispatcher until the table's queue depth drops below the limit
+        private final ObjList<LineTcpConnectionContext> throttledContexts = new ObjList<>();
+        private final ObjList<TableUpdateDetails> throttledTables = new ObjList<>();
+        private TableUpdateDetails throttledTable;
         private final IORequestProcessor<LineTcpConnectionContext> onRequest = this::onRequest;
         private long maintenanceJobDeadline = milliClock.getTicks() + maintenanceInterval;
 
@@ -1466,6 +1661,11 @@ class LineTcpMeasurementScheduler implements Closeable {
             return workerId;
         }
 
+        @Override
+        public void throttle(TableUpdateDetails tableUpdateDetails) {
+            throttledTable = tableUpdateDetails;
+        }
+
         @Override
         public boolean run(int workerId) {
             assert this.workerId == workerId;
@@ -1479,7 +1679,14 @@ class LineTcpMeasurementScheduler implements Closeable {
                 busy = true;
             }
 
-            if (dispatcher.processIOQueue(onRequest)) {
+            if (resumeThrottledContexts()) {
+                if (busyContext != null) {
+                    return true;
+                }
+                busy = true;
+            }
+
+            if (dispatcher.processIOQueue(workerId, onRequest)) {
                 busy = true;
             }
 
@@ -1539,6 +1746,16 @@ class LineTcpMeasurementScheduler implements Closeable {
                         context.getDispatcher().registerChannel(context, IOOperation.WRITE);
                         return false;
                     case QUEUE_FULL:
+                        if (throttledTable != null) {
+                            throttledContexts.add(context);
+                            throttledTables.add(throttledTable);
+                            LOG.debug().$("context is waiting on a busy table [fd=").$(context.getFd())
+                                    .$(", tableName=").$(throttledTable.tableName)
+                                    .$(", pendingEventCount=").$(throttledTable.getPendingEventCount())
+                                    .I$();
+                            throttledTable = null;
+                            return false;
+                        }
                         return true;
                     case NEEDS_DISCONNECT:
                         context.getDispatcher().disconnect(context, DISCONNECT_REASON_UNKNOWN_OPERATION);
@@ -1548,6 +1765,25 @@ class LineTcpMeasurementScheduler implements Closeable {
             return false;
         }
 
+        private boolean resumeThrottledContexts() {
+            boolean busy = false;
+            for (int i = throttledContexts.size() - 1; i > -1; i--) {
+                if (throttledTables.getQuick(i).getPendingEventCount() < tableQueueLimit) {
+                    final LineTcpConnectionContext context = throttledContexts.getQuick(i);
+                    throttledContexts.remove(i);
+                    throttledTables.remove(i);
+                    LOG.debug().$("context is no longer waiting on a busy table [fd=").$(context.getFd()).$(']').$();
+                    busy = true;
+                    if (handleIO(context)) {
+                        // the shared queue is full, resume the rest once it drains
+                        busyContext = context;
+                        break;
+                    }
+                }
+            }
+            return busy;
+        }
+
         private void onRequest(int operation, LineTcpConnectionContext context) {
             if (handleIO(context)) {
                 busyContext = context;
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Histogram;
+import io.questdb.metrics.LabelledGaugeSource;
+import io.questdb.metrics.MetricsRegistry;
+
+public class LineTcpMetrics {
+    private final Counter lineCounter;
+    private final Counter byteCounter;
+    private final Counter errorCounter;
+    private final Histogram visibilityLatency;
+    private LineTcpMeasurementScheduler scheduler;
+
+    public LineTcpMetrics(MetricsRegistry metricsRegistry) {
+        this.lineCounter = metricsRegistry.newCounter("line_tcp_lines");
+        this.byteCounter = metricsRegistry.newCounter("line_tcp_bytes");
+        this.errorCounter = metricsRegistry.newCounter("line_tcp_errors");
+        this.visibilityLatency = metricsRegistry.newHistogram("line_tcp_visibility_latency_millis");
+        metricsRegistry.newVirtualGauge("line_tcp_writer_queue_depth", this::getWriterQueueDepth);
+        metricsRegistry.newVirtualGauge("line_tcp_table_queue_depth", "table", this::scrapeTableQueueDepth);
+    }
+
+    void addBytes(long byteCount) {
+        byteCounter.add(byteCount);
+    }
+
+    void addVisibilityLatency(long latencyMillis) {
+        visibilityLatency.record(latencyMillis);
+    }
+
+    void incrementErrors() {
+        errorCounter.inc();
+    }
+
+    void incrementLines() {
+        lineCounter.inc();
+    }
+
+    void of(LineTcpMeasurementScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    private long getWriterQueueDepth() {
+        final LineTcpMeasurementScheduler scheduler = this.scheduler;
+        return scheduler != null ? scheduler.getPendingEventCount() : 0;
+    }
+
+    private void scrapeTableQueueDepth(LabelledGaugeSource.Sink sink) {
+        final LineTcpMeasurementScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.scrapePendingEventCounts(sink);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.EagerThreadSetup;
+import io.questdb.mp.JobPriority;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.IOContextFactory;
 import io.questdb.network.IODispatcher;
@@ -57,10 +58,11 @@ public class LineTcpReceiver implements Closeable {
         this.contextFactory = new LineTcpConnectionContextFactory(lineConfiguration);
         this.dispatcher = IODispatchers.create(
                 lineConfiguration.getNetDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                ioWorkerPool.getWorkerCount()
         );
         this.dedicatedPools = dedicatedPools;
-        ioWorkerPool.assign(dispatcher);
+        ioWorkerPool.assign(dispatcher, JobPriority.HIGH);
         scheduler = new LineTcpMeasurementScheduler(lineConfiguration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
 
         final Closeable cleaner = contextFactory::closeContextPool;
@@ -91,6 +93,8 @@ public class LineTcpReceiver implements Closeable {
         }
         if (writerWorkerPool != sharedWorkerPool) {
             writerWorkerPool.assignCleaner(Path.CLEANER);
+            // writer thread runs o3 copy tasks when the queue is full
+            writerWorkerPool.assignCleaner(FilesFacadeImpl.CLEANER);
             dedicatedPools.add(writerWorkerPool);
         }
         LineTcpReceiver lineTcpReceiver = new LineTcpReceiver(lineConfiguration, cairoEngine, ioWorkerPool, writerWorkerPool, dedicatedPools);
@@ -52,6 +52,14 @@ public interface LineTcpReceiverConfiguration {
      */
     long getMaintenanceInterval();
 
+    /**
+     * Target time in milliseconds for appended rows to become visible to readers. When set, writers
+     * commit as soon as the oldest uncommitted row, plus the measured commit cost, reaches the target.
+     *
+     * @return visibility target in milliseconds, 0 disables latency driven commits
+     */
+    long getCommitLatencyTarget();
+
     double getMaxLoadRatio();
 
     int getMaxMeasurementSize();
@@ -74,6 +82,8 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    int getWriterTableQueueLimit();
+
     WorkerPoolAwareConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
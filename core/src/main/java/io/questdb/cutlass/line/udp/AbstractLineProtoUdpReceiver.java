@@ -27,6 +27,7 @@ package io.questdb.cutlass.line.udp;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.JobPriority;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.SynchronizedJob;
 import io.questdb.mp.WorkerPool;
@@ -85,7 +86,7 @@ public abstract class AbstractLineProtoUdpReceiver extends SynchronizedJob imple
             lexer.withParser(parser);
 
             if (!configuration.ownThread()) {
-                workerPool.assign(this);
+                workerPool.assign(this, JobPriority.HIGH);
                 logStarted(configuration);
             }
         } catch (Throwable e) {
@@ -33,11 +33,13 @@ import io.questdb.cutlass.text.TextLoader;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateLocale;
+import io.questdb.std.datetime.microtime.DayCachingTimestampFormat;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.*;
 import org.jetbrains.annotations.Nullable;
@@ -59,6 +61,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     public static final char STATUS_IN_ERROR = 'E';
     public static final char STATUS_IDLE = 'I';
     private static final int INT_BYTES_X = Numbers.bswap(Integer.BYTES);
+    private static final int LONG_BYTES_X = Numbers.bswap(Long.BYTES);
+    private static final int BOOL_BYTES_X = Numbers.bswap(Byte.BYTES);
     private static final int INT_NULL_X = Numbers.bswap(-1);
     private static final int SYNC_PARSE = 1;
     private static final int SYNC_DESCRIBE = 2;
@@ -83,12 +87,19 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     private static final byte MESSAGE_TYPE_NO_DATA = 'n';
     private static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
+    private static final byte MESSAGE_TYPE_COPY_OUT_RESPONSE = 'H';
+    private static final byte MESSAGE_TYPE_COPY_DATA = 'd';
+    private static final byte MESSAGE_TYPE_COPY_DONE = 'c';
+    // "PGCOPY\n\377\r\n\0" signature of binary COPY stream
+    private static final byte[] COPY_BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
     private static final byte MESSAGE_TYPE_PORTAL_SUSPENDED = 's';
     private static final int NO_TRANSACTION = 0;
     private static final int IN_TRANSACTION = 1;
     private static final int COMMIT_TRANSACTION = 2;
     private static final int ERROR_TRANSACTION = 3;
     private static final int ROLLING_BACK_TRANSACTION = 4;
+    // inserts pipelined by extended protocol without explicit transaction, committed at Sync
+    private static final int IMPLICIT_TRANSACTION = 5;
     private static final String WRITER_LOCK_REASON = "pgConnection";
     private static final int PROTOCOL_TAIL_COMMAND_LENGTH = 64;
     private final long recvBuffer;
@@ -122,6 +133,9 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private final CharSequenceObjHashMap<NamedStatementWrapper> namedStatementMap;
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final IntList syncActions = new IntList(4);
+    // per result set column writers, resolved from column types and format codes once per cursor
+    private final IntList columnEncoders = new IntList();
+    private final DayCachingTimestampFormat timestampFormat = new DayCachingTimestampFormat(TimestampFormatUtils.PG_TIMESTAMP_FORMAT, null);
     private final CairoEngine engine;
     private IntList activeSelectColumnTypes;
     private int parsePhaseBindVariableCount;
@@ -132,6 +146,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private int bufferRemainingOffset = 0;
     private int bufferRemainingSize = 0;
     private RecordCursor currentCursor = null;
+    private QueryRegistry.Entry queryEntry;
     private RecordCursorFactory currentFactory = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
@@ -150,11 +165,12 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private long rowCount;
     private boolean completed = true;
     private boolean isEmptyQuery;
+    private int copyFormat = TypesAndSelect.NO_COPY;
     private final PGResumeProcessor resumeCommandCompleteRef = this::resumeCommandComplete;
     private int transactionState = NO_TRANSACTION;
     private final PGResumeProcessor resumeQueryCompleteRef = this::resumeQueryComplete;
     private NamedStatementWrapper wrapper;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
+    private ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
     private WeakAutoClosableObjectPool<TypesAndSelect> typesAndSelectPool;
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
     // this is a reference to types either from the context or named statement, where it is provided
@@ -271,6 +287,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         username = null;
         typeManager.clear();
         clearWriters();
+        transactionState = NO_TRANSACTION;
         clearRecvBuffer();
         typesAndInsertCache.clear();
         namedStatementMap.clear();
@@ -297,7 +314,6 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
         Unsafe.free(sendBuffer, sendBufferSize, MemoryTag.NATIVE_PGW_CONN);
         Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_PGW_CONN);
-        Misc.free(typesAndSelectCache);
         Misc.free(path);
         Misc.free(utf8Sink);
     }
@@ -328,7 +344,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
+            @Transient ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool,
             int operation
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
@@ -549,6 +565,13 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         responseAsciiSink.put(record.getBool(columnIndex) ? 't' : 'f');
     }
 
+    private void appendBooleanColumnBin(Record record, int columnIndex) {
+        responseAsciiSink.ensureCapacity(5);
+        responseAsciiSink.putIntUnsafe(0, BOOL_BYTES_X);
+        Unsafe.getUnsafe().putByte(sendBufferPtr + 4, (byte) (record.getBool(columnIndex) ? 1 : 0));
+        responseAsciiSink.bump(5);
+    }
+
     private void appendByteColumn(Record record, int columnIndex) {
         long a = responseAsciiSink.skip();
         responseAsciiSink.put((int) record.getByte(columnIndex));
@@ -572,6 +595,181 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void appendCopyTextGeoHash(long value, int columnIndex) {
+        if (value == GeoHashes.NULL) {
+            appendCopyTextNull();
+        } else {
+            final int bitFlags = activeSelectColumnTypes.getQuick(2 * columnIndex + 1);
+            if (bitFlags < 0) {
+                GeoHashes.appendCharsUnsafe(value, -bitFlags, responseAsciiSink);
+            } else {
+                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, responseAsciiSink);
+            }
+        }
+    }
+
+    private void appendCopyTextNull() {
+        responseAsciiSink.put('\\').put('N');
+    }
+
+    private void appendCopyTextRecord(Record record, int columnCount) {
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+        final long offset = responseAsciiSink.skip();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                responseAsciiSink.put('\t');
+            }
+            appendCopyTextValue(record, i);
+        }
+        responseAsciiSink.put('\n');
+        responseAsciiSink.putLen(offset);
+        rowCount += 1;
+    }
+
+    private void appendCopyTextStr(CharSequence value) {
+        if (value == null) {
+            appendCopyTextNull();
+            return;
+        }
+        int lo = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char escape;
+            switch (value.charAt(i)) {
+                case '\\':
+                    escape = '\\';
+                    break;
+                case '\t':
+                    escape = 't';
+                    break;
+                case '\n':
+                    escape = 'n';
+                    break;
+                case '\r':
+                    escape = 'r';
+                    break;
+                default:
+                    continue;
+            }
+            responseAsciiSink.encodeUtf8(value, lo, i);
+            responseAsciiSink.put('\\').put(escape);
+            lo = i + 1;
+        }
+        responseAsciiSink.encodeUtf8(value, lo, value.length());
+    }
+
+    private void appendCopyTextValue(Record record, int columnIndex) {
+        switch (columnEncoders.getQuick(columnIndex)) {
+            case ColumnType.BOOLEAN:
+                responseAsciiSink.put(record.getBool(columnIndex) ? 't' : 'f');
+                break;
+            case ColumnType.BYTE:
+                responseAsciiSink.put((int) record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                responseAsciiSink.put((int) record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char charValue = record.getChar(columnIndex);
+                if (charValue == 0) {
+                    appendCopyTextNull();
+                } else {
+                    responseAsciiSink.putUtf8(charValue);
+                }
+                break;
+            case ColumnType.INT:
+                final int intValue = record.getInt(columnIndex);
+                if (intValue != Numbers.INT_NaN) {
+                    responseAsciiSink.put(intValue);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.LONG:
+                final long longValue = record.getLong(columnIndex);
+                if (longValue != Numbers.LONG_NaN) {
+                    responseAsciiSink.put(longValue);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.FLOAT:
+                final float floatValue = record.getFloat(columnIndex);
+                if (floatValue == floatValue) {
+                    responseAsciiSink.put(floatValue, 3);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.DOUBLE:
+                final double doubleValue = record.getDouble(columnIndex);
+                if (doubleValue == doubleValue) {
+                    responseAsciiSink.put(doubleValue);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.DATE:
+                final long dateValue = record.getDate(columnIndex);
+                if (dateValue != Numbers.LONG_NaN) {
+                    PG_DATE_MILLI_TIME_Z_FORMAT.format(dateValue, null, null, responseAsciiSink);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                final long timestampValue = record.getTimestamp(columnIndex);
+                if (timestampValue != Numbers.LONG_NaN) {
+                    timestampFormat.format(timestampValue, responseAsciiSink);
+                } else {
+                    appendCopyTextNull();
+                }
+                break;
+            case ColumnType.STRING:
+                appendCopyTextStr(record.getStr(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                appendCopyTextStr(record.getSym(columnIndex));
+                break;
+            case ColumnType.BINARY:
+                final BinarySequence sequence = record.getBin(columnIndex);
+                if (sequence == null) {
+                    appendCopyTextNull();
+                } else {
+                    // bytea hex format, its leading backslash is escaped as per text COPY rules
+                    responseAsciiSink.put('\\').put('\\').put('x');
+                    for (long i = 0, n = sequence.length(); i < n; i++) {
+                        Numbers.appendHex(responseAsciiSink, sequence.byteAt(i) & 0xff);
+                    }
+                }
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256Value = record.getLong256A(columnIndex);
+                if (long256Value.getLong0() == Numbers.LONG_NaN &&
+                        long256Value.getLong1() == Numbers.LONG_NaN &&
+                        long256Value.getLong2() == Numbers.LONG_NaN &&
+                        long256Value.getLong3() == Numbers.LONG_NaN) {
+                    appendCopyTextNull();
+                } else {
+                    Numbers.appendLong256(long256Value.getLong0(), long256Value.getLong1(), long256Value.getLong2(), long256Value.getLong3(), responseAsciiSink);
+                }
+                break;
+            case ColumnType.GEOBYTE:
+                appendCopyTextGeoHash(record.getGeoByte(columnIndex), columnIndex);
+                break;
+            case ColumnType.GEOSHORT:
+                appendCopyTextGeoHash(record.getGeoShort(columnIndex), columnIndex);
+                break;
+            case ColumnType.GEOINT:
+                appendCopyTextGeoHash(record.getGeoInt(columnIndex), columnIndex);
+                break;
+            case ColumnType.GEOLONG:
+                appendCopyTextGeoHash(record.getGeoLong(columnIndex), columnIndex);
+                break;
+            default:
+                assert false;
+        }
+    }
+
     private void appendDateColumn(Record record, int columnIndex) {
         final long longValue = record.getDate(columnIndex);
         if (longValue != Numbers.LONG_NaN) {
@@ -584,11 +782,10 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     private void appendDateColumnBin(Record record, int columnIndex) {
-        final long longValue = record.getLong(columnIndex);
+        final long longValue = record.getDate(columnIndex);
         if (longValue != Numbers.LONG_NaN) {
-            responseAsciiSink.putNetworkInt(Long.BYTES);
             // PG epoch starts at 2000 rather than 1970
-            responseAsciiSink.putNetworkLong(longValue * 1000 - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+            appendLongBin(longValue * 1000 - Numbers.JULIAN_EPOCH_OFFSET_USEC);
         } else {
             responseAsciiSink.setNullValue();
         }
@@ -608,8 +805,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private void appendDoubleColumnBin(Record record, int columnIndex) {
         final double value = record.getDouble(columnIndex);
         if (value == value) {
-            responseAsciiSink.putNetworkInt(Double.BYTES);
-            responseAsciiSink.putNetworkDouble(value);
+            appendLongBin(Double.doubleToLongBits(value));
         } else {
             responseAsciiSink.setNullValue();
         }
@@ -684,34 +880,45 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void appendLongBin(long value) {
+        responseAsciiSink.ensureCapacity(12);
+        responseAsciiSink.putIntUnsafe(0, LONG_BYTES_X);
+        Unsafe.getUnsafe().putLong(sendBufferPtr + 4, Numbers.bswap(value));
+        responseAsciiSink.bump(12);
+    }
+
     private void appendLongColumnBin(Record record, int columnIndex) {
         final long longValue = record.getLong(columnIndex);
         if (longValue != Numbers.LONG_NaN) {
-            responseAsciiSink.putNetworkInt(Long.BYTES);
-            responseAsciiSink.putNetworkLong(longValue);
+            appendLongBin(longValue);
         } else {
             responseAsciiSink.setNullValue();
         }
     }
 
     private void appendRecord(Record record, int columnCount) throws SqlException {
-        responseAsciiSink.put(MESSAGE_TYPE_DATA_ROW); // data
+        switch (copyFormat) {
+            case CopyModel.FORMAT_TEXT:
+                appendCopyTextRecord(record, columnCount);
+                return;
+            case CopyModel.FORMAT_BINARY:
+                // binary COPY tuple has the same layout as DataRow body
+                responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+                break;
+            default:
+                responseAsciiSink.put(MESSAGE_TYPE_DATA_ROW); // data
+                break;
+        }
         final long offset = responseAsciiSink.skip();
         responseAsciiSink.putNetworkShort((short) columnCount);
         for (int i = 0; i < columnCount; i++) {
-            final int type = activeSelectColumnTypes.getQuick(2 * i);
-            final short columnBinaryFlag = getColumnBinaryFlag(type);
-            final int typeTag = ColumnType.tagOf(type);
-
-            final int tagWithFlag = toColumnBinaryType(columnBinaryFlag, typeTag);
-            switch (tagWithFlag) {
+            switch (columnEncoders.getQuick(i)) {
                 case BINARY_TYPE_INT:
                     appendIntColumnBin(record, i);
                     break;
                 case ColumnType.INT:
                     appendIntCol(record, i);
                     break;
-                case ColumnType.NULL:
                 case ColumnType.STRING:
                 case BINARY_TYPE_STRING:
                     appendStrColumn(record, i);
@@ -760,9 +967,11 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                     appendDateColumn(record, i);
                     break;
                 case ColumnType.BOOLEAN:
-                case BINARY_TYPE_BOOLEAN:
                     appendBooleanColumn(record, i);
                     break;
+                case BINARY_TYPE_BOOLEAN:
+                    appendBooleanColumnBin(record, i);
+                    break;
                 case ColumnType.BYTE:
                     appendByteColumn(record, i);
                     break;
@@ -779,15 +988,20 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                     appendLong256Column(record, i);
                     break;
                 case ColumnType.GEOBYTE:
+                case BINARY_TYPE_GEOBYTE:
+                    // binary representation of varchar is the same as text
                     putGeoHashStringByteValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOSHORT:
+                case BINARY_TYPE_GEOSHORT:
                     putGeoHashStringShortValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOINT:
+                case BINARY_TYPE_GEOINT:
                     putGeoHashStringIntValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOLONG:
+                case BINARY_TYPE_GEOLONG:
                     putGeoHashStringLongValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 default:
@@ -884,19 +1098,18 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             responseAsciiSink.setNullValue();
         } else {
             a = responseAsciiSink.skip();
-            TimestampFormatUtils.PG_TIMESTAMP_FORMAT.format(longValue, null, null, responseAsciiSink);
+            timestampFormat.format(longValue, responseAsciiSink);
             responseAsciiSink.putLenEx(a);
         }
     }
 
     private void appendTimestampColumnBin(Record record, int columnIndex) {
-        final long longValue = record.getLong(columnIndex);
+        final long longValue = record.getTimestamp(columnIndex);
         if (longValue == Numbers.LONG_NaN) {
             responseAsciiSink.setNullValue();
         } else {
-            responseAsciiSink.putNetworkInt(Long.BYTES);
             // PG epoch starts at 2000 rather than 1970
-            responseAsciiSink.putNetworkLong(longValue - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+            appendLongBin(longValue - Numbers.JULIAN_EPOCH_OFFSET_USEC);
         }
     }
 
@@ -998,24 +1211,53 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
         for (int i = 0; i < columnCount; i++) {
             int columnType = m.getColumnType(i);
-            int flags = 0;
-            if (ColumnType.isGeoHash(columnType)) {
-                final int bits = ColumnType.getGeoHashBits(columnType);
-                if (bits > 0 && bits % 5 == 0) {
-                    // It's 5 bit per char. If it's integer number of chars value to be serialized as chars
-                    flags = -bits / 5;
-                } else {
-                    flags = bits;
-                }
-            }
             activeSelectColumnTypes.setQuick(2 * i, columnType);
-            activeSelectColumnTypes.setQuick(2 * i + 1, flags);
+            activeSelectColumnTypes.setQuick(2 * i + 1, getGeoHashFlags(columnType));
+        }
+    }
+
+    private static int getGeoHashFlags(int columnType) {
+        if (ColumnType.isGeoHash(columnType)) {
+            final int bits = ColumnType.getGeoHashBits(columnType);
+            if (bits > 0 && bits % 5 == 0) {
+                // It's 5 bit per char. If it's integer number of chars value to be serialized as chars
+                return -bits / 5;
+            }
+            return bits;
+        }
+        return 0;
+    }
+
+    private void compileColumnEncoders(int columnCount) {
+        // writers are resolved once per result set so that the row loop
+        // does not have to decode column type and format code for every cell
+        columnEncoders.setPos(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int type = activeSelectColumnTypes.getQuick(2 * i);
+            int typeTag = ColumnType.tagOf(type);
+            if (typeTag == ColumnType.NULL) {
+                typeTag = ColumnType.STRING;
+            }
+            final short binaryFlag;
+            switch (copyFormat) {
+                case CopyModel.FORMAT_BINARY:
+                    binaryFlag = 1;
+                    break;
+                case CopyModel.FORMAT_TEXT:
+                    binaryFlag = 0;
+                    break;
+                default:
+                    binaryFlag = getColumnBinaryFlag(type);
+                    break;
+            }
+            columnEncoders.setQuick(i, toColumnBinaryType(binaryFlag, typeTag));
         }
     }
 
     private void clearCursorAndFactory() {
         resumeProcessor = null;
         currentCursor = Misc.free(currentCursor);
+        unregisterQuery();
         // do not free factory, it will be cached
         currentFactory = null;
         // we we resumed the cursor send the typeAndSelect will be null
@@ -1043,8 +1285,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             typesAndInsert = typesAndInsertCache.peek(queryText);
 
             // not found or not insert, try select
-            // poll this cache because it is shared and we do not want
-            // select factory to be used by another thread concurrently
+            // poll this cache because it is shared by all connections and we do not
+            // want select factory to be used by another connection concurrently
             if (typesAndInsert != null) {
                 typesAndInsert.defineBindVariables(bindVariableService);
                 queryTag = TAG_INSERT;
@@ -1057,7 +1299,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 // cache hit, define bind variables
                 bindVariableService.clear();
                 typesAndSelect.defineBindVariables(bindVariableService);
-                queryTag = TAG_SELECT;
+                queryTag = typesAndSelect.getCopyFormat() == TypesAndSelect.NO_COPY ? TAG_SELECT : TAG_COPY;
                 return false;
             }
 
@@ -1082,6 +1324,11 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                         typesAndInsertCache.put(queryText, typesAndInsert);
                     }
                     break;
+                case CompiledQuery.COPY_OUT:
+                    typesAndSelect = typesAndSelectPool.pop();
+                    typesAndSelect.of(cc.getRecordCursorFactory(), cc.getCopyFormat(), bindVariableService);
+                    queryTag = TAG_COPY;
+                    break;
                 case CompiledQuery.COPY_LOCAL:
                     // uncached
                     queryTag = TAG_COPY;
@@ -1245,15 +1492,46 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
-    private void executeInsert() throws SqlException {
-        final TableWriter w;
+    private void commitImplicitTransaction() {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            transactionState = NO_TRANSACTION;
+            commitPendingWriters();
+        }
+    }
+
+    private void commitPendingWriters() {
+        try {
+            for (int i = 0, n = pendingWriters.size(); i < n; i++) {
+                pendingWriters.valueQuick(i).commit();
+            }
+        } finally {
+            // writers that failed to commit are rolled back on return to pool
+            clearWriters();
+        }
+    }
+
+    private void executeInsert(boolean pipelined) throws SqlException {
         try {
             switch (transactionState) {
+                case NO_TRANSACTION:
+                    if (!pipelined) {
+                        // simple query protocol, commit in place
+                        try (final InsertMethod m2 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
+                            rowCount = m2.execute();
+                            m2.commit();
+                        }
+                        break;
+                    }
+                    // batches of Bind/Execute, e.g. JDBC executeBatch(), keep writer between executions
+                    // and commit once when client sends Sync
+                    transactionState = IMPLICIT_TRANSACTION;
+                    // fall through
                 case IN_TRANSACTION:
+                case IMPLICIT_TRANSACTION:
                     final InsertMethod m = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this);
                     try {
                         rowCount = m.execute();
-                        w = m.popWriter();
+                        final TableWriter w = m.popWriter();
                         pendingWriters.put(w.getTableName(), w);
                     } catch (Throwable e) {
                         Misc.free(m);
@@ -1262,6 +1540,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                     break;
                 case ERROR_TRANSACTION:
                     // when transaction is in error state, skip execution
+                    rowCount = 0;
                     break;
                 default:
                     // in any other case we will commit in place
@@ -1291,13 +1570,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         switch (transactionState) {
             case COMMIT_TRANSACTION:
                 try {
-                    for (int i = 0, n = pendingWriters.size(); i < n; i++) {
-                        final TableWriter m = pendingWriters.valueQuick(i);
-                        m.commit();
-                        Misc.free(m);
-                    }
+                    commitPendingWriters();
                 } finally {
-                    pendingWriters.clear();
                     transactionState = NO_TRANSACTION;
                 }
                 break;
@@ -1421,6 +1695,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 processExec(msgLo, msgLimit, compiler);
                 break;
             case 'S': // sync
+                commitImplicitTransaction();
                 processSyncActions();
                 prepareReadyForQuery();
                 prepareForNewQuery();
@@ -1469,6 +1744,10 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     void prepareCommandComplete(boolean addRowCount) {
+        if (copyFormat != TypesAndSelect.NO_COPY) {
+            // COPY OUT stream has to be terminated before command completes
+            prepareCopyDone();
+        }
         if (isEmptyQuery) {
             LOG.debug().$("empty").$();
             responseAsciiSink.put(MESSAGE_TYPE_EMPTY_QUERY);
@@ -1492,8 +1771,42 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void prepareCopyDone() {
+        if (copyFormat == CopyModel.FORMAT_BINARY) {
+            // file trailer is -1 in place of tuple field count
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            responseAsciiSink.putNetworkInt(Integer.BYTES + Short.BYTES);
+            responseAsciiSink.putNetworkShort((short) -1);
+        }
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DONE);
+        responseAsciiSink.putIntDirect(INT_BYTES_X);
+    }
+
+    private void prepareCopyOutResponse() {
+        final int columnCount = typesAndSelect.getFactory().getMetadata().getColumnCount();
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_OUT_RESPONSE);
+        final long addr = responseAsciiSink.skip();
+        responseAsciiSink.put((byte) copyFormat);
+        responseAsciiSink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseAsciiSink.putNetworkShort((short) copyFormat);
+        }
+        responseAsciiSink.putLen(addr);
+
+        if (copyFormat == CopyModel.FORMAT_BINARY) {
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            final long a = responseAsciiSink.skip();
+            for (int i = 0, n = COPY_BINARY_SIGNATURE.length; i < n; i++) {
+                responseAsciiSink.put(COPY_BINARY_SIGNATURE[i]);
+            }
+            responseAsciiSink.putIntDirect(0); // flags
+            responseAsciiSink.putIntDirect(0); // header extension length
+            responseAsciiSink.putLen(a);
+        }
+    }
+
     private void prepareDescribePortalResponse() {
-        if (typesAndSelect != null) {
+        if (typesAndSelect != null && typesAndSelect.getCopyFormat() == TypesAndSelect.NO_COPY) {
             try {
                 prepareRowDescription();
             } catch (NoSpaceLeftInResponseBufferException ignored) {
@@ -1542,9 +1855,11 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             characterStore.clear();
             bindVariableService.clear();
             currentCursor = Misc.free(currentCursor);
+            unregisterQuery();
             typesAndInsert = null;
             typesAndSelect = null;
             rowCount = 0;
+            copyFormat = TypesAndSelect.NO_COPY;
             queryTag = TAG_OK;
             queryText = null;
             wrapper = null;
@@ -1720,14 +2035,14 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                             lo += Short.BYTES;
                             final short code = getShortUnsafe(lo);
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, getGeoHashFlags(m.getColumnType(i)));
                         }
                     } else if (columnFormatCodeCount == 1) {
                         lo += Short.BYTES;
                         final short code = getShortUnsafe(lo);
                         for (int i = 0; i < columnCount; i++) {
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, getGeoHashFlags(m.getColumnType(i)));
                         }
                     } else {
                         LOG.error()
@@ -1843,12 +2158,21 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private void processExecute(int maxRows, SqlCompiler compiler) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
+            // make pipelined inserts visible to the query
+            commitImplicitTransaction();
+            copyFormat = typesAndSelect.getCopyFormat();
             setupFactoryAndCursor(compiler);
+            if (copyFormat != TypesAndSelect.NO_COPY) {
+                // COPY is never suspended
+                prepareCopyOutResponse();
+                maxRows = 0;
+            }
             sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
-            executeInsert();
+            executeInsert(true);
         } else { //this must be a OK/SET/COMMIT/ROLLBACK or empty query
+            commitImplicitTransaction();
             executeTag();
             prepareCommandComplete(false);
         }
@@ -2002,16 +2326,24 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             activeSelectColumnTypes = selectColumnTypes;
             buildSelectColumnTypes();
             assert queryText != null;
-            queryTag = TAG_SELECT;
+            copyFormat = typesAndSelect.getCopyFormat();
             setupFactoryAndCursor(compiler);
-            prepareRowDescription();
+            if (copyFormat == TypesAndSelect.NO_COPY) {
+                queryTag = TAG_SELECT;
+                prepareRowDescription();
+            } else {
+                queryTag = TAG_COPY;
+                prepareCopyOutResponse();
+            }
             sendCursor(0, resumeCursorQueryRef, resumeQueryCompleteRef);
         } else if (typesAndInsert != null) {
-            executeInsert();
+            executeInsert(false);
         } else {
             executeTag();
             prepareCommandComplete(false);
         }
+        // simple query is an implicit Sync
+        commitImplicitTransaction();
         sendReadyForNewQuery();
     }
 
@@ -2076,6 +2408,12 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     private void reportError(int position, CharSequence flyweightMessage, long errno)
             throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            // error aborts the whole pipelined batch, rest of the received messages is discarded below
+            transactionState = NO_TRANSACTION;
+            clearWriters();
+        }
+        unregisterQuery();
         prepareError(position, flyweightMessage, errno);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2160,12 +2498,17 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         final long cursorRowCount = currentCursor.size();
         this.maxRows = maxRows > 0 ? Long.min(maxRows, cursorRowCount) : Long.MAX_VALUE;
         this.resumeProcessor = cursorResumeProcessor;
+        compileColumnEncoders(columnCount);
         sendCursor0(record, columnCount, commandCompleteResumeProcessor);
     }
 
     private void sendCursor0(Record record, int columnCount, PGResumeProcessor commandCompleteResumeProcessor)
             throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
         while (currentCursor.hasNext()) {
+            if (queryEntry != null) {
+                queryEntry.setRowCount(rowCount);
+                queryEntry.checkInterrupted();
+            }
             // create checkpoint to which we can undo the buffer in case
             // current DataRow will does not fit fully.
             responseAsciiSink.bookmark();
@@ -2206,6 +2549,9 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
 
     private void setupFactoryAndCursor(SqlCompiler compiler) throws SqlException, PeerIsSlowToReadException, PeerDisconnectedException {
         if (currentCursor == null) {
+            unregisterQuery();
+            queryEntry = engine.getQueryRegistry().register(queryText, fd, QueryRegistry.SOURCE_PGWIRE, null);
+            sqlExecutionContext.with(queryEntry);
             boolean recompileStale = true;
             do {
                 currentFactory = typesAndSelect.getFactory();
@@ -2256,6 +2602,16 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         recvBufferReadOffset = 0;
     }
 
+    private void unregisterQuery() {
+        if (queryEntry != null) {
+            // entry is pooled by the registry, context must not keep checking it
+            sqlExecutionContext.with(SqlExecutionInterruptor.NOP_INTERRUPTOR);
+            queryEntry.setRowCount(rowCount);
+            engine.getQueryRegistry().unregister(queryEntry);
+            queryEntry = null;
+        }
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -30,7 +30,7 @@ import io.questdb.griffin.SqlCompiler;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.PeerIsSlowToWriteException;
-import io.questdb.std.AssociativeCache;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.WeakAutoClosableObjectPool;
 
@@ -39,25 +39,27 @@ import java.io.Closeable;
 public class PGJobContext implements Closeable {
 
     private final SqlCompiler compiler;
-    private final AssociativeCache<TypesAndSelect> selectAndTypesCache;
+    // select cache and pool are shared by all workers of the server
+    private final ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache;
     private final WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool;
 
-    public PGJobContext(PGWireConfiguration configuration, CairoEngine engine, FunctionFactoryCache functionFactoryCache) {
+    public PGJobContext(
+            CairoEngine engine,
+            FunctionFactoryCache functionFactoryCache,
+            ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache,
+            WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool
+    ) {
         this.compiler = new SqlCompiler(engine, functionFactoryCache);
-        this.selectAndTypesCache = new AssociativeCache<>(
-                configuration.getFactoryCacheColumnCount(),
-                configuration.getFactoryCacheRowCount()
-        );
-        this.selectAndTypesPool = new WeakAutoClosableObjectPool<>(
-                TypesAndSelect::new,
-                configuration.getFactoryCacheColumnCount() * configuration.getFactoryCacheRowCount()
-        );
+        this.selectAndTypesCache = selectAndTypesCache;
+        this.selectAndTypesPool = selectAndTypesPool;
     }
 
     @Override
     public void close() {
         Misc.free(compiler);
-        Misc.free(selectAndTypesCache);
+        // factories in the cache may hold readers, release them while worker is
+        // shutting down, other workers will repopulate the cache if they are still running
+        selectAndTypesCache.clear();
     }
 
     public void handleClientOperation(PGConnectionContext context, int operation)
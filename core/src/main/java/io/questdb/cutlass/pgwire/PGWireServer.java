@@ -34,8 +34,10 @@ import io.questdb.mp.EagerThreadSetup;
 import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.ThreadLocal;
+import io.questdb.std.WeakAutoClosableObjectPool;
 import io.questdb.std.WeakObjectPool;
 import org.jetbrains.annotations.Nullable;
 
@@ -48,6 +50,7 @@ public class PGWireServer implements Closeable {
     private final IODispatcher<PGConnectionContext> dispatcher;
     private final PGConnectionContextFactory contextFactory;
     private final WorkerPool workerPool;
+    private final ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache;
 
     public PGWireServer(
             PGWireConfiguration configuration,
@@ -59,13 +62,28 @@ public class PGWireServer implements Closeable {
         this.contextFactory = new PGConnectionContextFactory(engine, configuration, workerPool.getWorkerCount());
         this.dispatcher = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                workerPool.getWorkerCount()
         );
 
         workerPool.assign(dispatcher);
 
-        for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
-            final PGJobContext jobContext = new PGJobContext(configuration, engine, functionFactoryCache);
+        // compiled select statements are shared by all connections, so that new connections
+        // do not have to compile what other connections already did; total capacity is the
+        // same as if each worker had its own cache
+        final int workerCount = workerPool.getWorkerCount();
+        this.selectAndTypesCache = new ConcurrentAssociativeCache<>(
+                workerCount,
+                configuration.getFactoryCacheColumnCount(),
+                configuration.getFactoryCacheRowCount()
+        );
+        final WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool = new WeakAutoClosableObjectPool<>(
+                TypesAndSelect::new,
+                configuration.getFactoryCacheColumnCount() * configuration.getFactoryCacheRowCount()
+        );
+
+        for (int i = 0; i < workerCount; i++) {
+            final PGJobContext jobContext = new PGJobContext(engine, functionFactoryCache, selectAndTypesCache, selectAndTypesPool);
             workerPool.assign(i, new Job() {
                 private final IORequestProcessor<PGConnectionContext> processor = (operation, context) -> {
                     try {
@@ -84,7 +102,7 @@ public class PGWireServer implements Closeable {
 
                 @Override
                 public boolean run(int workerId) {
-                    return dispatcher.processIOQueue(processor);
+                    return dispatcher.processIOQueue(workerId, processor);
                 }
             });
 
@@ -131,6 +149,7 @@ public class PGWireServer implements Closeable {
         }
         Misc.free(contextFactory);
         Misc.free(dispatcher);
+        Misc.free(selectAndTypesCache);
     }
 
     private static class PGConnectionContextFactory implements IOContextFactory<PGConnectionContext>, Closeable, EagerThreadSetup {
@@ -30,7 +30,10 @@ import io.questdb.std.Misc;
 import io.questdb.std.WeakAutoClosableObjectPool;
 
 public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
+    public static final int NO_COPY = -1;
     private RecordCursorFactory factory;
+    // COPY ... TO STDOUT format of this select or NO_COPY for plain select
+    private int copyFormat = NO_COPY;
 
     public TypesAndSelect(WeakAutoClosableObjectPool<TypesAndSelect> parentPool) {
         super(parentPool);
@@ -46,8 +49,17 @@ public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
         return factory;
     }
 
+    public int getCopyFormat() {
+        return copyFormat;
+    }
+
     public void of(RecordCursorFactory factory, BindVariableService bindVariableService) {
+        of(factory, NO_COPY, bindVariableService);
+    }
+
+    public void of(RecordCursorFactory factory, int copyFormat, BindVariableService bindVariableService) {
         this.factory = factory;
+        this.copyFormat = copyFormat;
         copyTypesFrom(bindVariableService);
     }
 }
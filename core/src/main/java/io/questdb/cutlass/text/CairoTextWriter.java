@@ -189,6 +189,83 @@ public class CairoTextWriter implements Closeable, Mutable {
         }
     }
 
+    /**
+     * Appends rows, which were parsed by a worker thread, to the table.
+     *
+     * @param chunk     parsed chunk, bound to this writer via {@link #of(TextImportChunk)}
+     * @param firstLine number of the chunk's first line in the text
+     */
+    void append(TextImportChunk chunk, long firstLine) {
+        chunk.rewind();
+        if (timestampAdapter != null) {
+            appendPartitioned(chunk, firstLine);
+        } else {
+            appendNonPartitioned(chunk, firstLine);
+        }
+    }
+
+    /**
+     * Binds chunk to column types of the table, chunk must be bound before it is parsed.
+     */
+    void of(TextImportChunk chunk) {
+        chunk.of(types, timestampAdapter != null ? timestampIndex : NO_INDEX);
+    }
+
+    private boolean appendFields(TextImportChunk chunk, int row, long line, TableWriter.Row w, int skipIndex) {
+        for (int i = 0, n = types.size(); i < n; i++) {
+            if (i == skipIndex) {
+                continue;
+            }
+            switch (chunk.getFieldStatus(row, i)) {
+                case TextImportChunk.FIELD_EMPTY:
+                    break;
+                case TextImportChunk.FIELD_ERROR:
+                    logError(line, i, chunk.getErrorField());
+                    if (onFieldError(line, w, i)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    chunk.putValue(writer, w, row, i);
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private void appendNonPartitioned(TextImportChunk chunk, long firstLine) {
+        for (int row = 0, n = chunk.getRowCount(); row < n; row++) {
+            final TableWriter.Row w = writer.newRow();
+            if (appendFields(chunk, row, firstLine + chunk.getLine(row), w, NO_INDEX)) {
+                w.append();
+            }
+        }
+    }
+
+    private void appendPartitioned(TextImportChunk chunk, long firstLine) {
+        final int timestampIndex = this.timestampIndex;
+        for (int row = 0, n = chunk.getRowCount(); row < n; row++) {
+            final long line = firstLine + chunk.getLine(row);
+            if (chunk.isTimestampError(row)) {
+                chunk.getFieldStatus(row, timestampIndex);
+                logError(line, timestampIndex, chunk.getErrorField());
+                continue;
+            }
+            final long timestamp = chunk.getTimestamp(row);
+            try {
+                final TableWriter.Row w = writer.newRow(timestamp);
+                if (appendFields(chunk, row, line, w, timestampIndex)) {
+                    w.append();
+                    checkMaxAndCommitLag();
+                }
+            } catch (Exception e) {
+                LOG.error().$("type syntax [type=").$(ColumnType.nameOf(types.getQuick(timestampIndex).getType())).$("]\n\t")
+                        .$('[').$(line).$(':').$(timestampIndex).$("] -> ").$ts(timestamp).$();
+                columnErrorCounts.increment(timestampIndex);
+            }
+        }
+    }
+
     private void checkMaxAndCommitLag() {
         if (writer != null && maxUncommittedRows > 0 && writer.getO3RowCount() >= maxUncommittedRows) {
             writer.commitWithLag(durable ? CommitMode.SYNC : CommitMode.NOSYNC);
@@ -228,21 +305,25 @@ public class CairoTextWriter implements Closeable, Mutable {
             types.getQuick(i).write(w, i, dbcs);
         } catch (Exception ignore) {
             logError(line, i, dbcs);
-            switch (atomicity) {
-                case Atomicity.SKIP_ALL:
-                    writer.rollback();
-                    throw CairoException.instance(0).put("bad syntax [line=").put(line).put(", col=").put(i).put(']');
-                case Atomicity.SKIP_ROW:
-                    w.cancel();
-                    return true;
-                default:
-                    // SKIP column
-                    break;
-            }
+            return onFieldError(line, w, i);
         }
         return false;
     }
 
+    private boolean onFieldError(long line, TableWriter.Row w, int i) {
+        switch (atomicity) {
+            case Atomicity.SKIP_ALL:
+                writer.rollback();
+                throw CairoException.instance(0).put("bad syntax [line=").put(line).put(", col=").put(i).put(']');
+            case Atomicity.SKIP_ROW:
+                w.cancel();
+                return true;
+            default:
+                // SKIP column
+                return false;
+        }
+    }
+
     private TableWriter openWriterAndOverrideImportTypes(
             CairoSecurityContext cairoSecurityContext,
             ObjList<TypeAdapter> detectedTypes
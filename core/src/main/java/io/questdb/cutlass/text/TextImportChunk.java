@@ -0,0 +1,579 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cutlass.text.types.TimestampAdapter;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
+import io.questdb.std.str.FlyweightCharSequence;
+import io.questdb.std.str.SingleCharCharSequence;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Slice of text input that is parsed independently of the rest of the input. Chunk boundaries
+ * are always at the start of a line. Fields are converted to column values on a worker thread
+ * by the chunk's own type adapters and kept in per-column buffers. The thread that owns the
+ * table writer then appends buffered values, see {@link CairoTextWriter#append(TextImportChunk, long)},
+ * so that rows are still written in input order.
+ */
+public class TextImportChunk implements Closeable, TextLexer.Listener {
+    public static final int FIELD_VALUE = 0;
+    public static final int FIELD_EMPTY = 1;
+    public static final int FIELD_ERROR = 2;
+    private static final int SYMBOL_NOT_RESOLVED = -2;
+    private final TextLexer lexer;
+    private final DirectCharSink utf8Sink;
+    private final TypeManager typeManager;
+    private final ObjList<TypeAdapter> types = new ObjList<>();
+    // one value per row for every column, var-size values are offset and length in "chars"
+    private final ObjList<DirectLongList> columns = new ObjList<>();
+    // distinct values of symbol columns, column buffer holds index of the value
+    private final ObjList<CharSequenceIntHashMap> symbolValues = new ObjList<>();
+    // symbol keys of the table writer by index of the value, resolved when chunk is appended
+    private final ObjList<IntList> symbolKeys = new ObjList<>();
+    private final DirectCharSink chars;
+    private final DirectLongList long256s;
+    // lexer line number of each row shifted left by one, the lowest bit is set when timestamp is invalid
+    private final DirectLongList rows;
+    // fields that are not written as triplets of position and text address range, position is
+    // row * fieldCount + column shifted left by one, the lowest bit is set when field could
+    // not be parsed, positions are ascending
+    private final LongList skippedFields = new LongList();
+    private final BufferRow bufferRow = new BufferRow();
+    private final Long256Decoder long256Decoder = new Long256Decoder();
+    private final FlyweightCharSequence flyweightStr = new FlyweightCharSequence();
+    private final DirectByteCharSequence errorField = new DirectByteCharSequence();
+    private int fieldCount;
+    private int timestampIndex = CairoTextWriter.NO_INDEX;
+    private TimestampAdapter timestampAdapter;
+    private long lo;
+    private long hi;
+    private int rowCount;
+    private int skippedFieldCursor;
+    // error thrown while chunk was parsed on worker thread, it is rethrown by the writer thread
+    private Throwable error;
+
+    public TextImportChunk(TextConfiguration textConfiguration) {
+        this.utf8Sink = new DirectCharSink(textConfiguration.getUtf8SinkSize());
+        this.typeManager = new TypeManager(textConfiguration, utf8Sink);
+        this.lexer = new TextLexer(textConfiguration, typeManager);
+        this.chars = new DirectCharSink(textConfiguration.getUtf8SinkSize());
+        this.long256s = new DirectLongList(16);
+        this.rows = new DirectLongList(1024);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(lexer);
+        Misc.free(utf8Sink);
+        Misc.free(chars);
+        Misc.free(long256s);
+        Misc.free(rows);
+        Misc.freeObjList(columns);
+        columns.clear();
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    public long getErrorCount() {
+        return lexer.getErrorCount();
+    }
+
+    public long getLineCount() {
+        return lexer.getLineCount();
+    }
+
+    public void of(
+            long lo,
+            long hi,
+            byte columnDelimiter,
+            int fieldCount,
+            boolean header,
+            boolean skipLinesWithExtraValues,
+            CharSequence tableName
+    ) {
+        assert hi - lo <= Integer.MAX_VALUE;
+        this.lo = lo;
+        this.hi = hi;
+        this.fieldCount = fieldCount;
+        this.error = null;
+        this.rowCount = 0;
+        this.skippedFieldCursor = 0;
+        this.rows.clear();
+        this.chars.clear();
+        this.long256s.clear();
+        this.skippedFields.clear();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            columns.getQuick(i).clear();
+            final CharSequenceIntHashMap values = symbolValues.getQuick(i);
+            if (values != null) {
+                values.clear();
+            }
+        }
+        this.lexer.of(columnDelimiter, fieldCount, header);
+        this.lexer.setSkipLinesWithExtraValues(skipLinesWithExtraValues);
+        this.lexer.setTableName(tableName);
+    }
+
+    @Override
+    public void onFields(long line, ObjList<DirectByteCharSequence> fields, int hi) {
+        assert hi == fieldCount;
+        final int row = rowCount++;
+        for (int i = 0; i < hi; i++) {
+            columns.getQuick(i).add(0);
+        }
+
+        final long rowPosition = (long) row * fieldCount;
+        if (timestampIndex != CairoTextWriter.NO_INDEX) {
+            final DirectByteCharSequence dbcs = fields.getQuick(timestampIndex);
+            try {
+                columns.getQuick(timestampIndex).set(row, timestampAdapter.getTimestamp(dbcs));
+            } catch (Exception e) {
+                // the whole row is dropped, other fields are not parsed
+                rows.add(line << 1 | 1);
+                addSkippedField(rowPosition + timestampIndex, FIELD_ERROR, dbcs);
+                return;
+            }
+        }
+        rows.add(line << 1);
+
+        for (int i = 0; i < hi; i++) {
+            if (i == timestampIndex) {
+                continue;
+            }
+            final DirectByteCharSequence dbcs = fields.getQuick(i);
+            if (dbcs.length() == 0) {
+                addSkippedField(rowPosition + i, FIELD_EMPTY, dbcs);
+                continue;
+            }
+            try {
+                types.getQuick(i).write(bufferRow.of(row), i, dbcs);
+            } catch (Exception e) {
+                addSkippedField(rowPosition + i, FIELD_ERROR, dbcs);
+            }
+        }
+    }
+
+    /**
+     * Parses the chunk. This method is called on worker thread.
+     */
+    public void parse() {
+        lexer.parse(lo, hi, Integer.MAX_VALUE, this);
+        // last line of the input might not be terminated, it is in lexer roll buffer,
+        // which stays intact until the chunk is reused
+        lexer.parseLast();
+    }
+
+    /**
+     * Returns text of the field, which status was last returned by {@link #getFieldStatus(int, int)}
+     * as FIELD_ERROR.
+     */
+    DirectByteCharSequence getErrorField() {
+        final int p = skippedFieldCursor - 3;
+        return errorField.of(skippedFields.getQuick(p + 1), skippedFields.getQuick(p + 2));
+    }
+
+    /**
+     * Returns one of FIELD_VALUE, FIELD_EMPTY or FIELD_ERROR. Fields of appended rows must be
+     * requested in ascending order, rows and fields can be skipped.
+     */
+    int getFieldStatus(int row, int column) {
+        final long position = (long) row * fieldCount + column;
+        final int n = skippedFields.size();
+        while (skippedFieldCursor < n) {
+            final long skipped = skippedFields.getQuick(skippedFieldCursor);
+            final long skippedPosition = skipped >>> 1;
+            if (skippedPosition > position) {
+                break;
+            }
+            skippedFieldCursor += 3;
+            if (skippedPosition == position) {
+                return (skipped & 1) == 1 ? FIELD_ERROR : FIELD_EMPTY;
+            }
+        }
+        return FIELD_VALUE;
+    }
+
+    long getLine(int row) {
+        return rows.get(row) >>> 1;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    long getTimestamp(int row) {
+        return columns.getQuick(timestampIndex).get(row);
+    }
+
+    boolean isTimestampError(int row) {
+        return (rows.get(row) & 1) == 1;
+    }
+
+    /**
+     * Binds chunk to table column types. Adapters that are not thread safe are re-created
+     * to use the chunk's UTF-8 sink.
+     *
+     * @param types          adapters of table writer, one per column
+     * @param timestampIndex index of the column that rows are partitioned by or NO_INDEX
+     */
+    void of(ObjList<TypeAdapter> types, int timestampIndex) {
+        typeManager.clear();
+        this.types.clear();
+        final int columnCount = types.size();
+        for (int i = 0; i < columnCount; i++) {
+            final TypeAdapter type = typeManager.copyOf(types.getQuick(i));
+            this.types.add(type);
+            if (i == columns.size()) {
+                columns.add(new DirectLongList(1024));
+                symbolValues.add(null);
+                symbolKeys.add(null);
+            }
+            if (ColumnType.isSymbol(type.getType()) && symbolValues.getQuick(i) == null) {
+                symbolValues.setQuick(i, new CharSequenceIntHashMap());
+                symbolKeys.setQuick(i, new IntList());
+            }
+        }
+        this.timestampIndex = timestampIndex;
+        this.timestampAdapter = timestampIndex != CairoTextWriter.NO_INDEX ? (TimestampAdapter) this.types.getQuick(timestampIndex) : null;
+    }
+
+    /**
+     * Writes parsed value of the field to the table row. This method is called by the thread that
+     * owns table writer. Symbol values are resolved via the writer's symbol table once per chunk.
+     */
+    void putValue(TableWriter writer, TableWriter.Row w, int row, int column) {
+        final long value = columns.getQuick(column).get(row);
+        switch (ColumnType.tagOf(types.getQuick(column).getType())) {
+            case ColumnType.BOOLEAN:
+                w.putBool(column, value != 0);
+                break;
+            case ColumnType.BYTE:
+                w.putByte(column, (byte) value);
+                break;
+            case ColumnType.SHORT:
+                w.putShort(column, (short) value);
+                break;
+            case ColumnType.CHAR:
+                w.putChar(column, (char) value);
+                break;
+            case ColumnType.INT:
+                w.putInt(column, (int) value);
+                break;
+            case ColumnType.LONG:
+                w.putLong(column, value);
+                break;
+            case ColumnType.DATE:
+                w.putDate(column, value);
+                break;
+            case ColumnType.TIMESTAMP:
+                w.putTimestamp(column, value);
+                break;
+            case ColumnType.FLOAT:
+                w.putFloat(column, Float.intBitsToFloat((int) value));
+                break;
+            case ColumnType.DOUBLE:
+                w.putDouble(column, Double.longBitsToDouble(value));
+                break;
+            case ColumnType.STRING:
+                w.putStr(column, value == -1 ? null : flyweightStr.of(chars, Numbers.decodeLowInt(value), Numbers.decodeHighInt(value)));
+                break;
+            case ColumnType.SYMBOL:
+                w.putSymIndex(column, getSymbolKey(writer, column, (int) value));
+                break;
+            case ColumnType.LONG256:
+                if (value == -1) {
+                    w.putLong256(column, (CharSequence) null);
+                } else {
+                    w.putLong256(
+                            column,
+                            long256s.get(value),
+                            long256s.get(value + 1),
+                            long256s.get(value + 2),
+                            long256s.get(value + 3)
+                    );
+                }
+                break;
+            default:
+                throw CairoException.instance(0).put("unsupported column type [type=").put(ColumnType.nameOf(types.getQuick(column).getType())).put(']');
+        }
+    }
+
+    /**
+     * Prepares chunk to be appended to the table. Symbol keys are resolved lazily because the
+     * same chunk can be appended again after the writer is rolled back.
+     */
+    void rewind() {
+        skippedFieldCursor = 0;
+        for (int i = 0, n = symbolKeys.size(); i < n; i++) {
+            final IntList keys = symbolKeys.getQuick(i);
+            if (keys != null) {
+                keys.setAll(symbolValues.getQuick(i).size(), SYMBOL_NOT_RESOLVED);
+            }
+        }
+    }
+
+    private void addSkippedField(long position, int status, DirectByteCharSequence dbcs) {
+        skippedFields.add(position << 1 | (status == FIELD_ERROR ? 1 : 0));
+        skippedFields.add(dbcs.getLo());
+        skippedFields.add(dbcs.getHi());
+    }
+
+    private int getSymbolKey(TableWriter writer, int column, int index) {
+        if (index == -1) {
+            return writer.getSymbolIndex(column, null);
+        }
+        final IntList keys = symbolKeys.getQuick(column);
+        int key = keys.getQuick(index);
+        if (key == SYMBOL_NOT_RESOLVED) {
+            key = writer.getSymbolIndex(column, symbolValues.getQuick(column).keys().getQuick(index));
+            keys.setQuick(index, key);
+        }
+        return key;
+    }
+
+    private static class Long256Decoder extends Long256FromCharSequenceDecoder {
+        private DirectLongList sink;
+
+        @Override
+        public void setAll(long l0, long l1, long l2, long l3) {
+            sink.add(l0);
+            sink.add(l1);
+            sink.add(l2);
+            sink.add(l3);
+        }
+    }
+
+    /**
+     * Stores values, which type adapters write, in the chunk's column buffers.
+     */
+    private class BufferRow implements TableWriter.Row {
+        private int row;
+
+        @Override
+        public void append() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBin(int columnIndex, long address, long len) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBin(int columnIndex, BinarySequence sequence) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBool(int columnIndex, boolean value) {
+            put(columnIndex, value ? 1 : 0);
+        }
+
+        @Override
+        public void putByte(int columnIndex, byte value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putChar(int columnIndex, char value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putDate(int columnIndex, long value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putDouble(int columnIndex, double value) {
+            put(columnIndex, Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public void putFloat(int columnIndex, float value) {
+            put(columnIndex, Float.floatToRawIntBits(value));
+        }
+
+        @Override
+        public void putGeoHash(int columnIndex, long value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putGeoHashDeg(int index, double lat, double lon) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putGeoStr(int columnIndex, CharSequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putInt(int columnIndex, int value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putLong(int columnIndex, long value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putLong256(int columnIndex, long l0, long l1, long l2, long l3) {
+            put(columnIndex, long256s.size());
+            long256s.add(l0);
+            long256s.add(l1);
+            long256s.add(l2);
+            long256s.add(l3);
+        }
+
+        @Override
+        public void putLong256(int columnIndex, Long256 value) {
+            putLong256(columnIndex, value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
+        }
+
+        @Override
+        public void putLong256(int columnIndex, CharSequence hexString) {
+            final int len;
+            if (hexString == null || (len = hexString.length()) == 0) {
+                put(columnIndex, -1);
+            } else {
+                putLong256(columnIndex, hexString, 2, len);
+            }
+        }
+
+        @Override
+        public void putLong256(int columnIndex, @NotNull CharSequence hexString, int start, int end) {
+            final long index = long256s.size();
+            long256Decoder.sink = long256s;
+            try {
+                Long256FromCharSequenceDecoder.decode(hexString, start, end, long256Decoder);
+            } catch (NumericException e) {
+                throw CairoException.instance(0).put("invalid long256 [hex=").put(hexString).put(']');
+            }
+            put(columnIndex, index);
+        }
+
+        @Override
+        public void putShort(int columnIndex, short value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putStr(int columnIndex, CharSequence value) {
+            if (value == null) {
+                put(columnIndex, -1);
+            } else {
+                final int offset = chars.length();
+                chars.put(value);
+                put(columnIndex, Numbers.encodeLowHighInts(offset, chars.length() - offset));
+            }
+        }
+
+        @Override
+        public void putStr(int columnIndex, char value) {
+            final int offset = chars.length();
+            chars.put(value);
+            put(columnIndex, Numbers.encodeLowHighInts(offset, 1));
+        }
+
+        @Override
+        public void putStr(int columnIndex, CharSequence value, int pos, int len) {
+            final int offset = chars.length();
+            for (int i = 0; i < len; i++) {
+                chars.put(value.charAt(pos + i));
+            }
+            put(columnIndex, Numbers.encodeLowHighInts(offset, len));
+        }
+
+        @Override
+        public void putSym(int columnIndex, CharSequence value) {
+            if (value == null) {
+                put(columnIndex, -1);
+                return;
+            }
+            final CharSequenceIntHashMap values = symbolValues.getQuick(columnIndex);
+            final int keyIndex = values.keyIndex(value);
+            if (keyIndex > -1) {
+                final int index = values.size();
+                values.putAt(keyIndex, value, index);
+                put(columnIndex, index);
+            } else {
+                put(columnIndex, values.valueAt(keyIndex));
+            }
+        }
+
+        @Override
+        public void putSym(int columnIndex, char value) {
+            putSym(columnIndex, SingleCharCharSequence.get(value));
+        }
+
+        @Override
+        public void putSymIndex(int columnIndex, int symIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putTimestamp(int columnIndex, long value) {
+            put(columnIndex, value);
+        }
+
+        @Override
+        public void putTimestamp(int columnIndex, CharSequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        private BufferRow of(int row) {
+            this.row = row;
+            return this;
+        }
+
+        private void put(int columnIndex, long value) {
+            columns.getQuick(columnIndex).set(row, value);
+        }
+    }
+}
@@ -63,6 +63,7 @@ public class TextLexer implements Closeable, Mutable {
     private long fieldLo;
     private long fieldHi;
     private boolean skipLinesWithExtraValues;
+    private boolean fixedFieldCount;
 
     public TextLexer(TextConfiguration textConfiguration, TypeManager typeManager) {
         this.metadataDetector = new TextMetadataDetector(typeManager, textConfiguration);
@@ -94,6 +95,7 @@ public class TextLexer implements Closeable, Mutable {
         this.metadataDetector.clear();
         errorCount = 0;
         fieldMax = -1;
+        fixedFieldCount = false;
     }
 
     @Override
@@ -126,6 +128,25 @@ public class TextLexer implements Closeable, Mutable {
         this.columnDelimiter = columnDelimiter;
     }
 
+    /**
+     * Prepares lexer to parse a chunk of text that starts at line boundary somewhere
+     * in the middle of the input. Unlike {@link #of(byte)} the number of fields is not
+     * derived from the first line, it is fixed upfront, typically from structure analysis
+     * of the beginning of the input.
+     *
+     * @param columnDelimiter column delimiter
+     * @param fieldCount      number of fields in each line
+     * @param header          true when first line of the chunk is a header and has to be skipped
+     */
+    public void of(byte columnDelimiter, int fieldCount, boolean header) {
+        of(columnDelimiter);
+        restart(header);
+        for (int i = 0; i < fieldCount; i++) {
+            addField();
+        }
+        fixedFieldCount = true;
+    }
+
     public void parse(long lo, long hi, int lineCountLimit, Listener textLexerListener) {
         this.textLexerListener = textLexerListener;
         this.fieldHi = useLineRollBuf ? lineRollBufCur : (this.fieldLo = lo);
@@ -153,6 +174,8 @@ public class TextLexer implements Closeable, Mutable {
         this.fieldMax = -1;
         this.inQuote = false;
         this.delayedOutQuote = false;
+        this.lastLineStart = 0;
+        this.lastQuotePos = -1;
         this.lineCount = 0;
         this.lineRollBufCur = lineRollBufPtr;
         this.useLineRollBuf = false;
@@ -212,6 +235,10 @@ public class TextLexer implements Closeable, Mutable {
         }
     }
 
+    byte getColumnDelimiter() {
+        return columnDelimiter;
+    }
+
     ObjList<CharSequence> getColumnNames() {
         return metadataDetector.getColumnNames();
     }
@@ -397,7 +424,7 @@ public class TextLexer implements Closeable, Mutable {
     }
 
     private void stashField(int fieldIndex) {
-        if (lineCount == 0 && fieldIndex >= fields.size()) {
+        if (lineCount == 0 && !fixedFieldCount && fieldIndex >= fields.size()) {
             addField();
         }
 
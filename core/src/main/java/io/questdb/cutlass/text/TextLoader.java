@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.text;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.PartitionBy;
@@ -33,12 +34,13 @@ import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.LongList;
-import io.questdb.std.Misc;
-import io.questdb.std.Mutable;
-import io.questdb.std.ObjList;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
 import io.questdb.std.str.DirectCharSink;
 import io.questdb.std.str.Path;
+import io.questdb.tasks.TextImportTask;
 
 import java.io.Closeable;
 
@@ -57,12 +59,20 @@ public class TextLoader implements Closeable, Mutable {
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final ObjList<ParserMethod> parseMethods = new ObjList<>();
+    private final TextConfiguration textConfiguration;
+    private final MessageBus messageBus;
+    private final ObjList<TextImportChunk> chunks = new ObjList<>();
+    private final LongList chunkBoundaries = new LongList();
+    private final SOUnboundedCountDownLatch[] chunkLatches = {new SOUnboundedCountDownLatch(), new SOUnboundedCountDownLatch()};
+    private long chunkLineCount;
+    private long chunkErrorCount;
     private int state;
     private boolean forceHeaders = false;
     private byte columnDelimiter = -1;
 
     public TextLoader(CairoEngine engine) {
-        final TextConfiguration textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.messageBus = engine.getMessageBus();
         this.utf8Sink = new DirectCharSink(textConfiguration.getUtf8SinkSize());
         jsonLexer = new JsonLexer(
                 textConfiguration.getJsonCacheSize(),
@@ -89,6 +99,10 @@ public class TextLoader implements Closeable, Mutable {
         forceHeaders = false;
         columnDelimiter = -1;
         typeManager.clear();
+        chunkLineCount = 0;
+        chunkErrorCount = 0;
+        Misc.freeObjList(chunks);
+        chunks.clear();
     }
 
     @Override
@@ -100,6 +114,7 @@ public class TextLoader implements Closeable, Mutable {
         Misc.free(path);
         Misc.free(textDelimiterScanner);
         Misc.free(utf8Sink);
+        Misc.freeObjList(chunks);
     }
 
     public void closeWriter() {
@@ -140,11 +155,11 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     public long getParsedLineCount() {
-        return textLexer.getLineCount();
+        return textLexer.getLineCount() + chunkLineCount;
     }
 
     public long getErrorLineCount() {
-        return textLexer.getErrorCount();
+        return textLexer.getErrorCount() + chunkErrorCount;
     }
 
     public int getPartitionBy() {
@@ -191,6 +206,102 @@ public class TextLoader implements Closeable, Mutable {
         parseMethods.getQuick(state).parse(lo, hi, cairoSecurityContext);
     }
 
+    /**
+     * Loads text, which is entirely addressable in memory, e.g. memory-mapped file. Text structure
+     * is analysed on the first analysisSize bytes. The rest of the text is split into chunks
+     * at line boundaries. Chunks are tokenized and converted to column values in parallel by
+     * {@link TextImportJob} instances and this thread, while this thread writes parsed chunks
+     * to the table in the order they appear in the text. Workers parse next batch of chunks
+     * while this thread is writing the current one. Call {@link #wrapUp()} to commit the data.
+     *
+     * @param lo                   address of the first byte of text
+     * @param hi                   address of the byte after the last byte of text
+     * @param analysisSize         number of bytes from start of text used to analyse text structure
+     * @param chunkSize            approximate size of the chunk
+     * @param batchSize            number of chunks dispatched to workers at once, usually worker count
+     * @param cairoSecurityContext security context
+     * @throws TextException when text structure cannot be established
+     */
+    public void parseParallel(
+            long lo,
+            long hi,
+            int analysisSize,
+            long chunkSize,
+            int batchSize,
+            CairoSecurityContext cairoSecurityContext
+    ) throws TextException {
+        assert state == ANALYZE_STRUCTURE;
+        analyseStructure(lo, Math.min(hi, lo + analysisSize), cairoSecurityContext);
+        state = LOAD_DATA;
+
+        final byte delimiter = textLexer.getColumnDelimiter();
+        final int fieldCount = textLexer.getColumnTypes().size();
+        final boolean header = textLexer.isHeaderDetected();
+        final boolean skipLinesWithExtraValues = textLexer.isSkipLinesWithExtraValues();
+        final CharSequence tableName = textWriter.getTableName();
+        final int slotCount = 2 * batchSize;
+
+        findChunkBoundaries(lo, hi, Math.min(chunkSize, Integer.MAX_VALUE), delimiter, chunkBoundaries);
+        final int chunkCount = chunkBoundaries.size() - 1;
+
+        for (int i = chunks.size(); i < slotCount; i++) {
+            chunks.add(new TextImportChunk(textConfiguration));
+        }
+        for (int i = 0; i < slotCount; i++) {
+            textWriter.of(chunks.getQuick(i));
+        }
+
+        LOG.info()
+                .$("parallel load [table=`").$(tableName)
+                .$("`, size=").$(hi - lo)
+                .$(", chunks=").$(chunkCount)
+                .$(", batchSize=").$(batchSize)
+                .$(']').$();
+
+        int latchIndex = 0;
+        int batchLo = 0;
+        int batchHi = Math.min(chunkCount, batchSize);
+        int queuedCount = dispatchChunks(batchLo, batchHi, slotCount, delimiter, fieldCount, header, skipLinesWithExtraValues, tableName, chunkLatches[latchIndex]);
+        int nextQueuedCount = 0;
+        try {
+            while (batchLo < chunkCount) {
+                final int nextLo = batchHi;
+                final int nextHi = Math.min(chunkCount, nextLo + batchSize);
+                awaitChunks(chunkLatches[latchIndex], queuedCount);
+                queuedCount = 0;
+                nextQueuedCount = dispatchChunks(nextLo, nextHi, slotCount, delimiter, fieldCount, header, skipLinesWithExtraValues, tableName, chunkLatches[1 - latchIndex]);
+
+                for (int i = batchLo; i < batchHi; i++) {
+                    final TextImportChunk chunk = chunks.getQuick(i % slotCount);
+                    final Throwable error = chunk.getError();
+                    if (error != null) {
+                        LOG.error().$("could not parse chunk [table=`").$(tableName)
+                                .$("`, chunk=").$(i)
+                                .$(", error=").$(error)
+                                .$(']').$();
+                        if (error instanceof RuntimeException) {
+                            throw (RuntimeException) error;
+                        }
+                        throw (Error) error;
+                    }
+                    textWriter.append(chunk, chunkLineCount);
+                    chunkLineCount += chunk.getLineCount();
+                    chunkErrorCount += chunk.getErrorCount();
+                }
+
+                latchIndex = 1 - latchIndex;
+                queuedCount = nextQueuedCount;
+                nextQueuedCount = 0;
+                batchLo = nextLo;
+                batchHi = nextHi;
+            }
+        } finally {
+            // chunks must not be reused or released while workers are still parsing them
+            awaitChunks(chunkLatches[latchIndex], queuedCount);
+            awaitChunks(chunkLatches[1 - latchIndex], nextQueuedCount);
+        }
+    }
+
     public void setState(int state) {
         LOG.debug().$("state change [old=").$(this.state).$(", new=").$(state).$(']').$();
         this.state = state;
@@ -228,7 +339,52 @@ public class TextLoader implements Closeable, Mutable {
         }
     }
 
-    private void parseStructure(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
+    static void findChunkBoundaries(long lo, long hi, long chunkSize, byte columnDelimiter, LongList boundaries) {
+        // Quotes are tracked the same way TextLexer does it, so that we never
+        // split the text at line end that is inside quoted field.
+        boundaries.clear();
+        boundaries.add(lo);
+        long next = lo + chunkSize;
+        boolean inQuote = false;
+        boolean delayedOutQuote = false;
+        boolean fieldStart = true;
+        for (long p = lo; p < hi; p++) {
+            final byte c = Unsafe.getUnsafe().getByte(p);
+            if (inQuote) {
+                if (c == '"') {
+                    delayedOutQuote = !delayedOutQuote;
+                    continue;
+                }
+                if (!delayedOutQuote) {
+                    continue;
+                }
+                inQuote = delayedOutQuote = false;
+            }
+
+            if (c == columnDelimiter) {
+                fieldStart = true;
+            } else if (c == '"') {
+                inQuote = fieldStart;
+                fieldStart = false;
+            } else if (c == '\n' || c == '\r') {
+                fieldStart = true;
+                final long lineStart = p + 1;
+                if (lineStart >= next && lineStart < hi) {
+                    // do not split CRLF sequence
+                    final byte n = Unsafe.getUnsafe().getByte(lineStart);
+                    if (n != '\n' && n != '\r') {
+                        boundaries.add(lineStart);
+                        next = lineStart + chunkSize;
+                    }
+                }
+            } else {
+                fieldStart = false;
+            }
+        }
+        boundaries.add(hi);
+    }
+
+    private void analyseStructure(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
         if (columnDelimiter > 0) {
             textLexer.of(columnDelimiter);
         } else {
@@ -243,6 +399,62 @@ public class TextLoader implements Closeable, Mutable {
                 textMetadataParser.getColumnTypes()
         );
         textWriter.prepareTable(cairoSecurityContext, textLexer.getColumnNames(), textLexer.getColumnTypes());
+    }
+
+    private void awaitChunks(SOUnboundedCountDownLatch latch, int queuedCount) {
+        final RingQueue<TextImportTask> queue = messageBus.getTextImportQueue();
+        final Sequence subSeq = messageBus.getTextImportSubSeq();
+        // process our own queue, this prevents deadlock when there are no workers
+        while (latch.getCount() > -queuedCount) {
+            final long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        latch.await(queuedCount);
+    }
+
+    private int dispatchChunks(
+            int chunkLo,
+            int chunkHi,
+            int slotCount,
+            byte delimiter,
+            int fieldCount,
+            boolean header,
+            boolean skipLinesWithExtraValues,
+            CharSequence tableName,
+            SOUnboundedCountDownLatch latch
+    ) {
+        final RingQueue<TextImportTask> queue = messageBus.getTextImportQueue();
+        final Sequence pubSeq = messageBus.getTextImportPubSeq();
+        latch.reset();
+        int queuedCount = 0;
+        for (int i = chunkLo; i < chunkHi; i++) {
+            final TextImportChunk chunk = chunks.getQuick(i % slotCount);
+            chunk.of(
+                    chunkBoundaries.getQuick(i),
+                    chunkBoundaries.getQuick(i + 1),
+                    delimiter,
+                    fieldCount,
+                    header && i == 0,
+                    skipLinesWithExtraValues,
+                    tableName
+            );
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                chunk.parse();
+            } else {
+                queue.get(seq).of(chunk, latch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+        return queuedCount;
+    }
+
+    private void parseStructure(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
+        analyseStructure(lo, hi, cairoSecurityContext);
         textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
         state = LOAD_DATA;
     }
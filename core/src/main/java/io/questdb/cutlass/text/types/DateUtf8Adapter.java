@@ -36,8 +36,8 @@ import io.questdb.std.str.DirectCharSink;
 
 public class DateUtf8Adapter extends AbstractTypeAdapter implements Mutable {
     private final DirectCharSink utf8Sink;
-    private DateLocale locale;
-    private DateFormat format;
+    DateLocale locale;
+    DateFormat format;
 
     public DateUtf8Adapter(DirectCharSink utf8Sink) {
         this.utf8Sink = utf8Sink;
@@ -90,6 +90,28 @@ public class TypeManager implements Mutable {
         timestampAdapterPool.clear();
     }
 
+    /**
+     * Returns adapter, which converts values the same way as given adapter, but decodes UTF-8
+     * into sink of this type manager. Stateless adapters are returned as is.
+     */
+    public TypeAdapter copyOf(TypeAdapter adapter) {
+        if (adapter instanceof TimestampUtf8Adapter) {
+            final TimestampUtf8Adapter that = (TimestampUtf8Adapter) adapter;
+            return nextTimestampAdapter(true, that.format, that.locale);
+        }
+        if (adapter instanceof DateUtf8Adapter) {
+            final DateUtf8Adapter that = (DateUtf8Adapter) adapter;
+            return nextDateAdapter().of(that.format, that.locale);
+        }
+        if (adapter instanceof StringAdapter) {
+            return stringAdapter;
+        }
+        if (adapter instanceof SymbolAdapter) {
+            return nextSymbolAdapter(adapter.isIndexed());
+        }
+        return adapter;
+    }
+
     public InputFormatConfiguration getInputFormatConfiguration() {
         return inputFormatConfiguration;
     }
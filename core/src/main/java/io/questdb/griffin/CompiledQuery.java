@@ -42,6 +42,8 @@ public interface CompiledQuery {
     short COPY_REMOTE = 11;
     short RENAME_TABLE = 12;
     short BACKUP_TABLE = 13;
+    short COPY_OUT = 14;
+    short CANCEL_QUERY = 15;
 
     RecordCursorFactory getRecordCursorFactory();
 
@@ -49,5 +51,10 @@ public interface CompiledQuery {
 
     TextLoader getTextLoader();
 
+    /**
+     * @return format of COPY_OUT rows, one of CopyModel.FORMAT_* constants
+     */
+    int getCopyFormat();
+
     short getType();
 }
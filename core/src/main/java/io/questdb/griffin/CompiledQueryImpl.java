@@ -33,6 +33,7 @@ public class CompiledQueryImpl implements CompiledQuery {
     private InsertStatement insertStatement;
     private TextLoader textLoader;
     private short type;
+    private int copyFormat;
 
     @Override
     public RecordCursorFactory getRecordCursorFactory() {
@@ -49,6 +50,11 @@ public class CompiledQueryImpl implements CompiledQuery {
         return textLoader;
     }
 
+    @Override
+    public int getCopyFormat() {
+        return copyFormat;
+    }
+
     @Override
     public short getType() {
         return type;
@@ -81,6 +87,11 @@ public class CompiledQueryImpl implements CompiledQuery {
         return of(COPY_REMOTE);
     }
 
+    CompiledQuery ofCopyOut(RecordCursorFactory factory, int copyFormat) {
+        this.copyFormat = copyFormat;
+        return of(COPY_OUT, factory);
+    }
+
     CompiledQuery ofCreateTable() {
         return of(CREATE_TABLE);
     }
@@ -117,4 +128,8 @@ public class CompiledQueryImpl implements CompiledQuery {
     CompiledQuery ofBackupTable() {
         return of(BACKUP_TABLE);
     }
+
+    CompiledQuery ofCancelQuery() {
+        return of(CANCEL_QUERY);
+    }
 }
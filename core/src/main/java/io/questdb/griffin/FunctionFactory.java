@@ -70,6 +70,14 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the {@link Function} produced by the factory is an analytic (window) function. Such factories
+     * are only considered for expressions followed by an OVER clause and are ignored everywhere else.
+     */
+    default boolean isAnalytic() {
+        return false;
+    }
+
     default boolean isCursor() {
         return false;
     }
@@ -85,6 +93,14 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the {@link Function} produced by the factory may return different values on every execution
+     * of the same query over the same data, i.e. now() or rnd_int(). Results of such queries are never cached.
+     */
+    default boolean isNonDeterministic() {
+        return isRuntimeConstant();
+    }
+
     Function newInstance(
             int position,
             @Transient ObjList<Function> args,
@@ -69,6 +69,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
     private RecordMetadata metadata;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
+    private ExpressionNode analyticNode;
+    private boolean nonDeterministicFunctionUsed;
 
     public FunctionParser(CairoConfiguration configuration, FunctionFactoryCache functionFactoryCache) {
         this.configuration = configuration;
@@ -178,10 +180,22 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         return functionFactoryCache;
     }
 
+    public void clearNonDeterministicFunctionUsed() {
+        nonDeterministicFunctionUsed = false;
+    }
+
     public boolean isCursor(CharSequence token) {
         return token != null && functionFactoryCache.isCursor(token);
     }
 
+    /**
+     * @return true when at least one function created since the last call to
+     * {@link #clearNonDeterministicFunctionUsed()} is non-deterministic
+     */
+    public boolean isNonDeterministicFunctionUsed() {
+        return nonDeterministicFunctionUsed;
+    }
+
     public boolean isGroupBy(CharSequence token) {
         return token != null && functionFactoryCache.isGroupBy(token);
     }
@@ -267,6 +281,31 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         }
     }
 
+    /**
+     * Creates analytic function instance for the expression of analytic column, e.g. "avg(price)" of
+     * "avg(price) over (partition by sym)". Top level function is resolved exclusively among analytic function
+     * factories, its arguments are resolved as usual.
+     *
+     * @param node             analytic function expression
+     * @param metadata         metadata for resolving types of columns.
+     * @param executionContext execution context with analytic context configured for this function
+     * @return analytic function instance
+     * @throws SqlException when function cannot be created
+     */
+    public Function parseAnalyticFunction(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode prevAnalyticNode = analyticNode;
+        analyticNode = node;
+        try {
+            return parseFunction(node, metadata, executionContext);
+        } finally {
+            analyticNode = prevAnalyticNode;
+        }
+    }
+
     public void setSqlCodeGenerator(SqlCodeGenerator sqlCodeGenerator) {
         this.sqlCodeGenerator = sqlCodeGenerator;
     }
@@ -388,6 +427,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
             LOG.error().$("NULL function").$(" [signature=").$(factory.getSignature()).$(",class=").$(factory.getClass().getName()).$(']').$();
             throw SqlException.position(position).put("bad function factory (NULL), check log");
         }
+        nonDeterministicFunctionUsed |= factory.isNonDeterministic();
         return function;
     }
 
@@ -539,6 +579,11 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor {
         for (int i = 0, n = overload.size(); i < n; i++) {
             final FunctionFactoryDescriptor descriptor = overload.getQuick(i);
             final FunctionFactory factory = descriptor.getFactory();
+            if (factory.isAnalytic() != (node == analyticNode)) {
+                // analytic functions are only callable with OVER clause, which in turn
+                // does not accept anything else
+                continue;
+            }
             int sigArgCount = descriptor.getSigArgCount();
 
             final boolean sigVarArg;
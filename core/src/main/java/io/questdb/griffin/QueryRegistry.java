@@ -0,0 +1,274 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.StringSink;
+import io.questdb.tasks.SlowQueryTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Server-wide list of queries that are being executed. Connections register a query when they start
+ * executing it and unregister once the result is sent or the query fails. Registered queries can be
+ * listed with query_activity() and cancelled with CANCEL QUERY. Queries that ran longer than the
+ * configured threshold are published to the slow query queue on unregister.
+ */
+public class QueryRegistry {
+    public static final String SOURCE_HTTP = "http";
+    public static final String SOURCE_PGWIRE = "pgwire";
+    private static final Log LOG = LogFactory.getLog(QueryRegistry.class);
+    private final MicrosecondClock clock;
+    private final ObjList<Entry> running = new ObjList<>();
+    private final ObjList<Entry> pool = new ObjList<>();
+    private final long slowQueryThresholdUs;
+    private final RingQueue<SlowQueryTask> slowQueryQueue;
+    private final MPSequence slowQueryPubSeq;
+    private final SCSequence slowQuerySubSeq;
+    private long nextId = 1;
+
+    public QueryRegistry(CairoConfiguration configuration) {
+        this.clock = configuration.getMicrosecondClock();
+        this.slowQueryThresholdUs = configuration.getSlowQueryLogThresholdUs();
+        if (slowQueryThresholdUs > 0) {
+            this.slowQueryQueue = new RingQueue<>(SlowQueryTask::new, configuration.getSlowQueryLogQueueCapacity());
+            this.slowQueryPubSeq = new MPSequence(slowQueryQueue.getCycle());
+            this.slowQuerySubSeq = new SCSequence();
+            slowQueryPubSeq.then(slowQuerySubSeq).then(slowQueryPubSeq);
+        } else {
+            this.slowQueryQueue = null;
+            this.slowQueryPubSeq = null;
+            this.slowQuerySubSeq = null;
+        }
+    }
+
+    /**
+     * Requests cancellation of running query. Query is interrupted the next time it checks for interruption.
+     *
+     * @param queryId id of the query as listed by query_activity()
+     * @return false when there is no running query with this id
+     */
+    public synchronized boolean cancel(long queryId) {
+        for (int i = 0, n = running.size(); i < n; i++) {
+            final Entry entry = running.getQuick(i);
+            if (entry.id == queryId) {
+                entry.cancelled = true;
+                LOG.info().$("cancelling [id=").$(queryId).$(", fd=").$(entry.fd).$(", q=`").utf8(entry.query).$("`]").$();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int getRunningCount() {
+        return running.size();
+    }
+
+    @Nullable
+    public RingQueue<SlowQueryTask> getSlowQueryQueue() {
+        return slowQueryQueue;
+    }
+
+    @Nullable
+    public SCSequence getSlowQuerySubSequence() {
+        return slowQuerySubSeq;
+    }
+
+    /**
+     * Registers query as running. The returned entry is owned by the caller until it is passed to
+     * {@link #unregister(Entry)} and must not be used after that.
+     *
+     * @param query       query text, it is copied
+     * @param fd          connection that executes the query
+     * @param source      one of SOURCE_* constants
+     * @param interruptor interruptor of the connection, cancellation is checked before delegating to it
+     * @return entry to be used as execution context interruptor
+     */
+    public synchronized Entry register(CharSequence query, long fd, String source, SqlExecutionInterruptor interruptor) {
+        final Entry entry;
+        final int pooled = pool.size();
+        if (pooled > 0) {
+            entry = pool.getQuick(pooled - 1);
+            pool.setPos(pooled - 1);
+        } else {
+            entry = new Entry();
+        }
+        entry.id = nextId++;
+        entry.query.clear();
+        entry.query.put(query);
+        entry.fd = fd;
+        entry.source = source;
+        entry.startMicros = clock.getTicks();
+        entry.rowCount = 0;
+        entry.cancelled = false;
+        entry.of(interruptor);
+        entry.index = running.size();
+        running.add(entry);
+        return entry;
+    }
+
+    /**
+     * Copies running queries into the sink. Entries of the sink are reused and must not be
+     * registered entries.
+     *
+     * @param sink list of entries to copy to
+     * @return number of running queries
+     */
+    public synchronized int snapshot(ObjList<Entry> sink) {
+        final int n = running.size();
+        for (int i = 0; i < n; i++) {
+            if (i == sink.size()) {
+                sink.add(new Entry());
+            }
+            sink.getQuick(i).copyOf(running.getQuick(i));
+        }
+        return n;
+    }
+
+    public void unregister(Entry entry) {
+        final long elapsedUs = clock.getTicks() - entry.startMicros;
+        synchronized (this) {
+            assert running.getQuick(entry.index) == entry;
+            final int last = running.size() - 1;
+            final Entry lastEntry = running.getQuick(last);
+            running.setPos(last);
+            if (lastEntry != entry) {
+                running.setQuick(entry.index, lastEntry);
+                lastEntry.index = entry.index;
+            }
+            if (slowQueryPubSeq != null && elapsedUs >= slowQueryThresholdUs) {
+                publishSlowQuery(entry, elapsedUs);
+            }
+            entry.delegate = SqlExecutionInterruptor.NOP_INTERRUPTOR;
+            pool.add(entry);
+        }
+    }
+
+    private void publishSlowQuery(Entry entry, long elapsedUs) {
+        long cursor = slowQueryPubSeq.next();
+        while (cursor == -2) {
+            cursor = slowQueryPubSeq.next();
+        }
+
+        if (cursor > -1) {
+            final SlowQueryTask task = slowQueryQueue.get(cursor);
+            task.id = entry.id;
+            task.query.clear();
+            task.query.put(entry.query);
+            task.source = entry.source;
+            task.fd = entry.fd;
+            task.startMicros = entry.startMicros;
+            task.elapsedMicros = elapsedUs;
+            task.rowCount = entry.rowCount;
+            task.cancelled = entry.cancelled;
+            slowQueryPubSeq.done(cursor);
+        } else {
+            LOG.info().$("slow query log queue is full [id=").$(entry.id).$(", elapsedUs=").$(elapsedUs).$(']').$();
+        }
+    }
+
+    public static class Entry implements SqlExecutionInterruptor {
+        private final StringSink query = new StringSink();
+        private long id;
+        private long fd;
+        private String source;
+        private long startMicros;
+        // written by the thread executing the query only, readers may see a stale value
+        private long rowCount;
+        private volatile boolean cancelled;
+        private SqlExecutionInterruptor delegate = SqlExecutionInterruptor.NOP_INTERRUPTOR;
+        private int index;
+
+        @Override
+        public void checkInterrupted() {
+            if (cancelled) {
+                throw CairoException.instance(0).put("query cancelled [id=").put(id).put(']').setInterruption(true);
+            }
+            delegate.checkInterrupted();
+        }
+
+        public long getFd() {
+            return fd;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public CharSequence getQuery() {
+            return query;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public CharSequence getSource() {
+            return source;
+        }
+
+        public long getStartMicros() {
+            return startMicros;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Sets connection interruptor for the current execution step. Connections may resume
+         * sending the result on a different worker thread, which has its own interruptor.
+         *
+         * @param delegate connection interruptor, null for none
+         * @return this entry
+         */
+        public Entry of(@Nullable SqlExecutionInterruptor delegate) {
+            this.delegate = delegate != null ? delegate : SqlExecutionInterruptor.NOP_INTERRUPTOR;
+            return this;
+        }
+
+        public void setRowCount(long rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        private void copyOf(Entry that) {
+            id = that.id;
+            query.clear();
+            query.put(that.query);
+            fd = that.fd;
+            source = that.source;
+            startMicros = that.startMicros;
+            rowCount = that.rowCount;
+            cancelled = that.cancelled;
+        }
+    }
+}
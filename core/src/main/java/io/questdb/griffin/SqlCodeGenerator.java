@@ -30,8 +30,10 @@ import io.questdb.cairo.map.RecordValueSinkFactory;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
+import io.questdb.griffin.engine.ProfilingRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
@@ -69,6 +71,7 @@ public class SqlCodeGenerator implements Mutable {
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> avgConstructors = new IntObjHashMap<>();
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> minConstructors = new IntObjHashMap<>();
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> maxConstructors = new IntObjHashMap<>();
+    private static final IntObjHashMap<VectorAggregateFunctionConstructor> approxCountDistinctConstructors = new IntObjHashMap<>();
     private static final VectorAggregateFunctionConstructor countConstructor = (keyKind, columnIndex, workerCount) -> new CountVectorAggregateFunction(keyKind);
     private static final SetRecordCursorFactoryConstructor SET_UNION_CONSTRUCTOR = UnionRecordCursorFactory::new;
     private static final SetRecordCursorFactoryConstructor SET_INTERSECT_CONSTRUCTOR = IntersectRecordCursorFactory::new;
@@ -85,6 +88,7 @@ public class SqlCodeGenerator implements Mutable {
     private final IntHashSet intHashSet = new IntHashSet();
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+    private final ArrayColumnTypes peerKeyTypes = new ArrayColumnTypes();
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final ObjList<Function> symbolValueList = new ObjList<>();
     private final ObjList<VectorAggregateFunction> tempVaf = new ObjList<>();
@@ -101,6 +105,8 @@ public class SqlCodeGenerator implements Mutable {
     private final IntList recordFunctionPositions = new IntList();
     private final IntList groupByFunctionPositions = new IntList();
     private boolean fullFatJoins = false;
+    // not null only while query is generated for EXPLAIN ANALYZE
+    private ObjList<ProfilingRecordCursorFactory> profiledFactories;
     private final LongList prefixes = new LongList();
 
     static {
@@ -198,6 +204,14 @@ public class SqlCodeGenerator implements Mutable {
         return true;
     }
 
+    private VectorAggregateFunctionConstructor assembleApproxPercentileReference(RecordMetadata metadata, int columnIndex, double percentile) {
+        if (metadata.getColumnType(columnIndex) != ColumnType.DOUBLE) {
+            return null;
+        }
+        tempVecConstructorArgIndexes.add(columnIndex);
+        return (keyKind, colIndex, workerCount) -> new ApproxPercentileDoubleVectorAggregateFunction(keyKind, colIndex, workerCount, percentile);
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -228,6 +242,35 @@ public class SqlCodeGenerator implements Mutable {
             columnIndex = metadata.getColumnIndex(ast.rhs.token);
             tempVecConstructorArgIndexes.add(columnIndex);
             return maxConstructors.get(metadata.getColumnType(columnIndex));
+        } else if (isSingleColumnFunction(ast, "approx_count_distinct")) {
+            columnIndex = metadata.getColumnIndex(ast.rhs.token);
+            tempVecConstructorArgIndexes.add(columnIndex);
+            return approxCountDistinctConstructors.get(metadata.getColumnType(columnIndex));
+        } else if (isSingleColumnFunction(ast, "approx_median")) {
+            columnIndex = metadata.getColumnIndex(ast.rhs.token);
+            return assembleApproxPercentileReference(metadata, columnIndex, 0.5);
+        } else if (ast.type == FUNCTION && ast.paramCount == 2 && Chars.equals(ast.token, "approx_percentile")
+                && ast.lhs.type == LITERAL && ast.rhs.type == ExpressionNode.CONSTANT) {
+            // out of range or non-numeric percentile is reported by the function factory
+            final double percentile;
+            try {
+                percentile = Numbers.parseDouble(ast.rhs.token);
+            } catch (NumericException e) {
+                return null;
+            }
+            if (!(percentile >= 0 && percentile <= 1)) {
+                return null;
+            }
+            columnIndex = metadata.getColumnIndex(ast.lhs.token);
+            return assembleApproxPercentileReference(metadata, columnIndex, percentile);
+        } else if (isSingleColumnFunction(ast, "var_samp")) {
+            return assembleVarianceReference(metadata, ast, true, false);
+        } else if (isSingleColumnFunction(ast, "var_pop")) {
+            return assembleVarianceReference(metadata, ast, false, false);
+        } else if (isSingleColumnFunction(ast, "stddev_samp")) {
+            return assembleVarianceReference(metadata, ast, true, true);
+        } else if (isSingleColumnFunction(ast, "stddev_pop")) {
+            return assembleVarianceReference(metadata, ast, false, true);
         }
         return null;
     }
@@ -279,6 +322,20 @@ public class SqlCodeGenerator implements Mutable {
         return true;
     }
 
+    private VectorAggregateFunctionConstructor assembleVarianceReference(RecordMetadata metadata, ExpressionNode ast, boolean sample, boolean stdDev) {
+        final int columnIndex = metadata.getColumnIndex(ast.rhs.token);
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (columnType) {
+            case ColumnType.DOUBLE:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                tempVecConstructorArgIndexes.add(columnIndex);
+                return (keyKind, colIndex, workerCount) -> new VarianceVectorAggregateFunction(keyKind, colIndex, workerCount, columnType, sample, stdDev);
+            default:
+                return null;
+        }
+    }
+
     private RecordMetadata calculateSetMetadata(RecordMetadata masterMetadata) {
         return GenericRecordMetadata.removeTimestamp(masterMetadata);
     }
@@ -291,6 +348,94 @@ public class SqlCodeGenerator implements Mutable {
         return null;
     }
 
+    // Compiles private copy of filter for every worker that may scan table partitions
+    // concurrently. List is empty when there is only one worker or when the filter cannot
+    // be evaluated concurrently. Unfiltered scans get null entries.
+    private ObjList<Function> compileWorkerFilters(
+            @Nullable ExpressionNode filter,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<Function> workerFilters = new ObjList<>();
+        final int workerCount = executionContext.getWorkerCount();
+        if (workerCount > 1 && isWorkerSafeFilter(filter, metadata)) {
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    workerFilters.add(filter != null ? compileFilter(filter, metadata, executionContext) : null);
+                }
+            } catch (Throwable e) {
+                Misc.freeObjList(workerFilters);
+                throw e;
+            }
+        }
+        return workerFilters;
+    }
+
+    // Symbol values are resolved via symbol map reader shared by all threads, which
+    // is not thread safe. Symbol columns are only allowed in comparisons with constants,
+    // which resolve to comparing symbol keys.
+    private static boolean isWorkerSafeFilter(@Nullable ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return true;
+        }
+        switch (node.type) {
+            case ExpressionNode.QUERY:
+                return false;
+            case LITERAL:
+                final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+                return columnIndex > -1 && !ColumnType.isSymbol(metadata.getColumnType(columnIndex));
+            case FUNCTION:
+            case ExpressionNode.OPERATION:
+                if (isSymbolKeyComparison(node, metadata)) {
+                    return true;
+                }
+                if (node.paramCount < 3) {
+                    return isWorkerSafeFilter(node.lhs, metadata) && isWorkerSafeFilter(node.rhs, metadata);
+                }
+                for (int i = 0, n = node.args.size(); i < n; i++) {
+                    if (!isWorkerSafeFilter(node.args.getQuick(i), metadata)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isSymbolKeyComparison(ExpressionNode node, RecordMetadata metadata) {
+        if (!Chars.equals(node.token, '=') && !Chars.equals(node.token, "!=") && !Chars.equals(node.token, "<>") && !isInKeyword(node.token)) {
+            return false;
+        }
+        if (node.paramCount < 3) {
+            return getComparisonOperandKind(node.lhs, metadata) + getComparisonOperandKind(node.rhs, metadata) == 1;
+        }
+        int symbolCount = 0;
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            final int operand = getComparisonOperandKind(node.args.getQuick(i), metadata);
+            if (operand < 0) {
+                return false;
+            }
+            symbolCount += operand;
+        }
+        return symbolCount == 1;
+    }
+
+    // 1 for symbol column, 0 for non-null constant and -1 for anything else
+    private static int getComparisonOperandKind(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return -1;
+        }
+        if (node.type == ExpressionNode.CONSTANT) {
+            return isNullKeyword(node.token) ? -1 : 0;
+        }
+        if (node.type == LITERAL) {
+            final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+            return columnIndex > -1 && ColumnType.isSymbol(metadata.getColumnType(columnIndex)) ? 1 : -1;
+        }
+        return -1;
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -679,6 +824,15 @@ public class SqlCodeGenerator implements Mutable {
         return generateQuery(model, executionContext, true);
     }
 
+    ProfilingRecordCursorFactory generateProfiled(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        profiledFactories = new ObjList<>();
+        try {
+            return (ProfilingRecordCursorFactory) generateQuery(model, executionContext, true);
+        } finally {
+            profiledFactories = null;
+        }
+    }
+
     private RecordCursorFactory generateFilter(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final ExpressionNode filter = model.getWhereClause();
         return filter == null ? factory : generateFilter0(factory, model, executionContext, filter);
@@ -968,7 +1122,9 @@ public class SqlCodeGenerator implements Mutable {
                     dataFrameCursorFactory,
                     RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
                     keyTypes,
+                    listColumnFilterA,
                     filter,
+                    compileWorkerFilters(intrinsicModel.filter, metadata, executionContext),
                     columnIndexes
             );
         }
@@ -1112,7 +1268,9 @@ public class SqlCodeGenerator implements Mutable {
                     dataFrameCursorFactory,
                     RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
                     keyTypes,
+                    listColumnFilterA,
                     filter,
+                    compileWorkerFilters(intrinsicModel.filter, metadata, executionContext),
                     columnIndexes
             );
         }
@@ -1267,30 +1425,39 @@ public class SqlCodeGenerator implements Mutable {
     }
 
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
+        final int profileMark = profileMark();
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
-            return generateSetFactory(model, factory, executionContext);
+            return profile(generateSetFactory(model, factory, executionContext), profileMark);
         }
         return factory;
     }
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
-        return generateLimit(
-                generateOrderBy(
-                        generateFilter(
-                                generateSelect(
-                                        model,
-                                        executionContext,
-                                        processJoins
-                                ),
-                                model,
-                                executionContext
-                        ),
-                        model
-                ),
-                model,
-                executionContext
-        );
+        if (profiledFactories == null) {
+            return generateLimit(
+                    generateOrderBy(
+                            generateFilter(
+                                    generateSelect(
+                                            model,
+                                            executionContext,
+                                            processJoins
+                                    ),
+                                    model,
+                                    executionContext
+                            ),
+                            model
+                    ),
+                    model,
+                    executionContext
+            );
+        }
+
+        final int profileMark = profileMark();
+        RecordCursorFactory factory = profile(generateSelect(model, executionContext, processJoins), profileMark);
+        factory = profile(generateFilter(factory, model, executionContext), profileMark);
+        factory = profile(generateOrderBy(factory, model), profileMark);
+        return profile(generateLimit(factory, model, executionContext), profileMark);
     }
 
     @NotNull
@@ -1628,8 +1795,148 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    private AnalyticFunction generateAnalyticFunction(
+            AnalyticColumn ac,
+            RecordMetadata metadata,
+            boolean baseSupportsRandomAccess,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<ExpressionNode> partitionByNodes = ac.getPartitionBy();
+        final ObjList<ExpressionNode> orderByNodes = ac.getOrderBy();
+        final int psz = partitionByNodes.size();
+        final int osz = orderByNodes.size();
+
+        // frame defaults to the start of partition up to the current row when function is ordered
+        // and to the whole partition otherwise
+        final int framingMode;
+        final long rowsLo;
+        final long rowsHi;
+        if (ac.isFramed()) {
+            framingMode = ac.getFramingMode();
+            rowsLo = ac.getRowsLo();
+            rowsHi = ac.getRowsHi();
+        } else {
+            framingMode = AnalyticColumn.FRAMING_RANGE;
+            rowsLo = AnalyticColumn.UNBOUNDED_PRECEDING;
+            rowsHi = osz > 0 ? 0 : AnalyticColumn.UNBOUNDED_FOLLOWING;
+        }
+
+        if (rowsHi != 0 && rowsHi != AnalyticColumn.UNBOUNDED_FOLLOWING) {
+            throw SqlException.$(ac.getFramePosition(), "frame end must be CURRENT ROW or UNBOUNDED FOLLOWING");
+        }
+
+        if (rowsHi == AnalyticColumn.UNBOUNDED_FOLLOWING && rowsLo != AnalyticColumn.UNBOUNDED_PRECEDING) {
+            throw SqlException.$(ac.getFramePosition(), "frame ending with UNBOUNDED FOLLOWING must start with UNBOUNDED PRECEDING");
+        }
+
+        int timestampIndex = -1;
+        if (framingMode == AnalyticColumn.FRAMING_RANGE && rowsLo != AnalyticColumn.UNBOUNDED_PRECEDING) {
+            if (osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING) {
+                timestampIndex = metadata.getColumnIndexQuiet(orderByNodes.getQuick(0).token);
+            }
+            if (timestampIndex < 0 || ColumnType.tagOf(metadata.getColumnType(timestampIndex)) != ColumnType.TIMESTAMP) {
+                throw SqlException.$(ac.getFramePosition(), "RANGE with offset requires ORDER BY single timestamp column in ascending order");
+            }
+        }
+
+        ObjList<Function> partitionBy = null;
+        ObjList<Function> peers = null;
+        try {
+            VirtualRecord partitionByRecord = null;
+            RecordSink partitionBySink = null;
+            if (psz > 0) {
+                partitionBy = new ObjList<>(psz);
+                keyTypes.clear();
+                for (int j = 0; j < psz; j++) {
+                    final Function f = functionParser.parseFunction(partitionByNodes.getQuick(j), metadata, executionContext);
+                    partitionBy.add(f);
+                    keyTypes.add(f.getType());
+                }
+                partitionByRecord = new VirtualRecord(partitionBy);
+                entityColumnFilter.of(psz);
+                // create sink
+                partitionBySink = RecordSinkFactory.getInstance(
+                        asm,
+                        keyTypes,
+                        entityColumnFilter,
+                        false
+                );
+            }
+
+            // peers are rows with the same "partition by" and "order by" values, functions
+            // such as rank() need them to tell ties apart
+            VirtualRecord peerRecord = null;
+            RecordSink peerSink = null;
+            if (osz > 0) {
+                peers = new ObjList<>(psz + osz);
+                peerKeyTypes.clear();
+                for (int j = 0; j < psz; j++) {
+                    final Function f = functionParser.parseFunction(partitionByNodes.getQuick(j), metadata, executionContext);
+                    peers.add(f);
+                    peerKeyTypes.add(f.getType());
+                }
+                for (int j = 0; j < osz; j++) {
+                    final Function f = functionParser.parseFunction(orderByNodes.getQuick(j), metadata, executionContext);
+                    peers.add(f);
+                    peerKeyTypes.add(f.getType());
+                }
+                peerRecord = new VirtualRecord(peers);
+                entityColumnFilter.of(psz + osz);
+                peerSink = RecordSinkFactory.getInstance(
+                        asm,
+                        peerKeyTypes,
+                        entityColumnFilter,
+                        false
+                );
+            }
+
+            executionContext.configureAnalyticContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    partitionByRecord != null ? keyTypes : null,
+                    peerRecord,
+                    peerSink,
+                    peerRecord != null ? peerKeyTypes : null,
+                    osz > 0,
+                    baseSupportsRandomAccess,
+                    framingMode,
+                    rowsLo,
+                    rowsHi,
+                    timestampIndex
+            );
+
+            final Function f = functionParser.parseAnalyticFunction(ac.getAst(), metadata, executionContext);
+            assert f instanceof AnalyticFunction;
+            // from now on the function owns "partition by" and peer functions
+            return (AnalyticFunction) f;
+        } catch (Throwable e) {
+            Misc.freeObjList(partitionBy);
+            Misc.freeObjList(peers);
+            throw e;
+        }
+    }
+
     private RecordCursorFactory generateSelectAnalytic(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory base = generateSubQuery(model, executionContext);
+        try {
+            if (isAnalyticStreamable(model, base.getMetadata())) {
+                final RecordCursorFactory factory = generateSelectAnalyticStreaming(model, base, executionContext);
+                if (factory != null) {
+                    return factory;
+                }
+            }
+            return generateSelectAnalyticCached(model, base, executionContext);
+        } catch (Throwable e) {
+            Misc.free(base);
+            throw e;
+        }
+    }
+
+    private RecordCursorFactory generateSelectAnalyticCached(
+            QueryModel model,
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
         final RecordMetadata baseMetadata = base.getMetadata();
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
@@ -1640,6 +1947,7 @@ public class SqlCodeGenerator implements Mutable {
         ArrayColumnTypes chainTypes = valueTypes;
         GenericRecordMetadata chainMetadata = new GenericRecordMetadata();
         GenericRecordMetadata factoryMetadata = new GenericRecordMetadata();
+        IntList baseColumnIndexes = new IntList();
 
         listColumnFilterA.clear();
         listColumnFilterB.clear();
@@ -1663,7 +1971,10 @@ public class SqlCodeGenerator implements Mutable {
                 chainTypes.add(i, m.getType());
                 listColumnFilterA.extendAndSet(i, i + 1);
                 listColumnFilterB.extendAndSet(i, columnIndex);
+                baseColumnIndexes.extendAndSet(i, columnIndex);
                 columnSet.add(columnIndex);
+            } else {
+                baseColumnIndexes.extendAndSet(i, -1);
             }
         }
 
@@ -1682,6 +1993,7 @@ public class SqlCodeGenerator implements Mutable {
                 chainTypes.add(addAt, m.getType());
                 listColumnFilterA.extendAndSet(addAt, addAt + 1);
                 listColumnFilterB.extendAndSet(addAt, i);
+                baseColumnIndexes.extendAndSet(addAt, i);
                 addAt++;
             }
         }
@@ -1692,112 +2004,73 @@ public class SqlCodeGenerator implements Mutable {
 
         // todo: these ar transient list, we can cache and reuse
         final ObjList<TableColumnMetadata> deferredAnalyticMetadata = new ObjList<>();
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
 
-        for (int i = 0; i < columnCount; i++) {
-            final QueryColumn qc = columns.getQuick(i);
-            if (qc instanceof AnalyticColumn) {
-                final AnalyticColumn ac = (AnalyticColumn) qc;
-                final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    throw SqlException.$(ast.position, "Too many arguments");
-                }
-
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
-                        );
-                    }
-                }
-
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
-
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
-
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
-                    }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
-                            keyTypes,
-                            entityColumnFilter,
-                            false
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticColumn ac = (AnalyticColumn) qc;
+                    // functions read records of the chain
+                    final AnalyticFunction analyticFunction = generateAnalyticFunction(
+                            ac,
+                            chainMetadata,
+                            base.recordCursorSupportsRandomAccess(),
+                            executionContext
                     );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
-                }
-
-
-                final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
-                );
-
-                final Function f = functionParser.parseFunction(ac.getAst(), baseMetadata, executionContext);
-                // todo: throw an error when non-analytic function is called in analytic context
-                assert f instanceof AnalyticFunction;
-                AnalyticFunction analyticFunction = (AnalyticFunction) f;
-
-                // analyze order by clause on the current model and optimise out
-                // order by on analytic function if it matches the one on the model
-                final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                boolean dismissOrder;
-                if (osz > 0 && orderHash.size() > 0) {
-                    dismissOrder = true;
-                    for (int j = 0; j < osz; j++) {
-                        ExpressionNode node = ac.getOrderBy().getQuick(j);
-                        int direction = ac.getOrderByDirection().getQuick(j);
-                        if (orderHash.get(node.token) != direction) {
-                            dismissOrder = false;
-                            break;
+                    analyticFunctions.add(analyticFunction);
+
+                    // analyze order by clause on the current model and optimise out
+                    // order by on analytic function if it matches the one on the model
+                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
+                    final int osz = ac.getOrderBy().size();
+                    boolean dismissOrder;
+                    if (osz > 0 && orderHash.size() > 0) {
+                        dismissOrder = true;
+                        for (int j = 0; j < osz; j++) {
+                            ExpressionNode node = ac.getOrderBy().getQuick(j);
+                            int direction = ac.getOrderByDirection().getQuick(j);
+                            if (orderHash.get(node.token) != direction) {
+                                dismissOrder = false;
+                                break;
+                            }
                         }
+                    } else {
+                        dismissOrder = false;
                     }
-                } else {
-                    dismissOrder = false;
-                }
 
-                if (osz > 0 && !dismissOrder) {
-                    IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
-                    ObjList<AnalyticFunction> funcs = grouppedAnalytic.get(order);
-                    if (funcs == null) {
-                        grouppedAnalytic.put(order, funcs = new ObjList<>());
-                    }
-                    funcs.add(analyticFunction);
-                } else {
-                    if (naturalOrderFunctions == null) {
-                        naturalOrderFunctions = new ObjList<>();
+                    if (osz > 0 && !dismissOrder) {
+                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        ObjList<AnalyticFunction> funcs = grouppedAnalytic.get(order);
+                        if (funcs == null) {
+                            grouppedAnalytic.put(order, funcs = new ObjList<>());
+                        }
+                        funcs.add(analyticFunction);
+                    } else {
+                        if (naturalOrderFunctions == null) {
+                            naturalOrderFunctions = new ObjList<>();
+                        }
+                        naturalOrderFunctions.add(analyticFunction);
                     }
-                    naturalOrderFunctions.add(analyticFunction);
-                }
 
-                analyticFunction.setColumnIndex(i);
+                    analyticFunction.setColumnIndex(i);
 
-                deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
-                        Chars.toString(qc.getAlias()),
-                        0, // transient column hash is 0
-                        analyticFunction.getType(),
-                        false,
-                        0,
-                        false,
-                        null
-                ));
+                    deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            0, // transient column hash is 0
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
 
-                listColumnFilterA.extendAndSet(i, -i - 1);
+                    listColumnFilterA.extendAndSet(i, -i - 1);
+                }
             }
+        } catch (Throwable e) {
+            Misc.freeObjList(analyticFunctions);
+            throw e;
         }
 
         // after all columns are processed we can re-insert deferred metadata
@@ -1832,10 +2105,69 @@ public class SqlCodeGenerator implements Mutable {
                 chainTypes,
                 analyticComparators,
                 functionGroups,
-                naturalOrderFunctions
+                naturalOrderFunctions,
+                baseColumnIndexes
         );
     }
 
+    @Nullable
+    private RecordCursorFactory generateSelectAnalyticStreaming(
+            QueryModel model,
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final int columnCount = columns.size();
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        final ObjList<Function> functions = new ObjList<>(columnCount);
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    // functions read records of the base cursor
+                    final AnalyticFunction f = generateAnalyticFunction(
+                            (AnalyticColumn) qc,
+                            baseMetadata,
+                            base.recordCursorSupportsRandomAccess(),
+                            executionContext
+                    );
+                    functions.add(f);
+                    if (f.getPassCount() != AnalyticFunction.STREAM) {
+                        // function needs to see rows ahead of the current one, we have to cache
+                        Misc.freeObjList(functions);
+                        return null;
+                    }
+                    analyticFunctions.add(f);
+                    metadata.add(new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            0, // transient column hash is 0
+                            f.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
+                } else {
+                    final int columnIndex = baseMetadata.getColumnIndexQuiet(qc.getAst().token);
+                    functions.add(functionParser.parseFunction(qc.getAst(), baseMetadata, executionContext));
+                    metadata.add(BaseRecordMetadata.copyOf(baseMetadata, columnIndex));
+                    if (columnIndex == baseMetadata.getTimestampIndex()) {
+                        // output is in the order of the base
+                        metadata.setTimestampIndex(i);
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            Misc.freeObjList(functions);
+            throw e;
+        }
+
+        return new AnalyticRecordCursorFactory(metadata, base, functions, analyticFunctions);
+    }
+
     private RecordCursorFactory generateSelectChoose(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
         final RecordMetadata metadata = factory.getMetadata();
@@ -2811,7 +3143,9 @@ public class SqlCodeGenerator implements Mutable {
                     new FullBwdDataFrameCursorFactory(engine, tableName, model.getTableId(), model.getTableVersion()),
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
+                    listColumnFilterA,
                     null,
+                    compileWorkerFilters(null, myMeta, executionContext),
                     columnIndexes
             );
         }
@@ -2894,6 +3228,31 @@ public class SqlCodeGenerator implements Mutable {
         return metadata.getTimestampIndex();
     }
 
+    /**
+     * Analytic functions can be computed while scanning the base cursor when the base is ordered by designated
+     * timestamp and every function is ordered by that timestamp too.
+     */
+    private boolean isAnalyticStreamable(QueryModel model, RecordMetadata baseMetadata) {
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        if (timestampIndex == -1) {
+            return false;
+        }
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc instanceof AnalyticColumn) {
+                final AnalyticColumn ac = (AnalyticColumn) qc;
+                if (ac.getOrderBy().size() != 1
+                        || ac.getOrderByDirection().getQuick(0) != QueryModel.ORDER_DIRECTION_ASCENDING
+                        || baseMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token) != timestampIndex) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equals(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -2934,6 +3293,24 @@ public class SqlCodeGenerator implements Mutable {
         }
     }
 
+    private RecordCursorFactory profile(RecordCursorFactory factory, int profileMark) {
+        if (profiledFactories == null || factory instanceof ProfilingRecordCursorFactory) {
+            return factory;
+        }
+        // factories profiled since the mark are inputs of this one
+        final ProfilingRecordCursorFactory profiled = new ProfilingRecordCursorFactory(factory);
+        for (int i = profileMark, n = profiledFactories.size(); i < n; i++) {
+            profiled.getChildren().add(profiledFactories.getQuick(i));
+        }
+        profiledFactories.setPos(profileMark);
+        profiledFactories.add(profiled);
+        return profiled;
+    }
+
+    private int profileMark() {
+        return profiledFactories != null ? profiledFactories.size() : 0;
+    }
+
     private void processJoinContext(
             boolean vanillaMaster,
             JoinContext jc,
@@ -3091,5 +3468,8 @@ public class SqlCodeGenerator implements Mutable {
         maxConstructors.put(ColumnType.DATE, MaxDateVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.TIMESTAMP, MaxTimestampVectorAggregateFunction::new);
         maxConstructors.put(ColumnType.INT, MaxIntVectorAggregateFunction::new);
+
+        approxCountDistinctConstructors.put(ColumnType.INT, (keyKind, columnIndex, workerCount) -> new ApproxCountDistinctVectorAggregateFunction(keyKind, columnIndex, workerCount, ColumnType.INT));
+        approxCountDistinctConstructors.put(ColumnType.LONG, (keyKind, columnIndex, workerCount) -> new ApproxCountDistinctVectorAggregateFunction(keyKind, columnIndex, workerCount, ColumnType.LONG));
     }
 }
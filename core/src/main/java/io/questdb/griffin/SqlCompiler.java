@@ -33,6 +33,9 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.cutlass.text.TextException;
 import io.questdb.cutlass.text.TextLoader;
+import io.questdb.griffin.engine.ExplainAnalyzeRecordCursorFactory;
+import io.questdb.griffin.engine.cache.QueryResultCache;
+import io.questdb.griffin.engine.cache.QueryResultCacheRecordCursorFactory;
 import io.questdb.griffin.engine.functions.cast.CastCharToStrFunctionFactory;
 import io.questdb.griffin.engine.functions.cast.CastStrToGeoHashFunctionFactory;
 import io.questdb.griffin.engine.functions.catalogue.ShowSearchPathCursorFactory;
@@ -48,6 +51,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -91,6 +95,7 @@ public class SqlCompiler implements Closeable {
     private final ExecutableMethod createTableMethod = this::createTable;
     private final TextLoader textLoader;
     private final FilesFacade ff;
+    private final StringSink resultCacheSink = new StringSink();
 
 
     public SqlCompiler(CairoEngine engine) {
@@ -132,6 +137,8 @@ public class SqlCompiler implements Closeable {
         final KeywordBasedExecutor dropTable = this::dropTable;
         final KeywordBasedExecutor sqlBackup = backupAgent::sqlBackup;
         final KeywordBasedExecutor sqlShow = this::sqlShow;
+        final KeywordBasedExecutor sqlExplain = this::sqlExplain;
+        final KeywordBasedExecutor cancelQuery = this::cancelQuery;
 
         keywordBasedExecutors.put("truncate", truncateTables);
         keywordBasedExecutors.put("TRUNCATE", truncateTables);
@@ -155,6 +162,10 @@ public class SqlCompiler implements Closeable {
         keywordBasedExecutors.put("BACKUP", sqlBackup);
         keywordBasedExecutors.put("show", sqlShow);
         keywordBasedExecutors.put("SHOW", sqlShow);
+        keywordBasedExecutors.put("explain", sqlExplain);
+        keywordBasedExecutors.put("EXPLAIN", sqlExplain);
+        keywordBasedExecutors.put("cancel", cancelQuery);
+        keywordBasedExecutors.put("CANCEL", cancelQuery);
 
         configureLexer(lexer);
 
@@ -1413,6 +1424,33 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private CompiledQuery cancelQuery(SqlExecutionContext executionContext) throws SqlException {
+        executionContext.getCairoSecurityContext().checkWritePermission();
+        CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !isQueryKeyword(tok)) {
+            throw SqlException.position(tok != null ? lexer.lastTokenPosition() : lexer.getPosition()).put("expected 'query'");
+        }
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok == null) {
+            throw SqlException.position(lexer.getPosition()).put("query id expected");
+        }
+        final int queryIdPosition = lexer.lastTokenPosition();
+        final long queryId;
+        try {
+            queryId = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(queryIdPosition, "invalid query id [value=").put(tok).put(']');
+        }
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put(']');
+        }
+        if (!engine.getQueryRegistry().cancel(queryId)) {
+            throw SqlException.$(queryIdPosition, "query is not running [id=").put(queryId).put(']');
+        }
+        return compiledQuery.ofCancelQuery();
+    }
+
     private CompiledQuery compileSet(SqlExecutionContext executionContext) {
         return compiledQuery.ofSet();
     }
@@ -1429,12 +1467,13 @@ public class SqlCompiler implements Closeable {
         // lexer would have parsed first token to determine direction of execution flow
         lexer.unparse();
         codeGenerator.clear();
+        functionParser.clearNonDeterministicFunctionUsed();
 
         ExecutionModel executionModel = compileExecutionModel(executionContext);
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
-                return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
+                return compiledQuery.of(withResultCache(generate((QueryModel) executionModel, executionContext)));
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
             case ExecutionModel.COPY:
@@ -1457,6 +1496,27 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private RecordCursorFactory withResultCache(RecordCursorFactory factory) {
+        final QueryResultCache resultCache = engine.getQueryResultCache();
+        if (!resultCache.isEnabled()
+                || optimiser.isQueryUsingTableFunctions()
+                || optimiser.getQueryTableNames().size() == 0
+                || functionParser.isNonDeterministicFunctionUsed()) {
+            return factory;
+        }
+
+        resultCacheSink.clear();
+        QueryResultCache.normaliseQuery(lexer.getContent(), resultCacheSink);
+        return new QueryResultCacheRecordCursorFactory(
+                factory,
+                resultCache,
+                resultCacheSink.toString(),
+                optimiser.getQueryTableNames(),
+                optimiser.getQueryTableIds(),
+                optimiser.getQueryTableVersions()
+        );
+    }
+
     private void copyOrdered(TableWriter writer, RecordMetadata metadata, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
         if (ColumnType.isSymbolOrString(metadata.getColumnType(cursorTimestampIndex))) {
             copyOrderedStrTimestamp(writer, cursor, copier, cursorTimestampIndex);
@@ -1570,22 +1630,43 @@ public class SqlCompiler implements Closeable {
                 }
                 try {
                     long fileLen = ff.length(fd);
-                    long n = ff.read(fd, buf, len, 0);
-                    if (n > 0) {
-                        textLoader.setForceHeaders(model.isHeader());
-                        textLoader.setSkipRowsWithExtraValues(false);
-                        textLoader.parse(buf, buf + n, executionContext.getCairoSecurityContext());
-                        textLoader.setState(TextLoader.LOAD_DATA);
-                        int read;
-                        while (n < fileLen) {
-                            read = (int) ff.read(fd, buf, len, n);
-                            if (read < 1) {
-                                throw SqlException.$(model.getFileName().position, "could not read file [errno=").put(ff.errno()).put(']');
+                    final long chunkSize = configuration.getSqlCopyParallelChunkSize();
+                    if (chunkSize > 0 && fileLen > chunkSize) {
+                        // large file is mapped and tokenized by worker pool
+                        final long address = TableUtils.mapRO(ff, fd, fileLen, MemoryTag.MMAP_DEFAULT);
+                        try {
+                            textLoader.setForceHeaders(model.isHeader());
+                            textLoader.setSkipRowsWithExtraValues(false);
+                            textLoader.parseParallel(
+                                    address,
+                                    address + fileLen,
+                                    len,
+                                    chunkSize,
+                                    Math.max(1, executionContext.getWorkerCount()),
+                                    executionContext.getCairoSecurityContext()
+                            );
+                            textLoader.wrapUp();
+                        } finally {
+                            ff.munmap(address, fileLen, MemoryTag.MMAP_DEFAULT);
+                        }
+                    } else {
+                        long n = ff.read(fd, buf, len, 0);
+                        if (n > 0) {
+                            textLoader.setForceHeaders(model.isHeader());
+                            textLoader.setSkipRowsWithExtraValues(false);
+                            textLoader.parse(buf, buf + n, executionContext.getCairoSecurityContext());
+                            textLoader.setState(TextLoader.LOAD_DATA);
+                            int read;
+                            while (n < fileLen) {
+                                read = (int) ff.read(fd, buf, len, n);
+                                if (read < 1) {
+                                    throw SqlException.$(model.getFileName().position, "could not read file [errno=").put(ff.errno()).put(']');
+                                }
+                                textLoader.parse(buf, buf + read, executionContext.getCairoSecurityContext());
+                                n += read;
                             }
-                            textLoader.parse(buf, buf + read, executionContext.getCairoSecurityContext());
-                            n += read;
+                            textLoader.wrapUp();
                         }
-                        textLoader.wrapUp();
                     }
                 } finally {
                     ff.close(fd);
@@ -1742,6 +1823,10 @@ public class SqlCompiler implements Closeable {
 
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
+        if (executionModel.getQueryModel() != null) {
+            final QueryModel queryModel = optimiser.optimise(executionModel.getQueryModel(), executionContext);
+            return compiledQuery.ofCopyOut(generate(queryModel, executionContext), executionModel.getFormat());
+        }
         setupTextLoaderFromModel(executionModel);
         if (Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
             return compiledQuery.ofCopyRemote(textLoader);
@@ -2072,6 +2157,21 @@ public class SqlCompiler implements Closeable {
         textLoader.configureDestination(model.getTableName().token, false, false, Atomicity.SKIP_ROW, PartitionBy.NONE, null);
     }
 
+    private CompiledQuery sqlExplain(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !isAnalyzeKeyword(tok)) {
+            throw SqlException.position(tok != null ? lexer.lastTokenPosition() : lexer.getPosition()).put("expected 'analyze'");
+        }
+        final int queryPosition = lexer.getPosition();
+        codeGenerator.clear();
+        final ExecutionModel executionModel = compileExecutionModel(executionContext);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.position(queryPosition).put("select query expected");
+        }
+        // profiled factory is not put into result cache, it has to execute the query every time
+        return compiledQuery.of(new ExplainAnalyzeRecordCursorFactory(codeGenerator.generateProfiled((QueryModel) executionModel, executionContext)));
+    }
+
     private CompiledQuery sqlShow(SqlExecutionContext executionContext) throws SqlException {
         CharSequence tok = SqlUtil.fetchNext(lexer);
         if (null != tok) {
@@ -75,8 +75,15 @@ public interface SqlExecutionContext extends Closeable {
             @Nullable VirtualRecord partitionByRecord,
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes keyTypes,
+            @Nullable VirtualRecord peerRecord,
+            @Nullable RecordSink peerSink,
+            @Transient @Nullable ColumnTypes peerKeyTypes,
             boolean isOrdered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex
     );
 
     void initNow();
@@ -143,15 +143,29 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
             @Nullable VirtualRecord partitionByRecord,
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
+            @Nullable VirtualRecord peerRecord,
+            @Nullable RecordSink peerSink,
+            @Transient @Nullable ColumnTypes peerKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex
     ) {
         analyticContext.of(
                 partitionByRecord,
                 partitionBySink,
                 partitionByKeyTypes,
+                peerRecord,
+                peerSink,
+                peerKeyTypes,
                 ordered,
-                baseSupportsRandomAccess
+                baseSupportsRandomAccess,
+                framingMode,
+                rowsLo,
+                rowsHi,
+                timestampIndex
         );
     }
 
@@ -183,6 +197,13 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return this;
     }
 
+    public SqlExecutionContextImpl with(
+            @Nullable SqlExecutionInterruptor interruptor
+    ) {
+        this.interruptor = null == interruptor ? SqlExecutionInterruptor.NOP_INTERRUPTOR : interruptor;
+        return this;
+    }
+
     public SqlExecutionContextImpl with(
             @NotNull CairoSecurityContext cairoSecurityContext,
             @Nullable BindVariableService bindVariableService,
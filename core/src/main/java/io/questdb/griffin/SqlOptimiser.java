@@ -99,6 +99,11 @@ class SqlOptimiser {
     private final ObjList<ExpressionNode> orderByAdvice = new ObjList<>();
     private final LowerCaseCharSequenceObjHashMap<QueryColumn> tmpCursorAliases = new LowerCaseCharSequenceObjHashMap<>();
     private final ObjList<Function> functionsInFlight = new ObjList<>();
+    // tables read by the query, they are tracked for the benefit of query result cache
+    private final ObjList<CharSequence> queryTableNames = new ObjList<>();
+    private final IntList queryTableIds = new IntList();
+    private final LongList queryTableVersions = new LongList();
+    private boolean queryUsesTableFunctions;
     private int defaultAliasCount = 0;
     private ObjList<JoinContext> emittedJoinClauses;
 
@@ -124,6 +129,22 @@ class SqlOptimiser {
         this.path = path;
     }
 
+    IntList getQueryTableIds() {
+        return queryTableIds;
+    }
+
+    ObjList<CharSequence> getQueryTableNames() {
+        return queryTableNames;
+    }
+
+    LongList getQueryTableVersions() {
+        return queryTableVersions;
+    }
+
+    boolean isQueryUsingTableFunctions() {
+        return queryUsesTableFunctions;
+    }
+
     private static void linkDependencies(QueryModel model, int parent, int child) {
         model.getJoinModels().getQuick(parent).addDependency(child);
     }
@@ -666,6 +687,10 @@ class SqlOptimiser {
         clausesToSteal.clear();
         tmpCursorAliases.clear();
         functionsInFlight.clear();
+        queryTableNames.clear();
+        queryTableIds.clear();
+        queryTableVersions.clear();
+        queryUsesTableFunctions = false;
     }
 
     private void collectAlias(QueryModel parent, int modelIndex, QueryModel model) throws SqlException {
@@ -1864,6 +1889,11 @@ class SqlOptimiser {
             model.setTableVersion(r.getVersion());
             model.setTableId(r.getMetadata().getId());
             copyColumnsFromMetadata(model, r.getMetadata(), false);
+            if (engine.getQueryResultCache().isEnabled()) {
+                queryTableNames.add(r.getTableName());
+                queryTableIds.add(r.getMetadata().getId());
+                queryTableVersions.add(r.getVersion());
+            }
         } catch (EntryLockedException e) {
             throw SqlException.position(tableNamePosition).put("table is locked: ").put(tableLookupSequence);
         } catch (CairoException e) {
@@ -2159,6 +2189,7 @@ class SqlOptimiser {
         }
         model.setTableNameFunction(function);
         functionsInFlight.add(function);
+        queryUsesTableFunctions = true;
         copyColumnsFromMetadata(model, function.getRecordCursorFactory().getMetadata(), true);
     }
 
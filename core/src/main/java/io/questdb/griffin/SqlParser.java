@@ -404,6 +404,90 @@ public final class SqlParser {
         return model;
     }
 
+    private CharSequence parseAnalyticFrame(GenericLexer lexer, AnalyticColumn col, CharSequence tok) throws SqlException {
+        final int framePosition = lexer.lastTokenPosition();
+        final int framingMode = isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE;
+        final long rowsLo;
+        final long rowsHi;
+        final int loPosition;
+        final int hiPosition;
+
+        tok = tok(lexer, "'between', 'unbounded', 'current' or offset");
+        if (isBetweenKeyword(tok)) {
+            tok = tok(lexer, "'unbounded', 'current' or offset");
+            loPosition = lexer.lastTokenPosition();
+            rowsLo = parseAnalyticFrameBound(lexer, framingMode, tok);
+            expectTok(lexer, "and");
+            tok = tok(lexer, "'unbounded', 'current' or offset");
+            hiPosition = lexer.lastTokenPosition();
+            rowsHi = parseAnalyticFrameBound(lexer, framingMode, tok);
+        } else {
+            // short form "ROWS 3 PRECEDING" is the same as "ROWS BETWEEN 3 PRECEDING AND CURRENT ROW"
+            loPosition = hiPosition = lexer.lastTokenPosition();
+            rowsLo = parseAnalyticFrameBound(lexer, framingMode, tok);
+            rowsHi = 0;
+        }
+
+        if (rowsLo == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+            throw SqlException.$(loPosition, "frame start cannot be UNBOUNDED FOLLOWING");
+        }
+
+        if (rowsHi == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            throw SqlException.$(hiPosition, "frame end cannot be UNBOUNDED PRECEDING");
+        }
+
+        if (rowsLo > rowsHi) {
+            throw SqlException.$(loPosition, "frame start cannot be after frame end");
+        }
+
+        col.setFrame(framingMode, rowsLo, rowsHi, framePosition);
+        return tok(lexer, "')'");
+    }
+
+    private long parseAnalyticFrameBound(GenericLexer lexer, int framingMode, CharSequence tok) throws SqlException {
+        if (isUnboundedKeyword(tok)) {
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (isPrecedingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_PRECEDING;
+            }
+            if (isFollowingKeyword(tok)) {
+                return AnalyticColumn.UNBOUNDED_FOLLOWING;
+            }
+            throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+        }
+
+        if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            return 0;
+        }
+
+        final int offsetPosition = lexer.lastTokenPosition();
+        final long offset;
+        if (framingMode == AnalyticColumn.FRAMING_RANGE && Chars.isQuoted(tok)) {
+            // time offset, such as '5m', for frames over timestamp order
+            offset = SqlUtil.expectMicros(GenericLexer.unquote(tok), offsetPosition + 1);
+        } else {
+            try {
+                offset = Numbers.parseLong(tok);
+            } catch (NumericException e) {
+                throw SqlException.$(offsetPosition, "'unbounded', 'current' or offset expected");
+            }
+        }
+
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "non-negative offset expected");
+        }
+
+        tok = tok(lexer, "'preceding' or 'following'");
+        if (isPrecedingKeyword(tok)) {
+            return -offset;
+        }
+        if (isFollowingKeyword(tok)) {
+            return offset;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer, LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         final QueryModel model = parseAsSubQuery(lexer, withClauses);
         expectTok(lexer, ')');
@@ -411,13 +495,21 @@ public final class SqlParser {
     }
 
     private ExecutionModel parseCopy(GenericLexer lexer) throws SqlException {
-        if (configuration.getInputRoot() == null) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        CharSequence tok = tok(lexer, "table name or sub-query");
+        QueryModel queryModel = null;
+        ExpressionNode tableName = null;
+        if (Chars.equals(tok, '(')) {
+            queryModel = parseAsSubQueryAndExpectClosingBrace(lexer, null);
+        } else {
+            lexer.unparse();
+            tableName = expectExpr(lexer);
         }
-        ExpressionNode tableName = expectExpr(lexer);
-        CharSequence tok = tok(lexer, "'from' or 'to'");
+        tok = tok(lexer, "'from' or 'to'");
 
-        if (isFromKeyword(tok)) {
+        if (queryModel == null && isFromKeyword(tok)) {
+            if (configuration.getInputRoot() == null) {
+                throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+            }
             final ExpressionNode fileName = expectExpr(lexer);
             if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
                 throw SqlException.$(fileName.position, "file name expected");
@@ -440,7 +532,57 @@ public final class SqlParser {
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+
+        if (isToKeyword(tok)) {
+            tok = tok(lexer, "'stdout'");
+            if (!isStdoutKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'stdout' expected");
+            }
+            CopyModel model = copyModelPool.next();
+            if (queryModel == null) {
+                // COPY x TO STDOUT is the same as COPY (x) TO STDOUT
+                queryModel = queryModelPool.next();
+                queryModel.setModelPosition(tableName.position);
+                queryModel.addBottomUpColumn(SqlUtil.nextColumn(queryColumnPool, expressionNodePool, "*", "*"));
+                final QueryModel nestedModel = queryModelPool.next();
+                nestedModel.setModelPosition(tableName.position);
+                nestedModel.setTableName(tableName);
+                queryModel.setSelectModelType(QueryModel.SELECT_MODEL_CHOOSE);
+                queryModel.setNestedModel(nestedModel);
+            }
+            model.setQueryModel(queryModel);
+
+            tok = optTok(lexer);
+            if (tok != null && isWithKeyword(tok)) {
+                // both "with format binary" and postgres style "with (format binary)" are accepted
+                tok = tok(lexer, "copy option");
+                final boolean braced = Chars.equals(tok, '(');
+                if (braced) {
+                    tok = tok(lexer, "copy option");
+                }
+                if (!isFormatKeyword(tok)) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                }
+                tok = tok(lexer, "'binary' or 'text'");
+                if (isBinaryKeyword(tok)) {
+                    model.setFormat(CopyModel.FORMAT_BINARY);
+                } else if (isTextKeyword(tok)) {
+                    model.setFormat(CopyModel.FORMAT_TEXT);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'binary' or 'text' expected");
+                }
+                if (braced) {
+                    expectTok(lexer, ')');
+                }
+                tok = optTok(lexer);
+            }
+
+            if (tok != null && !Chars.equals(tok, ';')) {
+                throw errUnexpected(lexer, tok);
+            }
+            return model;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), queryModel == null ? "'from' or 'to' expected" : "'to' expected");
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
@@ -1324,6 +1466,10 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    tok = parseAnalyticFrame(lexer, (AnalyticColumn) col, tok);
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
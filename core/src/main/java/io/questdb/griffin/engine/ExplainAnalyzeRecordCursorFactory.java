@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Result of EXPLAIN ANALYZE. Every time cursor is requested the profiled query is executed to completion,
+ * the query result is discarded and the cursor returns one row per factory of the execution plan. Rows
+ * are in depth-first order and operator names are indented by their depth in the plan tree.
+ */
+public class ExplainAnalyzeRecordCursorFactory implements RecordCursorFactory {
+    private static final RecordMetadata METADATA;
+    private static final int N_OPERATOR_COL = 0;
+    private static final int N_LOOPS_COL = 1;
+    private static final int N_ROWS_COL = 2;
+    private static final int N_OPEN_MICROS_COL = 3;
+    private static final int N_NEXT_MICROS_COL = 4;
+    private static final int N_PAGE_FRAMES_COL = 5;
+    private static final int N_SIZE_COL = 6;
+    private final ProfilingRecordCursorFactory base;
+    private final ObjList<ProfilingRecordCursorFactory> nodes = new ObjList<>();
+    private final IntList depths = new IntList();
+    private final ExplainAnalyzeRecordCursor cursor = new ExplainAnalyzeRecordCursor();
+
+    public ExplainAnalyzeRecordCursorFactory(ProfilingRecordCursorFactory base) {
+        this.base = base;
+        addNode(base, 0);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        base.clearProfile();
+        try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+            //noinspection StatementWithEmptyBody
+            while (baseCursor.hasNext()) {
+            }
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private void addNode(ProfilingRecordCursorFactory node, int depth) {
+        nodes.add(node);
+        depths.add(depth);
+        final ObjList<ProfilingRecordCursorFactory> children = node.getChildren();
+        for (int i = 0, n = children.size(); i < n; i++) {
+            addNode(children.getQuick(i), depth + 1);
+        }
+    }
+
+    private class ExplainAnalyzeRecordCursor implements NoRandomAccessRecordCursor {
+        private final ExplainAnalyzeRecord record = new ExplainAnalyzeRecord();
+        private int index;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < nodes.size() - 1) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        @Override
+        public long size() {
+            return nodes.size();
+        }
+
+        private class ExplainAnalyzeRecord implements Record {
+            private final StringSink sink = new StringSink();
+
+            @Override
+            public long getLong(int col) {
+                final ProfilingRecordCursorFactory node = nodes.getQuick(index);
+                switch (col) {
+                    case N_LOOPS_COL:
+                        return node.getLoops();
+                    case N_ROWS_COL:
+                        return node.getRows();
+                    case N_OPEN_MICROS_COL:
+                        return node.getOpenNanos() / 1000;
+                    case N_NEXT_MICROS_COL:
+                        return node.getNextNanos() / 1000;
+                    case N_PAGE_FRAMES_COL:
+                        return node.getPageFrames();
+                    case N_SIZE_COL:
+                        return node.getSize();
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                if (col == N_OPERATOR_COL) {
+                    sink.clear();
+                    for (int i = 0, n = depths.getQuick(index); i < n; i++) {
+                        sink.put("  ");
+                    }
+                    sink.put(nodes.getQuick(index).getName());
+                    return sink;
+                }
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("operator", 1, ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("loops", 2, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("rows", 3, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("open_micros", 4, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("next_micros", 5, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("page_frames", 6, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("size", 7, ColumnType.LONG));
+        METADATA = metadata;
+    }
+}
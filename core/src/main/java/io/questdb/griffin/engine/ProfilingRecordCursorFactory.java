@@ -0,0 +1,265 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Wraps a factory of the execution plan to count rows and measure time spent in its cursor. Instances are
+ * created by code generator only when the query is compiled under EXPLAIN ANALYZE, regular queries never pay
+ * for the instrumentation. Timings are inclusive, they contain time spent in child factories.
+ */
+public class ProfilingRecordCursorFactory implements RecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<ProfilingRecordCursorFactory> children = new ObjList<>();
+    private final ProfilingRecordCursor cursor = new ProfilingRecordCursor();
+    private final ProfilingPageFrameCursor pageFrameCursor = new ProfilingPageFrameCursor();
+    private long loops;
+    private long rows;
+    private long openNanos;
+    private long nextNanos;
+    private long pageFrames;
+    private long size = -1;
+
+    public ProfilingRecordCursorFactory(RecordCursorFactory base) {
+        this.base = base;
+    }
+
+    public void clearProfile() {
+        loops = 0;
+        rows = 0;
+        openNanos = 0;
+        nextNanos = 0;
+        pageFrames = 0;
+        size = -1;
+        for (int i = 0, n = children.size(); i < n; i++) {
+            children.getQuick(i).clearProfile();
+        }
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public SingleSymbolFilter convertToSampleByIndexDataFrameCursorFactory() {
+        return base.convertToSampleByIndexDataFrameCursorFactory();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    public RecordCursorFactory getBase() {
+        return base;
+    }
+
+    public ObjList<ProfilingRecordCursorFactory> getChildren() {
+        return children;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long start = System.nanoTime();
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        openNanos += System.nanoTime() - start;
+        loops++;
+        return cursor.of(baseCursor);
+    }
+
+    public long getLoops() {
+        return loops;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    public CharSequence getName() {
+        final String name = base.getClass().getSimpleName();
+        return name.length() > 0 ? name : base.getClass().getName();
+    }
+
+    public long getNextNanos() {
+        return nextNanos;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long start = System.nanoTime();
+        final PageFrameCursor baseCursor = base.getPageFrameCursor(executionContext);
+        openNanos += System.nanoTime() - start;
+        loops++;
+        return baseCursor != null ? pageFrameCursor.of(baseCursor) : null;
+    }
+
+    public long getPageFrames() {
+        return pageFrames;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return size reported by the last cursor of this factory before it was closed, -1 when size is not known
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportPageFrameCursor() {
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    private class ProfilingRecordCursor implements RecordCursor {
+        private RecordCursor base;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                size = base.size();
+                base.close();
+                base = null;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return base.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            final long start = System.nanoTime();
+            final boolean next = base.hasNext();
+            nextNanos += System.nanoTime() - start;
+            if (next) {
+                rows++;
+            }
+            return next;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return base.getRecordB();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+            loops++;
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        private ProfilingRecordCursor of(RecordCursor base) {
+            this.base = base;
+            return this;
+        }
+    }
+
+    private class ProfilingPageFrameCursor implements PageFrameCursor {
+        private PageFrameCursor base;
+
+        @Override
+        public void close() {
+            if (base != null) {
+                size = base.size();
+                base.close();
+                base = null;
+            }
+        }
+
+        @Override
+        public @Nullable PageFrame next() {
+            final long start = System.nanoTime();
+            final PageFrame frame = base.next();
+            nextNanos += System.nanoTime() - start;
+            if (frame != null) {
+                pageFrames++;
+            }
+            return frame;
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+            loops++;
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        @Override
+        public SymbolMapReader getSymbolMapReader(int columnIndex) {
+            return base.getSymbolMapReader(columnIndex);
+        }
+
+        private ProfilingPageFrameCursor of(PageFrameCursor base) {
+            this.base = base;
+            return this;
+        }
+    }
+}
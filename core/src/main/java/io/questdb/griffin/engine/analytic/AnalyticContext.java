@@ -35,7 +35,41 @@ public interface AnalyticContext {
 
     ColumnTypes getPartitionByKeyTypes();
 
+    /**
+     * Peer key is the combination of "partition by" and "order by" values. Rows with equal peer keys
+     * rank the same.
+     *
+     * @return record of "partition by" followed by "order by" values or null when function is not ordered
+     */
+    VirtualRecord getPeerRecord();
+
+    RecordSink getPeerSink();
+
+    ColumnTypes getPeerKeyTypes();
+
     boolean isOrdered();
 
     boolean baseSupportsRandomAccess();
+
+    /**
+     * @return one of AnalyticColumn.FRAMING_ROWS or AnalyticColumn.FRAMING_RANGE
+     */
+    int getFramingMode();
+
+    /**
+     * @return frame start relative to the current row, in rows or in units of "order by" value
+     * depending on framing mode. Long.MIN_VALUE stands for UNBOUNDED PRECEDING.
+     */
+    long getRowsLo();
+
+    /**
+     * @return frame end relative to the current row. Long.MAX_VALUE stands for UNBOUNDED FOLLOWING.
+     */
+    long getRowsHi();
+
+    /**
+     * @return index of the timestamp column RANGE frame is measured on or -1 for frames that do not
+     * need one
+     */
+    int getTimestampIndex();
 }
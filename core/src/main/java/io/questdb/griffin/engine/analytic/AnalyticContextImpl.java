@@ -34,8 +34,15 @@ public class AnalyticContextImpl implements AnalyticContext {
     private VirtualRecord partitionByRecord;
     private RecordSink partitionBySink;
     private ColumnTypes partitionByKeyTypes;
+    private VirtualRecord peerRecord;
+    private RecordSink peerSink;
+    private ColumnTypes peerKeyTypes;
     private boolean ordered;
     private boolean baseSupportsRandomAccess;
+    private int framingMode;
+    private long rowsLo;
+    private long rowsHi;
+    private int timestampIndex;
 
     @Override
     public VirtualRecord getPartitionByRecord() {
@@ -52,6 +59,21 @@ public class AnalyticContextImpl implements AnalyticContext {
         return partitionByKeyTypes;
     }
 
+    @Override
+    public VirtualRecord getPeerRecord() {
+        return peerRecord;
+    }
+
+    @Override
+    public RecordSink getPeerSink() {
+        return peerSink;
+    }
+
+    @Override
+    public ColumnTypes getPeerKeyTypes() {
+        return peerKeyTypes;
+    }
+
     @Override
     public boolean isOrdered() {
         return ordered;
@@ -62,17 +84,51 @@ public class AnalyticContextImpl implements AnalyticContext {
         return baseSupportsRandomAccess;
     }
 
+    @Override
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    @Override
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    @Override
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    @Override
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
     public void of(
             VirtualRecord partitionByRecord,
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
+            @Nullable VirtualRecord peerRecord,
+            @Nullable RecordSink peerSink,
+            @Transient @Nullable ColumnTypes peerKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex
     ) {
         this.partitionByRecord = partitionByRecord;
         this.partitionBySink = partitionBySink;
         this.partitionByKeyTypes = partitionByKeyTypes;
+        this.peerRecord = peerRecord;
+        this.peerSink = peerSink;
+        this.peerKeyTypes = peerKeyTypes;
         this.ordered = ordered;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
+        this.framingMode = framingMode;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+        this.timestampIndex = timestampIndex;
     }
 }
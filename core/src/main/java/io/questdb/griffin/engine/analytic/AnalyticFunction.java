@@ -30,15 +30,31 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 
 public interface AnalyticFunction extends Function {
+    // value of the current row depends only on the rows before it, function can be computed
+    // while scanning the input
     int STREAM = 1;
+    // function needs to see whole partition before it can produce values
     int TWO_PASS = 2;
     int THREE_PASS = 3;
 
+    /**
+     * Updates function state with the next row of the input and computes function value for this row.
+     * The value is then available via the respective getter, e.g. {@link #getDouble(Record)}. Rows are
+     * fed in the order the function is defined over.
+     *
+     * @param record the next row
+     */
+    void computeNext(Record record);
+
+    default int getPassCount() {
+        return STREAM;
+    }
+
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
 
-    void pass2(Record record);
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void reset();
 
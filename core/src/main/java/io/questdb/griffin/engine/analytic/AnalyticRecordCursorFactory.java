@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes analytic functions in a single scan of the base cursor. This is possible when all functions
+ * are ordered the same way the base cursor is, e.g. by designated timestamp, and their values depend only
+ * on the current row and the rows before it. Nothing is cached, function values are computed as the
+ * cursor advances.
+ */
+public class AnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ObjList<Function> functions;
+    private final AnalyticRecordCursor cursor;
+
+    /**
+     * @param metadata           factory metadata
+     * @param base               base factory, ordered the same way analytic functions are
+     * @param functions          one function per column, column functions for non-analytic columns
+     * @param analyticFunctions  analytic functions, each of them is also in the list of functions
+     */
+    public AnalyticRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ObjList<Function> functions,
+            ObjList<AnalyticFunction> analyticFunctions
+    ) {
+        super(metadata);
+        this.base = base;
+        this.functions = functions;
+        this.cursor = new AnalyticRecordCursor(functions, analyticFunctions);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(functions);
+        Misc.free(base);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            Function.init(functions, baseCursor, executionContext);
+        } catch (Throwable e) {
+            baseCursor.close();
+            throw e;
+        }
+        cursor.of(baseCursor, executionContext.getSqlExecutionInterruptor());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static class AnalyticRecordCursor extends AbstractVirtualFunctionRecordCursor {
+        private final ObjList<AnalyticFunction> analyticFunctions;
+        private Record baseRecord;
+        private SqlExecutionInterruptor interruptor;
+
+        public AnalyticRecordCursor(ObjList<Function> functions, ObjList<AnalyticFunction> analyticFunctions) {
+            super(functions, false);
+            this.analyticFunctions = analyticFunctions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                interruptor.checkInterrupted();
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).computeNext(baseRecord);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void of(RecordCursor cursor, SqlExecutionInterruptor interruptor) {
+            of(cursor);
+            this.baseRecord = cursor.getRecord();
+            this.interruptor = interruptor;
+            for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                analyticFunctions.getQuick(i).reset();
+            }
+        }
+    }
+}
@@ -26,14 +26,13 @@ package io.questdb.griffin.engine.analytic;
 
 
 import io.questdb.cairo.*;
-import io.questdb.cairo.sql.Record;
-import io.questdb.cairo.sql.RecordCursor;
-import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.orderby.LongTreeChain;
+import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
@@ -47,9 +46,12 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     @Nullable private final ObjList<AnalyticFunction> unorderedFunctions;
     private final ObjList<AnalyticFunction> allFunctions;
+    private final ObjList<AnalyticFunction> twoPassFunctions = new ObjList<>();
     private final ObjList<RecordComparator> comparators;
     private final GenericRecordMetadata metadata;
     private final Record recordChainRecord;
+    private final IntList baseColumnIndexes;
+    private final CachedAnalyticRecordCursor cursor = new CachedAnalyticRecordCursor();
     private boolean closed = false;
 
     public CachedAnalyticRecordCursorFactory(
@@ -60,7 +62,8 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             @Transient ColumnTypes chainMetadata,
             ObjList<RecordComparator> comparators,
             ObjList<ObjList<AnalyticFunction>> orderedFunctions,
-            @Nullable ObjList<AnalyticFunction> unorderedFunctions
+            @Nullable ObjList<AnalyticFunction> unorderedFunctions,
+            IntList baseColumnIndexes
     ) {
         this.base = base;
         this.orderedGroupCount = comparators.size();
@@ -95,10 +98,19 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             allFunctions.addAll(unorderedFunctions);
         }
 
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() > AnalyticFunction.STREAM) {
+                twoPassFunctions.add(f);
+            }
+        }
+
         // create our metadata and also flatten functions for our record representation
         this.metadata = metadata;
         this.recordChainRecord = recordChain.getRecord();
         this.unorderedFunctions = unorderedFunctions;
+        this.baseColumnIndexes = baseColumnIndexes;
+        this.recordChain.setSymbolTableResolver(cursor);
     }
 
     @Override
@@ -120,7 +132,29 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
         resetFunctions();
 
         final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor);
+            Function.init(allFunctions, cursor, executionContext);
+            buildChain(baseCursor, executionContext.getSqlExecutionInterruptor());
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        recordChain.toTop();
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
 
+    private void buildChain(RecordCursor baseCursor, SqlExecutionInterruptor interruptor) {
         // step #1: store source cursor in record list
         // - add record list' row ids to all trees, which will put these row ids in necessary order
         // for this we will be using out comparator, which helps tree compare long values
@@ -130,6 +164,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
         final Record chainRightRecord = recordChain.getRecordB();
         if (orderedGroupCount > 0) {
             while (baseCursor.hasNext()) {
+                interruptor.checkInterrupted();
                 offset = recordChain.put(record, offset);
                 recordChain.recordAt(recordChainRecord, offset);
                 for (int i = 0; i < orderedGroupCount; i++) {
@@ -138,6 +173,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
             }
         } else {
             while (baseCursor.hasNext()) {
+                interruptor.checkInterrupted();
                 offset = recordChain.put(record, offset);
             }
         }
@@ -150,6 +186,7 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
                 final LongTreeChain.TreeCursor cursor = tree.getCursor();
                 final int functionCount = functions.size();
                 while (cursor.hasNext()) {
+                    interruptor.checkInterrupted();
                     offset = cursor.next();
                     recordChain.recordAt(recordChainRecord, offset);
                     for (int j = 0; j < functionCount; j++) {
@@ -165,18 +202,22 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
                 final AnalyticFunction f = unorderedFunctions.getQuick(j);
                 recordChain.toTop();
                 while (recordChain.hasNext()) {
+                    interruptor.checkInterrupted();
                     f.pass1(recordChainRecord, recordChainRecord.getRowId(), recordChain);
                 }
             }
         }
 
-        recordChain.toTop();
-        return recordChain;
-    }
-
-    private void resetFunctions() {
-        for (int i = 0, n = allFunctions.size(); i < n; i++) {
-            allFunctions.getQuick(i).reset();
+        // step #3: functions that need to see whole partition before they can produce
+        // values write them now, order of rows does not matter here
+        for (int j = 0, n = twoPassFunctions.size(); j < n; j++) {
+            final AnalyticFunction f = twoPassFunctions.getQuick(j);
+            f.preparePass2(recordChain);
+            recordChain.toTop();
+            while (recordChain.hasNext()) {
+                interruptor.checkInterrupted();
+                f.pass2(recordChainRecord, recordChainRecord.getRowId(), recordChain);
+            }
         }
     }
 
@@ -186,13 +227,59 @@ public class CachedAnalyticRecordCursorFactory implements RecordCursorFactory {
         }
     }
 
-    @Override
-    public RecordMetadata getMetadata() {
-        return metadata;
+    private void resetFunctions() {
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            allFunctions.getQuick(i).reset();
+        }
     }
 
-    @Override
-    public boolean recordCursorSupportsRandomAccess() {
-        return base.recordCursorSupportsRandomAccess();
+    private class CachedAnalyticRecordCursor implements RecordCursor {
+        private RecordCursor baseCursor;
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordChain.getRecord();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            // chain columns are laid out differently from the base, symbol tables are
+            // looked up by the column index in the base
+            return baseCursor.getSymbolTable(baseColumnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return recordChain.hasNext();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordChain.getRecordB();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordChain.recordAt(record, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            recordChain.toTop();
+        }
+
+        @Override
+        public long size() {
+            return recordChain.size();
+        }
+
+        private void of(RecordCursor baseCursor) {
+            this.baseCursor = baseCursor;
+        }
     }
 }
@@ -0,0 +1,515 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of materialised query results. Entries are keyed by normalised SQL text
+ * and bind variable values. Each entry remembers txn of every table the query reads, entries
+ * become stale as soon as any of these tables commits. Cache is bounded by total size of
+ * entries, least recently used entries are evicted first.
+ * <p>
+ * Entries are immutable once published, which allows any number of threads to read the same
+ * entry concurrently. Readers pin entries via reference count, eviction of pinned entry is
+ * deferred until the last reader lets go of it.
+ */
+public class QueryResultCache implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private static final int ENTRY_PAGE_SIZE = 64 * 1024;
+    private static final int INDEX_PAGE_SIZE = 4 * 1024;
+    private static final int MAX_TOO_LARGE_KEYS = 1024;
+    private final CairoConfiguration configuration;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    // keys of results, which exceeded maximum entry size; such results are not copied again
+    private final CharSequenceHashSet tooLargeKeys = new CharSequenceHashSet();
+    // LRU list, head is the most recently used entry
+    private Entry head;
+    private Entry tail;
+    private long size;
+    private long hitCount;
+    private long missCount;
+
+    public QueryResultCache(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    public static int getColumnSlotSize(int columnType) {
+        return ColumnType.tagOf(columnType) == ColumnType.LONG256 ? Long256.BYTES : Long.BYTES;
+    }
+
+    /**
+     * Copies query text to the sink, collapsing whitespace and dropping both line and block
+     * comments outside of quoted literals.
+     *
+     * @param query SQL text
+     * @param sink  receives normalised SQL text
+     */
+    public static void normaliseQuery(CharSequence query, StringSink sink) {
+        final int len = query.length();
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < len) {
+            char c = query.charAt(i);
+            if (c == '\'' || c == '"') {
+                if (pendingSpace && sink.length() > 0) {
+                    sink.put(' ');
+                }
+                pendingSpace = false;
+                int j = i + 1;
+                while (j < len && query.charAt(j) != c) {
+                    j++;
+                }
+                j = Math.min(j + 1, len);
+                sink.put(query, i, j);
+                i = j;
+            } else if (c == '-' && i + 1 < len && query.charAt(i + 1) == '-') {
+                while (i < len && query.charAt(i) != '\n') {
+                    i++;
+                }
+                pendingSpace = true;
+            } else if (c == '/' && i + 1 < len && query.charAt(i + 1) == '*') {
+                i += 2;
+                while (i < len && !(query.charAt(i) == '*' && i + 1 < len && query.charAt(i + 1) == '/')) {
+                    i++;
+                }
+                i = Math.min(i + 2, len);
+                pendingSpace = true;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+            } else {
+                if (pendingSpace && sink.length() > 0) {
+                    sink.put(' ');
+                }
+                pendingSpace = false;
+                if (Character.isLetterOrDigit(c) || c == '_') {
+                    int j = i + 1;
+                    while (j < len && (Character.isLetterOrDigit(c = query.charAt(j)) || c == '_')) {
+                        j++;
+                    }
+                    sink.put(query, i, j);
+                    i = j;
+                } else {
+                    sink.put(c);
+                    i++;
+                }
+            }
+        }
+    }
+
+    public static void putBindVariables(BindVariableService bindVariableService, CharSink sink) {
+        if (bindVariableService == null) {
+            return;
+        }
+        for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+            sink.put('\0').put('$').put(i + 1).put('=');
+            putBindVariable(bindVariableService.getFunction(i), sink);
+        }
+        final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final CharSequence name = names.getQuick(i);
+            sink.put('\0').put(':').put(name).put('=');
+            putBindVariable(bindVariableService.getFunction(name), sink);
+        }
+    }
+
+    /**
+     * Pins entry for the key, provided entry was produced from the same table transactions.
+     * Entry produced from older transactions is evicted.
+     *
+     * @param key  normalised SQL text and bind variable values
+     * @param txns transactions of the tables used by the query
+     * @return pinned entry or null
+     */
+    public synchronized Entry acquire(CharSequence key, LongList txns) {
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            final Entry entry = entries.valueAtQuick(index);
+            if (entry.txns.equals(txns)) {
+                entry.refCount++;
+                moveToHead(entry);
+                hitCount++;
+                return entry;
+            }
+            evict(entry);
+        }
+        missCount++;
+        return null;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (tail != null) {
+            evict(tail);
+        }
+        tooLargeKeys.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized boolean isTooLarge(CharSequence key) {
+        return tooLargeKeys.contains(key);
+    }
+
+    public boolean isEnabled() {
+        return configuration.getQueryResultCacheSize() > 0;
+    }
+
+    /**
+     * Remembers that result for the key does not fit maximum entry size. Set of such keys
+     * is bounded, it is reset once it reaches {@link #MAX_TOO_LARGE_KEYS} keys.
+     *
+     * @param key normalised SQL text and bind variable values
+     */
+    public synchronized void markTooLarge(CharSequence key) {
+        if (tooLargeKeys.size() >= MAX_TOO_LARGE_KEYS) {
+            tooLargeKeys.clear();
+        }
+        tooLargeKeys.add(Chars.toString(key));
+    }
+
+    /**
+     * Materialises cursor into new entry. Cursor is read until it is exhausted or entry
+     * exceeds configured maximum size.
+     *
+     * @param cursor      cursor to copy
+     * @param metadata    cursor metadata
+     * @param columnSlots offsets of column values within fixed part of the entry row
+     * @param rowSize     size of fixed part of the entry row
+     * @return new entry or null when result is too large to be cached
+     */
+    public Entry newEntry(RecordCursor cursor, RecordMetadata metadata, IntList columnSlots, int rowSize) {
+        final long maxEntrySize = configuration.getQueryResultCacheMaxEntrySize();
+        final Entry entry = new Entry();
+        try {
+            final Record record = cursor.getRecord();
+            final int columnCount = metadata.getColumnCount();
+            final MemoryCARW data = entry.data;
+            while (cursor.hasNext()) {
+                final long rowOffset = data.getAppendOffset();
+                entry.index.putLong(rowOffset);
+                data.skip(rowSize);
+                for (int i = 0; i < columnCount; i++) {
+                    copyValue(record, i, metadata.getColumnType(i), data, rowOffset + columnSlots.getQuick(i));
+                }
+                entry.rowCount++;
+                if (data.getAppendOffset() + entry.index.getAppendOffset() > maxEntrySize) {
+                    entry.close();
+                    return null;
+                }
+            }
+            entry.seal();
+            return entry;
+        } catch (Throwable e) {
+            entry.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Publishes pinned entry. Entry with the same key is replaced. Least recently used entries
+     * are evicted to keep cache within configured size.
+     *
+     * @param key   normalised SQL text and bind variable values
+     * @param txns  transactions of the tables entry was produced from
+     * @param entry entry created by {@link #newEntry(RecordCursor, RecordMetadata, IntList, int)}
+     */
+    public synchronized void put(CharSequence key, LongList txns, Entry entry) {
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            evict(entries.valueAtQuick(index));
+        }
+        entry.key = Chars.toString(key);
+        entry.txns.add(txns);
+        entry.refCount = 1;
+        entries.put(entry.key, entry);
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+        size += entry.size;
+
+        final long maxSize = configuration.getQueryResultCacheSize();
+        while (size > maxSize && tail != entry) {
+            evict(tail);
+        }
+        LOG.debug().$("cached [key=").$(key).$(", rows=").$(entry.rowCount).$(", size=").$(entry.size).$(", cacheSize=").$(size).$(']').$();
+    }
+
+    public synchronized void release(Entry entry) {
+        assert entry.refCount > 0;
+        if (--entry.refCount == 0 && entry.evicted) {
+            entry.close();
+        }
+    }
+
+    private static void copyValue(Record record, int columnIndex, int columnType, MemoryCARW data, long slotOffset) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                data.putBool(slotOffset, record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                data.putByte(slotOffset, record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                data.putShort(slotOffset, record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                data.putChar(slotOffset, record.getChar(columnIndex));
+                break;
+            case ColumnType.INT:
+                data.putInt(slotOffset, record.getInt(columnIndex));
+                break;
+            case ColumnType.LONG:
+                data.putLong(slotOffset, record.getLong(columnIndex));
+                break;
+            case ColumnType.DATE:
+                data.putLong(slotOffset, record.getDate(columnIndex));
+                break;
+            case ColumnType.TIMESTAMP:
+                data.putLong(slotOffset, record.getTimestamp(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                data.putFloat(slotOffset, record.getFloat(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                data.putDouble(slotOffset, record.getDouble(columnIndex));
+                break;
+            case ColumnType.GEOBYTE:
+                data.putByte(slotOffset, record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                data.putShort(slotOffset, record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                data.putInt(slotOffset, record.getGeoInt(columnIndex));
+                break;
+            case ColumnType.GEOLONG:
+                data.putLong(slotOffset, record.getGeoLong(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                data.putLong256(slotOffset, record.getLong256A(columnIndex));
+                break;
+            case ColumnType.STRING:
+                data.putLong(slotOffset, data.getAppendOffset());
+                data.putStr(record.getStr(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                data.putLong(slotOffset, data.getAppendOffset());
+                data.putStr(record.getSym(columnIndex));
+                break;
+            case ColumnType.BINARY:
+                data.putLong(slotOffset, data.getAppendOffset());
+                data.putBin(record.getBin(columnIndex));
+                break;
+            default:
+                // timestamp of NULL type and other exotic types, there is no value to store
+                break;
+        }
+    }
+
+    private static void putBindVariable(Function function, CharSink sink) {
+        if (function == null) {
+            sink.put("null");
+            return;
+        }
+        final int type = function.getType();
+        sink.put(ColumnType.nameOf(type)).put(':');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                sink.put(function.getBool(null));
+                break;
+            case ColumnType.BYTE:
+                sink.put(function.getByte(null));
+                break;
+            case ColumnType.SHORT:
+                sink.put(function.getShort(null));
+                break;
+            case ColumnType.CHAR:
+                sink.put(function.getChar(null));
+                break;
+            case ColumnType.INT:
+                sink.put(function.getInt(null));
+                break;
+            case ColumnType.LONG:
+                sink.put(function.getLong(null));
+                break;
+            case ColumnType.DATE:
+                sink.put(function.getDate(null));
+                break;
+            case ColumnType.TIMESTAMP:
+                sink.put(function.getTimestamp(null));
+                break;
+            case ColumnType.FLOAT:
+                sink.put(Float.floatToIntBits(function.getFloat(null)));
+                break;
+            case ColumnType.DOUBLE:
+                sink.put(Double.doubleToLongBits(function.getDouble(null)));
+                break;
+            case ColumnType.GEOBYTE:
+                sink.put(function.getGeoByte(null));
+                break;
+            case ColumnType.GEOSHORT:
+                sink.put(function.getGeoShort(null));
+                break;
+            case ColumnType.GEOINT:
+                sink.put(function.getGeoInt(null));
+                break;
+            case ColumnType.GEOLONG:
+                sink.put(function.getGeoLong(null));
+                break;
+            case ColumnType.LONG256:
+                function.getLong256(null, sink);
+                break;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                final CharSequence value = function.getStr(null);
+                if (value == null) {
+                    sink.put("null");
+                } else {
+                    sink.put(value.length()).put(':').put(value);
+                }
+                break;
+            default:
+                // binary values are not expected in bind variables used by queries
+                sink.put('?').put(System.identityHashCode(function));
+                break;
+        }
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key);
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = entry.next = null;
+        size -= entry.size;
+        entry.evicted = true;
+        if (entry.refCount == 0) {
+            entry.close();
+        }
+    }
+
+    private void moveToHead(Entry entry) {
+        if (entry == head) {
+            return;
+        }
+        entry.prev.next = entry.next;
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = head;
+        head.prev = entry;
+        head = entry;
+    }
+
+    public static class Entry implements Closeable {
+        private final MemoryCARW data = Vm.getCARWInstance(ENTRY_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_QUERY_RESULT_CACHE);
+        private final MemoryCARW index = Vm.getCARWInstance(INDEX_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_QUERY_RESULT_CACHE);
+        private final LongList txns = new LongList();
+        private String key;
+        private long rowCount;
+        private long size;
+        private long dataAddress;
+        private long indexAddress;
+        private int refCount;
+        private boolean evicted;
+        private Entry prev;
+        private Entry next;
+
+        @Override
+        public void close() {
+            data.close();
+            index.close();
+            dataAddress = 0;
+            indexAddress = 0;
+        }
+
+        public long getDataAddress() {
+            return dataAddress;
+        }
+
+        public long getRowAddress(long row) {
+            return dataAddress + Unsafe.getUnsafe().getLong(indexAddress + row * Long.BYTES);
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        private void seal() {
+            // memory is contiguous and does not move once entry is fully written
+            dataAddress = data.getAddress();
+            indexAddress = index.getAddress();
+            size = data.size() + index.size();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectCharSequence;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Serves query results from engine-wide {@link QueryResultCache}. Results are materialised
+ * the first time query runs for the given combination of bind variable values and table
+ * transactions. Subsequent executions are served from the cache until any of the tables
+ * the query reads commits.
+ */
+public class QueryResultCacheRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final QueryResultCache cache;
+    private final String sql;
+    private final ObjList<CharSequence> tableNames = new ObjList<>();
+    private final IntList tableIds = new IntList();
+    private final LongList tableVersions = new LongList();
+    private final LongList txns = new LongList();
+    private final StringSink keySink = new StringSink();
+    private final IntList columnSlots = new IntList();
+    private final int rowSize;
+    private final QueryResultCacheRecordCursor cursor;
+
+    public QueryResultCacheRecordCursorFactory(
+            RecordCursorFactory base,
+            QueryResultCache cache,
+            String sql,
+            ObjList<CharSequence> tableNames,
+            IntList tableIds,
+            LongList tableVersions
+    ) {
+        super(base.getMetadata());
+        this.base = base;
+        this.cache = cache;
+        this.sql = sql;
+        this.tableNames.addAll(tableNames);
+        this.tableIds.addAll(tableIds);
+        this.tableVersions.add(tableVersions);
+
+        final RecordMetadata metadata = base.getMetadata();
+        int offset = 0;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            columnSlots.add(offset);
+            offset += QueryResultCache.getColumnSlotSize(metadata.getColumnType(i));
+        }
+        this.rowSize = offset;
+        this.cursor = new QueryResultCacheRecordCursor();
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        keySink.clear();
+        keySink.put(sql);
+        QueryResultCache.putBindVariables(executionContext.getBindVariableService(), keySink);
+
+        if (cache.isTooLarge(keySink)) {
+            return base.getCursor(executionContext);
+        }
+
+        txns.clear();
+        for (int i = 0, n = tableNames.size(); i < n; i++) {
+            try (TableReader reader = executionContext.getCairoEngine().getReader(
+                    executionContext.getCairoSecurityContext(),
+                    tableNames.getQuick(i),
+                    tableIds.getQuick(i),
+                    tableVersions.getQuick(i)
+            )) {
+                txns.add(reader.getTxn());
+            }
+        }
+
+        QueryResultCache.Entry entry = cache.acquire(keySink, txns);
+        if (entry == null) {
+            final RecordCursor baseCursor = base.getCursor(executionContext);
+            try {
+                entry = cache.newEntry(baseCursor, getMetadata(), columnSlots, rowSize);
+            } catch (Throwable e) {
+                baseCursor.close();
+                throw e;
+            }
+
+            if (entry == null) {
+                // result is too large to be cached, remember that to avoid
+                // copying it again on every execution
+                cache.markTooLarge(keySink);
+                baseCursor.toTop();
+                return baseCursor;
+            }
+            baseCursor.close();
+            cache.put(keySink, txns, entry);
+        }
+        cursor.of(entry);
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    private class QueryResultCacheRecordCursor implements RecordCursor {
+        private final QueryResultCacheRecord recordA = new QueryResultCacheRecord();
+        private final QueryResultCacheRecord recordB = new QueryResultCacheRecord();
+        private QueryResultCache.Entry entry;
+        private long row;
+
+        @Override
+        public void close() {
+            if (entry != null) {
+                cache.release(entry);
+                entry = null;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (row < entry.getRowCount()) {
+                recordA.of(entry, row++);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((QueryResultCacheRecord) record).of(entry, atRowId);
+        }
+
+        @Override
+        public void toTop() {
+            row = 0;
+        }
+
+        @Override
+        public long size() {
+            return entry.getRowCount();
+        }
+
+        void of(QueryResultCache.Entry entry) {
+            this.entry = entry;
+            toTop();
+        }
+    }
+
+    private class QueryResultCacheRecord implements Record {
+        private final DirectCharSequence csA = new DirectCharSequence();
+        private final DirectCharSequence csB = new DirectCharSequence();
+        private final DirectBinarySequence bs = new DirectBinarySequence();
+        private final Long256Impl long256A = new Long256Impl();
+        private final Long256Impl long256B = new Long256Impl();
+        private long dataAddress;
+        private long rowAddress;
+        private long row;
+
+        @Override
+        public BinarySequence getBin(int col) {
+            final long address = varAddress(col);
+            final long len = Unsafe.getUnsafe().getLong(address);
+            return len == TableUtils.NULL_LEN ? null : bs.of(address + Long.BYTES, len);
+        }
+
+        @Override
+        public long getBinLen(int col) {
+            return Unsafe.getUnsafe().getLong(varAddress(col));
+        }
+
+        @Override
+        public boolean getBool(int col) {
+            return Unsafe.getUnsafe().getByte(slotAddress(col)) == 1;
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return Unsafe.getUnsafe().getByte(slotAddress(col));
+        }
+
+        @Override
+        public char getChar(int col) {
+            return Unsafe.getUnsafe().getChar(slotAddress(col));
+        }
+
+        @Override
+        public long getDate(int col) {
+            return getLong(col);
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return Unsafe.getUnsafe().getDouble(slotAddress(col));
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return Unsafe.getUnsafe().getFloat(slotAddress(col));
+        }
+
+        @Override
+        public int getInt(int col) {
+            return Unsafe.getUnsafe().getInt(slotAddress(col));
+        }
+
+        @Override
+        public long getLong(int col) {
+            return Unsafe.getUnsafe().getLong(slotAddress(col));
+        }
+
+        @Override
+        public void getLong256(int col, CharSink sink) {
+            final long address = slotAddress(col);
+            Numbers.appendLong256(
+                    Unsafe.getUnsafe().getLong(address),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES * 2),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES * 3),
+                    sink
+            );
+        }
+
+        @Override
+        public Long256 getLong256A(int col) {
+            return getLong256(col, long256A);
+        }
+
+        @Override
+        public Long256 getLong256B(int col) {
+            return getLong256(col, long256B);
+        }
+
+        @Override
+        public long getRowId() {
+            return row;
+        }
+
+        @Override
+        public short getShort(int col) {
+            return Unsafe.getUnsafe().getShort(slotAddress(col));
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return getStr(col, csA);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return getStr(col, csB);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return Unsafe.getUnsafe().getInt(varAddress(col));
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return getStr(col, csA);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return getStr(col, csB);
+        }
+
+        @Override
+        public long getTimestamp(int col) {
+            return getLong(col);
+        }
+
+        @Override
+        public byte getGeoByte(int col) {
+            return getByte(col);
+        }
+
+        @Override
+        public short getGeoShort(int col) {
+            return getShort(col);
+        }
+
+        @Override
+        public int getGeoInt(int col) {
+            return getInt(col);
+        }
+
+        @Override
+        public long getGeoLong(int col) {
+            return getLong(col);
+        }
+
+        private Long256 getLong256(int col, Long256Impl long256) {
+            final long address = slotAddress(col);
+            long256.setAll(
+                    Unsafe.getUnsafe().getLong(address),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES * 2),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES * 3)
+            );
+            return long256;
+        }
+
+        private CharSequence getStr(int col, DirectCharSequence cs) {
+            final long address = varAddress(col);
+            final int len = Unsafe.getUnsafe().getInt(address);
+            if (len == TableUtils.NULL_LEN) {
+                return null;
+            }
+            final long lo = address + Integer.BYTES;
+            return cs.of(lo, lo + ((long) len << 1));
+        }
+
+        private void of(QueryResultCache.Entry entry, long row) {
+            this.dataAddress = entry.getDataAddress();
+            this.rowAddress = entry.getRowAddress(row);
+            this.row = row;
+        }
+
+        private long slotAddress(int col) {
+            return rowAddress + columnSlots.getQuick(col);
+        }
+
+        private long varAddress(int col) {
+            return dataAddress + Unsafe.getUnsafe().getLong(slotAddress(col));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Base of analytic functions returning double. Subclass computes value of the current row
+ * in {@link #computeNext(Record)} and stores it in {@link #value}. Functions, which depend on window
+ * frame, share value of the last row of a peer group with all its peers when the frame is RANGE, see
+ * {@link PeerValues}.
+ */
+abstract class BaseDoubleAnalyticFunction extends DoubleFunction implements AnalyticFunction, Closeable {
+    protected final WindowPartitions partitions;
+    protected final Function arg;
+    // null unless rows share their value with peers
+    protected final PeerValues peers;
+    protected double value;
+    private int columnIndex;
+
+    protected BaseDoubleAnalyticFunction(
+            CairoConfiguration configuration,
+            AnalyticContext context,
+            @Nullable Function arg,
+            @Transient ColumnTypes valueTypes,
+            boolean buffered,
+            boolean framed
+    ) {
+        this.partitions = new WindowPartitions(configuration, context, valueTypes, buffered);
+        this.arg = arg;
+        this.peers = framed && PeerValues.isRequired(context) ? new PeerValues(configuration, context, ColumnType.DOUBLE) : null;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(partitions);
+        Misc.free(peers);
+        Misc.free(arg);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return value;
+    }
+
+    @Override
+    public int getPassCount() {
+        return peers != null ? TWO_PASS : STREAM;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (arg != null) {
+            arg.init(symbolTableSource, executionContext);
+        }
+        partitions.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        computeNext(record);
+        if (peers != null) {
+            peers.put(record).putDouble(0, value);
+        } else {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        if (peers != null) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), peers.find(record).getDouble(0));
+        }
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reset() {
+        partitions.clear();
+        if (peers != null) {
+            peers.clear();
+        }
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toTop() {
+        reset();
+    }
+
+    protected int getColumnIndex() {
+        return columnIndex;
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class FirstValueLongFunctionFactory implements FunctionFactory {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+
+    @Override
+    public String getSignature() {
+        return "first_value(L)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return new FirstValueLongFunction(configuration, sqlExecutionContext.getAnalyticContext(), args.getQuick(0));
+    }
+
+    private static class FirstValueLongFunction extends BaseLongAnalyticFunction {
+        private static final int FIRST = 0;
+
+        public FirstValueLongFunction(CairoConfiguration configuration, AnalyticContext context, Function arg) {
+            // frame end does not matter, the first row of the frame is always known by the time we get to the current row
+            super(configuration, context, arg, VALUE_TYPES, context.getRowsLo() != AnalyticColumn.UNBOUNDED_PRECEDING, false);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final MapValue mapValue = partitions.next(record);
+            final long l = arg.getLong(record);
+            final FrameBuffer buffer = partitions.getBuffer();
+            if (buffer != null) {
+                while (partitions.isFirstOutOfFrame()) {
+                    buffer.pollFirst();
+                }
+                buffer.addLastLong(partitions.getFrameKey(), l);
+                value = buffer.firstLongValue();
+            } else {
+                if (mapValue.isNew()) {
+                    mapValue.putLong(FIRST, l);
+                }
+                value = mapValue.getLong(FIRST);
+            }
+        }
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
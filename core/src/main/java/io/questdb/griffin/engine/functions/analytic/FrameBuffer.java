@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * Double-ended queues of (key, value) pairs, one queue per partition. Key is either row index
+ * within partition or timestamp, depending on how window frame is measured. Value is double or long,
+ * depending on the function, and is accessed accordingly. Queues share single
+ * memory region and their state, i.e. position in memory, capacity, head and size, lives in the
+ * partition's map value starting at the given index. Queue that runs out of capacity is copied to
+ * the end of the memory region with double the capacity. Abandoned space is reclaimed when
+ * buffer is cleared.
+ */
+final class FrameBuffer implements Closeable, Mutable {
+    static final int VALUE_COUNT = 4;
+    private static final long ENTRY_SIZE = 2 * Long.BYTES;
+    private static final long INITIAL_CAPACITY = 16;
+    private static final int START = 0;
+    private static final int CAPACITY = 1;
+    private static final int FIRST = 2;
+    private static final int SIZE = 3;
+    private final MemoryARW mem;
+    private MapValue value;
+    private int valueIndex;
+
+    FrameBuffer(CairoConfiguration configuration) {
+        this.mem = Vm.getARWInstance(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+    }
+
+    static void addValueTypes(ArrayColumnTypes types) {
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            types.add(ColumnType.LONG);
+        }
+    }
+
+    void addLast(long key, double val) {
+        mem.putDouble(addLast(key) + Long.BYTES, val);
+    }
+
+    void addLastLong(long key, long val) {
+        mem.putLong(addLast(key) + Long.BYTES, val);
+    }
+
+    @Override
+    public void clear() {
+        mem.truncate();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(mem);
+    }
+
+    long firstKey() {
+        return mem.getLong(entryOffset(value.getLong(valueIndex + FIRST)));
+    }
+
+    long firstLongValue() {
+        return mem.getLong(entryOffset(value.getLong(valueIndex + FIRST)) + Long.BYTES);
+    }
+
+    double firstValue() {
+        return mem.getDouble(entryOffset(value.getLong(valueIndex + FIRST)) + Long.BYTES);
+    }
+
+    boolean isEmpty() {
+        return value.getLong(valueIndex + SIZE) == 0;
+    }
+
+    long lastLongValue() {
+        return mem.getLong(lastEntryOffset() + Long.BYTES);
+    }
+
+    double lastValue() {
+        return mem.getDouble(lastEntryOffset() + Long.BYTES);
+    }
+
+    /**
+     * Points buffer at the queue of the given partition.
+     *
+     * @param value      partition map value
+     * @param valueIndex index of the first queue slot in the map value
+     * @param isNew      true when partition has just been created, its queue will be set empty
+     */
+    void of(MapValue value, int valueIndex, boolean isNew) {
+        this.value = value;
+        this.valueIndex = valueIndex;
+        if (isNew) {
+            value.putLong(valueIndex + START, 0);
+            value.putLong(valueIndex + CAPACITY, 0);
+            value.putLong(valueIndex + FIRST, 0);
+            value.putLong(valueIndex + SIZE, 0);
+        }
+    }
+
+    void pollFirst() {
+        value.putLong(valueIndex + FIRST, (value.getLong(valueIndex + FIRST) + 1) % value.getLong(valueIndex + CAPACITY));
+        value.addLong(valueIndex + SIZE, -1);
+    }
+
+    void pollLast() {
+        value.addLong(valueIndex + SIZE, -1);
+    }
+
+    long size() {
+        return value.getLong(valueIndex + SIZE);
+    }
+
+    /**
+     * Appends entry with the given key to the queue.
+     *
+     * @param key entry key
+     * @return offset of the entry, value is for the caller to write
+     */
+    private long addLast(long key) {
+        final long size = value.getLong(valueIndex + SIZE);
+        long capacity = value.getLong(valueIndex + CAPACITY);
+        if (size == capacity) {
+            capacity = grow(size, capacity);
+        }
+        final long offset = entryOffset((value.getLong(valueIndex + FIRST) + size) % capacity);
+        mem.putLong(offset, key);
+        value.putLong(valueIndex + SIZE, size + 1);
+        return offset;
+    }
+
+    private long entryOffset(long index) {
+        return value.getLong(valueIndex + START) + index * ENTRY_SIZE;
+    }
+
+    private long lastEntryOffset() {
+        return entryOffset((value.getLong(valueIndex + FIRST) + value.getLong(valueIndex + SIZE) - 1) % value.getLong(valueIndex + CAPACITY));
+    }
+
+    private long grow(long size, long capacity) {
+        final long newCapacity = capacity == 0 ? INITIAL_CAPACITY : capacity * 2;
+        final long newStart = mem.getAppendOffset();
+        mem.jumpTo(newStart + newCapacity * ENTRY_SIZE);
+        final long first = value.getLong(valueIndex + FIRST);
+        for (long i = 0; i < size; i++) {
+            final long src = entryOffset((first + i) % capacity);
+            final long dst = newStart + i * ENTRY_SIZE;
+            mem.putLong(dst, mem.getLong(src));
+            mem.putLong(dst + Long.BYTES, mem.getLong(src + Long.BYTES));
+        }
+        value.putLong(valueIndex + START, newStart);
+        value.putLong(valueIndex + CAPACITY, newCapacity);
+        value.putLong(valueIndex + FIRST, 0);
+        return newCapacity;
+    }
+}
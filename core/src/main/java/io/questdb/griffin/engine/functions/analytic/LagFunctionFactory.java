@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+public class LagFunctionFactory implements FunctionFactory {
+    static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+
+    /**
+     * @return default value function, the optional 3rd argument of lag() and lead()
+     */
+    @Nullable
+    static Function getDefaultValue(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 3) {
+            throw SqlException.$(argPositions.getQuick(3), "too many arguments");
+        }
+        if (args.size() < 3) {
+            return null;
+        }
+        final Function defaultValue = args.getQuick(2);
+        if (!isNumeric(defaultValue.getType())) {
+            throw SqlException.$(argPositions.getQuick(2), "numeric default value expected");
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @return offset in rows, the optional 2nd argument of lag() and lead()
+     */
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offset = args.getQuick(1);
+        final int offsetPosition = argPositions.getQuick(1);
+        if (!offset.isConstant()) {
+            throw SqlException.$(offsetPosition, "constant offset expected");
+        }
+        switch (ColumnType.tagOf(offset.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                break;
+            default:
+                throw SqlException.$(offsetPosition, "integer offset expected");
+        }
+        final long n = offset.getLong(null);
+        if (n < 0) {
+            throw SqlException.$(offsetPosition, "non-negative offset expected");
+        }
+        return n;
+    }
+
+    /**
+     * @return true when lag() and lead() of integer argument can return long, i.e. default value is absent or integer
+     */
+    static boolean isLongDefault(@Nullable Function defaultValue) {
+        if (defaultValue == null) {
+            return true;
+        }
+        switch (ColumnType.tagOf(defaultValue.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String getSignature() {
+        return "lag(DV)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        return new LagFunction(
+                configuration,
+                sqlExecutionContext.getAnalyticContext(),
+                args.getQuick(0),
+                getOffset(args, argPositions),
+                getDefaultValue(args, argPositions)
+        );
+    }
+
+    private static boolean isNumeric(int type) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static class LagFunction extends BaseDoubleAnalyticFunction {
+        private final long offset;
+        private final Function defaultValue;
+
+        public LagFunction(CairoConfiguration configuration, AnalyticContext context, Function arg, long offset, @Nullable Function defaultValue) {
+            // buffer keeps last "offset" values of the partition
+            super(configuration, context, arg, VALUE_TYPES, true, false);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitions.next(record);
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                value = d;
+                return;
+            }
+
+            final FrameBuffer buffer = partitions.getBuffer();
+            if (buffer.size() == offset) {
+                value = buffer.firstValue();
+                buffer.pollFirst();
+            } else {
+                value = defaultValue != null ? defaultValue.getDouble(record) : Double.NaN;
+            }
+            buffer.addLast(partitions.getRowIndex(), d);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+    }
+}
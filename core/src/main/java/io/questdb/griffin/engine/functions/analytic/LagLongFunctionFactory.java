@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+public class LagLongFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lag(LV)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final long offset = LagFunctionFactory.getOffset(args, argPositions);
+        final Function defaultValue = LagFunctionFactory.getDefaultValue(args, argPositions);
+        final AnalyticContext context = sqlExecutionContext.getAnalyticContext();
+        if (!LagFunctionFactory.isLongDefault(defaultValue)) {
+            // fractional default value makes the result double
+            return new LagFunctionFactory.LagFunction(configuration, context, args.getQuick(0), offset, defaultValue);
+        }
+        return new LagLongFunction(configuration, context, args.getQuick(0), offset, defaultValue);
+    }
+
+    private static class LagLongFunction extends BaseLongAnalyticFunction {
+        private final long offset;
+        private final Function defaultValue;
+
+        public LagLongFunction(CairoConfiguration configuration, AnalyticContext context, Function arg, long offset, @Nullable Function defaultValue) {
+            // buffer keeps last "offset" values of the partition
+            super(configuration, context, arg, LagFunctionFactory.VALUE_TYPES, true, false);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitions.next(record);
+            final long l = arg.getLong(record);
+            if (offset == 0) {
+                value = l;
+                return;
+            }
+
+            final FrameBuffer buffer = partitions.getBuffer();
+            if (buffer.size() == offset) {
+                value = buffer.firstLongValue();
+                buffer.pollFirst();
+            } else {
+                value = defaultValue != null ? defaultValue.getLong(record) : Numbers.LONG_NaN;
+            }
+            buffer.addLastLong(partitions.getRowIndex(), l);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+    }
+}
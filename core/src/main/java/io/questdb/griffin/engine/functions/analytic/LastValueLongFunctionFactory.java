@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LastValueLongFunctionFactory implements FunctionFactory {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+
+    @Override
+    public String getSignature() {
+        return "last_value(L)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return new LastValueLongFunction(configuration, sqlExecutionContext.getAnalyticContext(), args.getQuick(0));
+    }
+
+    private static class LastValueLongFunction extends BaseLongAnalyticFunction {
+        private static final int LAST = 0;
+        private final boolean twoPass;
+
+        public LastValueLongFunction(CairoConfiguration configuration, AnalyticContext context, Function arg) {
+            // frames end at the current row unless they span whole partition, frame start does not matter
+            super(configuration, context, arg, VALUE_TYPES, false, true);
+            this.twoPass = context.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            value = arg.getLong(record);
+            if (twoPass) {
+                partitions.next(record).putLong(LAST, value);
+            }
+        }
+
+        @Override
+        public int getPassCount() {
+            return twoPass ? TWO_PASS : super.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            if (twoPass) {
+                computeNext(record);
+            } else {
+                super.pass1(record, recordOffset, spi);
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+            if (twoPass) {
+                final MapValue mapValue = partitions.find(record);
+                assert mapValue != null;
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, getColumnIndex()), mapValue.getLong(LAST));
+            } else {
+                super.pass2(record, recordOffset, spi);
+            }
+        }
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+public class LeadLongFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lead(LV)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final long offset = LagFunctionFactory.getOffset(args, argPositions);
+        final Function defaultValue = LagFunctionFactory.getDefaultValue(args, argPositions);
+        final AnalyticContext context = sqlExecutionContext.getAnalyticContext();
+        if (!LagFunctionFactory.isLongDefault(defaultValue)) {
+            // fractional default value makes the result double
+            return new LeadFunctionFactory.LeadFunction(configuration, context, args.getQuick(0), offset, defaultValue);
+        }
+        return new LeadLongFunction(configuration, context, args.getQuick(0), offset, defaultValue);
+    }
+
+    /**
+     * Long counterpart of the function in {@link LeadFunctionFactory}.
+     */
+    private static class LeadLongFunction extends BaseLongAnalyticFunction {
+        private final long offset;
+        private final Function defaultValue;
+
+        public LeadLongFunction(CairoConfiguration configuration, AnalyticContext context, Function arg, long offset, @Nullable Function defaultValue) {
+            super(configuration, context, arg, LagFunctionFactory.VALUE_TYPES, true, false);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return TWO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            partitions.next(record);
+            final long l = arg.getLong(record);
+            final int columnIndex = getColumnIndex();
+            if (offset == 0) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), l);
+                return;
+            }
+
+            Unsafe.getUnsafe().putLong(
+                    spi.getAddress(recordOffset, columnIndex),
+                    defaultValue != null ? defaultValue.getLong(record) : Numbers.LONG_NaN
+            );
+            final FrameBuffer buffer = partitions.getBuffer();
+            buffer.addLastLong(recordOffset, l);
+            if (buffer.size() > offset) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(buffer.firstKey(), columnIndex), l);
+                buffer.pollFirst();
+            }
+        }
+    }
+}
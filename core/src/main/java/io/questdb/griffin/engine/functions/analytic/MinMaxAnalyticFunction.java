@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Unsafe;
+
+/**
+ * Minimum or maximum of non-null values in the window frame. Frame with bounded start keeps
+ * monotonic queue of candidates in {@link FrameBuffer}: values that can no longer become
+ * the result are dropped from the tail as new value arrives, values that leave the frame
+ * are dropped from the head. The head of the queue is the result. Each value enters and
+ * leaves the queue once, which makes the function amortised O(1) per row.
+ */
+class MinMaxAnalyticFunction extends BaseDoubleAnalyticFunction {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    private static final int VALUE = 0;
+    private final boolean max;
+    private final boolean twoPass;
+
+    MinMaxAnalyticFunction(CairoConfiguration configuration, AnalyticContext context, Function arg, boolean max) {
+        super(configuration, context, arg, VALUE_TYPES, context.getRowsLo() != AnalyticColumn.UNBOUNDED_PRECEDING, true);
+        this.max = max;
+        this.twoPass = context.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING;
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        final MapValue mapValue = partitions.next(record);
+        final double d = arg.getDouble(record);
+        final FrameBuffer buffer = partitions.getBuffer();
+        if (buffer != null) {
+            while (partitions.isFirstOutOfFrame()) {
+                buffer.pollFirst();
+            }
+            if (!Double.isNaN(d)) {
+                while (!buffer.isEmpty() && !isBetter(buffer.lastValue(), d)) {
+                    buffer.pollLast();
+                }
+                buffer.addLast(partitions.getFrameKey(), d);
+            }
+            value = buffer.isEmpty() ? Double.NaN : buffer.firstValue();
+        } else {
+            double current = mapValue.isNew() ? Double.NaN : mapValue.getDouble(VALUE);
+            if (!Double.isNaN(d) && (Double.isNaN(current) || isBetter(d, current))) {
+                current = d;
+            }
+            mapValue.putDouble(VALUE, current);
+            value = current;
+        }
+    }
+
+    @Override
+    public int getPassCount() {
+        return twoPass ? TWO_PASS : super.getPassCount();
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        if (twoPass) {
+            computeNext(record);
+        } else {
+            super.pass1(record, recordOffset, spi);
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        if (twoPass) {
+            final MapValue mapValue = partitions.find(record);
+            assert mapValue != null;
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, getColumnIndex()), mapValue.getDouble(VALUE));
+        } else {
+            super.pass2(record, recordOffset, spi);
+        }
+    }
+
+    private boolean isBetter(double a, double b) {
+        return max ? a > b : a < b;
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.DOUBLE);
+    }
+}
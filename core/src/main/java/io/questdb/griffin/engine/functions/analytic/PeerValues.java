@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+/**
+ * Function values of peer groups. RANGE frame ending with the current row also includes the rows
+ * that follow it with the same "order by" values, i.e. its peers. Rows are fed to the function in order,
+ * so the value computed for the last row of a peer group is the value of every row of the group. Function
+ * stores it here by peer key in the first pass and looks it up for each row in the second pass.
+ * Peer functions are owned by {@link WindowPartitions}.
+ */
+final class PeerValues implements Closeable, Mutable {
+    private final Map map;
+    private final VirtualRecord peerRecord;
+    private final RecordSink peerSink;
+
+    PeerValues(CairoConfiguration configuration, AnalyticContext context, int valueType) {
+        this.peerRecord = context.getPeerRecord();
+        this.peerSink = context.getPeerSink();
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(valueType);
+        this.map = MapFactory.createMap(configuration, context.getPeerKeyTypes(), valueTypes);
+    }
+
+    /**
+     * @param context analytic context of the function
+     * @return true when value of the function, which depends on window frame, has to be shared by peers
+     */
+    static boolean isRequired(AnalyticContext context) {
+        return context.isOrdered()
+                && context.getFramingMode() == AnalyticColumn.FRAMING_RANGE
+                && context.getRowsHi() == 0;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+    }
+
+    /**
+     * @param record row that has been seen by {@link #put(Record)}
+     * @return value slot of the row's peer group
+     */
+    MapValue find(Record record) {
+        final MapValue value = key(record).findValue();
+        assert value != null;
+        return value;
+    }
+
+    /**
+     * @param record the current row
+     * @return value slot of the row's peer group, the caller overwrites it with the value of the row
+     */
+    MapValue put(Record record) {
+        return key(record).createValue();
+    }
+
+    private MapKey key(Record record) {
+        peerRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(peerRecord, peerSink);
+        return key;
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+public class RankFunctionFactory implements FunctionFactory {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    private static final ArrayColumnTypes PEER_VALUE_TYPES = new ArrayColumnTypes();
+
+    @Override
+    public String getSignature() {
+        return "rank()";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return new RankFunction(configuration, sqlExecutionContext.getAnalyticContext(), false);
+    }
+
+    /**
+     * Rank is 1-based and is the same for all peers, i.e. rows with equal "order by" values within
+     * partition. Rank of the first peer is memorised under the peer key, rows that follow find the
+     * rank there. Rank leaves gaps after peer groups, dense rank does not.
+     */
+    static class RankFunction extends BaseLongAnalyticFunction {
+        private static final int DENSE_RANK = 0;
+        private static final int PEER_RANK = 0;
+        private static final int PEER_DENSE_RANK = 1;
+        private final Map peers;
+        private final VirtualRecord peerRecord;
+        private final RecordSink peerSink;
+        private final boolean dense;
+
+        RankFunction(CairoConfiguration configuration, AnalyticContext context, boolean dense) {
+            super(configuration, context, null, VALUE_TYPES, false, false);
+            this.peerRecord = context.getPeerRecord();
+            this.peerSink = context.getPeerSink();
+            this.peers = peerRecord != null ? MapFactory.createMap(configuration, context.getPeerKeyTypes(), PEER_VALUE_TYPES) : null;
+            this.dense = dense;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(peers);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            if (peers == null) {
+                // without "order by" all rows are peers
+                value = 1;
+                return;
+            }
+
+            final MapValue mapValue = partitions.next(record);
+            final MapKey key = peers.withKey();
+            peerRecord.of(record);
+            key.put(peerRecord, peerSink);
+            final MapValue peerValue = key.createValue();
+            if (peerValue.isNew()) {
+                final long denseRank = (mapValue.isNew() ? 0 : mapValue.getLong(DENSE_RANK)) + 1;
+                mapValue.putLong(DENSE_RANK, denseRank);
+                peerValue.putLong(PEER_RANK, partitions.getRowIndex() + 1);
+                peerValue.putLong(PEER_DENSE_RANK, denseRank);
+            }
+            value = peerValue.getLong(dense ? PEER_DENSE_RANK : PEER_RANK);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (peers != null) {
+                peers.clear();
+            }
+        }
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.LONG);
+        PEER_VALUE_TYPES.add(ColumnType.LONG);
+        PEER_VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
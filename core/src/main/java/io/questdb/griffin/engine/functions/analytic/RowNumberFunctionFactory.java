@@ -24,30 +24,18 @@
 
 package io.questdb.griffin.engine.functions.analytic;
 
+import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.CairoConfiguration;
-import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.RecordSink;
-import io.questdb.cairo.SingleColumnType;
-import io.questdb.cairo.map.Map;
-import io.questdb.cairo.map.MapFactory;
-import io.questdb.cairo.map.MapKey;
-import io.questdb.cairo.map.MapValue;
-import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
-import io.questdb.griffin.engine.analytic.AnalyticFunction;
-import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.IntList;
-import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
-import io.questdb.std.Unsafe;
-
-import java.io.Closeable;
 
 public class RowNumberFunctionFactory implements FunctionFactory {
-
-    private static final SingleColumnType LONG_COLUMN_TYPE = new SingleColumnType(ColumnType.LONG);
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
 
     @Override
     public String getSignature() {
@@ -55,80 +43,25 @@ public class RowNumberFunctionFactory implements FunctionFactory {
     }
 
     @Override
-    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
-        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
-
-        if (analyticContext.getPartitionByRecord() != null) {
-            Map map = MapFactory.createMap(
-                    configuration,
-                    analyticContext.getPartitionByKeyTypes(),
-                    LONG_COLUMN_TYPE
-            );
-            return new RowNumberFunction(
-                    map,
-                    analyticContext.getPartitionByRecord(),
-                    analyticContext.getPartitionBySink()
-            );
-        }
-        return null;
+    public boolean isAnalytic() {
+        return true;
     }
 
-    private static class RowNumberFunction extends LongFunction implements ScalarFunction, AnalyticFunction, Closeable {
-        private final Map map;
-        private final VirtualRecord partitionByRecord;
-        private final RecordSink partitionBySink;
-        private int columnIndex;
-
-        public RowNumberFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink) {
-            this.map = map;
-            this.partitionByRecord = partitionByRecord;
-            this.partitionBySink = partitionBySink;
-        }
-
-        @Override
-        public void close() {
-            Misc.free(map);
-            Misc.free(partitionByRecord.getFunctions());
-        }
-
-        @Override
-        public long getLong(Record rec) {
-            // not called
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
-            partitionByRecord.of(record);
-            MapKey key = map.withKey();
-            key.put(partitionByRecord, partitionBySink);
-            MapValue value = key.createValue();
-            long x;
-            if (value.isNew()) {
-                x = 0;
-            } else {
-                x = value.getLong(0);
-            }
-            value.putLong(0, x + 1);
-            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), x);
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return new RowNumberFunction(configuration, sqlExecutionContext.getAnalyticContext());
+    }
 
-        @Override
-        public void pass2(Record record) {
-        }
+    private static class RowNumberFunction extends BaseLongAnalyticFunction {
 
-        @Override
-        public void reset() {
-            map.clear();
+        public RowNumberFunction(CairoConfiguration configuration, AnalyticContext context) {
+            super(configuration, context, null, VALUE_TYPES, false, false);
         }
 
         @Override
-        public void setColumnIndex(int columnIndex) {
-            this.columnIndex = columnIndex;
+        public void computeNext(Record record) {
+            partitions.next(record);
+            value = partitions.getRowIndex();
         }
     }
 }
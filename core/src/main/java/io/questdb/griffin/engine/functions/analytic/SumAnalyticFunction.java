@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Unsafe;
+
+/**
+ * Sum of non-null values in the window frame. Frame with bounded start keeps its values in
+ * {@link FrameBuffer}, value that leaves the frame is subtracted from the running sum, which
+ * makes each row O(1) regardless of the frame size. Frame that spans whole partition
+ * is computed in two passes.
+ */
+class SumAnalyticFunction extends BaseDoubleAnalyticFunction {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    private static final int SUM = 0;
+    private static final int COUNT = 1;
+    private final boolean twoPass;
+
+    SumAnalyticFunction(CairoConfiguration configuration, AnalyticContext context, Function arg) {
+        super(configuration, context, arg, VALUE_TYPES, context.getRowsLo() != AnalyticColumn.UNBOUNDED_PRECEDING, true);
+        this.twoPass = context.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING;
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        final MapValue mapValue = partitions.next(record);
+        double sum;
+        long count;
+        if (mapValue.isNew()) {
+            sum = 0;
+            count = 0;
+        } else {
+            sum = mapValue.getDouble(SUM);
+            count = mapValue.getLong(COUNT);
+        }
+
+        final double d = arg.getDouble(record);
+        final FrameBuffer buffer = partitions.getBuffer();
+        if (buffer != null) {
+            while (partitions.isFirstOutOfFrame()) {
+                final double expired = buffer.firstValue();
+                buffer.pollFirst();
+                if (!Double.isNaN(expired)) {
+                    sum -= expired;
+                    count--;
+                }
+            }
+            buffer.addLast(partitions.getFrameKey(), d);
+        }
+
+        if (!Double.isNaN(d)) {
+            sum += d;
+            count++;
+        }
+        mapValue.putDouble(SUM, sum);
+        mapValue.putLong(COUNT, count);
+        value = getResult(sum, count);
+    }
+
+    @Override
+    public int getPassCount() {
+        return twoPass ? TWO_PASS : super.getPassCount();
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        if (twoPass) {
+            computeNext(record);
+        } else {
+            super.pass1(record, recordOffset, spi);
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        if (twoPass) {
+            final MapValue mapValue = partitions.find(record);
+            assert mapValue != null;
+            Unsafe.getUnsafe().putDouble(
+                    spi.getAddress(recordOffset, getColumnIndex()),
+                    getResult(mapValue.getDouble(SUM), mapValue.getLong(COUNT))
+            );
+        } else {
+            super.pass2(record, recordOffset, spi);
+        }
+    }
+
+    protected double getResult(double sum, long count) {
+        return count > 0 ? sum : Double.NaN;
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.DOUBLE);
+        VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
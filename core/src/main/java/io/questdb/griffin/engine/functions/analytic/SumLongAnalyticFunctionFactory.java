@@ -0,0 +1,143 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class SumLongAnalyticFunctionFactory implements FunctionFactory {
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+
+    @Override
+    public String getSignature() {
+        return "sum(L)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
+        return new SumLongFunction(configuration, sqlExecutionContext.getAnalyticContext(), args.getQuick(0));
+    }
+
+    /**
+     * Same as {@link SumAnalyticFunction}, but sums integers exactly.
+     */
+    private static class SumLongFunction extends BaseLongAnalyticFunction {
+        private static final int SUM = 0;
+        private static final int COUNT = 1;
+        private final boolean twoPass;
+
+        public SumLongFunction(CairoConfiguration configuration, AnalyticContext context, Function arg) {
+            super(configuration, context, arg, VALUE_TYPES, context.getRowsLo() != AnalyticColumn.UNBOUNDED_PRECEDING, true);
+            this.twoPass = context.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final MapValue mapValue = partitions.next(record);
+            long sum;
+            long count;
+            if (mapValue.isNew()) {
+                sum = 0;
+                count = 0;
+            } else {
+                sum = mapValue.getLong(SUM);
+                count = mapValue.getLong(COUNT);
+            }
+
+            final long l = arg.getLong(record);
+            final FrameBuffer buffer = partitions.getBuffer();
+            if (buffer != null) {
+                while (partitions.isFirstOutOfFrame()) {
+                    final long expired = buffer.firstLongValue();
+                    buffer.pollFirst();
+                    if (expired != Numbers.LONG_NaN) {
+                        sum -= expired;
+                        count--;
+                    }
+                }
+                buffer.addLastLong(partitions.getFrameKey(), l);
+            }
+
+            if (l != Numbers.LONG_NaN) {
+                sum += l;
+                count++;
+            }
+            mapValue.putLong(SUM, sum);
+            mapValue.putLong(COUNT, count);
+            value = count > 0 ? sum : Numbers.LONG_NaN;
+        }
+
+        @Override
+        public int getPassCount() {
+            return twoPass ? TWO_PASS : super.getPassCount();
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            if (twoPass) {
+                computeNext(record);
+            } else {
+                super.pass1(record, recordOffset, spi);
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+            if (twoPass) {
+                final MapValue mapValue = partitions.find(record);
+                assert mapValue != null;
+                Unsafe.getUnsafe().putLong(
+                        spi.getAddress(recordOffset, getColumnIndex()),
+                        mapValue.getLong(COUNT) > 0 ? mapValue.getLong(SUM) : Numbers.LONG_NaN
+                );
+            } else {
+                super.pass2(record, recordOffset, spi);
+            }
+        }
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.LONG);
+        VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
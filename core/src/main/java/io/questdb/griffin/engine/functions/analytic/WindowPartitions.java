@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Per-partition state of analytic function. Map value of each partition starts with the slots
+ * requested by the function, followed by row count of the partition and, optionally, by the state
+ * of partition's {@link FrameBuffer}. Function without "partition by" clause keeps its state in
+ * the single entry of the map.
+ */
+final class WindowPartitions implements Closeable, Mutable {
+    private static final ArrayColumnTypes NO_KEY_TYPES = new ArrayColumnTypes();
+    private final Map map;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final VirtualRecord peerRecord;
+    private final FrameBuffer buffer;
+    private final int rowCountIndex;
+    private final long rowsLo;
+    private final int timestampIndex;
+    private long rowIndex;
+    private long frameKey;
+
+    WindowPartitions(
+            CairoConfiguration configuration,
+            AnalyticContext context,
+            @Transient ColumnTypes valueTypes,
+            boolean buffered
+    ) {
+        this.partitionByRecord = context.getPartitionByRecord();
+        this.partitionBySink = context.getPartitionBySink();
+        this.peerRecord = context.getPeerRecord();
+        this.rowsLo = context.getRowsLo();
+        this.timestampIndex = context.getTimestampIndex();
+
+        final ArrayColumnTypes types = new ArrayColumnTypes();
+        for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+            types.add(valueTypes.getColumnType(i));
+        }
+        this.rowCountIndex = types.getColumnCount();
+        types.add(ColumnType.LONG);
+        if (buffered) {
+            FrameBuffer.addValueTypes(types);
+            this.buffer = new FrameBuffer(configuration);
+        } else {
+            this.buffer = null;
+        }
+        this.map = MapFactory.createMap(
+                configuration,
+                partitionByRecord != null ? context.getPartitionByKeyTypes() : NO_KEY_TYPES,
+                types
+        );
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(buffer);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+        if (peerRecord != null) {
+            Misc.freeObjList(peerRecord.getFunctions());
+        }
+    }
+
+    /**
+     * @param record row of a partition that has been seen by {@link #next(Record)}
+     * @return state of the partition the row belongs to or null
+     */
+    @Nullable
+    MapValue find(Record record) {
+        return key(record).findValue();
+    }
+
+    FrameBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return key of the current row in frame buffer, which is the timestamp of the row for RANGE frames with
+     * offset and index of the row in its partition otherwise
+     */
+    long getFrameKey() {
+        return frameKey;
+    }
+
+    /**
+     * @return 0-based index of the current row in its partition
+     */
+    long getRowIndex() {
+        return rowIndex;
+    }
+
+    void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+        if (peerRecord != null) {
+            Function.init(peerRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    /**
+     * @return true when the oldest entry of the current partition's frame buffer is no longer in the frame
+     * of the current row
+     */
+    boolean isFirstOutOfFrame() {
+        return !buffer.isEmpty() && buffer.firstKey() < frameKey + rowsLo;
+    }
+
+    /**
+     * Advances partition of the given row by one row. When partition is new, its row count and frame buffer
+     * are initialised and {@link MapValue#isNew()} of the returned value is true. Function slots of new
+     * partition are for the caller to initialise.
+     *
+     * @param record the next row
+     * @return state of the partition the row belongs to
+     */
+    MapValue next(Record record) {
+        final MapValue value = key(record).createValue();
+        final boolean isNew = value.isNew();
+        rowIndex = isNew ? 0 : value.getLong(rowCountIndex);
+        value.putLong(rowCountIndex, rowIndex + 1);
+        if (buffer != null) {
+            buffer.of(value, rowCountIndex + 1, isNew);
+        }
+        frameKey = timestampIndex != -1 ? record.getTimestamp(timestampIndex) : rowIndex;
+        return value;
+    }
+
+    private MapKey key(Record record) {
+        final MapKey key = map.withKey();
+        if (partitionByRecord != null) {
+            partitionByRecord.of(record);
+            key.put(partitionByRecord, partitionBySink);
+        }
+        return key;
+    }
+}
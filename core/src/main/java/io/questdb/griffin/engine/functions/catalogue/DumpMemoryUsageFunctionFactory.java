@@ -47,6 +47,11 @@ public class DumpMemoryUsageFunctionFactory implements FunctionFactory {
         return "dump_memory_usage()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
@@ -49,6 +49,11 @@ public class DumpThreadStacksFunctionFactory implements FunctionFactory {
         return "dump_thread_stacks()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
@@ -40,6 +40,11 @@ public class SessionUserFunctionFactory implements FunctionFactory {
         return "session_user()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isRuntimeConstant() {
         return true;
@@ -43,6 +43,11 @@ public class TimestampShuffleFunctionFactory implements FunctionFactory {
         return "timestamp_shuffle(nn)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Approximate count of distinct values backed by {@link HyperLogLog}. Sketches live in native memory,
+ * map value keeps index of the group's sketch along with the running estimate, harmonic sum and zero
+ * register count, so that reading the estimate does not scan registers. Sketches are re-used when
+ * the function is re-executed.
+ */
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
+    protected final Function arg;
+    private final int precision;
+    private final LongList sketches = new LongList();
+    private int sketchIndex = 0;
+    private int valueIndex;
+
+    public AbstractApproxCountDistinctGroupByFunction(@NotNull Function arg, int precision) {
+        this.arg = arg;
+        this.precision = precision;
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        for (int i = 0, n = sketches.size(); i < n; i++) {
+            HyperLogLog.free(sketches.getQuick(i), precision);
+        }
+        sketches.clear();
+        sketchIndex = 0;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        addFirst(mapValue);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return rec.getLong(valueIndex);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        UnaryFunction.super.init(symbolTableSource, executionContext);
+        sketchIndex = 0;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.INT);
+        columnTypes.add(ColumnType.INT);
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0L);
+    }
+
+    @Override
+    public void setLong(MapValue mapValue, long value) {
+        mapValue.putLong(valueIndex, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, Numbers.LONG_NaN);
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        sketchIndex = 0;
+    }
+
+    protected void add(MapValue mapValue, long hash) {
+        final long sketch = sketches.getQuick(mapValue.getInt(valueIndex + 3));
+        final int prev = HyperLogLog.add(sketch, precision, hash);
+        if (prev > -1) {
+            final int rank = HyperLogLog.rank(hash, precision);
+            final double sum = mapValue.getDouble(valueIndex + 1) - HyperLogLog.inverse(prev) + HyperLogLog.inverse(rank);
+            int zeros = mapValue.getInt(valueIndex + 2);
+            if (prev == 0) {
+                zeros--;
+            }
+            mapValue.putLong(valueIndex, HyperLogLog.estimate(sum, zeros, precision));
+            mapValue.putDouble(valueIndex + 1, sum);
+            mapValue.putInt(valueIndex + 2, zeros);
+        }
+    }
+
+    protected void addFirst(MapValue mapValue) {
+        final long sketch;
+        if (sketches.size() <= sketchIndex) {
+            sketch = HyperLogLog.alloc(precision);
+            sketches.extendAndSet(sketchIndex, sketch);
+        } else {
+            sketch = sketches.getQuick(sketchIndex);
+            HyperLogLog.clear(sketch, precision);
+        }
+        final int m = 1 << precision;
+        mapValue.putLong(valueIndex, 0L);
+        mapValue.putDouble(valueIndex + 1, m);
+        mapValue.putInt(valueIndex + 2, m);
+        mapValue.putInt(valueIndex + 3, sketchIndex++);
+    }
+}
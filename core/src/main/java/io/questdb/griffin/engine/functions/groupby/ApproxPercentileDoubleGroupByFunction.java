@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Approximate percentile backed by {@link DDSketch}. Returned value is within
+ * {@link DDSketch#RELATIVE_ACCURACY} of the exact percentile value. Map value keeps value count,
+ * zero count and indexes of the group's native stores of positive and negative values.
+ * Stores are allocated on demand and re-used when the function is re-executed.
+ */
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
+    private final Function arg;
+    private final double percentile;
+    private final LongList stores = new LongList();
+    private int storeIndex = 0;
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(@NotNull Function arg, double percentile) {
+        this.arg = arg;
+        this.percentile = percentile;
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        for (int i = 0, n = stores.size(); i < n; i++) {
+            DDSketch.free(stores.getQuick(i));
+        }
+        stores.clear();
+        storeIndex = 0;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        mapValue.putLong(valueIndex, 0);
+        mapValue.putLong(valueIndex + 1, 0);
+        mapValue.putInt(valueIndex + 2, -1);
+        mapValue.putInt(valueIndex + 3, -1);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double value = arg.getDouble(record);
+        if (Numbers.isFinite(value)) {
+            mapValue.addLong(valueIndex, 1);
+            if (value > 0) {
+                add(mapValue, valueIndex + 2, value);
+            } else if (value < 0) {
+                add(mapValue, valueIndex + 3, -value);
+            } else {
+                mapValue.addLong(valueIndex + 1, 1);
+            }
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return DDSketch.quantile(
+                getStore(rec.getInt(valueIndex + 3)),
+                rec.getLong(valueIndex + 1),
+                getStore(rec.getInt(valueIndex + 2)),
+                rec.getLong(valueIndex),
+                percentile
+        );
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        UnaryFunction.super.init(symbolTableSource, executionContext);
+        storeIndex = 0;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.INT);
+        columnTypes.add(ColumnType.INT);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0);
+        mapValue.putLong(valueIndex + 1, 0);
+        mapValue.putInt(valueIndex + 2, -1);
+        mapValue.putInt(valueIndex + 3, -1);
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        storeIndex = 0;
+    }
+
+    private void add(MapValue mapValue, int storeIndexSlot, double value) {
+        int index = mapValue.getInt(storeIndexSlot);
+        if (index == -1) {
+            index = storeIndex++;
+            if (stores.size() <= index) {
+                stores.extendAndSet(index, DDSketch.alloc());
+            } else {
+                DDSketch.clear(stores.getQuick(index));
+            }
+            mapValue.putInt(storeIndexSlot, index);
+        }
+        // store may move when it grows
+        stores.setQuick(index, DDSketch.add(stores.getQuick(index), DDSketch.key(value), 1));
+    }
+
+    private long getStore(int index) {
+        return index == -1 ? 0 : stores.getQuick(index);
+    }
+}
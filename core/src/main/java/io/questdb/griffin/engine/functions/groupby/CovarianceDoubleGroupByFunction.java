@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.Numbers;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Covariance, correlation and linear regression of Y on X computed in a single pass with the bivariate
+ * form of Welford's algorithm. Rows where either Y or X is null are ignored. Map value keeps count,
+ * running means of X and Y, sums of squared differences from the means of X and Y and the sum of
+ * products of differences (co-moment).
+ * <p>
+ * When value is set directly, e.g. by linear interpolation of SAMPLE BY, count is
+ * {@link VarianceDoubleGroupByFunction#SET_VALUE} and the value is kept in place of the mean of X.
+ */
+public class CovarianceDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, BinaryFunction {
+    public static final int CORR = 2;
+    public static final int COVAR_POP = 0;
+    public static final int COVAR_SAMP = 1;
+    public static final int REGR_INTERCEPT = 4;
+    public static final int REGR_SLOPE = 3;
+    private final int kind;
+    private final Function x;
+    private final Function y;
+    private int valueIndex;
+
+    public CovarianceDoubleGroupByFunction(@NotNull Function y, @NotNull Function x, int kind) {
+        this.y = y;
+        this.x = x;
+        this.kind = kind;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        setNull(mapValue);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double yValue = y.getDouble(record);
+        final double xValue = x.getDouble(record);
+        if (Numbers.isFinite(yValue) && Numbers.isFinite(xValue)) {
+            final long count = mapValue.getLong(valueIndex) + 1;
+            final double meanX = mapValue.getDouble(valueIndex + 1);
+            final double meanY = mapValue.getDouble(valueIndex + 2);
+            final double deltaX = xValue - meanX;
+            final double deltaY = yValue - meanY;
+            final double newMeanX = meanX + deltaX / count;
+            final double newMeanY = meanY + deltaY / count;
+            mapValue.putLong(valueIndex, count);
+            mapValue.putDouble(valueIndex + 1, newMeanX);
+            mapValue.putDouble(valueIndex + 2, newMeanY);
+            mapValue.addDouble(valueIndex + 3, deltaX * (xValue - newMeanX));
+            mapValue.addDouble(valueIndex + 4, deltaY * (yValue - newMeanY));
+            mapValue.addDouble(valueIndex + 5, deltaX * (yValue - newMeanY));
+        }
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long count = rec.getLong(valueIndex);
+        if (count == VarianceDoubleGroupByFunction.SET_VALUE) {
+            return rec.getDouble(valueIndex + 1);
+        }
+        if (count < 1) {
+            return Double.NaN;
+        }
+        final double m2X = rec.getDouble(valueIndex + 3);
+        final double coMoment = rec.getDouble(valueIndex + 5);
+        switch (kind) {
+            case COVAR_POP:
+                return coMoment / count;
+            case COVAR_SAMP:
+                return count > 1 ? coMoment / (count - 1) : Double.NaN;
+            case CORR:
+                final double m2Y = rec.getDouble(valueIndex + 4);
+                return m2X > 0 && m2Y > 0 ? coMoment / Math.sqrt(m2X * m2Y) : Double.NaN;
+            case REGR_SLOPE:
+                return m2X > 0 ? coMoment / m2X : Double.NaN;
+            default:
+                assert kind == REGR_INTERCEPT;
+                return m2X > 0 ? rec.getDouble(valueIndex + 2) - coMoment / m2X * rec.getDouble(valueIndex + 1) : Double.NaN;
+        }
+    }
+
+    @Override
+    public Function getLeft() {
+        return y;
+    }
+
+    @Override
+    public Function getRight() {
+        return x;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+    }
+
+    @Override
+    public void setDouble(MapValue mapValue, double value) {
+        setNull(mapValue);
+        mapValue.putLong(valueIndex, VarianceDoubleGroupByFunction.SET_VALUE);
+        mapValue.putDouble(valueIndex + 1, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0);
+        mapValue.putDouble(valueIndex + 1, 0);
+        mapValue.putDouble(valueIndex + 2, 0);
+        mapValue.putDouble(valueIndex + 3, 0);
+        mapValue.putDouble(valueIndex + 4, 0);
+        mapValue.putDouble(valueIndex + 5, 0);
+    }
+}
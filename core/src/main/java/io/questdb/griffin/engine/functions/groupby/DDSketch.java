@@ -0,0 +1,265 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Quantile sketch with relative error guarantee (DDSketch). Positive values are mapped to logarithmic
+ * buckets, so that every value in a bucket is within {@link #RELATIVE_ACCURACY} of the bucket's
+ * representative value. Negative values are kept in a separate store keyed by their magnitude and zeros
+ * are counted by the caller.
+ * <p>
+ * Store is a dense array of bucket counts in native memory, it grows on demand up to {@link #MAX_BINS}.
+ * Beyond that the lowest buckets are collapsed, which only affects accuracy of the lowest quantiles.
+ * Stores are merged by adding bucket counts, which makes the result identical to the sketch built over
+ * both inputs.
+ * <p>
+ * Store layout:
+ * <pre>
+ * int  min key
+ * int  bucket count
+ * int  capacity
+ * int  padding
+ * long counts[capacity]
+ * </pre>
+ */
+public final class DDSketch {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    static final int MAX_BINS = 2048;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final long HEADER_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int LENGTH_OFFSET = 4;
+    private static final double MULTIPLIER = 1 / Math.log(GAMMA);
+
+    private DDSketch() {
+    }
+
+    /**
+     * Adds count to the bucket of the key.
+     *
+     * @return store address, which changes when the store is re-allocated
+     */
+    public static long add(long store, int key, long count) {
+        int len = getLength(store);
+        if (len == 0) {
+            setMinKey(store, key);
+            setLength(store, 1);
+            Unsafe.getUnsafe().putLong(store + HEADER_SIZE, count);
+            return store;
+        }
+
+        int minKey = getMinKey(store);
+        final int maxKey = minKey + len - 1;
+
+        if (key < minKey) {
+            // keys below the retained range collapse into the lowest bucket
+            final int lo = Math.max(key, maxKey - MAX_BINS + 1);
+            if (lo < minKey) {
+                final int shift = minKey - lo;
+                store = ensureCapacity(store, len + shift);
+                final long bins = store + HEADER_SIZE;
+                Vect.memmove(bins + (long) shift * Long.BYTES, bins, (long) len * Long.BYTES);
+                Vect.memset(bins, (long) shift * Long.BYTES, 0);
+                setMinKey(store, lo);
+                setLength(store, len + shift);
+            }
+            addAt(store, 0, count);
+            return store;
+        }
+
+        if (key > maxKey) {
+            final int newMinKey = Math.max(minKey, key - MAX_BINS + 1);
+            if (newMinKey > minKey) {
+                // collapse lowest buckets to make room for the new key
+                final long bins = store + HEADER_SIZE;
+                final int collapsed = Math.min(newMinKey - minKey, len);
+                long sum = 0;
+                for (int i = 0; i < collapsed; i++) {
+                    sum += Unsafe.getUnsafe().getLong(bins + (long) i * Long.BYTES);
+                }
+                if (collapsed < len) {
+                    Vect.memmove(bins, bins + (long) collapsed * Long.BYTES, (long) (len - collapsed) * Long.BYTES);
+                    len -= collapsed;
+                    Unsafe.getUnsafe().putLong(bins, Unsafe.getUnsafe().getLong(bins) + sum);
+                } else {
+                    len = 1;
+                    Unsafe.getUnsafe().putLong(bins, sum);
+                }
+                minKey = newMinKey;
+                setMinKey(store, minKey);
+            }
+            final int newLen = key - minKey + 1;
+            if (newLen > len) {
+                store = ensureCapacity(store, newLen);
+                Vect.memset(store + HEADER_SIZE + (long) len * Long.BYTES, (long) (newLen - len) * Long.BYTES, 0);
+            }
+            setLength(store, newLen);
+        }
+        addAt(store, key - minKey, count);
+        return store;
+    }
+
+    public static long alloc() {
+        final long store = Unsafe.malloc(sizeOf(INITIAL_CAPACITY), MemoryTag.NATIVE_DEFAULT);
+        Unsafe.getUnsafe().putInt(store + CAPACITY_OFFSET, INITIAL_CAPACITY);
+        clear(store);
+        return store;
+    }
+
+    public static void clear(long store) {
+        setLength(store, 0);
+    }
+
+    public static void free(long store) {
+        Unsafe.free(store, sizeOf(getCapacity(store)), MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static long getCount(long store, int index) {
+        return Unsafe.getUnsafe().getLong(store + HEADER_SIZE + (long) index * Long.BYTES);
+    }
+
+    public static int getLength(long store) {
+        return Unsafe.getUnsafe().getInt(store + LENGTH_OFFSET);
+    }
+
+    public static int getMinKey(long store) {
+        return Unsafe.getUnsafe().getInt(store);
+    }
+
+    /**
+     * @param value positive value
+     * @return key of the bucket the value belongs to
+     */
+    public static int key(double value) {
+        return (int) Math.ceil(Math.log(value) * MULTIPLIER);
+    }
+
+    /**
+     * Merges source store into destination store.
+     *
+     * @return destination store address, which changes when the store is re-allocated
+     */
+    public static long merge(long dst, long src) {
+        final int minKey = getMinKey(src);
+        for (int i = 0, n = getLength(src); i < n; i++) {
+            final long count = getCount(src, i);
+            if (count > 0) {
+                dst = add(dst, minKey + i, count);
+            }
+        }
+        return dst;
+    }
+
+    /**
+     * Finds value at the given quantile.
+     *
+     * @param negativeStore store of negative values or 0 when there are none
+     * @param zeroCount     number of zero values
+     * @param positiveStore store of positive values or 0 when there are none
+     * @param count         total number of values
+     * @param quantile      quantile between 0 and 1
+     * @return value, which is within relative accuracy of the exact quantile value
+     */
+    public static double quantile(long negativeStore, long zeroCount, long positiveStore, long count, double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        final double rank = quantile * (count - 1);
+        long n = 0;
+
+        if (negativeStore != 0) {
+            // the largest magnitude is the lowest value
+            final int minKey = getMinKey(negativeStore);
+            for (int i = getLength(negativeStore) - 1; i > -1; i--) {
+                n += getCount(negativeStore, i);
+                if (n > rank) {
+                    return -value(minKey + i);
+                }
+            }
+        }
+
+        n += zeroCount;
+        if (n > rank) {
+            return 0;
+        }
+
+        if (positiveStore != 0) {
+            final int minKey = getMinKey(positiveStore);
+            for (int i = 0, len = getLength(positiveStore); i < len; i++) {
+                n += getCount(positiveStore, i);
+                if (n > rank) {
+                    return value(minKey + i);
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @return representative value of the bucket, it is within relative accuracy of any value in the bucket
+     */
+    public static double value(int key) {
+        return 2 * Math.pow(GAMMA, key) / (GAMMA + 1);
+    }
+
+    private static void addAt(long store, int index, long count) {
+        final long p = store + HEADER_SIZE + (long) index * Long.BYTES;
+        Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + count);
+    }
+
+    private static long ensureCapacity(long store, int required) {
+        final int capacity = getCapacity(store);
+        if (required <= capacity) {
+            return store;
+        }
+        final int newCapacity = Math.min(Math.max(capacity * 2, required), MAX_BINS);
+        store = Unsafe.realloc(store, sizeOf(capacity), sizeOf(newCapacity), MemoryTag.NATIVE_DEFAULT);
+        Unsafe.getUnsafe().putInt(store + CAPACITY_OFFSET, newCapacity);
+        return store;
+    }
+
+    private static int getCapacity(long store) {
+        return Unsafe.getUnsafe().getInt(store + CAPACITY_OFFSET);
+    }
+
+    private static void setLength(long store, int length) {
+        Unsafe.getUnsafe().putInt(store + LENGTH_OFFSET, length);
+    }
+
+    private static void setMinKey(long store, int minKey) {
+        Unsafe.getUnsafe().putInt(store, minKey);
+    }
+
+    private static long sizeOf(int capacity) {
+        return HEADER_SIZE + (long) capacity * Long.BYTES;
+    }
+}
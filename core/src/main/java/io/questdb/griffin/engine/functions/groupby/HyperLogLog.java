@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * HyperLogLog cardinality sketch in native memory. Sketch is an array of 2^precision byte registers,
+ * each register keeps the maximum rank (position of the leftmost 1-bit) of hashes addressed to it.
+ * Standard error of the estimate is 1.04 / sqrt(2^precision), i.e. ~0.8% for the default precision.
+ * <p>
+ * Sketches of the same precision are merged by taking maximum of each register pair, which makes
+ * the result identical to the sketch built over both inputs.
+ */
+public final class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 14;
+
+    private HyperLogLog() {
+    }
+
+    /**
+     * Adds hash to the sketch.
+     *
+     * @param ptr       sketch address
+     * @param precision sketch precision
+     * @param hash      64-bit hash of the value
+     * @return previous value of the register when the hash increased it, -1 otherwise
+     */
+    public static int add(long ptr, int precision, long hash) {
+        final long p = ptr + (hash >>> (64 - precision));
+        final int rank = rank(hash, precision);
+        final int prev = Unsafe.getUnsafe().getByte(p);
+        if (rank > prev) {
+            Unsafe.getUnsafe().putByte(p, (byte) rank);
+            return prev;
+        }
+        return -1;
+    }
+
+    public static long alloc(int precision) {
+        final long ptr = Unsafe.malloc(sizeOf(precision), MemoryTag.NATIVE_DEFAULT);
+        clear(ptr, precision);
+        return ptr;
+    }
+
+    public static void clear(long ptr, int precision) {
+        Vect.memset(ptr, sizeOf(precision), 0);
+    }
+
+    /**
+     * Estimates cardinality from harmonic sum of registers and the number of zero registers. Callers
+     * maintain both incrementally to avoid scanning registers on every read.
+     *
+     * @param sum       sum of 2^-register over all registers
+     * @param zeros     number of registers that are 0
+     * @param precision sketch precision
+     * @return estimated number of distinct hashes added to the sketch
+     */
+    public static long estimate(double sum, int zeros, int precision) {
+        final int m = 1 << precision;
+        final double e = alpha(m) * m * m / sum;
+        if (e <= 2.5 * m && zeros > 0) {
+            // linear counting is more accurate for small cardinalities
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(e);
+    }
+
+    public static void free(long ptr, int precision) {
+        Unsafe.free(ptr, sizeOf(precision), MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static double inverse(int register) {
+        return Math.scalb(1.0, -register);
+    }
+
+    /**
+     * Merges source sketch into destination sketch. Both sketches must be of the same precision.
+     */
+    public static void merge(long dst, long src, int precision) {
+        for (long i = 0, n = sizeOf(precision); i < n; i++) {
+            final byte s = Unsafe.getUnsafe().getByte(src + i);
+            if (s > Unsafe.getUnsafe().getByte(dst + i)) {
+                Unsafe.getUnsafe().putByte(dst + i, s);
+            }
+        }
+    }
+
+    /**
+     * @return position of the leftmost 1-bit in the part of the hash that is not used to address register
+     */
+    public static int rank(long hash, int precision) {
+        // sentinel bit caps the rank at 64 - precision + 1
+        return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    }
+
+    public static long sizeOf(int precision) {
+        return 1L << precision;
+    }
+
+    public static double sum(long ptr, int precision) {
+        double sum = 0;
+        for (long i = 0, n = sizeOf(precision); i < n; i++) {
+            sum += inverse(Unsafe.getUnsafe().getByte(ptr + i));
+        }
+        return sum;
+    }
+
+    public static int zeros(long ptr, int precision) {
+        int zeros = 0;
+        for (long i = 0, n = sizeOf(precision); i < n; i++) {
+            if (Unsafe.getUnsafe().getByte(ptr + i) == 0) {
+                zeros++;
+            }
+        }
+        return zeros;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
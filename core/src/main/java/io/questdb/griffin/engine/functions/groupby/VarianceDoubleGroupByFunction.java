@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.Numbers;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Variance and standard deviation computed in a single pass with Welford's algorithm, which does not
+ * suffer from catastrophic cancellation of the naive sum of squares approach. Map value keeps count,
+ * running mean and the sum of squared differences from the mean.
+ * <p>
+ * When value is set directly, e.g. by linear interpolation of SAMPLE BY, count is {@link #SET_VALUE}
+ * and the value is kept in place of the mean.
+ */
+public class VarianceDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
+    static final long SET_VALUE = -1;
+    private final Function arg;
+    private final boolean sample;
+    private final boolean stdDev;
+    private int valueIndex;
+
+    /**
+     * @param arg    function to aggregate
+     * @param sample true for sample variance, false for population variance
+     * @param stdDev true to return square root of variance
+     */
+    public VarianceDoubleGroupByFunction(@NotNull Function arg, boolean sample, boolean stdDev) {
+        this.arg = arg;
+        this.sample = sample;
+        this.stdDev = stdDev;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        final double value = arg.getDouble(record);
+        if (Numbers.isFinite(value)) {
+            mapValue.putLong(valueIndex, 1);
+            mapValue.putDouble(valueIndex + 1, value);
+        } else {
+            mapValue.putLong(valueIndex, 0);
+            mapValue.putDouble(valueIndex + 1, 0);
+        }
+        mapValue.putDouble(valueIndex + 2, 0);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double value = arg.getDouble(record);
+        if (Numbers.isFinite(value)) {
+            final long count = mapValue.getLong(valueIndex) + 1;
+            final double mean = mapValue.getDouble(valueIndex + 1);
+            final double delta = value - mean;
+            final double newMean = mean + delta / count;
+            mapValue.putLong(valueIndex, count);
+            mapValue.putDouble(valueIndex + 1, newMean);
+            mapValue.addDouble(valueIndex + 2, delta * (value - newMean));
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long count = rec.getLong(valueIndex);
+        if (count == SET_VALUE) {
+            return rec.getDouble(valueIndex + 1);
+        }
+        final long divisor = sample ? count - 1 : count;
+        if (divisor < 1) {
+            return Double.NaN;
+        }
+        final double variance = rec.getDouble(valueIndex + 2) / divisor;
+        return stdDev ? Math.sqrt(variance) : variance;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.DOUBLE);
+        columnTypes.add(ColumnType.DOUBLE);
+    }
+
+    @Override
+    public void setDouble(MapValue mapValue, double value) {
+        mapValue.putLong(valueIndex, SET_VALUE);
+        mapValue.putDouble(valueIndex + 1, value);
+        mapValue.putDouble(valueIndex + 2, 0);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0);
+        mapValue.putDouble(valueIndex + 1, 0);
+        mapValue.putDouble(valueIndex + 2, 0);
+    }
+}
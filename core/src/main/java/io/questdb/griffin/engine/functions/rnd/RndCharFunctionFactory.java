@@ -42,6 +42,11 @@ public class RndCharFunctionFactory implements FunctionFactory {
         return "rnd_char()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(
             int position,
@@ -47,6 +47,11 @@ public class RndGeoHashFunctionFactory implements FunctionFactory {
         return "rnd_geohash(i)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
@@ -45,6 +45,11 @@ public class TouchTableFunctionFactory implements FunctionFactory {
         return "touch(C)";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position,
                                 ObjList<Function> args,
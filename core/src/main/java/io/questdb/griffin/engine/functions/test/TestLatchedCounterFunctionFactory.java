@@ -53,6 +53,11 @@ public class TestLatchedCounterFunctionFactory implements FunctionFactory {
 		return "test_latched_counter()";
 	}
 
+	@Override
+	public boolean isNonDeterministic() {
+		return true;
+	}
+
 	@Override
 	public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
 		return new TestLatchFunction();
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.groupby.HyperLogLog;
+import io.questdb.std.*;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * approx_count_distinct() of INT or LONG column. Each worker builds {@link HyperLogLog} sketches of
+ * its groups, see {@link KeyedStates}, the sketches are merged register by register, which gives
+ * the same estimate as a single sketch over all rows. Non-keyed aggregation uses single group.
+ */
+public class ApproxCountDistinctVectorAggregateFunction extends LongFunction implements VectorAggregateFunction {
+    private final int columnIndex;
+    private final int keyKind;
+    private final int precision;
+    private final long[] rostis;
+    // sketches of worker groups by state index, sketches are re-used across executions
+    private final LongList[] sketches;
+    private final KeyedStates[] states;
+    private final boolean intColumn;
+    private final KeyedStates.SlotWriter writer = this::writeEstimate;
+    private int valueOffset;
+    private int wrapUpWorker;
+
+    public ApproxCountDistinctVectorAggregateFunction(int keyKind, int columnIndex, int workerCount, int columnType) {
+        this.columnIndex = columnIndex;
+        this.keyKind = keyKind;
+        this.intColumn = ColumnType.tagOf(columnType) == ColumnType.INT;
+        this.precision = HyperLogLog.DEFAULT_PRECISION;
+        this.rostis = new long[workerCount];
+        this.sketches = new LongList[workerCount];
+        this.states = new KeyedStates[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            sketches[i] = new LongList();
+            states[i] = new KeyedStates();
+        }
+    }
+
+    @Override
+    public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
+        if (address != 0) {
+            final long sketch = getSketch(workerId, 0);
+            for (long i = 0, n = addressSize >>> columnSizeHint; i < n; i++) {
+                add(sketch, address, i);
+            }
+        }
+    }
+
+    @Override
+    public void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId) {
+        final long count = valueAddressSize >>> columnSizeShr;
+        if (keyKind == GKK_HOUR_INT) {
+            Rosti.keyedHourDistinct(pRosti, keyAddress, count);
+        } else {
+            Rosti.keyedIntDistinct(pRosti, keyAddress, count);
+        }
+        if (valueAddress != 0) {
+            for (long i = 0; i < count; i++) {
+                add(getSketch(workerId, KeyedStates.getKey(keyKind, keyAddress, i)), valueAddress, i);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = states.length; i < n; i++) {
+            states[i].clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = sketches.length; i < n; i++) {
+            final LongList list = sketches[i];
+            for (int j = 0, m = list.size(); j < m; j++) {
+                HyperLogLog.free(list.getQuick(j), precision);
+            }
+            list.clear();
+            states[i].clear();
+        }
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        // merging is idempotent, registers keep the maximum
+        final long dst = getSketch(0, 0);
+        for (int i = 1, n = states.length; i < n; i++) {
+            final int src = states[i].find(0);
+            if (src > -1) {
+                HyperLogLog.merge(dst, sketches[i].getQuick(src), precision);
+            }
+        }
+        return estimate(dst);
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == 0) {
+                rostis[i] = pRosti;
+                break;
+            }
+        }
+        Unsafe.getUnsafe().putLong(Rosti.getInitialValueSlot(pRosti, valueOffset), 0);
+    }
+
+    @Override
+    public void merge(long pRostiA, long pRostiB) {
+        KeyedStates.copyKeys(pRostiB, pRostiA);
+        final int a = getWorker(pRostiA);
+        final int b = getWorker(pRostiB);
+        final KeyedStates statesB = states[b];
+        final LongList sketchesB = sketches[b];
+        for (int i = 0, n = statesB.size(); i < n; i++) {
+            HyperLogLog.merge(getSketch(a, statesB.getKey(i)), sketchesB.getQuick(i), precision);
+        }
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        this.valueOffset = types.getColumnCount();
+        types.add(ColumnType.LONG);
+    }
+
+    @Override
+    public void wrapUp(long pRosti) {
+        wrapUpWorker = getWorker(pRosti);
+        KeyedStates.wrapUp(pRosti, valueOffset, writer);
+    }
+
+    private void add(long sketch, long valueAddress, long row) {
+        final long value = intColumn ? Numbers.intToLong(Unsafe.getUnsafe().getInt(valueAddress + (row << 2))) : Unsafe.getUnsafe().getLong(valueAddress + (row << 3));
+        if (value != Numbers.LONG_NaN) {
+            HyperLogLog.add(sketch, precision, Hash.murmur3ToLong(value));
+        }
+    }
+
+    private long estimate(long sketch) {
+        return HyperLogLog.estimate(HyperLogLog.sum(sketch, precision), HyperLogLog.zeros(sketch, precision), precision);
+    }
+
+    private long getSketch(int worker, int key) {
+        final KeyedStates states = this.states[worker];
+        final int size = states.size();
+        return getSketch(worker, states.indexOf(key), size);
+    }
+
+    private long getSketch(int worker, int index, int size) {
+        final LongList list = sketches[worker];
+        if (index < size) {
+            return list.getQuick(index);
+        }
+        final long sketch;
+        if (index < list.size()) {
+            sketch = list.getQuick(index);
+            HyperLogLog.clear(sketch, precision);
+        } else {
+            sketch = HyperLogLog.alloc(precision);
+            list.add(sketch);
+        }
+        return sketch;
+    }
+
+    private int getWorker(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == pRosti) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("unknown rosti");
+    }
+
+    private void writeEstimate(int key, long valueAddress) {
+        final int index = states[wrapUpWorker].find(key);
+        Unsafe.getUnsafe().putLong(valueAddress, index > -1 ? estimate(sketches[wrapUpWorker].getQuick(index)) : 0);
+    }
+}
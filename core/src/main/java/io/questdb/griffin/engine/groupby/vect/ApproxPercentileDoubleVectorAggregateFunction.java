@@ -0,0 +1,285 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.groupby.DDSketch;
+import io.questdb.std.*;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * approx_percentile() and approx_median() of DOUBLE column. Each worker builds {@link DDSketch} stores
+ * of positive and negative values of its groups, see {@link KeyedStates}. Stores are merged bin by bin,
+ * which gives the same percentile as a single sketch over all rows. Non-keyed aggregation uses single group.
+ */
+public class ApproxPercentileDoubleVectorAggregateFunction extends DoubleFunction implements VectorAggregateFunction {
+    private final int columnIndex;
+    private final int keyKind;
+    private final double percentile;
+    private final long[] rostis;
+    private final KeyedStates[] states;
+    // per worker group values by state index, stores are re-used across executions
+    private final LongList[] counts;
+    private final LongList[] zeroCounts;
+    private final LongList[] positiveStores;
+    private final LongList[] negativeStores;
+    private final KeyedStates.SlotWriter writer = this::writePercentile;
+    private boolean merged;
+    private int valueOffset;
+    private int wrapUpWorker;
+
+    public ApproxPercentileDoubleVectorAggregateFunction(int keyKind, int columnIndex, int workerCount, double percentile) {
+        this.columnIndex = columnIndex;
+        this.keyKind = keyKind;
+        this.percentile = percentile;
+        this.rostis = new long[workerCount];
+        this.states = new KeyedStates[workerCount];
+        this.counts = new LongList[workerCount];
+        this.zeroCounts = new LongList[workerCount];
+        this.positiveStores = new LongList[workerCount];
+        this.negativeStores = new LongList[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            states[i] = new KeyedStates();
+            counts[i] = new LongList();
+            zeroCounts[i] = new LongList();
+            positiveStores[i] = new LongList();
+            negativeStores[i] = new LongList();
+        }
+    }
+
+    @Override
+    public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
+        if (address != 0) {
+            final int index = getState(workerId, 0);
+            for (long i = 0, n = addressSize >>> columnSizeHint; i < n; i++) {
+                add(workerId, index, Unsafe.getUnsafe().getDouble(address + (i << 3)));
+            }
+        }
+    }
+
+    @Override
+    public void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId) {
+        final long count = valueAddressSize >>> columnSizeShr;
+        if (keyKind == GKK_HOUR_INT) {
+            Rosti.keyedHourDistinct(pRosti, keyAddress, count);
+        } else {
+            Rosti.keyedIntDistinct(pRosti, keyAddress, count);
+        }
+        if (valueAddress != 0) {
+            for (long i = 0; i < count; i++) {
+                add(workerId, getState(workerId, KeyedStates.getKey(keyKind, keyAddress, i)), Unsafe.getUnsafe().getDouble(valueAddress + (i << 3)));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = states.length; i < n; i++) {
+            states[i].clear();
+        }
+        merged = false;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = states.length; i < n; i++) {
+            free(positiveStores[i]);
+            free(negativeStores[i]);
+            counts[i].clear();
+            zeroCounts[i].clear();
+            states[i].clear();
+        }
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final int index = getState(0, 0);
+        if (!merged) {
+            for (int i = 1, n = states.length; i < n; i++) {
+                final int src = states[i].find(0);
+                if (src > -1) {
+                    mergeState(0, index, i, src);
+                }
+            }
+            merged = true;
+        }
+        return getPercentile(0, index);
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == 0) {
+                rostis[i] = pRosti;
+                break;
+            }
+        }
+        Unsafe.getUnsafe().putDouble(Rosti.getInitialValueSlot(pRosti, valueOffset), Double.NaN);
+    }
+
+    @Override
+    public void merge(long pRostiA, long pRostiB) {
+        KeyedStates.copyKeys(pRostiB, pRostiA);
+        final int a = getWorker(pRostiA);
+        final int b = getWorker(pRostiB);
+        final KeyedStates statesB = states[b];
+        for (int i = 0, n = statesB.size(); i < n; i++) {
+            mergeState(a, getState(a, statesB.getKey(i)), b, i);
+        }
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        this.valueOffset = types.getColumnCount();
+        types.add(ColumnType.DOUBLE);
+    }
+
+    @Override
+    public void wrapUp(long pRosti) {
+        wrapUpWorker = getWorker(pRosti);
+        KeyedStates.wrapUp(pRosti, valueOffset, writer);
+    }
+
+    private static void addCount(LongList counts, int index, long count) {
+        counts.setQuick(index, counts.getQuick(index) + count);
+    }
+
+    private static void free(LongList stores) {
+        for (int i = 0, n = stores.size(); i < n; i++) {
+            final long store = stores.getQuick(i);
+            if (store != 0) {
+                DDSketch.free(store);
+            }
+        }
+        stores.clear();
+    }
+
+    private static long getStore(LongList stores, int index) {
+        final long store = stores.getQuick(index);
+        if (store != 0) {
+            return store;
+        }
+        final long newStore = DDSketch.alloc();
+        stores.setQuick(index, newStore);
+        return newStore;
+    }
+
+    private void add(int worker, int index, double value) {
+        if (Numbers.isFinite(value)) {
+            counts[worker].increment(index);
+            if (value > 0) {
+                addToStore(positiveStores[worker], index, DDSketch.key(value), 1);
+            } else if (value < 0) {
+                addToStore(negativeStores[worker], index, DDSketch.key(-value), 1);
+            } else {
+                zeroCounts[worker].increment(index);
+            }
+        }
+    }
+
+    private void addToStore(LongList stores, int index, int key, long count) {
+        // store may move when it grows
+        stores.setQuick(index, DDSketch.add(getStore(stores, index), key, count));
+    }
+
+    private double getPercentile(int worker, int index) {
+        return DDSketch.quantile(
+                negativeStores[worker].getQuick(index),
+                zeroCounts[worker].getQuick(index),
+                positiveStores[worker].getQuick(index),
+                counts[worker].getQuick(index),
+                percentile
+        );
+    }
+
+    private int getState(int worker, int key) {
+        final KeyedStates states = this.states[worker];
+        final int size = states.size();
+        final int index = states.indexOf(key);
+        if (index == size) {
+            final LongList counts = this.counts[worker];
+            if (index < counts.size()) {
+                counts.setQuick(index, 0);
+                zeroCounts[worker].setQuick(index, 0);
+                clearStore(positiveStores[worker], index);
+                clearStore(negativeStores[worker], index);
+            } else {
+                counts.add(0);
+                zeroCounts[worker].add(0);
+                positiveStores[worker].add(0);
+                negativeStores[worker].add(0);
+            }
+        }
+        return index;
+    }
+
+    private void clearStore(LongList stores, int index) {
+        final long store = stores.getQuick(index);
+        if (store != 0) {
+            DDSketch.clear(store);
+        }
+    }
+
+    private int getWorker(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == pRosti) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("unknown rosti");
+    }
+
+    private void mergeState(int dstWorker, int dstIndex, int srcWorker, int srcIndex) {
+        addCount(counts[dstWorker], dstIndex, counts[srcWorker].getQuick(srcIndex));
+        addCount(zeroCounts[dstWorker], dstIndex, zeroCounts[srcWorker].getQuick(srcIndex));
+        mergeStore(positiveStores[dstWorker], dstIndex, positiveStores[srcWorker].getQuick(srcIndex));
+        mergeStore(negativeStores[dstWorker], dstIndex, negativeStores[srcWorker].getQuick(srcIndex));
+    }
+
+    private void mergeStore(LongList stores, int index, long src) {
+        if (src != 0) {
+            stores.setQuick(index, DDSketch.merge(getStore(stores, index), src));
+        }
+    }
+
+    private void writePercentile(int key, long valueAddress) {
+        final int index = states[wrapUpWorker].find(key);
+        Unsafe.getUnsafe().putDouble(valueAddress, index > -1 ? getPercentile(wrapUpWorker, index) : Double.NaN);
+    }
+}
@@ -67,6 +67,11 @@ public class GroupByNotKeyedVectorRecordCursorFactory implements RecordCursorFac
         this.cursor = new GroupByNotKeyedVectorRecordCursor(this.vafList);
     }
 
+    @Override
+    public void close() {
+        Misc.freeObjList(vafList);
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         final MessageBus bus = executionContext.getMessageBus();
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * Group states of a vector aggregate function that aggregates in Java rather than in native code.
+ * Rosti slots are fixed width and can be looked up by native code only, so each worker keeps
+ * its group states on the side: states are numbered in the order groups are first seen and this
+ * class maps group key to state index. Rosti still receives group keys, so that the cursor
+ * shows every group. Function merges states of workers by key and writes final values into rosti
+ * slots when it wraps up.
+ */
+final class KeyedStates implements Mutable {
+    private final LongIntHashMap indexes = new LongIntHashMap();
+    private final IntList keys = new IntList();
+
+    /**
+     * Makes sure keys of the source rosti are in the destination rosti. Values of added
+     * keys are initial values of the destination.
+     */
+    static void copyKeys(long pRostiSrc, long pRostiDst) {
+        final long size = Rosti.getSize(pRostiSrc);
+        if (size == 0) {
+            return;
+        }
+        final long mem = Unsafe.malloc(size * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+        try {
+            final long slots = Rosti.getSlots(pRostiSrc);
+            final long shift = Rosti.getSlotShift(pRostiSrc);
+            final long start = Rosti.getCtrl(pRostiSrc);
+            long ctrl = start;
+            long p = mem;
+            for (long count = size; count > 0; ctrl++) {
+                if ((Unsafe.getUnsafe().getByte(ctrl) & 0x80) == 0) {
+                    Unsafe.getUnsafe().putInt(p, Unsafe.getUnsafe().getInt(slots + ((ctrl - start) << shift)));
+                    p += Integer.BYTES;
+                    count--;
+                }
+            }
+            Rosti.keyedIntDistinct(pRostiDst, mem, size);
+        } finally {
+            Unsafe.free(mem, size * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    /**
+     * Reads group key the same way native keyed aggregation does.
+     *
+     * @param keyKind     kind of the key column, see {@link io.questdb.griffin.SqlCodeGenerator#GKK_HOUR_INT}
+     * @param keyAddress  address of the key column page
+     * @param row         row index within the page
+     * @return group key
+     */
+    static int getKey(int keyKind, long keyAddress, long row) {
+        if (keyKind == GKK_HOUR_INT) {
+            return Timestamps.getHourOfDay(Unsafe.getUnsafe().getLong(keyAddress + (row << 3)));
+        }
+        return Unsafe.getUnsafe().getInt(keyAddress + (row << 2));
+    }
+
+    /**
+     * Passes every slot of the rosti to the writer.
+     *
+     * @param pRosti      rosti
+     * @param valueOffset index of the function's value in the slot
+     * @param writer      writer of the final value
+     */
+    static void wrapUp(long pRosti, int valueOffset, SlotWriter writer) {
+        final long slots = Rosti.getSlots(pRosti);
+        final long shift = Rosti.getSlotShift(pRosti);
+        final long start = Rosti.getCtrl(pRosti);
+        final int offset = Unsafe.getUnsafe().getInt(Rosti.getValueOffsets(pRosti) + valueOffset * 4L);
+        long ctrl = start;
+        for (long count = Rosti.getSize(pRosti); count > 0; ctrl++) {
+            if ((Unsafe.getUnsafe().getByte(ctrl) & 0x80) == 0) {
+                final long pSlot = slots + ((ctrl - start) << shift);
+                writer.write(Unsafe.getUnsafe().getInt(pSlot), pSlot + offset);
+                count--;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        indexes.clear();
+        keys.clear();
+    }
+
+    /**
+     * @return state index of the group or -1 when the group has not been seen
+     */
+    int find(int key) {
+        return indexes.get(toLong(key));
+    }
+
+    int getKey(int index) {
+        return keys.getQuick(index);
+    }
+
+    /**
+     * @return state index of the group, the group is new when the index equals size before the call
+     */
+    int indexOf(int key) {
+        final long k = toLong(key);
+        final int index = indexes.keyIndex(k);
+        if (index < 0) {
+            return indexes.valueAt(index);
+        }
+        final int stateIndex = keys.size();
+        indexes.putAt(index, k, stateIndex);
+        keys.add(key);
+        return stateIndex;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    private static long toLong(int key) {
+        // -1 is reserved by the hash map, unsigned int is never -1
+        return key & 0xffffffffL;
+    }
+
+    @FunctionalInterface
+    interface SlotWriter {
+        void write(int key, long valueAddress);
+    }
+}
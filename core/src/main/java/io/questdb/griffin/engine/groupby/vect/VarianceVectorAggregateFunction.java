@@ -0,0 +1,254 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rosti;
+import io.questdb.std.Unsafe;
+
+import java.util.Arrays;
+
+import static io.questdb.griffin.SqlCodeGenerator.GKK_HOUR_INT;
+
+/**
+ * var_samp(), var_pop(), stddev_samp() and stddev_pop() of DOUBLE, INT or LONG column. Each worker
+ * keeps count, mean and sum of squared differences from the mean of its groups, see {@link KeyedStates},
+ * and updates them with Welford's algorithm. States of workers are combined with the parallel variant
+ * of the algorithm by Chan et al., which is as accurate as a single pass over all rows.
+ * Non-keyed aggregation uses single group.
+ */
+public class VarianceVectorAggregateFunction extends DoubleFunction implements VectorAggregateFunction {
+    private static final int COUNT = 0;
+    private static final int MEAN = 1;
+    private static final int M2 = 2;
+    private static final int STATE_SIZE = 3;
+    private final int columnIndex;
+    private final int columnType;
+    private final int keyKind;
+    private final boolean sample;
+    private final boolean stdDev;
+    private final long[] rostis;
+    private final KeyedStates[] states;
+    // per worker count, mean and m2 of groups by state index, count is double to keep the state in one array
+    private final double[][] values;
+    private final KeyedStates.SlotWriter writer = this::writeVariance;
+    private boolean merged;
+    private int valueOffset;
+    private int wrapUpWorker;
+
+    /**
+     * @param sample true for sample variance, false for population variance
+     * @param stdDev true to return square root of variance
+     */
+    public VarianceVectorAggregateFunction(int keyKind, int columnIndex, int workerCount, int columnType, boolean sample, boolean stdDev) {
+        this.columnIndex = columnIndex;
+        this.columnType = ColumnType.tagOf(columnType);
+        this.keyKind = keyKind;
+        this.sample = sample;
+        this.stdDev = stdDev;
+        this.rostis = new long[workerCount];
+        this.states = new KeyedStates[workerCount];
+        this.values = new double[workerCount][];
+        for (int i = 0; i < workerCount; i++) {
+            states[i] = new KeyedStates();
+            values[i] = new double[16 * STATE_SIZE];
+        }
+    }
+
+    @Override
+    public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
+        if (address != 0) {
+            final int index = getState(workerId, 0);
+            for (long i = 0, n = addressSize >>> columnSizeHint; i < n; i++) {
+                add(values[workerId], index, getValue(address, i));
+            }
+        }
+    }
+
+    @Override
+    public void aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId) {
+        final long count = valueAddressSize >>> columnSizeShr;
+        if (keyKind == GKK_HOUR_INT) {
+            Rosti.keyedHourDistinct(pRosti, keyAddress, count);
+        } else {
+            Rosti.keyedIntDistinct(pRosti, keyAddress, count);
+        }
+        if (valueAddress != 0) {
+            for (long i = 0; i < count; i++) {
+                final int index = getState(workerId, KeyedStates.getKey(keyKind, keyAddress, i));
+                add(values[workerId], index, getValue(valueAddress, i));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = states.length; i < n; i++) {
+            states[i].clear();
+        }
+        merged = false;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final int index = getState(0, 0);
+        if (!merged) {
+            for (int i = 1, n = states.length; i < n; i++) {
+                final int src = states[i].find(0);
+                if (src > -1) {
+                    mergeState(values[0], index, values[i], src);
+                }
+            }
+            merged = true;
+        }
+        return getVariance(values[0], index);
+    }
+
+    @Override
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    @Override
+    public void initRosti(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == 0) {
+                rostis[i] = pRosti;
+                break;
+            }
+        }
+        Unsafe.getUnsafe().putDouble(Rosti.getInitialValueSlot(pRosti, valueOffset), Double.NaN);
+    }
+
+    @Override
+    public void merge(long pRostiA, long pRostiB) {
+        KeyedStates.copyKeys(pRostiB, pRostiA);
+        final int a = getWorker(pRostiA);
+        final int b = getWorker(pRostiB);
+        final KeyedStates statesB = states[b];
+        for (int i = 0, n = statesB.size(); i < n; i++) {
+            final int index = getState(a, statesB.getKey(i));
+            mergeState(values[a], index, values[b], i);
+        }
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes types) {
+        this.valueOffset = types.getColumnCount();
+        types.add(ColumnType.DOUBLE);
+    }
+
+    @Override
+    public void wrapUp(long pRosti) {
+        wrapUpWorker = getWorker(pRosti);
+        KeyedStates.wrapUp(pRosti, valueOffset, writer);
+    }
+
+    private static void add(double[] values, int index, double value) {
+        if (Numbers.isFinite(value)) {
+            final int offset = index * STATE_SIZE;
+            final double count = values[offset + COUNT] + 1;
+            final double mean = values[offset + MEAN];
+            final double delta = value - mean;
+            final double newMean = mean + delta / count;
+            values[offset + COUNT] = count;
+            values[offset + MEAN] = newMean;
+            values[offset + M2] += delta * (value - newMean);
+        }
+    }
+
+    private static void mergeState(double[] dst, int dstIndex, double[] src, int srcIndex) {
+        final int srcOffset = srcIndex * STATE_SIZE;
+        final double countB = src[srcOffset + COUNT];
+        if (countB == 0) {
+            return;
+        }
+        final int dstOffset = dstIndex * STATE_SIZE;
+        final double countA = dst[dstOffset + COUNT];
+        final double count = countA + countB;
+        final double delta = src[srcOffset + MEAN] - dst[dstOffset + MEAN];
+        dst[dstOffset + COUNT] = count;
+        dst[dstOffset + MEAN] += delta * countB / count;
+        dst[dstOffset + M2] += src[srcOffset + M2] + delta * delta * countA * countB / count;
+    }
+
+    private int getState(int worker, int key) {
+        final KeyedStates states = this.states[worker];
+        final int size = states.size();
+        final int index = states.indexOf(key);
+        if (index == size) {
+            final int offset = index * STATE_SIZE;
+            if (values[worker].length < offset + STATE_SIZE) {
+                values[worker] = Arrays.copyOf(values[worker], values[worker].length * 2);
+            }
+            Arrays.fill(values[worker], offset, offset + STATE_SIZE, 0);
+        }
+        return index;
+    }
+
+    private double getValue(long address, long row) {
+        switch (columnType) {
+            case ColumnType.INT:
+                return Numbers.intToDouble(Unsafe.getUnsafe().getInt(address + (row << 2)));
+            case ColumnType.LONG:
+                return Numbers.longToDouble(Unsafe.getUnsafe().getLong(address + (row << 3)));
+            default:
+                return Unsafe.getUnsafe().getDouble(address + (row << 3));
+        }
+    }
+
+    private double getVariance(double[] values, int index) {
+        final int offset = index * STATE_SIZE;
+        final double divisor = sample ? values[offset + COUNT] - 1 : values[offset + COUNT];
+        if (divisor < 1) {
+            return Double.NaN;
+        }
+        final double variance = values[offset + M2] / divisor;
+        return stdDev ? Math.sqrt(variance) : variance;
+    }
+
+    private int getWorker(long pRosti) {
+        for (int i = 0, n = rostis.length; i < n; i++) {
+            if (rostis[i] == pRosti) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("unknown rosti");
+    }
+
+    private void writeVariance(int key, long valueAddress) {
+        final int index = states[wrapUpWorker].find(key);
+        Unsafe.getUnsafe().putDouble(valueAddress, index > -1 ? getVariance(values[wrapUpWorker], index) : Double.NaN);
+    }
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+import io.questdb.tasks.LatestByScanTask;
+import org.jetbrains.annotations.NotNull;
+
+abstract class AbstractLatestByAllRecordCursor extends AbstractDescendingRecordListCursor {
+    protected final Map map;
+    protected final RecordSink recordSink;
+    // empty unless every "latest by" column is a symbol, in which case
+    // symbol counts bound the number of keys we can possibly find
+    private final IntList symbolKeyColumnIndexes;
+    private final ObjList<LatestByScan> scans;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+
+    public AbstractLatestByAllRecordCursor(
+            @NotNull Map map,
+            @NotNull DirectLongList rows,
+            @NotNull RecordSink recordSink,
+            @NotNull IntList symbolKeyColumnIndexes,
+            @NotNull ObjList<LatestByScan> scans,
+            @NotNull IntList columnIndexes
+    ) {
+        super(rows, columnIndexes);
+        this.map = map;
+        this.recordSink = recordSink;
+        this.symbolKeyColumnIndexes = symbolKeyColumnIndexes;
+        this.scans = scans;
+    }
+
+    @Override
+    protected void buildTreeMap(SqlExecutionContext executionContext) throws SqlException {
+        final long keyLimit = getKeyLimit();
+        final int scanCount = Math.min(scans.size(), executionContext.getWorkerCount());
+        map.clear();
+        try {
+            if (scanCount > 1) {
+                buildTreeMapParallel(executionContext, scanCount, keyLimit);
+            } else {
+                buildTreeMap(executionContext, keyLimit);
+            }
+        } finally {
+            map.clear();
+        }
+    }
+
+    /**
+     * Scans data frames on the calling thread and stops as soon as
+     * number of found rows reaches key limit.
+     */
+    protected abstract void buildTreeMap(SqlExecutionContext executionContext, long keyLimit) throws SqlException;
+
+    private static void rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        throw CairoException.instance(0).put("latest by scan failed [error=").put(e.getMessage()).put(']');
+    }
+
+    private void buildTreeMapParallel(SqlExecutionContext executionContext, int scanCount, long keyLimit) throws SqlException {
+        final MessageBus bus = executionContext.getMessageBus();
+        final RingQueue<LatestByScanTask> queue = bus.getLatestByScanQueue();
+        final Sequence pubSeq = bus.getLatestByScanPubSeq();
+        final Sequence subSeq = bus.getLatestByScanSubSeq();
+
+        final TableReader reader = this.dataFrameCursor.getTableReader();
+        for (int i = 0; i < scanCount; i++) {
+            scans.getQuick(i).of(reader, this, executionContext, keyLimit);
+        }
+
+        // frames arrive newest first; every scan takes all frames of one partition
+        // and batch is merged in the same order, so that first key occurrence wins
+        DataFrame frame = this.dataFrameCursor.next();
+        while (frame != null && rows.size() < keyLimit) {
+            int batchSize = 0;
+            while (frame != null && batchSize < scanCount) {
+                final LatestByScan scan = scans.getQuick(batchSize++);
+                final int partitionIndex = frame.getPartitionIndex();
+                scan.reset();
+                do {
+                    scan.addFrame(partitionIndex, frame.getRowLo(), frame.getRowHi());
+                    frame = this.dataFrameCursor.next();
+                } while (frame != null && frame.getPartitionIndex() == partitionIndex);
+            }
+
+            doneLatch.reset();
+            int queuedCount = 0;
+            for (int i = 0; i < batchSize; i++) {
+                final long seq = pubSeq.next();
+                if (seq < 0) {
+                    scans.getQuick(i).run();
+                } else {
+                    queue.get(seq).of(scans.getQuick(i), doneLatch);
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // process our own queue
+            // this should fix deadlock with 1 worker configuration
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+
+            for (int i = 0; i < batchSize; i++) {
+                final Throwable error = scans.getQuick(i).getError();
+                if (error != null) {
+                    rethrow(error);
+                }
+            }
+            mergeScans(batchSize, keyLimit);
+        }
+    }
+
+    private long getKeyLimit() {
+        final int n = symbolKeyColumnIndexes.size();
+        if (n == 0) {
+            return Long.MAX_VALUE;
+        }
+        long limit = 1;
+        for (int i = 0; i < n; i++) {
+            // null is a key too
+            final long count = getSymbolTable(symbolKeyColumnIndexes.getQuick(i)).size() + 1;
+            if (limit > Long.MAX_VALUE / count) {
+                return Long.MAX_VALUE;
+            }
+            limit *= count;
+        }
+        return limit;
+    }
+
+    private void mergeScans(int batchSize, long keyLimit) {
+        for (int i = 0; i < batchSize; i++) {
+            final DirectLongList found = scans.getQuick(i).getRows();
+            for (long j = 0, n = found.size(); j < n; j++) {
+                final long rowId = found.get(j);
+                recordA.jumpTo(Rows.toPartitionIndex(rowId), Rows.toLocalRowID(rowId));
+                MapKey key = map.withKey();
+                key.put(recordA, recordSink);
+                if (key.create()) {
+                    rows.add(rowId);
+                    if (rows.size() == keyLimit) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -33,13 +33,12 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rows;
 import org.jetbrains.annotations.NotNull;
 
-class LatestByAllFilteredRecordCursor extends AbstractDescendingRecordListCursor {
+class LatestByAllFilteredRecordCursor extends AbstractLatestByAllRecordCursor {
 
-    private final Map map;
-    private final RecordSink recordSink;
     private final Function filter;
 
     public LatestByAllFilteredRecordCursor(
@@ -47,11 +46,11 @@ class LatestByAllFilteredRecordCursor extends AbstractDescendingRecordListCursor
             @NotNull DirectLongList rows,
             @NotNull RecordSink recordSink,
             @NotNull Function filter,
+            @NotNull IntList symbolKeyColumnIndexes,
+            @NotNull ObjList<LatestByScan> scans,
             @NotNull IntList columnIndexes
     ) {
-        super(rows, columnIndexes);
-        this.map = map;
-        this.recordSink = recordSink;
+        super(map, rows, recordSink, symbolKeyColumnIndexes, scans, columnIndexes);
         this.filter = filter;
     }
 
@@ -62,8 +61,7 @@ class LatestByAllFilteredRecordCursor extends AbstractDescendingRecordListCursor
     }
 
     @Override
-    protected void buildTreeMap(SqlExecutionContext executionContext) throws SqlException {
-        map.clear();
+    protected void buildTreeMap(SqlExecutionContext executionContext, long keyLimit) throws SqlException {
         filter.init(this, executionContext);
 
         DataFrame frame;
@@ -80,10 +78,12 @@ class LatestByAllFilteredRecordCursor extends AbstractDescendingRecordListCursor
                     key.put(recordA, recordSink);
                     if (key.create()) {
                         rows.add(Rows.toRowID(partitionIndex, row));
+                        if (rows.size() == keyLimit) {
+                            return;
+                        }
                     }
                 }
             }
         }
-        map.clear();
     }
 }
@@ -25,6 +25,8 @@
 package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnFilter;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.map.Map;
@@ -33,28 +35,52 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
     private final Map map;
+    private final ObjList<LatestByScan> scans = new ObjList<>();
 
+    /**
+     * @param workerFilters one entry per worker that may scan partitions concurrently, entries are
+     *                      private copies of filter or nulls when there is no filter. Empty list
+     *                      keeps the scan on query thread.
+     */
     public LatestByAllFilteredRecordCursorFactory(
             @NotNull RecordMetadata metadata,
             @NotNull CairoConfiguration configuration,
             @NotNull DataFrameCursorFactory dataFrameCursorFactory,
             @NotNull RecordSink recordSink,
             @Transient @NotNull ColumnTypes columnTypes,
+            @Transient @NotNull ColumnFilter keyColumns,
             @Nullable Function filter,
+            @NotNull ObjList<Function> workerFilters,
             @NotNull IntList columnIndexes
     ) {
         super(metadata, dataFrameCursorFactory, configuration);
         this.map = MapFactory.createMap(configuration, columnTypes);
+        for (int i = 0, n = workerFilters.size(); i < n; i++) {
+            scans.add(new LatestByScan(configuration, columnTypes, recordSink, workerFilters.getQuick(i), columnIndexes));
+        }
+
+        final IntList symbolKeyColumnIndexes = new IntList();
+        for (int i = 0, n = keyColumns.getColumnCount(); i < n; i++) {
+            final int columnIndex = keyColumns.getColumnIndexFactored(i);
+            if (!ColumnType.isSymbol(metadata.getColumnType(columnIndex))) {
+                symbolKeyColumnIndexes.clear();
+                break;
+            }
+            symbolKeyColumnIndexes.add(columnIndex);
+        }
+
         if (filter == null) {
-            this.cursor = new LatestByAllRecordCursor(map, rows, recordSink, columnIndexes);
+            this.cursor = new LatestByAllRecordCursor(map, rows, recordSink, symbolKeyColumnIndexes, scans, columnIndexes);
         } else {
-            this.cursor = new LatestByAllFilteredRecordCursor(map, rows, recordSink, filter, columnIndexes);
+            this.cursor = new LatestByAllFilteredRecordCursor(map, rows, recordSink, filter, symbolKeyColumnIndexes, scans, columnIndexes);
         }
     }
 
@@ -62,6 +88,7 @@ public class LatestByAllFilteredRecordCursorFactory extends AbstractTreeSetRecor
     public void close() {
         super.close();
         map.close();
+        Misc.freeObjList(scans);
     }
 
     @Override
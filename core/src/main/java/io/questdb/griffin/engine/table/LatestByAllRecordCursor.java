@@ -31,41 +31,43 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rows;
 import org.jetbrains.annotations.NotNull;
 
-class LatestByAllRecordCursor extends AbstractDescendingRecordListCursor {
+class LatestByAllRecordCursor extends AbstractLatestByAllRecordCursor {
 
-    private final Map map;
-    private final RecordSink recordSink;
-
-    public LatestByAllRecordCursor(Map map, DirectLongList rows, RecordSink recordSink, @NotNull IntList columnIndexes) {
-        super(rows, columnIndexes);
-        this.map = map;
-        this.recordSink = recordSink;
+    public LatestByAllRecordCursor(
+            @NotNull Map map,
+            @NotNull DirectLongList rows,
+            @NotNull RecordSink recordSink,
+            @NotNull IntList symbolKeyColumnIndexes,
+            @NotNull ObjList<LatestByScan> scans,
+            @NotNull IntList columnIndexes
+    ) {
+        super(map, rows, recordSink, symbolKeyColumnIndexes, scans, columnIndexes);
     }
 
     @Override
-    protected void buildTreeMap(SqlExecutionContext executionContext) {
+    protected void buildTreeMap(SqlExecutionContext executionContext, long keyLimit) {
         DataFrame frame;
-        try {
-            while ((frame = this.dataFrameCursor.next()) != null) {
-                final int partitionIndex = frame.getPartitionIndex();
-                final long rowLo = frame.getRowLo();
-                final long rowHi = frame.getRowHi() - 1;
+        while ((frame = this.dataFrameCursor.next()) != null) {
+            final int partitionIndex = frame.getPartitionIndex();
+            final long rowLo = frame.getRowLo();
+            final long rowHi = frame.getRowHi() - 1;
 
-                recordA.jumpTo(frame.getPartitionIndex(), rowHi);
-                for (long row = rowHi; row >= rowLo; row--) {
-                    recordA.setRecordIndex(row);
-                    MapKey key = map.withKey();
-                    key.put(recordA, recordSink);
-                    if (key.create()) {
-                        rows.add(Rows.toRowID(partitionIndex, row));
+            recordA.jumpTo(frame.getPartitionIndex(), rowHi);
+            for (long row = rowHi; row >= rowLo; row--) {
+                recordA.setRecordIndex(row);
+                MapKey key = map.withKey();
+                key.put(recordA, recordSink);
+                if (key.create()) {
+                    rows.add(Rows.toRowID(partitionIndex, row));
+                    if (rows.size() == keyLimit) {
+                        return;
                     }
                 }
             }
-        } finally {
-            map.clear();
         }
     }
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Backward scan of one partition on behalf of "latest by" cursor. Scan finds the latest
+ * row of every key within its own frames. Instances are handed over to worker threads, so
+ * each owns its record, map and filter. Frames of one partition always go to the same scan
+ * because partition column memory is not safe to read concurrently.
+ */
+public class LatestByScan implements Closeable {
+    private final CairoConfiguration configuration;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final RecordSink recordSink;
+    private final TableReaderSelectedColumnRecord record;
+    private final Function filter;
+    // partition index, row lo and row hi triplets, newest frame first
+    private final LongList frames = new LongList();
+    private Map map;
+    private DirectLongList rows;
+    private long keyLimit;
+    private Throwable error;
+
+    public LatestByScan(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @NotNull RecordSink recordSink,
+            @Nullable Function filter,
+            @NotNull IntList columnIndexes
+    ) {
+        this.configuration = configuration;
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            this.keyTypes.add(keyTypes.getColumnType(i));
+        }
+        this.recordSink = recordSink;
+        this.filter = filter;
+        this.record = new TableReaderSelectedColumnRecord(columnIndexes);
+    }
+
+    @Override
+    public void close() {
+        map = Misc.free(map);
+        rows = Misc.free(rows);
+        Misc.free(filter);
+    }
+
+    public void run() {
+        try {
+            map.clear();
+            rows.clear();
+            for (int i = 0, n = frames.size(); i < n; i += 3) {
+                final int partitionIndex = (int) frames.getQuick(i);
+                final long rowLo = frames.getQuick(i + 1);
+                final long rowHi = frames.getQuick(i + 2) - 1;
+
+                record.jumpTo(partitionIndex, rowHi);
+                for (long row = rowHi; row >= rowLo; row--) {
+                    record.setRecordIndex(row);
+                    if (filter == null || filter.getBool(record)) {
+                        MapKey key = map.withKey();
+                        key.put(record, recordSink);
+                        if (key.create()) {
+                            rows.add(Rows.toRowID(partitionIndex, row));
+                            if (rows.size() == keyLimit) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            map.clear();
+        }
+    }
+
+    void addFrame(int partitionIndex, long rowLo, long rowHi) {
+        frames.add(partitionIndex);
+        frames.add(rowLo);
+        frames.add(rowHi);
+    }
+
+    Throwable getError() {
+        return error;
+    }
+
+    // row ids of the latest rows within scanned frames, newest first
+    DirectLongList getRows() {
+        return rows;
+    }
+
+    void of(
+            TableReader reader,
+            SymbolTableSource symbolTableSource,
+            SqlExecutionContext executionContext,
+            long keyLimit
+    ) throws SqlException {
+        if (map == null) {
+            map = MapFactory.createMap(configuration, keyTypes);
+            rows = new DirectLongList(configuration.getSqlLatestByRowCount());
+        }
+        record.of(reader);
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        this.keyLimit = keyLimit;
+    }
+
+    void reset() {
+        frames.clear();
+        error = null;
+    }
+}
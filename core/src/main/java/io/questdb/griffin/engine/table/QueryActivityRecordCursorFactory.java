@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.ObjList;
+
+public class QueryActivityRecordCursorFactory implements RecordCursorFactory {
+    private static final RecordMetadata METADATA;
+    private static final int N_QUERY_ID_COL = 0;
+    private static final int N_SOURCE_COL = 1;
+    private static final int N_FD_COL = 2;
+    private static final int N_STARTED_COL = 3;
+    private static final int N_ELAPSED_COL = 4;
+    private static final int N_ROWS_COL = 5;
+    private static final int N_CANCELLED_COL = 6;
+    private static final int N_QUERY_COL = 7;
+    private final QueryActivityRecordCursor cursor = new QueryActivityRecordCursor();
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        return cursor.of(executionContext);
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static class QueryActivityRecordCursor implements NoRandomAccessRecordCursor {
+        private final ObjList<QueryRegistry.Entry> entries = new ObjList<>();
+        private final QueryActivityRecord record = new QueryActivityRecord();
+        private int size;
+        private int index;
+        private long now;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < size - 1) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        private QueryActivityRecordCursor of(SqlExecutionContext executionContext) {
+            size = executionContext.getCairoEngine().getQueryRegistry().snapshot(entries);
+            now = executionContext.getCairoEngine().getConfiguration().getMicrosecondClock().getTicks();
+            toTop();
+            return this;
+        }
+
+        private class QueryActivityRecord implements Record {
+            @Override
+            public boolean getBool(int col) {
+                if (col == N_CANCELLED_COL) {
+                    return entries.getQuick(index).isCancelled();
+                }
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long getLong(int col) {
+                final QueryRegistry.Entry entry = entries.getQuick(index);
+                switch (col) {
+                    case N_QUERY_ID_COL:
+                        return entry.getId();
+                    case N_FD_COL:
+                        return entry.getFd();
+                    case N_ELAPSED_COL:
+                        return Math.max(0, now - entry.getStartMicros());
+                    case N_ROWS_COL:
+                        return entry.getRowCount();
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                if (col == N_SOURCE_COL) {
+                    return entries.getQuick(index).getSource();
+                }
+                if (col == N_QUERY_COL) {
+                    return entries.getQuick(index).getQuery();
+                }
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                if (col == N_STARTED_COL) {
+                    return entries.getQuick(index).getStartMicros();
+                }
+                throw new UnsupportedOperationException();
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("query_id", 1, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("source", 2, ColumnType.STRING));
+        metadata.add(new TableColumnMetadata("fd", 3, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("started", 4, ColumnType.TIMESTAMP));
+        metadata.add(new TableColumnMetadata("elapsed_micros", 5, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("rows", 6, ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("cancelled", 7, ColumnType.BOOLEAN));
+        metadata.add(new TableColumnMetadata("query", 8, ColumnType.STRING));
+        METADATA = metadata;
+    }
+}
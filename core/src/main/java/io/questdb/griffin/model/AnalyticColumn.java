@@ -30,9 +30,20 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final int FRAMING_DEFAULT = 0;
+    public static final int FRAMING_ROWS = 1;
+    public static final int FRAMING_RANGE = 2;
+    // frame bounds are relative to the current row: negative values precede it, positive
+    // follow it and the extremes stand for UNBOUNDED PRECEDING and UNBOUNDED FOLLOWING
+    public static final long UNBOUNDED_PRECEDING = Long.MIN_VALUE;
+    public static final long UNBOUNDED_FOLLOWING = Long.MAX_VALUE;
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
+    private int framingMode = FRAMING_DEFAULT;
+    private long rowsLo = UNBOUNDED_PRECEDING;
+    private long rowsHi = 0;
+    private int framePosition;
 
     private AnalyticColumn() {
     }
@@ -48,6 +59,18 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_DEFAULT;
+        rowsLo = UNBOUNDED_PRECEDING;
+        rowsHi = 0;
+        framePosition = 0;
+    }
+
+    public int getFramePosition() {
+        return framePosition;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getPartitionBy() {
@@ -62,8 +85,27 @@ public final class AnalyticColumn extends QueryColumn {
         return orderByDirection;
     }
 
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    public boolean isFramed() {
+        return framingMode != FRAMING_DEFAULT;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFrame(int framingMode, long rowsLo, long rowsHi, int framePosition) {
+        this.framingMode = framingMode;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+        this.framePosition = framePosition;
+    }
 }
@@ -31,12 +31,22 @@ import io.questdb.std.str.CharSink;
 
 public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     public static final ObjectFactory<CopyModel> FACTORY = CopyModel::new;
+    public static final int FORMAT_TEXT = 0;
+    public static final int FORMAT_BINARY = 1;
     private ExpressionNode tableName;
     private ExpressionNode fileName;
     private boolean header;
+    // set when rows are copied out to the client, e.g. COPY x TO STDOUT
+    private QueryModel queryModel;
+    private int format = FORMAT_TEXT;
 
     @Override
     public void clear() {
+        tableName = null;
+        fileName = null;
+        header = false;
+        queryModel = null;
+        format = FORMAT_TEXT;
     }
 
     public ExpressionNode getFileName() {
@@ -47,11 +57,27 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.fileName = fileName;
     }
 
+    public int getFormat() {
+        return format;
+    }
+
+    public void setFormat(int format) {
+        this.format = format;
+    }
+
     @Override
     public int getModelType() {
         return ExecutionModel.COPY;
     }
 
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
     public ExpressionNode getTableName() {
         return tableName;
     }
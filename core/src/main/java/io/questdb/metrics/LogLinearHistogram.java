@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Lock-free log-linear histogram in the spirit of HdrHistogram. Every power of two range is split
+ * into 2^subBucketBits linear sub-buckets, which bounds relative error of bucket boundaries to
+ * 2^-subBucketBits. Values below 2^subBucketBits are counted exactly, values from 2^maxExponent
+ * upwards fall into the +Inf bucket.
+ * <p>
+ * Counters live off-heap in stripes padded to cache line size, threads pick a stripe by thread id. Recording is an
+ * unconditional atomic add to the stripe, so there is no allocation and no CAS retry loop under contention.
+ * Stripes are summed when the histogram is scraped. Memory is allocated on first record to avoid holding
+ * native memory for histograms that are never used.
+ * <p>
+ * Scrapes export one bucket per power of four, the finer buckets are summed into them. This keeps the number
+ * of series per histogram in the tens rather than the hundreds.
+ * <p>
+ * Memory is freed on close, which must happen after producers have stopped. Records arriving
+ * after close are dropped.
+ */
+class LogLinearHistogram implements Histogram {
+    static final int DEFAULT_SUB_BUCKET_BITS = 2;
+    static final int DEFAULT_MAX_EXPONENT = 36;
+    private static final long ADDRESS_OFFSET = Unsafe.getFieldOffset(LogLinearHistogram.class, "address");
+    private static final int MAX_STRIPE_COUNT = 64;
+    // exported bucket boundaries are 2^n-1 where n is a multiple of this step
+    private static final int EXPORTED_EXPONENT_STEP = 2;
+    private static final long CLOSED = -1;
+    private final CharSequence name;
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int maxExponent;
+    // number of finite buckets, +Inf is stored right after them
+    private final int bucketCount;
+    private final long stripeSize;
+    private final int stripeMask;
+    private final long size;
+    private volatile long address;
+
+    LogLinearHistogram(CharSequence name) {
+        this(name, DEFAULT_SUB_BUCKET_BITS, DEFAULT_MAX_EXPONENT);
+    }
+
+    LogLinearHistogram(CharSequence name, int subBucketBits, int maxExponent) {
+        assert subBucketBits > 0 && maxExponent > subBucketBits && maxExponent < 63;
+        this.name = name;
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.maxExponent = maxExponent;
+        this.bucketCount = (maxExponent - subBucketBits + 1) * subBucketCount;
+        // buckets, +Inf and sum, padded to a cache line
+        this.stripeSize = ((long) (bucketCount + 2) * Long.BYTES + 63) & ~63L;
+        final int stripeCount = Math.min(MAX_STRIPE_COUNT, Numbers.ceilPow2(Runtime.getRuntime().availableProcessors()));
+        this.stripeMask = stripeCount - 1;
+        this.size = stripeSize * stripeCount;
+    }
+
+    /**
+     * @param index bucket index
+     * @return inclusive upper bound of values counted by the bucket
+     */
+    long bucketUpperBound(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        final int shift = index / subBucketCount - 1;
+        final long lo = (long) (subBucketCount + index % subBucketCount) << shift;
+        return lo + (1L << shift) - 1;
+    }
+
+    int bucketIndex(long value) {
+        if (value < subBucketCount) {
+            return value > 0 ? (int) value : 0;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= maxExponent) {
+            return bucketCount;
+        }
+        final int shift = exponent - subBucketBits;
+        return (shift + 1) * subBucketCount + (int) ((value >>> shift) & (subBucketCount - 1));
+    }
+
+    @Override
+    public void close() {
+        while (true) {
+            final long address = this.address;
+            if (address == CLOSED) {
+                return;
+            }
+            // retry when we race a first record allocating memory
+            if (Unsafe.cas(this, ADDRESS_OFFSET, address, CLOSED)) {
+                if (address != 0) {
+                    Unsafe.free(address, size, MemoryTag.NATIVE_DEFAULT);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void record(long value) {
+        long address = this.address;
+        if (address == 0) {
+            address = allocate();
+        }
+        if (address == CLOSED) {
+            return;
+        }
+        final long stripe = address + stripeIndex() * stripeSize;
+        Unsafe.getUnsafe().getAndAddLong(null, stripe + (long) bucketIndex(value) * Long.BYTES, 1);
+        Unsafe.getUnsafe().getAndAddLong(null, stripe + (long) (bucketCount + 1) * Long.BYTES, value);
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(CharSink sink) {
+        final long address = this.address;
+        PrometheusFormatUtils.appendHistogramType(name, sink);
+        long count = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            count += sumStripes(address, i);
+            // last sub-bucket of a power of two range ends right below the next power of two
+            if (i % subBucketCount == subBucketCount - 1 && (subBucketBits + i / subBucketCount) % EXPORTED_EXPONENT_STEP == 0) {
+                PrometheusFormatUtils.appendMetricName(name, sink);
+                sink.put("_bucket{le=\"").put(bucketUpperBound(i)).put("\"}");
+                PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+            }
+        }
+        count += sumStripes(address, bucketCount);
+        PrometheusFormatUtils.appendMetricName(name, sink);
+        sink.put("_bucket{le=\"+Inf\"}");
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+        PrometheusFormatUtils.appendMetricName(name, sink);
+        sink.put("_sum");
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, sumStripes(address, bucketCount + 1));
+        PrometheusFormatUtils.appendMetricName(name, sink);
+        sink.put("_count");
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, count);
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private long allocate() {
+        final long address = Unsafe.calloc(size, MemoryTag.NATIVE_DEFAULT);
+        if (Unsafe.cas(this, ADDRESS_OFFSET, 0, address)) {
+            return address;
+        }
+        // another thread got there first
+        Unsafe.free(address, size, MemoryTag.NATIVE_DEFAULT);
+        return this.address;
+    }
+
+    private int stripeIndex() {
+        final long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    private long sumStripes(long address, int slot) {
+        if (address == 0 || address == CLOSED) {
+            return 0;
+        }
+        long sum = 0;
+        for (long stripe = address, hi = address + size; stripe < hi; stripe += stripeSize) {
+            sum += Unsafe.getUnsafe().getLongVolatile(null, stripe + (long) slot * Long.BYTES);
+        }
+        return sum;
+    }
+}
@@ -24,7 +24,18 @@
 
 package io.questdb.metrics;
 
-public interface MetricsRegistry extends Scrapable {
+import java.io.Closeable;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+
+public interface MetricsRegistry extends Scrapable, Closeable {
+
+    /**
+     * Releases native memory held by metrics of this registry. Call it once everything that updates
+     * the metrics has stopped, histogram records arriving afterwards are dropped.
+     */
+    @Override
+    void close();
 
     Counter newCounter(CharSequence name);
 
@@ -35,4 +46,14 @@ public interface MetricsRegistry extends Scrapable {
                                     CharSequence labelName1, CharSequence[] labelValues1);
 
     Gauge newGauge(CharSequence name);
+
+    Histogram newHistogram(CharSequence name);
+
+    Scrapable newVirtualCounter(CharSequence name, LongSupplier valueSupplier);
+
+    Scrapable newVirtualGauge(CharSequence name, LongSupplier valueSupplier);
+
+    Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0, IntToLongFunction valueSupplier);
+
+    Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, LabelledGaugeSource source);
 }
@@ -24,11 +24,21 @@
 
 package io.questdb.metrics;
 
+import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.str.CharSink;
 
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+
 public class MetricsRegistryImpl implements MetricsRegistry {
     private final ObjList<Scrapable> metrics = new ObjList<>();
+    private final ObjList<Histogram> histograms = new ObjList<>();
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndKeepObjects(histograms);
+    }
 
     @Override
     public Counter newCounter(CharSequence name) {
@@ -60,6 +70,42 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public Histogram newHistogram(CharSequence name) {
+        Histogram histogram = new LogLinearHistogram(name);
+        metrics.add(histogram);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    @Override
+    public Scrapable newVirtualCounter(CharSequence name, LongSupplier valueSupplier) {
+        Scrapable counter = new VirtualCounter(name, valueSupplier);
+        metrics.add(counter);
+        return counter;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, LongSupplier valueSupplier) {
+        Scrapable gauge = new VirtualGauge(name, valueSupplier);
+        metrics.add(gauge);
+        return gauge;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0, IntToLongFunction valueSupplier) {
+        Scrapable gauge = new VirtualGaugeWithOneLabel(name, labelName0, labelValues0, valueSupplier);
+        metrics.add(gauge);
+        return gauge;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, LabelledGaugeSource source) {
+        Scrapable gauge = new VirtualGaugeWithDynamicLabel(name, labelName0, source);
+        metrics.add(gauge);
+        return gauge;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         for (int i = 0, n = metrics.size(); i < n; i++) {
@@ -26,8 +26,15 @@ package io.questdb.metrics;
 
 import io.questdb.std.str.CharSink;
 
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+
 public class NullMetricsRegistry implements MetricsRegistry {
 
+    @Override
+    public void close() {
+    }
+
     @Override
     public Counter newCounter(CharSequence name) {
         return NullCounter.INSTANCE;
@@ -50,6 +57,31 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullGauge.INSTANCE;
     }
 
+    @Override
+    public Histogram newHistogram(CharSequence name) {
+        return NullHistogram.INSTANCE;
+    }
+
+    @Override
+    public Scrapable newVirtualCounter(CharSequence name, LongSupplier valueSupplier) {
+        return NullGauge.INSTANCE;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, LongSupplier valueSupplier) {
+        return NullGauge.INSTANCE;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0, IntToLongFunction valueSupplier) {
+        return NullGauge.INSTANCE;
+    }
+
+    @Override
+    public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, LabelledGaugeSource source) {
+        return NullGauge.INSTANCE;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
     }
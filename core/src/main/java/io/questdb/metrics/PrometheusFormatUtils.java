@@ -53,6 +53,23 @@ class PrometheusFormatUtils {
         sink.put("_total counter\n");
     }
 
+    static void appendGaugeType(CharSequence name, CharSink sink) {
+        sink.put(TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" gauge\n");
+    }
+
+    static void appendHistogramType(CharSequence name, CharSink sink) {
+        sink.put(TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" histogram\n");
+    }
+
+    static void appendMetricName(CharSequence name, CharSink sink) {
+        sink.put(METRIC_NAME_PREFIX);
+        sink.put(name);
+    }
+
     static void appendCounterNamePrefix(CharSequence name, CharSink sink) {
         sink.put(METRIC_NAME_PREFIX);
         sink.put(name);
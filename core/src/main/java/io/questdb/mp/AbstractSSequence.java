@@ -49,11 +49,16 @@ abstract class AbstractSSequence extends AbstractSequence implements Sequence {
     public long waitForNext() {
         long r;
         WaitStrategy waitStrategy = getWaitStrategy();
+        boolean waited = false;
         while ((r = next()) < 0) {
             if (r == -2) {
                 continue;
             }
             waitStrategy.await();
+            waited = true;
+        }
+        if (waited) {
+            waitStrategy.reset();
         }
         return r;
     }
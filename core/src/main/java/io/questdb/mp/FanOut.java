@@ -215,6 +215,13 @@ public class FanOut implements Barrier {
                 }
             }
 
+            @Override
+            public void reset() {
+                for (int i = 0, n = waitStrategies.size(); i < n; i++) {
+                    waitStrategies.getQuick(i).reset();
+                }
+            }
+
             @Override
             public void signal() {
                 for (int i = 0, n = waitStrategies.size(); i < n; i++) {
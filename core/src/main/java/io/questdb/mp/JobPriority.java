@@ -0,0 +1,48 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+/**
+ * Scheduling classes of jobs assigned to {@link WorkerPool}. Workers poll high priority jobs
+ * between every normal priority job and run low priority jobs only when there is nothing else
+ * to do, or once in a while to keep them from starving.
+ */
+public final class JobPriority {
+    // ingestion: ILP writers and network I/O, O3 commit pipeline
+    public static final int HIGH = 0;
+    // interactive queries, this is what jobs are assigned with by default
+    public static final int NORMAL = 1;
+    // maintenance: purge, telemetry, housekeeping
+    public static final int LOW = 2;
+    public static final int SIZE = LOW + 1;
+    private static final String[] names = {"high", "normal", "low"};
+
+    private JobPriority() {
+    }
+
+    public static String nameOf(int priority) {
+        return names[priority];
+    }
+}
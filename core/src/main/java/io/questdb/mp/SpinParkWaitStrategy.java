@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wait strategy for a single consumer thread. Consumer spins for a while hoping that
+ * producer is about to publish, then parks until producer signals. Producers pay for a
+ * volatile read only, unless consumer is parked. Spinning starts over every time
+ * consumer gets to the next item.
+ * <p>
+ * Before parking consumer registers itself and returns once more to let the caller
+ * re-check the sequence. Anything published after registration unparks the consumer,
+ * so no wakeup is lost. The park timeout is only a safety net.
+ */
+public class SpinParkWaitStrategy extends AbstractWaitStrategy {
+    private final int spinCount;
+    private final long parkTimeoutNanos;
+    private volatile Thread waiter;
+    private int spins;
+
+    public SpinParkWaitStrategy(int spinCount, long parkTimeoutNanos) {
+        this.spinCount = spinCount;
+        this.parkTimeoutNanos = parkTimeoutNanos;
+    }
+
+    @Override
+    public boolean acceptSignal() {
+        return true;
+    }
+
+    @Override
+    public void await() {
+        if (alerted) {
+            throw AlertedException.INSTANCE;
+        }
+
+        final Thread current = Thread.currentThread();
+        if (waiter == current) {
+            LockSupport.parkNanos(this, parkTimeoutNanos);
+            if (alerted) {
+                throw AlertedException.INSTANCE;
+            }
+        } else if (spins < spinCount) {
+            spins++;
+            Thread.onSpinWait();
+        } else {
+            // caller re-checks sequence after we return, it is safe to park on the next call
+            waiter = current;
+        }
+    }
+
+    @Override
+    public void reset() {
+        waiter = null;
+        spins = 0;
+    }
+
+    @Override
+    public void signal() {
+        final Thread w = waiter;
+        if (w != null) {
+            waiter = null;
+            LockSupport.unpark(w);
+        }
+    }
+}
@@ -31,5 +31,12 @@ public interface WaitStrategy {
 
     void await();
 
+    /**
+     * Called by consumer once wait is over and sequence moved on. Strategies that adapt
+     * to how long consumer has been waiting start over.
+     */
+    default void reset() {
+    }
+
     void signal();
 }
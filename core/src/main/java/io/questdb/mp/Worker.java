@@ -25,9 +25,12 @@
 package io.questdb.mp;
 
 import io.questdb.log.Log;
+import io.questdb.metrics.Histogram;
 import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
@@ -35,7 +38,14 @@ import java.util.concurrent.locks.LockSupport;
 public class Worker extends Thread {
     private final static long RUNNING_OFFSET = Unsafe.getFieldOffset(Worker.class, "running");
     private final static AtomicInteger COUNTER = new AtomicInteger();
-    private final ObjHashSet<? extends Job> jobs;
+    // low priority jobs run at least once per this many iterations even when workers are busy
+    private final static int LOW_PRIORITY_INTERVAL = 64;
+    private final ObjHashSet<? extends Job> highPriorityJobs;
+    private final ObjHashSet<? extends Job> normalPriorityJobs;
+    private final ObjHashSet<? extends Job> lowPriorityJobs;
+    // indexed by priority, null when wait time is not measured
+    private final Histogram[] waitHistograms;
+    private final long[] lastPollNanos = new long[JobPriority.SIZE];
     private final SOCountDownLatch haltLatch;
     private final int affinity;
     private final Log log;
@@ -45,9 +55,16 @@ public class Worker extends Thread {
     private volatile int running = 0;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final long sleepTimeoutNanos;
+    private final WorkerPool.WakeUpStrategy wakeUpStrategy;
+    // written by the worker thread only, read by metrics scrapes
+    // time spent in job runs that did work
+    private long busyNanos;
+    // time spent in job runs that found nothing to do, yielding and parking
+    private long idleNanos;
 
     public Worker(
-            final ObjHashSet<? extends Job> jobs,
+            final ObjList<? extends ObjHashSet<? extends Job>> jobs,
             final SOCountDownLatch haltLatch,
             final int affinity,
             final Log log,
@@ -56,10 +73,23 @@ public class Worker extends Thread {
             final int workerId,
             String poolName,
             long yieldThreshold,
-            long sleepThreshold
+            long sleepThreshold,
+            long sleepTimeout,
+            WorkerPool.WakeUpStrategy wakeUpStrategy,
+            @Nullable WorkerPoolMetrics metrics
     ) {
         this.log = log;
-        this.jobs = jobs;
+        this.highPriorityJobs = jobs.getQuick(JobPriority.HIGH);
+        this.normalPriorityJobs = jobs.getQuick(JobPriority.NORMAL);
+        this.lowPriorityJobs = jobs.getQuick(JobPriority.LOW);
+        if (metrics != null) {
+            this.waitHistograms = new Histogram[JobPriority.SIZE];
+            for (int i = 0; i < JobPriority.SIZE; i++) {
+                waitHistograms[i] = metrics.jobWait(i);
+            }
+        } else {
+            this.waitHistograms = null;
+        }
         this.haltLatch = haltLatch;
         this.setName("questdb-" + poolName + "-" + COUNTER.incrementAndGet());
         this.affinity = affinity;
@@ -68,6 +98,16 @@ public class Worker extends Thread {
         this.workerId = workerId;
         this.yieldThreshold = yieldThreshold;
         this.sleepThreshold = sleepThreshold;
+        this.sleepTimeoutNanos = sleepTimeout * 1_000_000L;
+        this.wakeUpStrategy = wakeUpStrategy;
+    }
+
+    public long getBusyMicros() {
+        return busyNanos / 1000;
+    }
+
+    public long getIdleMicros() {
+        return idleNanos / 1000;
     }
 
     public int getWorkerId() {
@@ -76,6 +116,7 @@ public class Worker extends Thread {
 
     public void halt() {
         running = 2;
+        LockSupport.unpark(this);
     }
 
     @Override
@@ -98,26 +139,57 @@ public class Worker extends Thread {
                         log.info().$("os scheduled [name=").$(getName()).$(']').$();
                     }
                 }
-                setupJobs();
-                int n = jobs.size();
+                setupJobs(highPriorityJobs);
+                setupJobs(normalPriorityJobs);
+                setupJobs(lowPriorityJobs);
+                final long now = System.nanoTime();
+                for (int i = 0; i < JobPriority.SIZE; i++) {
+                    lastPollNanos[i] = now;
+                }
+                final int normalCount = normalPriorityJobs.size();
+                final int lowCount = lowPriorityJobs.size();
+                int lowPriorityCountdown = LOW_PRIORITY_INTERVAL;
                 long uselessCounter = 0;
+                boolean parking = false;
+                long loopNanos = now;
+                long loopBusyNanos = 0;
                 while (running == 1) {
 
-                    boolean useful = false;
-                    for (int i = 0; i < n; i++) {
-                        Unsafe.getUnsafe().loadFence();
-                        try {
-                            try {
-                                useful |= jobs.get(i).run(workerId);
-                            } catch (Throwable e) {
-                                onError(i, e);
-                            }
-                        } finally {
-                            Unsafe.getUnsafe().storeFence();
+                    if (waitHistograms != null) {
+                        // whatever previous iteration did not spend in useful job runs was idle time
+                        final long loopEndNanos = System.nanoTime();
+                        idleNanos += loopEndNanos - loopNanos - (busyNanos - loopBusyNanos);
+                        loopNanos = loopEndNanos;
+                        loopBusyNanos = busyNanos;
+                    }
+
+                    boolean useful = runJobs(highPriorityJobs, JobPriority.HIGH);
+                    boolean usefulNormal = false;
+                    for (int i = 0; i < normalCount; i++) {
+                        usefulNormal |= runJob(normalPriorityJobs.get(i));
+                        // normal job could have taken a while, give ingestion a chance
+                        // before moving on to the next one
+                        useful |= runJobs(highPriorityJobs, JobPriority.HIGH);
+                    }
+                    useful |= usefulNormal;
+                    recordWait(JobPriority.NORMAL, usefulNormal);
+
+                    if (lowCount > 0 && (!useful || --lowPriorityCountdown == 0)) {
+                        lowPriorityCountdown = LOW_PRIORITY_INTERVAL;
+                        boolean usefulLow = false;
+                        for (int i = 0; i < lowCount; i++) {
+                            usefulLow |= runJob(lowPriorityJobs.get(i));
+                            useful |= runJobs(highPriorityJobs, JobPriority.HIGH);
                         }
+                        useful |= usefulLow;
+                        recordWait(JobPriority.LOW, usefulLow);
                     }
 
                     if (useful) {
+                        if (parking) {
+                            wakeUpStrategy.cancelPark();
+                            parking = false;
+                        }
                         uselessCounter = 0;
                         continue;
                     }
@@ -134,7 +206,16 @@ public class Worker extends Thread {
                     }
 
                     if (uselessCounter > sleepThreshold) {
-                        LockSupport.parkNanos(1000000);
+                        if (parking) {
+                            LockSupport.parkNanos(sleepTimeoutNanos);
+                            wakeUpStrategy.cancelPark();
+                            parking = false;
+                        } else {
+                            // producers unpark this worker from now on, the next
+                            // pass over the jobs picks up anything published before
+                            wakeUpStrategy.announcePark();
+                            parking = true;
+                        }
                     }
                 }
             }
@@ -150,10 +231,10 @@ public class Worker extends Thread {
         }
     }
 
-    private void onError(int i, Throwable e) throws Throwable {
+    private void onError(Job job, Throwable e) throws Throwable {
         // Log error even when halt on error is set
         if (log != null) {
-            log.error().$("unhandled error [job=").$(jobs.get(i).toString()).$(", ex=").$(e).$(']').$();
+            log.error().$("unhandled error [job=").$(job.toString()).$(", ex=").$(e).$(']').$();
         } else {
             e.printStackTrace();
         }
@@ -162,7 +243,56 @@ public class Worker extends Thread {
         }
     }
 
-    private void setupJobs() {
+    /**
+     * Records time since jobs of given priority were polled previously when they found work to do.
+     * This is an upper bound of how long that work waited in job queues.
+     */
+    private void recordWait(int priority, boolean useful) {
+        if (waitHistograms != null) {
+            final long now = System.nanoTime();
+            if (useful) {
+                waitHistograms[priority].record((now - lastPollNanos[priority]) / 1000);
+            }
+            lastPollNanos[priority] = now;
+        }
+    }
+
+    private boolean runJob(Job job) throws Throwable {
+        Unsafe.getUnsafe().loadFence();
+        try {
+            try {
+                if (waitHistograms == null) {
+                    return job.run(workerId);
+                }
+                final long start = System.nanoTime();
+                final boolean useful = job.run(workerId);
+                if (useful) {
+                    busyNanos += System.nanoTime() - start;
+                }
+                return useful;
+            } catch (Throwable e) {
+                onError(job, e);
+                return false;
+            }
+        } finally {
+            Unsafe.getUnsafe().storeFence();
+        }
+    }
+
+    private boolean runJobs(ObjHashSet<? extends Job> jobs, int priority) throws Throwable {
+        final int n = jobs.size();
+        if (n == 0) {
+            return false;
+        }
+        boolean useful = false;
+        for (int i = 0; i < n; i++) {
+            useful |= runJob(jobs.get(i));
+        }
+        recordWait(priority, useful);
+        return useful;
+    }
+
+    private void setupJobs(ObjHashSet<? extends Job> jobs) {
         if (running == 1) {
             for (int i = 0; i < jobs.size(); i++) {
                 Unsafe.getUnsafe().loadFence();
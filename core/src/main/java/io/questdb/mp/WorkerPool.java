@@ -32,13 +32,16 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 public class WorkerPool {
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final int workerCount;
     private final int[] workerAffinity;
     private final SOCountDownLatch started = new SOCountDownLatch(1);
-    private final ObjList<ObjHashSet<Job>> workerJobs;
+    // jobs of each worker, indexed by worker and then by priority
+    private final ObjList<ObjList<ObjHashSet<Job>>> workerJobs;
     private final SOCountDownLatch halted;
     private final ObjList<Worker> workers = new ObjList<>();
     private final ObjList<ObjList<Closeable>> cleaners;
@@ -47,6 +50,11 @@ public class WorkerPool {
     private final String poolName;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final long sleepTimeout;
+    private final WakeUpStrategy wakeUpStrategy = new WakeUpStrategy();
+    // producers read this array to wake workers up, it is never resized
+    private final Worker[] parkableWorkers;
+    private WorkerPoolMetrics metrics;
 
     public WorkerPool(WorkerPoolConfiguration configuration) {
         this.workerCount = configuration.getWorkerCount();
@@ -57,13 +65,19 @@ public class WorkerPool {
         this.poolName = configuration.getPoolName();
         this.yieldThreshold = configuration.getYieldThreshold();
         this.sleepThreshold = configuration.getSleepThreshold();
+        this.sleepTimeout = configuration.getSleepTimeout();
+        this.parkableWorkers = new Worker[workerCount];
 
         assert workerAffinity.length == workerCount;
 
         this.workerJobs = new ObjList<>(workerCount);
         this.cleaners = new ObjList<>(workerCount);
         for (int i = 0; i < workerCount; i++) {
-            workerJobs.add(new ObjHashSet<>());
+            final ObjList<ObjHashSet<Job>> jobs = new ObjList<>(JobPriority.SIZE);
+            for (int j = 0; j < JobPriority.SIZE; j++) {
+                jobs.add(new ObjHashSet<>());
+            }
+            workerJobs.add(jobs);
             cleaners.add(new ObjList<>());
         }
     }
@@ -76,16 +90,31 @@ public class WorkerPool {
      * @param job instance of job
      */
     public void assign(Job job) {
+        assign(job, JobPriority.NORMAL);
+    }
+
+    /**
+     * Assigns job instance to all workers with given scheduling priority.
+     *
+     * @param job      instance of job
+     * @param priority one of {@link JobPriority} constants
+     */
+    public void assign(Job job, int priority) {
         assert !running.get();
 
         for (int i = 0; i < workerCount; i++) {
-            workerJobs.getQuick(i).add(job);
+            assign(i, job, priority);
         }
     }
 
     public void assign(int worker, Job job) {
+        assign(worker, job, JobPriority.NORMAL);
+    }
+
+    public void assign(int worker, Job job, int priority) {
         assert worker > -1 && worker < workerCount;
-        workerJobs.getQuick(worker).add(job);
+        assert priority > -1 && priority < JobPriority.SIZE;
+        workerJobs.getQuick(worker).getQuick(priority).add(job);
     }
 
     public void assign(int worker, Closeable cleaner) {
@@ -101,10 +130,47 @@ public class WorkerPool {
         }
     }
 
+    public long getBusyMicros() {
+        long micros = 0;
+        for (int i = 0, n = workers.size(); i < n; i++) {
+            micros += workers.getQuick(i).getBusyMicros();
+        }
+        return micros;
+    }
+
+    public long getIdleMicros() {
+        long micros = 0;
+        for (int i = 0, n = workers.size(); i < n; i++) {
+            micros += workers.getQuick(i).getIdleMicros();
+        }
+        return micros;
+    }
+
+    /**
+     * Wait strategy that wakes idle workers of this pool up. Use it for sequences consumed by
+     * jobs of this pool, so that publishing to the sequence does not have to wait for idle
+     * workers to wake up on their own.
+     *
+     * @return wait strategy to signal the pool with
+     */
+    public WaitStrategy getWakeUpStrategy() {
+        return wakeUpStrategy;
+    }
+
     public int getWorkerCount() {
         return workerCount;
     }
 
+    /**
+     * Enables job wait time histograms and job run time measurement, must be called before pool is started.
+     *
+     * @param metrics metrics to record wait times to
+     */
+    public void setMetrics(WorkerPoolMetrics metrics) {
+        assert !running.get();
+        this.metrics = metrics;
+    }
+
     public void halt() {
         if (running.compareAndSet(true, false)) {
             started.await();
@@ -141,10 +207,14 @@ public class WorkerPool {
                         i,
                         poolName,
                         yieldThreshold,
-                        sleepThreshold
+                        sleepThreshold,
+                        sleepTimeout,
+                        wakeUpStrategy,
+                        metrics
                 );
                 worker.setDaemon(daemons);
                 workers.add(worker);
+                parkableWorkers[i] = worker;
                 worker.start();
             }
             if (log != null) {
@@ -153,4 +223,45 @@ public class WorkerPool {
             started.countDown();
         }
     }
+
+    final class WakeUpStrategy implements WaitStrategy {
+        private final AtomicInteger parkingCount = new AtomicInteger();
+
+        @Override
+        public boolean acceptSignal() {
+            return true;
+        }
+
+        @Override
+        public void alert() {
+        }
+
+        @Override
+        public void await() {
+            // workers do not block on sequences, they move on to other jobs
+            Thread.onSpinWait();
+        }
+
+        @Override
+        public void signal() {
+            if (parkingCount.get() > 0) {
+                for (int i = 0; i < workerCount; i++) {
+                    final Worker worker = parkableWorkers[i];
+                    if (worker != null) {
+                        // unpark of a worker that is not parked makes its next park return
+                        // immediately, which costs one extra pass over the jobs
+                        LockSupport.unpark(worker);
+                    }
+                }
+            }
+        }
+
+        void announcePark() {
+            parkingCount.incrementAndGet();
+        }
+
+        void cancelPark() {
+            parkingCount.decrementAndGet();
+        }
+    }
 }
@@ -46,4 +46,12 @@ public interface WorkerPoolConfiguration {
     default long getSleepThreshold() {
         return 10000;
     }
+
+    /**
+     * @return how long idle worker parks for, in milliseconds, unless it is woken up by
+     * {@link WorkerPool#getWakeUpStrategy()}
+     */
+    default long getSleepTimeout() {
+        return 1;
+    }
 }
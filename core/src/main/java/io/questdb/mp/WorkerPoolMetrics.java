@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+import io.questdb.metrics.Histogram;
+import io.questdb.metrics.MetricsRegistry;
+
+/**
+ * Measures time workers spent in job runs that did work and the rest of their time, which
+ * went to job runs that found nothing to do, yielding and parking. Workers maintain plain
+ * per thread counters, these are summed only when scraped. Time that work waited for a worker
+ * is recorded per job priority.
+ */
+public class WorkerPoolMetrics {
+    private final Histogram[] jobWait = new Histogram[JobPriority.SIZE];
+    private WorkerPool workerPool;
+
+    public WorkerPoolMetrics(MetricsRegistry metricsRegistry) {
+        metricsRegistry.newVirtualCounter("worker_busy_micros", this::getBusyMicros);
+        metricsRegistry.newVirtualCounter("worker_idle_micros", this::getIdleMicros);
+        for (int i = 0; i < JobPriority.SIZE; i++) {
+            jobWait[i] = metricsRegistry.newHistogram("worker_" + JobPriority.nameOf(i) + "_priority_job_wait_micros");
+        }
+    }
+
+    public Histogram jobWait(int priority) {
+        return jobWait[priority];
+    }
+
+    public void of(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    private long getBusyMicros() {
+        final WorkerPool pool = workerPool;
+        return pool != null ? pool.getBusyMicros() : 0;
+    }
+
+    private long getIdleMicros() {
+        final WorkerPool pool = workerPool;
+        return pool != null ? pool.getIdleMicros() : 0;
+    }
+}
@@ -53,7 +53,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected final IOContextFactory<C> ioContextFactory;
     protected final NetworkFacade nf;
     protected final int initialBias;
-    private final AtomicInteger connectionCount = new AtomicInteger();
+    // shared by all shards of the same server, connection limit applies to server as a whole
+    private final AtomicInteger connectionCount;
     protected final RingQueue<IOEvent<C>> disconnectQueue;
     protected final MPSequence disconnectPubSeq;
     protected final SCSequence disconnectSubSeq;
@@ -63,6 +64,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     private final int sndBufSize;
     private final int rcvBufSize;
     private volatile boolean listening;
+    private boolean closing;
     private final long queuedConnectionTimeoutMs;
     private long closeListenFdEpochMs;
     private final boolean peerNoLinger;
@@ -70,6 +72,14 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     public AbstractIODispatcher(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
+    ) {
+        this(configuration, ioContextFactory, new AtomicInteger());
+    }
+
+    public AbstractIODispatcher(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            AtomicInteger connectionCount
     ) {
         this.LOG = LogFactory.getLog(configuration.getDispatcherLogName());
         this.configuration = configuration;
@@ -92,6 +102,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
         this.clock = configuration.getClock();
         this.activeConnectionLimit = configuration.getActiveConnectionLimit();
+        this.connectionCount = connectionCount;
         this.ioContextFactory = ioContextFactory;
         this.initialBias = configuration.getInitialBias();
         this.idleConnectionTimeout = configuration.getIdleConnectionTimeout() > 0 ? configuration.getIdleConnectionTimeout() : Long.MIN_VALUE;
@@ -106,6 +117,9 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
     private void createListenFd() throws NetworkError {
         this.serverFd = nf.socketTcp(false);
+        if (configuration.getDispatcherShardCount() > 1 && nf.setReusePort(this.serverFd) < 0) {
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).I$();
+        }
         if (nf.bindTcp(this.serverFd, configuration.getBindIPv4Address(), configuration.getBindPort())) {
             nf.listen(this.serverFd, configuration.getListenBacklog());
         } else {
@@ -119,6 +133,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
     @Override
     public void close() {
+        closing = true;
         processDisconnects(Long.MAX_VALUE);
         for (int i = 0, n = pending.size(); i < n; i++) {
             doDisconnect(pending.get(i), DISCONNECT_SRC_SHUTDOWN);
@@ -186,8 +201,9 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     }
 
     protected void accept(long timestamp) {
-        int tlConCount = this.connectionCount.get();
-        while (tlConCount < activeConnectionLimit) {
+        // connection slot is reserved before accept, counter might be shared with
+        // other dispatchers accepting connections concurrently
+        while (reserveConnection()) {
             // this accept is greedy, rather than to rely on epoll(or similar) to
             // fire accept requests at us one at a time we will be actively accepting
             // until nothing left.
@@ -195,6 +211,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
             long fd = nf.accept(serverFd);
 
             if (fd < 0) {
+                connectionCount.decrementAndGet();
                 if (nf.errno() != Net.EWOULDBLOCK) {
                     LOG.error().$("could not accept [ret=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
                 }
@@ -202,6 +219,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
             }
 
             if (nf.configureNonBlocking(fd) < 0) {
+                connectionCount.decrementAndGet();
                 LOG.error().$("could not configure non-blocking [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
                 nf.close(fd, LOG);
                 break;
@@ -226,17 +244,36 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
             }
 
             LOG.info().$("connected [ip=").$ip(nf.getPeerIP(fd)).$(", fd=").$(fd).$(']').$();
-            tlConCount = connectionCount.incrementAndGet();
             addPending(fd, timestamp);
         }
 
-        if (tlConCount >= activeConnectionLimit) {
-            if (connectionCount.get() >= activeConnectionLimit) {
-                unregisterListenerFd();
-                listening = false;
-                closeListenFdEpochMs = timestamp + queuedConnectionTimeoutMs;
-                LOG.info().$("max connection limit reached, unregistered listener [serverFd=").$(serverFd).I$();
+        if (connectionCount.get() >= activeConnectionLimit) {
+            unregisterListenerFd();
+            listening = false;
+            closeListenFdEpochMs = timestamp + queuedConnectionTimeoutMs;
+            LOG.info().$("max connection limit reached, unregistered listener [serverFd=").$(serverFd).I$();
+        }
+    }
+
+    private boolean reserveConnection() {
+        int count;
+        do {
+            count = connectionCount.get();
+            if (count >= activeConnectionLimit) {
+                return false;
+            }
+        } while (!connectionCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private void resumeListening() {
+        if (!listening && !closing && connectionCount.get() < activeConnectionLimit) {
+            if (serverFd < 0) {
+                createListenFd();
             }
+            registerListenerFd();
+            listening = true;
+            LOG.info().$("below maximum connection limit, registered listener [serverFd=").$(serverFd).I$();
         }
     }
 
@@ -267,16 +304,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
                 .$(']').$();
         nf.close(fd, LOG);
         ioContextFactory.done(context);
-        if (connectionCount.getAndDecrement() >= activeConnectionLimit) {
-            if (connectionCount.get() < activeConnectionLimit) {
-                if (serverFd < 0) {
-                    createListenFd();
-                }
-                registerListenerFd();
-                listening = true;
-                LOG.info().$("below maximum connection limit, registered listener [serverFd=").$(serverFd).I$();
-            }
-        }
+        connectionCount.decrementAndGet();
+        resumeListening();
     }
 
     protected abstract void pendingAdded(int index);
@@ -287,6 +316,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
 
     protected void processDisconnects(long epochMs) {
         disconnectSubSeq.consumeAll(disconnectQueue, this.disconnectContextRef);
+        // connection might have been released by another dispatcher sharing the counter
+        resumeListening();
         if (!listening && serverFd >= 0 && epochMs >= closeListenFdEpochMs) {
             LOG.info().$("been unable to accept connections for ").$(queuedConnectionTimeoutMs).$("ms, closing listener [serverFd=").$(serverFd).I$();
             nf.close(serverFd);
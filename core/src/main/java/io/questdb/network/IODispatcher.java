@@ -53,6 +53,18 @@ public interface IODispatcher<C extends IOContext> extends Closeable, Job {
 
     boolean processIOQueue(IORequestProcessor<C> processor);
 
+    /**
+     * Same as {@link #processIOQueue(IORequestProcessor)}, but lets dispatcher prefer events
+     * of connections that have affinity to the calling worker.
+     *
+     * @param workerId  id of calling worker
+     * @param processor processor of IO event
+     * @return true if event has been processed
+     */
+    default boolean processIOQueue(int workerId, IORequestProcessor<C> processor) {
+        return processIOQueue(processor);
+    }
+
     boolean isListening();
 
     void registerChannel(C context, int operation);
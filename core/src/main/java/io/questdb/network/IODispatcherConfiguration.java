@@ -42,6 +42,14 @@ public interface IODispatcherConfiguration {
         return "IODispatcher";
     }
 
+    /**
+     * Number of dispatchers sharing listening port via SO_REUSEPORT. Each dispatcher has its own
+     * poll set and queues. Values above 1 take effect on Linux only and are capped by worker count.
+     */
+    default int getDispatcherShardCount() {
+        return 1;
+    }
+
     EpollFacade getEpollFacade();
 
     int getEventCapacity();
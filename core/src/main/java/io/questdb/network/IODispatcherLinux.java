@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher<C> {
     private static final int M_ID = 2;
     private final Epoll epoll;
@@ -33,7 +35,15 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
     ) {
-        super(configuration, ioContextFactory);
+        this(configuration, ioContextFactory, new AtomicInteger());
+    }
+
+    public IODispatcherLinux(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            AtomicInteger connectionCount
+    ) {
+        super(configuration, ioContextFactory, connectionCount);
         this.epoll = new Epoll(configuration.getEpollFacade(), configuration.getEventCapacity());
         registerListenerFd();
     }
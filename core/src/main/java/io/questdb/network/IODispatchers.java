@@ -24,13 +24,51 @@
 
 package io.questdb.network;
 
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class IODispatchers {
 
     private IODispatchers() {
     }
 
+    /**
+     * Creates dispatcher sharded according to {@link IODispatcherConfiguration#getDispatcherShardCount()}.
+     * Sharding is only supported on Linux, where kernel balances connections between sockets that
+     * share port. Elsewhere, and when shard count is 1, this is the same as single dispatcher.
+     *
+     * @param configuration    dispatcher configuration
+     * @param ioContextFactory connection context factory shared by all shards
+     * @param workerCount      number of workers running dispatcher, caps number of shards
+     * @return dispatcher
+     */
+    public static <C extends IOContext> IODispatcher<C> create(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            int workerCount
+    ) {
+        final int shardCount = Math.min(configuration.getDispatcherShardCount(), workerCount);
+        if (shardCount < 2 || (Os.type != Os.LINUX_AMD64 && Os.type != Os.LINUX_ARM64)) {
+            return create(configuration, ioContextFactory);
+        }
+
+        final ObjList<IODispatcher<C>> shards = new ObjList<>(shardCount);
+        // active connection limit applies to all shards together
+        final AtomicInteger connectionCount = new AtomicInteger();
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new IODispatcherLinux<>(configuration, ioContextFactory, connectionCount));
+            }
+        } catch (Throwable e) {
+            Misc.freeObjList(shards);
+            throw e;
+        }
+        return new ShardedIODispatcher<>(shards);
+    }
+
     public static <C extends IOContext> IODispatcher<C> create(
             IODispatcherConfiguration configuration,
             IOContextFactory<C> ioContextFactory
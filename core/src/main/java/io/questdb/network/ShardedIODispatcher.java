@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.network;
+
+import io.questdb.mp.EagerThreadSetup;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Spreads connections across several dispatchers, each with own listening socket bound to the
+ * same port with SO_REUSEPORT, own poll set and own event queues. Kernel balances new connections
+ * between listening sockets. Worker runs dispatcher shard that matches its id, which gives connections
+ * affinity to subset of workers. Workers only pick up events from other shards when their own
+ * shard is idle. Shards share connection counter, so that active connection limit applies to
+ * the server as a whole rather than to each shard.
+ */
+public class ShardedIODispatcher<C extends IOContext> implements IODispatcher<C>, EagerThreadSetup {
+    private final ObjList<IODispatcher<C>> shards;
+    private final int shardCount;
+
+    public ShardedIODispatcher(ObjList<IODispatcher<C>> shards) {
+        assert shards.size() > 0;
+        this.shards = shards;
+        this.shardCount = shards.size();
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndKeepObjects(shards);
+    }
+
+    @Override
+    public void disconnect(C context, int reason) {
+        // context is always bound to the shard that accepted it
+        @SuppressWarnings("unchecked") final IODispatcher<C> dispatcher = (IODispatcher<C>) context.getDispatcher();
+        dispatcher.disconnect(context, reason);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        // shards share connection counter
+        return shards.getQuick(0).getConnectionCount();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public boolean isListening() {
+        for (int i = 0; i < shardCount; i++) {
+            if (shards.getQuick(i).isListening()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean processIOQueue(IORequestProcessor<C> processor) {
+        for (int i = 0; i < shardCount; i++) {
+            if (shards.getQuick(i).processIOQueue(processor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean processIOQueue(int workerId, IORequestProcessor<C> processor) {
+        final int home = workerId % shardCount;
+        if (shards.getQuick(home).processIOQueue(processor)) {
+            return true;
+        }
+        for (int i = 1; i < shardCount; i++) {
+            if (shards.getQuick((home + i) % shardCount).processIOQueue(processor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void registerChannel(C context, int operation) {
+        @SuppressWarnings("unchecked") final IODispatcher<C> dispatcher = (IODispatcher<C>) context.getDispatcher();
+        dispatcher.registerChannel(context, operation);
+    }
+
+    @Override
+    public boolean run(int workerId) {
+        // shard count never exceeds worker count, each shard is polled by its own subset of workers
+        return shards.getQuick(workerId % shardCount).run(workerId);
+    }
+
+    @Override
+    public void setup() {
+        // all shards share context factory, setting up one of them is enough
+        final IODispatcher<C> shard = shards.getQuick(0);
+        if (shard instanceof EagerThreadSetup) {
+            ((EagerThreadSetup) shard).setup();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import java.io.Closeable;
+
+/**
+ * Thread-safe counterpart of {@link AssociativeCache}. Keys are spread across stripes,
+ * each stripe is an AssociativeCache guarded by its own lock. Values are meant to be
+ * checked out with {@link #poll(CharSequence)}, used exclusively by the calling thread
+ * and returned with {@link #put(CharSequence, Closeable)}. Values evicted from the cache
+ * are closed by the thread that caused eviction.
+ */
+public class ConcurrentAssociativeCache<V extends Closeable> implements Closeable, Mutable {
+    private final AssociativeCache<V>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentAssociativeCache(int stripeCount, int blocks, int rows) {
+        final int n = Numbers.ceilPow2(Math.max(1, stripeCount));
+        this.stripes = new AssociativeCache[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new AssociativeCache<>(blocks, rows);
+        }
+        this.mask = n - 1;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = stripes.length; i < n; i++) {
+            final AssociativeCache<V> stripe = stripes[i];
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public V poll(CharSequence key) {
+        final AssociativeCache<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.poll(key);
+        }
+    }
+
+    public void put(CharSequence key, V value) {
+        final AssociativeCache<V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    private AssociativeCache<V> stripe(CharSequence key) {
+        // stripe is picked by high bits, AssociativeCache uses low bits of the same hash to find row
+        return stripes[(Hash.spread(Chars.hashCode(key)) >>> 16) & mask];
+    }
+}
@@ -40,9 +40,16 @@ public final class Files {
     public static final int DT_DIR = 4;
     public static final int MAP_RO = 1;
     public static final int MAP_RW = 2;
+    // access pattern hints, translated to the platform values by madvise0() and fadvise0()
+    public static final int ADVICE_NORMAL = 0;
+    public static final int ADVICE_RANDOM = 1;
+    public static final int ADVICE_SEQUENTIAL = 2;
+    public static final int ADVICE_WILLNEED = 3;
+    public static final int ADVICE_DONTNEED = 4;
     public static final char SEPARATOR;
 
     static final AtomicLong OPEN_FILE_COUNT = new AtomicLong();
+    private static final boolean ADVICE_SUPPORTED;
     private static LongHashSet openFds;
 
     private Files() {
@@ -193,6 +200,33 @@ public final class Files {
         return address;
     }
 
+    /**
+     * Advises kernel of the expected access pattern to page cache backing given file region.
+     * Hint is best effort, it is silently ignored when native library does not support it.
+     *
+     * @param fd     file descriptor
+     * @param offset start of file region
+     * @param len    length of file region, 0 means to the end of file
+     * @param advice one of ADVICE_* constants
+     * @return 0 on success or when hints are not supported, non-zero error code otherwise
+     */
+    public static int fadvise(long fd, long offset, long len, int advice) {
+        return ADVICE_SUPPORTED ? fadvise0(fd, offset, len, advice) : 0;
+    }
+
+    /**
+     * Advises kernel of the expected access pattern to mapped memory region. Address must be page aligned.
+     * Hint is best effort, it is silently ignored when native library does not support it.
+     *
+     * @param address start of mapped region
+     * @param len     length of mapped region
+     * @param advice  one of ADVICE_* constants
+     * @return 0 on success or when hints are not supported, non-zero error code otherwise
+     */
+    public static int madvise(long address, long len, int advice) {
+        return ADVICE_SUPPORTED && address != 0 && len > 0 ? madvise0(address, len, advice) : 0;
+    }
+
     public static native int msync(long addr, long len, boolean async);
 
     public static void munmap(long address, long len, int memoryTag) {
@@ -299,6 +333,10 @@ public final class Files {
 
     private static native int munmap0(long address, long len);
 
+    private static native int madvise0(long address, long len, int advice);
+
+    private static native int fadvise0(long fd, long offset, long len, int advice);
+
     private static native long mremap0(long fd, long address, long previousSize, long newSize, long offset, int flags);
 
     private static native long mmap0(long fd, long len, long offset, int flags, long baseAddress);
@@ -342,5 +380,14 @@ public final class Files {
         UTF_8 = StandardCharsets.UTF_8;
         PAGE_SIZE = getPageSize();
         SEPARATOR = Os.type == Os.WINDOWS ? '\\' : '/';
+        boolean adviceSupported;
+        try {
+            madvise0(0, 0, ADVICE_NORMAL);
+            adviceSupported = true;
+        } catch (UnsatisfiedLinkError e) {
+            // native library was built without access pattern hints
+            adviceSupported = false;
+        }
+        ADVICE_SUPPORTED = adviceSupported;
     }
 }
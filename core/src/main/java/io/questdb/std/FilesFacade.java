@@ -38,6 +38,8 @@ public interface FilesFacade {
 
     int errno();
 
+    int fadvise(long fd, long offset, long len, int advice);
+
     boolean exists(LPSZ path);
 
     boolean exists(long fd);
@@ -52,8 +54,12 @@ public interface FilesFacade {
 
     int findType(long findPtr);
 
+    IOURingFacade getIOURingFacade();
+
     long getLastModified(LPSZ path);
 
+    int madvise(long address, long len, int advice);
+
     int msync(long addr, long len, boolean async);
 
     int fsync(long fd);
@@ -96,6 +102,15 @@ public interface FilesFacade {
 
     long read(long fd, long buf, long size, long offset);
 
+    /**
+     * Reads bytes of the file into memory via asynchronous I/O backend, the call returns when
+     * all reads complete.
+     *
+     * @return false when backend is not available or any of the reads failed, memory contents
+     * are undefined in that case and the caller has to fall back to synchronous copy
+     */
+    boolean readAsync(long fd, long buf, long size, long offset);
+
     boolean remove(LPSZ name);
 
     boolean rename(LPSZ from, LPSZ to);
@@ -28,12 +28,20 @@ import io.questdb.cairo.CairoException;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 
+import java.io.Closeable;
+
 public class FilesFacadeImpl implements FilesFacade {
 
     public static final FilesFacade INSTANCE = new FilesFacadeImpl();
+    public static final Closeable CLEANER = FilesFacadeImpl::clearThreadLocals;
     public static final int _16M = 16 * 1024 * 1024;
     private long mapPageSize = 0;
 
+    public static void clearThreadLocals() {
+        Misc.free(IOURingFileReader.READER.get());
+        IOURingFileReader.READER.remove();
+    }
+
     @Override
     public long append(long fd, long buf, int len) {
         return Files.append(fd, buf, len);
@@ -97,11 +105,26 @@ public class FilesFacadeImpl implements FilesFacade {
         return Files.findType(findPtr);
     }
 
+    @Override
+    public IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     @Override
     public long getLastModified(LPSZ path) {
         return Files.getLastModified(path);
     }
 
+    @Override
+    public int madvise(long address, long len, int advice) {
+        return Files.madvise(address, len, advice);
+    }
+
+    @Override
+    public int fadvise(long fd, long offset, long len, int advice) {
+        return Files.fadvise(fd, offset, len, advice);
+    }
+
     @Override
     public int msync(long addr, long len, boolean async) {
         return Files.msync(addr, len, async);
@@ -223,6 +246,12 @@ public class FilesFacadeImpl implements FilesFacade {
         return Files.read(fd, buf, len, offset);
     }
 
+    @Override
+    public boolean readAsync(long fd, long buf, long size, long offset) {
+        final IOURingFacade rf = getIOURingFacade();
+        return rf.isAvailable() && IOURingFileReader.READER.get().read(rf, fd, buf, size, offset);
+    }
+
     @Override
     public boolean remove(LPSZ name) {
         return Files.remove(name);
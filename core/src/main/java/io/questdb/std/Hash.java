@@ -41,6 +41,21 @@ public final class Hash {
         return s == null ? -1 : (Chars.hashCode(s) & 0xFFFFFFF) & max;
     }
 
+    /**
+     * Calculates 64-bit hash of char sequence. All bits of the result depend on the input, which
+     * makes the hash suitable for probabilistic structures, such as HyperLogLog.
+     *
+     * @param s char sequence
+     * @return 64-bit hash code
+     */
+    public static long hashChars64(CharSequence s) {
+        long h = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return murmur3ToLong(h ^ s.length());
+    }
+
     /**
      * Calculates positive integer hash of memory pointer using Java hashcode() algorithm.
      *
@@ -63,6 +78,21 @@ public final class Hash {
         return spread((int) hash);
     }
 
+    /**
+     * 64-bit finalizer of MurmurHash3. Spreads every bit of the value across the whole hash.
+     *
+     * @param k value to hash
+     * @return 64-bit hash code
+     */
+    public static long murmur3ToLong(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
     /**
      * (copied from ConcurrentHashMap)
      * Spreads (XORs) higher bits of hash to lower and also forces top
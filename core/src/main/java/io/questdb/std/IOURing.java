@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import java.io.Closeable;
+
+/**
+ * Submission and completion queue pair of the asynchronous I/O backend. Operations are
+ * queued with enqueue methods, which return operation id or -1 when submission queue is full.
+ * Queued operations are sent to the kernel in a single system call by {@link #submit()}.
+ * Completions are consumed one by one via {@link #nextCqe()}. Instances are not thread-safe.
+ */
+public interface IOURing extends Closeable {
+
+    @Override
+    void close();
+
+    long enqueueFsync(long fd);
+
+    long enqueueNop();
+
+    long enqueueRead(long fd, long offset, long bufPtr, int len);
+
+    long enqueueWrite(long fd, long offset, long bufPtr, int len);
+
+    /**
+     * @return id of the operation of the current completion
+     */
+    long getCqeId();
+
+    /**
+     * @return result of the operation of the current completion, negative value is -errno
+     */
+    int getCqeRes();
+
+    /**
+     * Moves to the next completion.
+     *
+     * @return false when there are no completions available
+     */
+    boolean nextCqe();
+
+    /**
+     * Sends queued operations to the kernel without waiting for completions.
+     *
+     * @return number of submitted operations or negative errno
+     */
+    int submit();
+
+    /**
+     * Sends queued operations to the kernel and waits for at least one completion.
+     *
+     * @return number of submitted operations or negative errno
+     */
+    int submitAndWait();
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+/**
+ * Linux io_uring system calls and kernel ABI layout. Rings are mapped into
+ * process memory and driven by {@link IOURingImpl} via Unsafe.
+ */
+public final class IOURingAccessor {
+    // struct io_uring_params
+    static final int PARAMS_SIZE = 120;
+    static final int PARAMS_SQ_ENTRIES = 0;
+    static final int PARAMS_CQ_ENTRIES = 4;
+    static final int PARAMS_FEATURES = 20;
+    static final int PARAMS_SQ_OFF = 40;
+    static final int PARAMS_CQ_OFF = 80;
+    // struct io_sqring_offsets and struct io_cqring_offsets share the same head of the layout
+    static final int RING_OFF_HEAD = 0;
+    static final int RING_OFF_TAIL = 4;
+    static final int RING_OFF_MASK = 8;
+    static final int SQ_OFF_ARRAY = 24;
+    static final int CQ_OFF_CQES = 20;
+    // struct io_uring_sqe
+    static final int SQE_SIZE = 64;
+    static final int SQE_OPCODE = 0;
+    static final int SQE_FD = 4;
+    static final int SQE_OFF = 8;
+    static final int SQE_ADDR = 16;
+    static final int SQE_LEN = 24;
+    static final int SQE_USER_DATA = 32;
+    // struct io_uring_cqe
+    static final int CQE_SIZE = 16;
+    static final int CQE_USER_DATA = 0;
+    static final int CQE_RES = 8;
+
+    static final long IORING_OFF_SQ_RING = 0;
+    static final long IORING_OFF_SQES = 0x10000000L;
+    static final int IORING_ENTER_GETEVENTS = 1;
+    static final int IORING_FEAT_SINGLE_MMAP = 1;
+    // present since 5.6, the same kernel version that introduced IORING_OP_READ and IORING_OP_WRITE
+    static final int IORING_FEAT_RW_CUR_POS = 1 << 3;
+
+    static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_FSYNC = 3;
+    static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_WRITE = 23;
+
+    private IOURingAccessor() {
+    }
+
+    static native int enter(int fd, int toSubmit, int minComplete, int flags);
+
+    static native int setup(int entries, long params);
+}
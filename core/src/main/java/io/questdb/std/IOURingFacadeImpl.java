@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+public class IOURingFacadeImpl implements IOURingFacade {
+    public static final IOURingFacadeImpl INSTANCE = new IOURingFacadeImpl();
+    private static final boolean available;
+
+    @Override
+    public int close(int fd) {
+        return Files.close(fd);
+    }
+
+    @Override
+    public int enter(int fd, int toSubmit, int minComplete, int flags) {
+        return IOURingAccessor.enter(fd, toSubmit, minComplete, flags);
+    }
+
+    @Override
+    public int errno() {
+        return Os.errno();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public IOURing newInstance(int capacity) {
+        return new IOURingImpl(this, FilesFacadeImpl.INSTANCE, capacity);
+    }
+
+    @Override
+    public int setup(int entries, long params) {
+        return (int) Files.bumpFileCount(IOURingAccessor.setup(entries, params));
+    }
+
+    static {
+        boolean supported = false;
+        if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
+            final long params = Unsafe.calloc(IOURingAccessor.PARAMS_SIZE, MemoryTag.NATIVE_DEFAULT);
+            try {
+                final int fd = IOURingAccessor.setup(2, params);
+                if (fd > -1) {
+                    Files.close(Files.bumpFileCount(fd));
+                    final int features = Unsafe.getUnsafe().getInt(params + IOURingAccessor.PARAMS_FEATURES);
+                    supported = (features & IOURingAccessor.IORING_FEAT_SINGLE_MMAP) != 0
+                            && (features & IOURingAccessor.IORING_FEAT_RW_CUR_POS) != 0;
+                }
+            } catch (UnsatisfiedLinkError ignore) {
+                // native library is built without io_uring support
+            } finally {
+                Unsafe.free(params, IOURingAccessor.PARAMS_SIZE, MemoryTag.NATIVE_DEFAULT);
+            }
+        }
+        available = supported;
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+
+import java.io.Closeable;
+
+/**
+ * Reads file ranges into memory via io_uring. Range is split into blocks and as many blocks as
+ * the ring holds are submitted to the kernel in a single system call. Readers are per thread,
+ * ring is created on first use and released by {@link FilesFacadeImpl#CLEANER}.
+ */
+class IOURingFileReader implements Closeable {
+    static final ThreadLocal<IOURingFileReader> READER = new ThreadLocal<>(IOURingFileReader::new);
+    private static final Log LOG = LogFactory.getLog(IOURingFileReader.class);
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int RING_CAPACITY = 32;
+    // expected result of the in-flight reads by operation id
+    private final LongList lengths = new LongList();
+    private IOURingFacade rf;
+    private IOURing ring;
+    private boolean failed;
+
+    @Override
+    public void close() {
+        ring = Misc.free(ring);
+        rf = null;
+        failed = false;
+    }
+
+    /**
+     * @return true when all bytes were read, false when ring could not be created or any of
+     * the reads failed or was short, memory contents are undefined in that case
+     */
+    boolean read(IOURingFacade rf, long fd, long buf, long len, long offset) {
+        if (this.rf != rf) {
+            close();
+            this.rf = rf;
+            try {
+                ring = rf.newInstance(RING_CAPACITY);
+            } catch (Throwable e) {
+                LOG.error().$("could not create io_uring, reads are synchronous [e=").$(e).$(']').$();
+                failed = true;
+            }
+        }
+        if (failed) {
+            return false;
+        }
+
+        lengths.clear();
+        long firstId = -1;
+        long pos = 0;
+        int inFlight = 0;
+        boolean ok = true;
+        while (true) {
+            while (ok && pos < len) {
+                final int n = (int) Math.min(BLOCK_SIZE, len - pos);
+                final long id = ring.enqueueRead(fd, offset + pos, buf + pos, n);
+                if (id < 0) {
+                    // ring is full
+                    break;
+                }
+                if (firstId == -1) {
+                    firstId = id;
+                }
+                lengths.extendAndSet((int) (id - firstId), n);
+                pos += n;
+                inFlight++;
+            }
+            if (inFlight == 0) {
+                break;
+            }
+            final int res = ring.submitAndWait();
+            if (res < 0) {
+                // reads might still be in flight, ring is not reused
+                LOG.error().$("io_uring submit failed [fd=").$(fd).$(", errno=").$(-res).$(']').$();
+                close();
+                this.rf = rf;
+                failed = true;
+                return false;
+            }
+            while (ring.nextCqe()) {
+                inFlight--;
+                if (ring.getCqeRes() != lengths.getQuick((int) (ring.getCqeId() - firstId))) {
+                    ok = false;
+                }
+            }
+        }
+        return ok;
+    }
+}
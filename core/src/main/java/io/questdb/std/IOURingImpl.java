@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import static io.questdb.std.IOURingAccessor.*;
+
+public class IOURingImpl implements IOURing {
+    private final IOURingFacade rf;
+    private final FilesFacade ff;
+    private final int fd;
+    private final long ringAddr;
+    private final long ringSize;
+    private final long sqesAddr;
+    private final long sqesSize;
+    private final long sqKHeadAddr;
+    private final long sqKTailAddr;
+    private final long sqArrayAddr;
+    private final int sqMask;
+    private final int sqEntries;
+    private final long cqKHeadAddr;
+    private final long cqKTailAddr;
+    private final long cqesAddr;
+    private final int cqMask;
+    private int sqTail;
+    private int sqSubmitted;
+    private long idSeq;
+    private long cqeId = -1;
+    private int cqeRes = -1;
+    private boolean closed = false;
+
+    public IOURingImpl(IOURingFacade rf, FilesFacade ff, int capacity) {
+        assert Numbers.isPow2(capacity);
+        this.rf = rf;
+        this.ff = ff;
+        final long params = Unsafe.calloc(PARAMS_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            final int fd = rf.setup(capacity, params);
+            if (fd < 0) {
+                throw new IllegalStateException("could not setup io_uring [errno=" + rf.errno() + ']');
+            }
+            this.fd = fd;
+
+            final long sqOff = params + PARAMS_SQ_OFF;
+            final long cqOff = params + PARAMS_CQ_OFF;
+            this.sqEntries = Unsafe.getUnsafe().getInt(params + PARAMS_SQ_ENTRIES);
+            final int cqEntries = Unsafe.getUnsafe().getInt(params + PARAMS_CQ_ENTRIES);
+
+            // single mmap feature is a prerequisite, both rings share the same mapping
+            final long sqRingSize = Unsafe.getUnsafe().getInt(sqOff + SQ_OFF_ARRAY) + sqEntries * (long) Integer.BYTES;
+            final long cqRingSize = Unsafe.getUnsafe().getInt(cqOff + CQ_OFF_CQES) + cqEntries * (long) CQE_SIZE;
+            this.ringSize = Math.max(sqRingSize, cqRingSize);
+            this.ringAddr = ff.mmap(fd, ringSize, IORING_OFF_SQ_RING, Files.MAP_RW, MemoryTag.MMAP_DEFAULT);
+            if (ringAddr == FilesFacade.MAP_FAILED) {
+                rf.close(fd);
+                throw new IllegalStateException("could not mmap io_uring ring [errno=" + ff.errno() + ']');
+            }
+            this.sqesSize = sqEntries * (long) SQE_SIZE;
+            this.sqesAddr = ff.mmap(fd, sqesSize, IORING_OFF_SQES, Files.MAP_RW, MemoryTag.MMAP_DEFAULT);
+            if (sqesAddr == FilesFacade.MAP_FAILED) {
+                ff.munmap(ringAddr, ringSize, MemoryTag.MMAP_DEFAULT);
+                rf.close(fd);
+                throw new IllegalStateException("could not mmap io_uring sqes [errno=" + ff.errno() + ']');
+            }
+
+            this.sqKHeadAddr = ringAddr + Unsafe.getUnsafe().getInt(sqOff + RING_OFF_HEAD);
+            this.sqKTailAddr = ringAddr + Unsafe.getUnsafe().getInt(sqOff + RING_OFF_TAIL);
+            this.sqMask = Unsafe.getUnsafe().getInt(ringAddr + Unsafe.getUnsafe().getInt(sqOff + RING_OFF_MASK));
+            this.sqArrayAddr = ringAddr + Unsafe.getUnsafe().getInt(sqOff + SQ_OFF_ARRAY);
+
+            this.cqKHeadAddr = ringAddr + Unsafe.getUnsafe().getInt(cqOff + RING_OFF_HEAD);
+            this.cqKTailAddr = ringAddr + Unsafe.getUnsafe().getInt(cqOff + RING_OFF_TAIL);
+            this.cqMask = Unsafe.getUnsafe().getInt(ringAddr + Unsafe.getUnsafe().getInt(cqOff + RING_OFF_MASK));
+            this.cqesAddr = ringAddr + Unsafe.getUnsafe().getInt(cqOff + CQ_OFF_CQES);
+
+            this.sqTail = this.sqSubmitted = Unsafe.getUnsafe().getInt(sqKTailAddr);
+        } finally {
+            Unsafe.free(params, PARAMS_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        ff.munmap(sqesAddr, sqesSize, MemoryTag.MMAP_DEFAULT);
+        ff.munmap(ringAddr, ringSize, MemoryTag.MMAP_DEFAULT);
+        rf.close(fd);
+        closed = true;
+    }
+
+    @Override
+    public long enqueueFsync(long fd) {
+        return enqueue(IORING_OP_FSYNC, fd, 0, 0, 0);
+    }
+
+    @Override
+    public long enqueueNop() {
+        return enqueue(IORING_OP_NOP, -1, 0, 0, 0);
+    }
+
+    @Override
+    public long enqueueRead(long fd, long offset, long bufPtr, int len) {
+        return enqueue(IORING_OP_READ, fd, offset, bufPtr, len);
+    }
+
+    @Override
+    public long enqueueWrite(long fd, long offset, long bufPtr, int len) {
+        return enqueue(IORING_OP_WRITE, fd, offset, bufPtr, len);
+    }
+
+    @Override
+    public long getCqeId() {
+        return cqeId;
+    }
+
+    @Override
+    public int getCqeRes() {
+        return cqeRes;
+    }
+
+    @Override
+    public boolean nextCqe() {
+        // this is the only consumer of completion queue, head is ours
+        final int head = Unsafe.getUnsafe().getInt(cqKHeadAddr);
+        final int tail = Unsafe.getUnsafe().getIntVolatile(null, cqKTailAddr);
+        if (head == tail) {
+            return false;
+        }
+        final long cqe = cqesAddr + (long) (head & cqMask) * CQE_SIZE;
+        cqeId = Unsafe.getUnsafe().getLong(cqe + CQE_USER_DATA);
+        cqeRes = Unsafe.getUnsafe().getInt(cqe + CQE_RES);
+        Unsafe.getUnsafe().putOrderedInt(null, cqKHeadAddr, head + 1);
+        return true;
+    }
+
+    @Override
+    public int submit() {
+        return enter(0, 0);
+    }
+
+    @Override
+    public int submitAndWait() {
+        return enter(1, IORING_ENTER_GETEVENTS);
+    }
+
+    private int enter(int minComplete, int flags) {
+        final int toSubmit = sqTail - sqSubmitted;
+        // publish queued entries before the kernel looks at the tail
+        Unsafe.getUnsafe().putOrderedInt(null, sqKTailAddr, sqTail);
+        sqSubmitted = sqTail;
+        final int res = rf.enter(fd, toSubmit, minComplete, flags);
+        return res < 0 ? -rf.errno() : res;
+    }
+
+    private long enqueue(byte opcode, long fd, long offset, long addr, int len) {
+        final int head = Unsafe.getUnsafe().getIntVolatile(null, sqKHeadAddr);
+        if (sqTail - head >= sqEntries) {
+            return -1;
+        }
+        final int index = sqTail & sqMask;
+        final long sqe = sqesAddr + (long) index * SQE_SIZE;
+        final long id = idSeq++;
+        Vect.memset(sqe, SQE_SIZE, 0);
+        Unsafe.getUnsafe().putByte(sqe + SQE_OPCODE, opcode);
+        Unsafe.getUnsafe().putInt(sqe + SQE_FD, (int) fd);
+        Unsafe.getUnsafe().putLong(sqe + SQE_OFF, offset);
+        Unsafe.getUnsafe().putLong(sqe + SQE_ADDR, addr);
+        Unsafe.getUnsafe().putInt(sqe + SQE_LEN, len);
+        Unsafe.getUnsafe().putLong(sqe + SQE_USER_DATA, id);
+        Unsafe.getUnsafe().putInt(sqArrayAddr + (long) index * Integer.BYTES, index);
+        sqTail++;
+        return id;
+    }
+}
@@ -34,10 +34,10 @@ import java.util.ArrayDeque;
  * weak object pool is a factory of new instances, when object is popped
  * out of pool there is no reference to tie this object back to pool.
  * <p>
- * In multi-threaded environment weak pools must be local to thread and
- * objects they create can travel between pools, e.g. one thread gets
- * object from pool and last thread to finish with this object then
- * returns it to its own local pool.
+ * Objects return themselves to the pool that created them when closed.
+ * They can be closed by a thread other than the one that popped them,
+ * e.g. when evicted from a cache shared between threads, which is why
+ * pool access is synchronized.
  */
 public class WeakAutoClosableObjectPool<T extends CleanClosable> implements Closeable {
 
@@ -53,18 +53,18 @@ public class WeakAutoClosableObjectPool<T extends CleanClosable> implements Clos
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         while (cache.size() > 0) {
             Misc.free(cache.pop());
         }
     }
 
-    public T pop() {
+    public synchronized T pop() {
         final T obj = cache.poll();
         return obj == null ? factory.newInstance(this) : obj;
     }
 
-    public void push(T obj) {
+    public synchronized void push(T obj) {
         assert obj != null;
         cache.push(obj);
     }
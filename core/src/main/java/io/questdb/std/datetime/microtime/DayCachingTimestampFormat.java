@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std.datetime.microtime;
+
+import io.questdb.std.datetime.DateFormat;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Formats timestamps with patterns ending in "HH:mm:ss.SSSUUU" and optional time zone,
+ * such as ISO and PostgreSQL text formats. Date part of the output is formatted once per
+ * day and reused while consecutive timestamps fall on the same day, which is typical
+ * for time series exports. Time of day is formatted with fixed width arithmetic.
+ * <p>
+ * Instances are stateful and not thread-safe.
+ */
+public class DayCachingTimestampFormat {
+    // HH:mm:ss.SSSUUU
+    private static final int TIME_OF_DAY_LEN = 15;
+    private final DateFormat format;
+    private final CharSequence timeZoneName;
+    private final StringSink datePrefix = new StringSink();
+    private long dayLo = Long.MAX_VALUE;
+    private long dayHi = Long.MIN_VALUE;
+
+    /**
+     * @param format       format to produce date part of the output with, its pattern must end
+     *                     with "HH:mm:ss.SSSUUU", optionally followed by time zone
+     * @param timeZoneName time zone name to print when pattern has one, null otherwise
+     */
+    public DayCachingTimestampFormat(DateFormat format, CharSequence timeZoneName) {
+        this.format = format;
+        this.timeZoneName = timeZoneName;
+    }
+
+    public void format(long micros, CharSink sink) {
+        if (micros < 0) {
+            // pre-epoch timestamps are rare, leave their calendar arithmetic to the format
+            format.format(micros, null, timeZoneName, sink);
+            return;
+        }
+
+        if (micros < dayLo || micros >= dayHi) {
+            cacheDay(micros);
+        }
+
+        sink.put(datePrefix);
+        long t = micros - dayLo;
+        final int hour = (int) (t / Timestamps.HOUR_MICROS);
+        t -= hour * Timestamps.HOUR_MICROS;
+        final int minute = (int) (t / Timestamps.MINUTE_MICROS);
+        t -= minute * Timestamps.MINUTE_MICROS;
+        final int second = (int) (t / Timestamps.SECOND_MICROS);
+        final int fraction = (int) (t - second * Timestamps.SECOND_MICROS);
+
+        put2(sink, hour);
+        sink.put(':');
+        put2(sink, minute);
+        sink.put(':');
+        put2(sink, second);
+        sink.put('.');
+        put6(sink, fraction);
+        if (timeZoneName != null) {
+            sink.put(timeZoneName);
+        }
+    }
+
+    private static void put2(CharSink sink, int value) {
+        sink.put((char) ('0' + value / 10)).put((char) ('0' + value % 10));
+    }
+
+    private static void put6(CharSink sink, int value) {
+        final int hi = value / 1000;
+        final int lo = value - hi * 1000;
+        sink.put((char) ('0' + hi / 100))
+                .put((char) ('0' + hi / 10 % 10))
+                .put((char) ('0' + hi % 10))
+                .put((char) ('0' + lo / 100))
+                .put((char) ('0' + lo / 10 % 10))
+                .put((char) ('0' + lo % 10));
+    }
+
+    private void cacheDay(long micros) {
+        dayLo = micros - micros % Timestamps.DAY_MICROS;
+        dayHi = dayLo + Timestamps.DAY_MICROS;
+        datePrefix.clear();
+        format.format(dayLo, null, timeZoneName, datePrefix);
+        datePrefix.clear(datePrefix.length() - TIME_OF_DAY_LEN - (timeZoneName != null ? timeZoneName.length() : 0));
+    }
+}
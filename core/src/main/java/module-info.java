@@ -496,6 +496,21 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.groupby.CountStringGroupByFunctionFactory,
             io.questdb.griffin.engine.functions.groupby.CountSymbolGroupByFunctionFactory,
             io.questdb.griffin.engine.functions.groupby.CountLong256GroupByFunctionFactory,
+            //      approximate distinct count and percentile group by functions
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctLongGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxCountDistinctStringGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxPercentileDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.ApproxMedianDoubleGroupByFunctionFactory,
+            //      statistical group by functions
+            io.questdb.griffin.engine.functions.groupby.StdDevSampDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.StdDevPopDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.VarSampDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.VarPopDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.CovarSampDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.CovarPopDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.CorrDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.RegrSlopeDoubleGroupByFunctionFactory,
+            io.questdb.griffin.engine.functions.groupby.RegrInterceptDoubleGroupByFunctionFactory,
             //      'haversine_dist_degree' group by function
             io.questdb.griffin.engine.functions.groupby.HaversineDistDegreeGroupByFunctionFactory,
 //                  'isOrdered'
@@ -555,6 +570,7 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.table.AllTablesFunctionFactory,
             io.questdb.griffin.engine.functions.table.TableColumnsFunctionFactory,
             io.questdb.griffin.engine.functions.table.TouchTableFunctionFactory,
+            io.questdb.griffin.engine.functions.table.QueryActivityFunctionFactory,
 
             // first
             io.questdb.griffin.engine.functions.groupby.FirstSymbolGroupByFunctionFactory,
@@ -570,6 +586,24 @@ open module io.questdb {
 
             // analytic functions
             io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.RankFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.DenseRankFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.CountAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.SumAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.SumLongAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.AvgAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MinLongAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.MaxLongAnalyticFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.FirstValueLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LastValueLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LagLongFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadFunctionFactory,
+            io.questdb.griffin.engine.functions.analytic.LeadLongFunctionFactory,
 
             // metadata functions
             io.questdb.griffin.engine.functions.metadata.BuildFunctionFactory,
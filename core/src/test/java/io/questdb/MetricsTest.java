@@ -30,6 +30,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -80,6 +82,11 @@ public class MetricsTest {
         private final Set<CharSequence> metricsWithNotUniqueLabels = new HashSet<>();
         private final Set<CharSequence> notUniqueMetrics = new HashSet<>();
 
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
         @Override
         public Counter newCounter(CharSequence name) {
             addMetricName(name);
@@ -108,6 +115,38 @@ public class MetricsTest {
             return delegate.newGauge(name);
         }
 
+        @Override
+        public Histogram newHistogram(CharSequence name) {
+            addMetricName(name);
+            return delegate.newHistogram(name);
+        }
+
+        @Override
+        public Scrapable newVirtualCounter(CharSequence name, LongSupplier valueSupplier) {
+            addMetricName(name);
+            return delegate.newVirtualCounter(name, valueSupplier);
+        }
+
+        @Override
+        public Scrapable newVirtualGauge(CharSequence name, LongSupplier valueSupplier) {
+            addMetricName(name);
+            return delegate.newVirtualGauge(name, valueSupplier);
+        }
+
+        @Override
+        public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, CharSequence[] labelValues0, IntToLongFunction valueSupplier) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newVirtualGauge(name, labelName0, labelValues0, valueSupplier);
+        }
+
+        @Override
+        public Scrapable newVirtualGauge(CharSequence name, CharSequence labelName0, LabelledGaugeSource source) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newVirtualGauge(name, labelName0, source);
+        }
+
         @Override
         public void scrapeIntoPrometheus(CharSink sink) {
             delegate.scrapeIntoPrometheus(sink);
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.griffin.QueryRegistry;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlowQueryLogJobTest extends AbstractCairoTest {
+
+    @Test
+    public void testFastQueriesAreNotLogged() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public long getSlowQueryLogThresholdUs() {
+                return 60_000_000;
+            }
+        };
+        TestUtils.assertMemoryLeak(() -> {
+            try (CairoEngine engine = new CairoEngine(configuration)) {
+                final SlowQueryLogJob job = new SlowQueryLogJob(engine, null);
+                try {
+                    final QueryRegistry registry = engine.getQueryRegistry();
+                    registry.unregister(registry.register("select 1", 3, QueryRegistry.SOURCE_HTTP, null));
+                    Assert.assertFalse(job.runSerially());
+                } finally {
+                    Misc.free(job);
+                }
+                assertLog(engine, "select query_id from " + SlowQueryLogJob.TABLE_NAME, "query_id\n");
+            }
+        });
+    }
+
+    @Test
+    public void testSlowQueriesAreLogged() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public long getSlowQueryLogThresholdUs() {
+                return 1;
+            }
+        };
+        TestUtils.assertMemoryLeak(() -> {
+            try (CairoEngine engine = new CairoEngine(configuration)) {
+                final SlowQueryLogJob job = new SlowQueryLogJob(engine, null);
+                try {
+                    final QueryRegistry registry = engine.getQueryRegistry();
+                    Assert.assertFalse(job.runSerially());
+
+                    final QueryRegistry.Entry a = registry.register("select * from a", 3, QueryRegistry.SOURCE_HTTP, null);
+                    final QueryRegistry.Entry b = registry.register("select * from b", 4, QueryRegistry.SOURCE_PGWIRE, null);
+                    Os.sleep(2);
+                    a.setRowCount(100);
+                    registry.cancel(b.getId());
+                    registry.unregister(a);
+                    registry.unregister(b);
+                    Assert.assertTrue(job.runSerially());
+                } finally {
+                    Misc.free(job);
+                }
+                assertLog(
+                        engine,
+                        "select source, fd, rows, cancelled, query, elapsed_micros > 1000 slow from " + SlowQueryLogJob.TABLE_NAME + " order by query_id",
+                        "source\tfd\trows\tcancelled\tquery\tslow\n" +
+                                "http\t3\t100\tfalse\tselect * from a\ttrue\n" +
+                                "pgwire\t4\t0\ttrue\tselect * from b\ttrue\n"
+                );
+            }
+        });
+    }
+
+    private static void assertLog(CairoEngine engine, String sql, String expected) throws Exception {
+        try (SqlCompiler compiler = new SqlCompiler(engine)) {
+            final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+            final StringSink sink = new StringSink();
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    sql,
+                    sink,
+                    expected
+            );
+        }
+    }
+}
@@ -68,6 +68,8 @@ public class AbstractCairoTest {
     protected static int sampleByIndexSearchPageSize;
     protected static int binaryEncodingMaxLength = -1;
     protected static CharSequence defaultMapType;
+    protected static long queryResultCacheSize = -1;
+    protected static long sqlCopyParallelChunkSize = -1;
 
     @Rule
     public TestName testName = new TestName();
@@ -136,6 +138,16 @@ public class AbstractCairoTest {
                 }
                 return defaultMapType;
             }
+
+            @Override
+            public long getQueryResultCacheSize() {
+                return queryResultCacheSize > -1 ? queryResultCacheSize : super.getQueryResultCacheSize();
+            }
+
+            @Override
+            public long getSqlCopyParallelChunkSize() {
+                return sqlCopyParallelChunkSize > -1 ? sqlCopyParallelChunkSize : super.getSqlCopyParallelChunkSize();
+            }
         };
         engine = new CairoEngine(configuration);
         messageBus = engine.getMessageBus();
@@ -167,6 +179,8 @@ public class AbstractCairoTest {
         currentMicros = -1;
         sampleByIndexSearchPageSize = -1;
         defaultMapType = null;
+        queryResultCacheSize = -1;
+        sqlCopyParallelChunkSize = -1;
     }
 
     protected static void assertMemoryLeak(TestUtils.LeakProneCode code) throws Exception {
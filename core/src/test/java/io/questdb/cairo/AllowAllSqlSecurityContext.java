@@ -102,8 +102,15 @@ public final class AllowAllSqlSecurityContext {
                 @Nullable VirtualRecord partitionByRecord,
                 @Nullable RecordSink partitionBySink,
                 @Nullable ColumnTypes keyTypes,
+                @Nullable VirtualRecord peerRecord,
+                @Nullable RecordSink peerSink,
+                @Nullable ColumnTypes peerKeyTypes,
                 boolean isOrdered,
-                boolean baseSupportsRandomAccess
+                boolean baseSupportsRandomAccess,
+                int framingMode,
+                long rowsLo,
+                long rowsHi,
+                int timestampIndex
         ) {
         }
 
@@ -49,6 +49,75 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
     private static final int WORK_STEALING_CAS_FLAP = 4;
     private static final Log LOG = LogFactory.getLog(FullFwdDataFrameCursorTest.class);
 
+    @Test
+    public void testAccessAdviceRestored() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int partitionCount = 3;
+            createAdviceTestTable(partitionCount);
+
+            final int[] madviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final int[] fadviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final CairoConfiguration configuration = getAdviceCountingConfiguration(madviseCounts, fadviseCounts);
+
+            final int columnCount = 3;
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                // hot set covers all partitions, nothing is dropped from page cache
+                FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+                cursor.of(reader);
+                while (cursor.next() != null) {
+                    // scan
+                }
+                Assert.assertEquals(partitionCount * columnCount, madviseCounts[Files.ADVICE_SEQUENTIAL]);
+                // hint of the last partition is still in place
+                Assert.assertEquals((partitionCount - 1) * columnCount, madviseCounts[Files.ADVICE_NORMAL]);
+                Assert.assertEquals(0, fadviseCounts[Files.ADVICE_DONTNEED]);
+                // every partition but the first one is read ahead while previous one is scanned
+                Assert.assertEquals((partitionCount - 1) * columnCount, madviseCounts[Files.ADVICE_WILLNEED]);
+
+                cursor.toTop();
+                Assert.assertNotNull(cursor.next().getBitmapIndexReader(0, BitmapIndexReader.DIR_FORWARD));
+                Assert.assertEquals(columnCount, madviseCounts[Files.ADVICE_RANDOM]);
+
+                // pooled reader must not keep scan pattern of the cursor
+                cursor.close();
+                Assert.assertEquals((partitionCount + 1) * columnCount, madviseCounts[Files.ADVICE_NORMAL]);
+            }
+        });
+    }
+
+    @Test
+    public void testBackwardScanAdvice() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int partitionCount = 3;
+            createAdviceTestTable(partitionCount);
+
+            final int[] madviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final int[] fadviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final CairoConfiguration configuration = getAdviceCountingConfiguration(madviseCounts, fadviseCounts);
+
+            final int columnCount = 3;
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                FullBwdDataFrameCursor cursor = new FullBwdDataFrameCursor();
+                cursor.of(reader);
+                int frameCount = 0;
+                while (cursor.next() != null) {
+                    frameCount++;
+                }
+                Assert.assertEquals(partitionCount, frameCount);
+                // scan keeps default access pattern, read-ahead is not turned off
+                Assert.assertEquals(0, madviseCounts[Files.ADVICE_RANDOM]);
+                Assert.assertEquals(0, madviseCounts[Files.ADVICE_SEQUENTIAL]);
+                // every partition but the last one is read ahead while the next one is scanned
+                Assert.assertEquals((partitionCount - 1) * columnCount, madviseCounts[Files.ADVICE_WILLNEED]);
+
+                cursor.toTop();
+                Assert.assertNotNull(cursor.next().getBitmapIndexReader(0, BitmapIndexReader.DIR_BACKWARD));
+                Assert.assertEquals(columnCount, madviseCounts[Files.ADVICE_RANDOM]);
+                cursor.close();
+            }
+        });
+    }
+
     @Test
     public void testClose() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -71,6 +140,40 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testColdPartitionRelease() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int partitionCount = 4;
+            createAdviceTestTable(partitionCount);
+
+            final int[] madviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final int[] fadviseCounts = new int[Files.ADVICE_DONTNEED + 1];
+            final CairoConfiguration configuration = getAdviceCountingConfiguration(madviseCounts, fadviseCounts);
+
+            final int columnCount = 3;
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                Assert.assertEquals(partitionCount, reader.getPartitionCount());
+                // keep single most recent partition in page cache
+                FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor(1);
+                cursor.of(reader);
+                int frameCount = 0;
+                while (cursor.next() != null) {
+                    frameCount++;
+                }
+                Assert.assertEquals(partitionCount, frameCount);
+                Assert.assertEquals(partitionCount * columnCount, madviseCounts[Files.ADVICE_SEQUENTIAL]);
+                // all but the most recent partition are dropped from page cache once scanned
+                Assert.assertEquals((partitionCount - 1) * columnCount, fadviseCounts[Files.ADVICE_DONTNEED]);
+
+                cursor.toTop();
+                Assert.assertNotNull(cursor.next());
+                // index lookups turn read-ahead off
+                Assert.assertNotNull(cursor.next().getBitmapIndexReader(0, BitmapIndexReader.DIR_FORWARD));
+                Assert.assertEquals(columnCount, madviseCounts[Files.ADVICE_RANDOM]);
+            }
+        });
+    }
+
     @Test
     public void testEmptyPartitionSkip() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -997,6 +1100,52 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         Assert.assertEquals(M * 2, count);
     }
 
+    private void createAdviceTestTable(int partitionCount) throws NumericException {
+        try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY).
+                col("a", ColumnType.SYMBOL).indexed(true, 4).
+                col("b", ColumnType.LONG).
+                timestamp()
+        ) {
+            CairoTestUtils.create(model);
+        }
+
+        final Rnd rnd = new Rnd();
+        try (TableWriter writer = new TableWriter(configuration, "x")) {
+            long timestamp = TimestampFormatUtils.parseTimestamp("1970-01-03T00:00:00.000Z");
+            for (int i = 0; i < partitionCount * 10; i++) {
+                TableWriter.Row row = writer.newRow(timestamp);
+                row.putSym(0, rnd.nextChars(2));
+                row.putLong(1, rnd.nextLong());
+                row.append();
+                timestamp += Timestamps.DAY_MICROS / 10;
+            }
+            writer.commit();
+        }
+    }
+
+    private CairoConfiguration getAdviceCountingConfiguration(int[] madviseCounts, int[] fadviseCounts) {
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public int fadvise(long fd, long offset, long len, int advice) {
+                fadviseCounts[advice]++;
+                return super.fadvise(fd, offset, len, advice);
+            }
+
+            @Override
+            public int madvise(long address, long len, int advice) {
+                madviseCounts[advice]++;
+                return super.madvise(address, len, advice);
+            }
+        };
+
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+        };
+    }
+
     private long populateTable(TableWriter writer, String[] symbols, Rnd rnd, long ts, long increment, int count) {
         long timestamp = ts;
         for (int i = 0; i < count; i++) {
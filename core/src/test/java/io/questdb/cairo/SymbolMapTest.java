@@ -27,10 +27,8 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCMARW;
-import io.questdb.std.Chars;
-import io.questdb.std.MemoryTag;
-import io.questdb.std.ObjList;
-import io.questdb.std.Rnd;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -124,6 +122,274 @@ public class SymbolMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testGrowCapacity() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int initialCapacity = 8;
+            final int N = 1000;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", initialCapacity, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < initialCapacity; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertFalse(writer.growCapacity(path, "x"));
+
+                    try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", initialCapacity)) {
+                        Assert.assertEquals(initialCapacity, reader.getSymbolCapacity());
+
+                        for (int i = initialCapacity; i < N; i++) {
+                            Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                        }
+                        Assert.assertTrue(writer.growCapacity(path, "x"));
+
+                        // writer finds existing symbols via new index
+                        rnd.reset();
+                        for (int i = 0; i < N; i++) {
+                            Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                        }
+                        Assert.assertEquals(N, writer.put("new"));
+
+                        // reader switches to new index together with new symbol count
+                        reader.updateSymbolCount(N + 1);
+                        Assert.assertEquals(1024, reader.getSymbolCapacity());
+                        rnd.reset();
+                        for (int i = 0; i < N; i++) {
+                            CharSequence cs = rnd.nextChars(10);
+                            TestUtils.assertEquals(cs, reader.valueOf(i));
+                            Assert.assertEquals(i, reader.keyOf(cs));
+                        }
+                        Assert.assertEquals(N, reader.keyOf("new"));
+                        Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, reader.keyOf("hola"));
+                    }
+                }
+
+                // capacity persists
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                N + 1,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertFalse(writer.growCapacity(path, "x"));
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N + 1)) {
+                    Assert.assertEquals(1024, reader.getSymbolCapacity());
+                    Assert.assertEquals(N, reader.keyOf("new"));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testGrowCapacityRecovery() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 100;
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", 16, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                // simulate writer that died half way through index rebuild
+                final FilesFacade ff = configuration.getFilesFacade();
+                final long fd = ff.openRW(path.concat("x").put(".o").$());
+                path.trimTo(configuration.getRoot().length());
+                Assert.assertTrue(fd > -1);
+                final long buf = Unsafe.malloc(Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    Unsafe.getUnsafe().putInt(buf, 3);
+                    Assert.assertEquals(Integer.BYTES, ff.write(fd, buf, Integer.BYTES, SymbolMapWriter.HEADER_INDEX_VERSION));
+                } finally {
+                    Unsafe.free(buf, Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+                    ff.close(fd);
+                }
+                ff.remove(path.concat("x").put(".v").$());
+                path.trimTo(configuration.getRoot().length());
+
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                N,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N)) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, reader.keyOf(rnd.nextChars(10)));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testGrowCapacityIndexBuildFailure() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 100;
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long openRW(LPSZ name) {
+                    if (Chars.endsWith(name, ".k.r")) {
+                        return -1;
+                    }
+                    return super.openRW(name);
+                }
+            };
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", 16, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    // live index is intact, writer carries on with existing capacity
+                    Assert.assertFalse(writer.growCapacity(path, "x"));
+                    Assert.assertFalse(ff.exists(path.concat("x").put(".v.r").$()));
+                    path.trimTo(configuration.getRoot().length());
+
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    Assert.assertEquals(N, writer.put("new"));
+                    Assert.assertFalse(writer.growCapacity(path, "x"));
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N + 1)) {
+                    Assert.assertEquals(16, reader.getSymbolCapacity());
+                    Assert.assertEquals(N, reader.keyOf("new"));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testGrowCapacityIndexRenameFailure() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 100;
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public boolean rename(LPSZ from, LPSZ to) {
+                    if (Chars.endsWith(to, ".v")) {
+                        return false;
+                    }
+                    return super.rename(from, to);
+                }
+            };
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+            try (Path path = new Path().of(configuration.getRoot())) {
+                create(path, "x", 16, false);
+                Rnd rnd = new Rnd();
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                configuration,
+                                path,
+                                "x",
+                                0,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                    try {
+                        writer.growCapacity(path, "x");
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "could not replace symbol index");
+                    }
+                }
+
+                // next writer finishes the rebuild
+                try (
+                        SymbolMapWriter writer = new SymbolMapWriter(
+                                AbstractCairoTest.configuration,
+                                path,
+                                "x",
+                                N,
+                                -1,
+                                NOOP_COLLECTOR
+                        )
+                ) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, writer.put(rnd.nextChars(10)));
+                    }
+                }
+
+                try (SymbolMapReaderImpl reader = new SymbolMapReaderImpl(configuration, path, "x", N)) {
+                    rnd.reset();
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(i, reader.keyOf(rnd.nextChars(10)));
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testLookupPerformance() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
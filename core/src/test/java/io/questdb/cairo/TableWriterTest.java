@@ -24,6 +24,7 @@
 
 package io.questdb.cairo;
 
+import io.questdb.MessageBusImpl;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.vm.Vm;
@@ -33,16 +34,19 @@ import io.questdb.cairo.vm.api.MemoryMAR;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.MetricsRegistryImpl;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.DateLocaleFactory;
 import io.questdb.std.datetime.microtime.TimestampFormatCompiler;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.NativeLPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -1795,6 +1799,55 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testO3CommitWithinLagRecordsMetrics() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "weather", PartitionBy.DAY)
+                    .col("windspeed", ColumnType.DOUBLE)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            try (MetricsRegistryImpl metricsRegistry = new MetricsRegistryImpl()) {
+                final TableWriterMetrics metrics = new TableWriterMetrics(metricsRegistry);
+                try (TableWriter writer = new TableWriter(
+                        configuration,
+                        "weather",
+                        null,
+                        new MessageBusImpl(configuration),
+                        true,
+                        DefaultLifecycleManager.INSTANCE,
+                        configuration.getRoot(),
+                        metrics
+                )) {
+                    TableWriter.Row r = writer.newRow(IntervalUtils.parseFloorPartialDate("2021-01-31"));
+                    r.putDouble(0, 1.0);
+                    r.append();
+                    writer.commit();
+
+                    // out of order rows, all within the lag
+                    r = writer.newRow(IntervalUtils.parseFloorPartialDate("2021-01-30"));
+                    r.putDouble(0, 1.0);
+                    r.append();
+                    r = writer.newRow(IntervalUtils.parseFloorPartialDate("2021-01-30T01"));
+                    r.putDouble(0, 1.0);
+                    r.append();
+                    writer.commitWithLag(Timestamps.DAY_MICROS);
+                    Assert.assertEquals(2, writer.getO3RowCount());
+
+                    writer.commit();
+                    Assert.assertEquals(3, writer.size());
+                }
+
+                final StringSink sink = new StringSink();
+                metricsRegistry.scrapeIntoPrometheus(sink);
+                TestUtils.assertContains(sink, "questdb_table_writer_commits_total 3\n");
+                TestUtils.assertContains(sink, "questdb_table_writer_commit_latency_micros_count 3\n");
+                TestUtils.assertContains(sink, "questdb_table_writer_o3_commits_total 1\n");
+            }
+        });
+    }
+
     @Test
     public void testO3WithCancelRow() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -2580,6 +2633,73 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSymbolCapacityGrowthUnrecoverableRenameFailure() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.NONE)
+                    .col("sym", ColumnType.SYMBOL).symbolCapacity(16)
+                    .col("i", ColumnType.INT)
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public boolean rename(LPSZ from, LPSZ to) {
+                    if (Chars.endsWith(to, "sym.v")) {
+                        return false;
+                    }
+                    return super.rename(from, to);
+                }
+            };
+
+            final int N = 100;
+            try (TableWriter writer = new TableWriter(new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            }, "x")) {
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row row = writer.newRow();
+                    row.putSym(0, "s" + i);
+                    row.putInt(1, i);
+                    row.append();
+                }
+                try {
+                    writer.commit();
+                    Assert.fail();
+                } catch (CairoError ignore) {
+                }
+                // writer is distressed and refuses further commits
+                try {
+                    writer.commit();
+                    Assert.fail();
+                } catch (CairoError e) {
+                    TestUtils.assertContains(e.getMessage(), "distressed");
+                }
+            }
+
+            // next writer finishes index rebuild, rows of failed commit are lost
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                Assert.assertEquals(0, writer.size());
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row row = writer.newRow();
+                    row.putSym(0, "s" + i);
+                    row.putInt(1, i);
+                    row.append();
+                }
+                writer.commit();
+                Assert.assertEquals(N, writer.size());
+            }
+
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                Assert.assertEquals(N, reader.size());
+                Assert.assertEquals(N - 1, reader.getSymbolMapReader(0).keyOf("s" + (N - 1)));
+            }
+        });
+    }
+
     @Test
     public void testTableDoesNotExist() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ArrowStreamEncoderTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDecodeStream() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (l long, i int, s string, b boolean, ts timestamp) timestamp(ts)", sqlExecutionContext);
+            for (int x = 1; x <= 10; x++) {
+                executeInsert(
+                        "insert into x values (" + x + ", " + (x == 2 ? "null" : x) + ", " + (x == 3 ? "null" : "'v" + x + "'")
+                                + ", " + (x % 2 == 0) + ", " + (x - 1) * 1000 + ")"
+                );
+            }
+
+            try (
+                    RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder();
+                    StreamSink sink = new StreamSink()
+            ) {
+                Assert.assertTrue(factory.supportPageFrameCursor());
+                encoder.of(factory.getMetadata()).schema();
+                sink.put(encoder);
+                try (PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext)) {
+                    PageFrame frame;
+                    while ((frame = cursor.next()) != null) {
+                        final long rows = frame.getPartitionHi() - frame.getPartitionLo();
+                        // two batches from the same frame
+                        encoder.frameBatch(frame, cursor, 0, 4);
+                        sink.put(encoder);
+                        encoder.frameBatch(frame, cursor, 4, rows);
+                        sink.put(encoder);
+                    }
+                }
+                encoder.eos();
+                sink.put(encoder);
+
+                long p = sink.address;
+
+                // schema
+                Assert.assertEquals(-1, Unsafe.getUnsafe().getInt(p));
+                long meta = p + 8;
+                long message = deref(meta);
+                Assert.assertEquals(0, (Unsafe.getUnsafe().getInt(p + 4) + 8) % 8);
+                Assert.assertEquals(1, Unsafe.getUnsafe().getByte(field(message, 1)));
+                long schema = deref(field(message, 2));
+                long fields = deref(field(schema, 1));
+                Assert.assertEquals(5, Unsafe.getUnsafe().getInt(fields));
+                String[] names = {"l", "i", "s", "b", "ts"};
+                byte[] types = {2, 2, 5, 6, 10};
+                for (int i = 0; i < 5; i++) {
+                    long f = deref(fields + 4 + i * 4L);
+                    Assert.assertEquals(names[i], string(deref(field(f, 0))));
+                    Assert.assertEquals(types[i], Unsafe.getUnsafe().getByte(field(f, 2)));
+                }
+                long intType = deref(field(deref(fields + 8), 3));
+                Assert.assertEquals(32, Unsafe.getUnsafe().getInt(field(intType, 0)));
+                long timestampType = deref(field(deref(fields + 4 + 4 * 4), 3));
+                Assert.assertEquals(2, Unsafe.getUnsafe().getShort(field(timestampType, 0)));
+                p = meta + Unsafe.getUnsafe().getInt(p + 4);
+
+                // first batch, rows 1..4
+                p = assertBatch(p, 4, new long[]{0, 1, 1, 0, 0}, 1);
+                // second batch, rows 5..10
+                p = assertBatch(p, 6, new long[]{0, 0, 0, 0, 0}, 5);
+
+                // end of stream
+                Assert.assertEquals(-1, Unsafe.getUnsafe().getInt(p));
+                Assert.assertEquals(0, Unsafe.getUnsafe().getInt(p + 4));
+                Assert.assertEquals(sink.address + sink.size, p + 8);
+            }
+        });
+    }
+
+    @Test
+    public void testPageFrameAndRecordBatchesMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_boolean() a," +
+                            " rnd_byte() b," +
+                            " rnd_short() c," +
+                            " rnd_char() d," +
+                            " rnd_int(0, 1000, 2) e," +
+                            " rnd_long(0, 1000, 2) f," +
+                            " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) g," +
+                            " rnd_float(2) h," +
+                            " rnd_double(2) i," +
+                            " rnd_str(3, 10, 2) j," +
+                            " rnd_symbol(5, 4, 8, 2) k," +
+                            " rnd_long256() l," +
+                            " rnd_bin(2, 10, 2) m," +
+                            " rnd_geohash(5) n," +
+                            " rnd_geohash(15) o," +
+                            " rnd_geohash(30) p," +
+                            " rnd_geohash(60) q," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(ts)",
+                    sqlExecutionContext
+            );
+
+            try (
+                    RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder();
+                    StreamSink frameSink = new StreamSink();
+                    StreamSink recordSink = new StreamSink()
+            ) {
+                encoder.of(factory.getMetadata());
+                try (PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext)) {
+                    PageFrame frame = cursor.next();
+                    Assert.assertNotNull(frame);
+                    Assert.assertEquals(1000, frame.getPartitionHi() - frame.getPartitionLo());
+                    encoder.frameBatch(frame, cursor, 0, 1000);
+                    frameSink.put(encoder);
+                    Assert.assertNull(cursor.next());
+                }
+
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    encoder.beginBatch();
+                    while (cursor.hasNext()) {
+                        encoder.appendRecord(cursor.getRecord());
+                    }
+                    Assert.assertTrue(encoder.isBatchFull(1000));
+                    encoder.endBatch();
+                    recordSink.put(encoder);
+                }
+
+                Assert.assertEquals(frameSink.size, recordSink.size);
+                for (long i = 0; i < frameSink.size; i++) {
+                    if (Unsafe.getUnsafe().getByte(frameSink.address + i) != Unsafe.getUnsafe().getByte(recordSink.address + i)) {
+                        Assert.fail("streams differ at " + i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Walks Arrow IPC stream, checks message framing and end-of-stream marker.
+     *
+     * @param address address of the stream
+     * @param size    stream size in bytes
+     * @return total number of rows in record batches of the stream
+     */
+    public static long assertStream(long address, long size) {
+        long p = address;
+        long rows = 0;
+        int messageCount = 0;
+        while (true) {
+            Assert.assertTrue(p + 8 <= address + size);
+            Assert.assertEquals(-1, Unsafe.getUnsafe().getInt(p));
+            final int metadataSize = Unsafe.getUnsafe().getInt(p + 4);
+            if (metadataSize == 0) {
+                break;
+            }
+            final long message = deref(p + 8);
+            final byte headerType = Unsafe.getUnsafe().getByte(field(message, 1));
+            // schema comes first, record batches follow
+            Assert.assertEquals(messageCount++ == 0 ? 1 : 3, headerType);
+            if (headerType == 3) {
+                rows += Unsafe.getUnsafe().getLong(field(deref(field(message, 2)), 0));
+            }
+            p += 8 + metadataSize + Unsafe.getUnsafe().getLong(field(message, 3));
+        }
+        Assert.assertEquals(address + size, p + 8);
+        return rows;
+    }
+
+    private static long assertBatch(long p, int rowCount, long[] nullCounts, long firstValue) {
+        Assert.assertEquals(-1, Unsafe.getUnsafe().getInt(p));
+        final long meta = p + 8;
+        final long body = meta + Unsafe.getUnsafe().getInt(p + 4);
+        Assert.assertEquals(0, (body - p) % 8);
+        final long message = deref(meta);
+        Assert.assertEquals(3, Unsafe.getUnsafe().getByte(field(message, 1)));
+        final long bodyLength = Unsafe.getUnsafe().getLong(field(message, 3));
+        final long batch = deref(field(message, 2));
+        Assert.assertEquals(rowCount, Unsafe.getUnsafe().getLong(field(batch, 0)));
+
+        final long nodes = deref(field(batch, 1));
+        Assert.assertEquals(nullCounts.length, Unsafe.getUnsafe().getInt(nodes));
+        for (int i = 0; i < nullCounts.length; i++) {
+            Assert.assertEquals(rowCount, Unsafe.getUnsafe().getLong(nodes + 4 + i * 16L));
+            Assert.assertEquals(nullCounts[i], Unsafe.getUnsafe().getLong(nodes + 4 + i * 16L + 8));
+        }
+
+        // l: validity, data; i: validity, data; s: validity, offsets, data; b: validity, data; ts: validity, data
+        final long buffers = deref(field(batch, 2));
+        Assert.assertEquals(11, Unsafe.getUnsafe().getInt(buffers));
+        final long longData = body + Unsafe.getUnsafe().getLong(buffers + 4 + 16);
+        final long timestampData = body + Unsafe.getUnsafe().getLong(buffers + 4 + 10 * 16);
+        final long stringOffsets = body + Unsafe.getUnsafe().getLong(buffers + 4 + 5 * 16);
+        final long stringData = body + Unsafe.getUnsafe().getLong(buffers + 4 + 6 * 16);
+        final long boolData = body + Unsafe.getUnsafe().getLong(buffers + 4 + 8 * 16);
+        for (int r = 0; r < rowCount; r++) {
+            final long value = firstValue + r;
+            Assert.assertEquals(value, Unsafe.getUnsafe().getLong(longData + r * 8L));
+            Assert.assertEquals((value - 1) * 1000, Unsafe.getUnsafe().getLong(timestampData + r * 8L));
+            final int lo = Unsafe.getUnsafe().getInt(stringOffsets + r * 4L);
+            final int hi = Unsafe.getUnsafe().getInt(stringOffsets + r * 4L + 4);
+            if (value == 3) {
+                Assert.assertEquals(lo, hi);
+            } else {
+                byte[] bytes = new byte[hi - lo];
+                for (int k = 0; k < bytes.length; k++) {
+                    bytes[k] = Unsafe.getUnsafe().getByte(stringData + lo + k);
+                }
+                Assert.assertEquals("v" + value, new String(bytes, StandardCharsets.UTF_8));
+            }
+            final boolean bit = (Unsafe.getUnsafe().getByte(boolData + (r >>> 3)) & (1 << (r & 7))) != 0;
+            Assert.assertEquals(value % 2 == 0, bit);
+        }
+        return body + bodyLength;
+    }
+
+    private static long deref(long offsetAddress) {
+        return offsetAddress + Unsafe.getUnsafe().getInt(offsetAddress);
+    }
+
+    private static long field(long table, int slot) {
+        final long vtable = table - Unsafe.getUnsafe().getInt(table);
+        final int vtableSize = Unsafe.getUnsafe().getShort(vtable);
+        final int offset = 4 + slot * 2 < vtableSize ? Unsafe.getUnsafe().getShort(vtable + 4 + slot * 2) : 0;
+        Assert.assertTrue("missing field " + slot, offset > 0);
+        return table + offset;
+    }
+
+    private static String string(long address) {
+        final int len = Unsafe.getUnsafe().getInt(address);
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = Unsafe.getUnsafe().getByte(address + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class StreamSink implements AutoCloseable {
+        private long capacity = 1024;
+        private long address = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        private long size;
+
+        @Override
+        public void close() {
+            Unsafe.free(address, capacity, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        void put(ArrowStreamEncoder encoder) {
+            for (int i = 0, n = encoder.getSegmentCount(); i < n; i++) {
+                final long len = encoder.getSegmentSize(i);
+                if (size + len > capacity) {
+                    long newCapacity = Math.max(capacity * 2, size + len);
+                    address = Unsafe.realloc(address, capacity, newCapacity, MemoryTag.NATIVE_DEFAULT);
+                    capacity = newCapacity;
+                }
+                Vect.memcpy(address + size, encoder.getSegmentAddress(i), len);
+                size += len;
+            }
+        }
+    }
+}
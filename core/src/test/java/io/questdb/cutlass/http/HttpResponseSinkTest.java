@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http;
+
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HttpResponseSinkTest {
+    private static final int SEND_BUFFER_SIZE = 16 * 1024;
+    private static final int MIN_CHUNK_SIZE = 4 * 1024;
+
+    @Test
+    public void testChunkSizeAdaptsToSlowReader() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SlowNetworkFacade nf = new SlowNetworkFacade();
+            final int srcLen = 2 * SEND_BUFFER_SIZE;
+            final long src = Unsafe.malloc(srcLen, MemoryTag.NATIVE_DEFAULT);
+            try (HttpResponseSink sink = new HttpResponseSink(new DefaultHttpContextConfiguration() {
+                @Override
+                public NetworkFacade getNetworkFacade() {
+                    return nf;
+                }
+
+                @Override
+                public int getSendBufferSize() {
+                    return SEND_BUFFER_SIZE;
+                }
+            })) {
+                sink.of(1);
+                final HttpChunkedResponseSocket socket = sink.getChunkedSocket();
+                socket.status(200, "text/plain");
+                socket.sendHeader();
+                Assert.assertEquals(SEND_BUFFER_SIZE, sink.getChunkSize());
+
+                // peer cannot take whole chunk, each slow send halves chunk size down to minimum
+                int expectedChunkSize = SEND_BUFFER_SIZE;
+                for (int i = 0; i < 4; i++) {
+                    Assert.assertEquals(expectedChunkSize, socket.putDirect(src, srcLen));
+                    nf.sendAllowance = 100;
+                    try {
+                        socket.sendChunk(false);
+                        Assert.fail();
+                    } catch (PeerIsSlowToReadException ignore) {
+                    }
+                    expectedChunkSize = Math.max(MIN_CHUNK_SIZE, expectedChunkSize / 2);
+                    Assert.assertEquals(expectedChunkSize, sink.getChunkSize());
+
+                    // peer catches up and the rest of the chunk is sent
+                    nf.sendAllowance = Integer.MAX_VALUE;
+                    sink.resumeSend();
+                }
+                Assert.assertEquals(MIN_CHUNK_SIZE, sink.getChunkSize());
+
+                // socket takes whole chunks again, chunk size doubles back up to send buffer size
+                for (int i = 0; i < 4; i++) {
+                    Assert.assertEquals(expectedChunkSize, socket.putDirect(src, srcLen));
+                    socket.sendChunk(false);
+                    expectedChunkSize = Math.min(SEND_BUFFER_SIZE, expectedChunkSize * 2);
+                    Assert.assertEquals(expectedChunkSize, sink.getChunkSize());
+                }
+                Assert.assertEquals(SEND_BUFFER_SIZE, sink.getChunkSize());
+
+                socket.done();
+                Assert.assertEquals(nf.bytesSent, sink.getTotalBytesSent());
+            } finally {
+                Unsafe.free(src, srcLen, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testOversizedUnitUsesWholeBuffer() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SlowNetworkFacade nf = new SlowNetworkFacade();
+            final int srcLen = SEND_BUFFER_SIZE;
+            final long src = Unsafe.malloc(srcLen, MemoryTag.NATIVE_DEFAULT);
+            try (HttpResponseSink sink = new HttpResponseSink(new DefaultHttpContextConfiguration() {
+                @Override
+                public NetworkFacade getNetworkFacade() {
+                    return nf;
+                }
+
+                @Override
+                public int getSendBufferSize() {
+                    return SEND_BUFFER_SIZE;
+                }
+            })) {
+                sink.of(1);
+                final HttpChunkedResponseSocket socket = sink.getChunkedSocket();
+                socket.status(200, "text/plain");
+                socket.sendHeader();
+
+                Assert.assertEquals(SEND_BUFFER_SIZE, socket.putDirect(src, srcLen));
+                nf.sendAllowance = 100;
+                try {
+                    socket.sendChunk(false);
+                    Assert.fail();
+                } catch (PeerIsSlowToReadException ignore) {
+                }
+                nf.sendAllowance = Integer.MAX_VALUE;
+                sink.resumeSend();
+                Assert.assertEquals(SEND_BUFFER_SIZE / 2, sink.getChunkSize());
+
+                // unit of data larger than reduced chunk does not fit
+                socket.bookmark();
+                Assert.assertEquals(SEND_BUFFER_SIZE / 2, socket.putDirect(src, srcLen));
+                // it is allowed to retry with the whole buffer
+                Assert.assertTrue(socket.resetToBookmark());
+                Assert.assertEquals(SEND_BUFFER_SIZE, socket.putDirect(src, srcLen));
+                // but not beyond that
+                Assert.assertFalse(socket.resetToBookmark());
+            } finally {
+                Unsafe.free(src, srcLen, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static class SlowNetworkFacade extends NetworkFacadeImpl {
+        // number of bytes peer takes before its receive window fills up
+        int sendAllowance = Integer.MAX_VALUE;
+        long bytesSent;
+
+        @Override
+        public int send(long fd, long buffer, int bufferLen) {
+            final int n = Math.min(bufferLen, sendAllowance);
+            if (sendAllowance != Integer.MAX_VALUE) {
+                sendAllowance -= n;
+            }
+            bytesSent += n;
+            return n;
+        }
+    }
+}
@@ -156,6 +156,11 @@ public class HttpServerConfigurationBuilder {
             private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new JsonQueryProcessorConfiguration() {
                 private final DefaultSqlInterruptorConfiguration sqlInterruptorConfiguration = new DefaultSqlInterruptorConfiguration();
 
+                @Override
+                public int getArrowBatchRowCount() {
+                    return 1000;
+                }
+
                 @Override
                 public MillisecondClock getClock() {
                     return () -> 0;
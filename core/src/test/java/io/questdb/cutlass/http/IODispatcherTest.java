@@ -44,6 +44,7 @@ import org.junit.rules.TemporaryFolder;
 import io.questdb.Metrics;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cutlass.NetUtils;
+import io.questdb.cutlass.arrow.ArrowStreamEncoderTest;
 import io.questdb.cutlass.http.processors.HealthCheckProcessor;
 import io.questdb.cutlass.http.processors.JsonQueryProcessor;
 import io.questdb.cutlass.http.processors.QueryCache;
@@ -57,6 +58,7 @@ import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.functions.test.TestLatchedCounterFunctionFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.MetricsRegistryImpl;
 import io.questdb.mp.MPSequence;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
@@ -76,6 +78,7 @@ import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ShardedIODispatcher;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.AbstractCharSequence;
@@ -328,7 +331,14 @@ public class IODispatcherTest {
         LOG.info().$("started testConnectDisconnect").$();
 
         assertMemoryLeak(() -> {
-            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration(
+                    new DefaultHttpContextConfiguration() {
+                        @Override
+                        public MillisecondClock getClock() {
+                            return () -> 0;
+                        }
+                    }
+            );
 
             SOCountDownLatch connectLatch = new SOCountDownLatch(1);
             SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
@@ -3257,6 +3267,23 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testJsonQueryPipelined() throws Exception {
+        testJsonQuery0(1, engine -> {
+            // client sends all requests before reading any response
+            final String request = "GET /query?query=SELECT%201%20as%20x HTTP/1.1\r\n" + SendAndReceiveRequestBuilder.RequestHeaders;
+            final String response = SendAndReceiveRequestBuilder.ResponseHeaders +
+                    "59\r\n" +
+                    "{\"query\":\"SELECT 1 as x\",\"columns\":[{\"name\":\"x\",\"type\":\"INT\"}],\"dataset\":[[1]],\"count\":1}\r\n" +
+                    "00\r\n" +
+                    "\r\n";
+            new SendAndReceiveRequestBuilder().withRequestCount(10).execute(
+                    request + request + request,
+                    response + response + response
+            );
+        }, false);
+    }
+
     @Test
     public void testJsonQueryPseudoRandomStability() throws Exception {
         testJsonQuery(
@@ -3878,6 +3905,38 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testJsonQueryTopLimitAndCountLazily() throws Exception {
+        testJsonQuery0(2, engine -> {
+            // cursor of known size is not scrolled past the limit
+            new SendAndReceiveRequestBuilder().executeWithStandardHeaders(
+                    "GET /query?query=long_sequence(100)&limit=3&count=true HTTP/1.1\r\n",
+                    "69\r\n" +
+                            "{\"query\":\"long_sequence(100)\",\"columns\":[{\"name\":\"x\",\"type\":\"LONG\"}],\"dataset\":[[1],[2],[3]],\"count\":100}\r\n" +
+                            "00\r\n" +
+                            "\r\n"
+            );
+
+            // filtered cursor has to be counted to the end
+            new SendAndReceiveRequestBuilder().executeWithStandardHeaders(
+                    "GET /query?query=select%20x%20from%20long_sequence(100)%20where%20x%20%25%202%20%3D%200&limit=3&count=true HTTP/1.1\r\n",
+                    "86\r\n" +
+                            "{\"query\":\"select x from long_sequence(100) where x % 2 = 0\",\"columns\":[{\"name\":\"x\",\"type\":\"LONG\"}],\"dataset\":[[2],[4],[6]],\"count\":50}\r\n" +
+                            "00\r\n" +
+                            "\r\n"
+            );
+
+            // skip past the end of cursor of known size
+            new SendAndReceiveRequestBuilder().executeWithStandardHeaders(
+                    "GET /query?query=long_sequence(100)&limit=200,210 HTTP/1.1\r\n",
+                    "5c\r\n" +
+                            "{\"query\":\"long_sequence(100)\",\"columns\":[{\"name\":\"x\",\"type\":\"LONG\"}],\"dataset\":[],\"count\":0}\r\n" +
+                            "00\r\n" +
+                            "\r\n"
+            );
+        }, false);
+    }
+
     @Test
     public void testJsonQueryTopLimitAndCount() throws Exception {
         testJsonQuery(
@@ -5042,6 +5101,309 @@ public class IODispatcherTest {
         }, false);
     }
 
+    @Test
+    public void testPipelinedRequestAfterRejectedRequest() throws Exception {
+        final String rejectedRequest = "GET /upload HTTP/1.1\r\n" +
+                "Host: localhost:9000\r\n" +
+                "\r\n";
+        final String request = "GET /status HTTP/1.1\r\n" +
+                "Host: localhost:9000\r\n" +
+                "\r\n";
+
+        final String expectedRejectedResponse = "HTTP/1.1 404 Not Found\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: text/plain; charset=utf-8\r\n" +
+                "\r\n" +
+                "27\r\n" +
+                "Bad request. Multipart POST expected.\r\n" +
+                "\r\n" +
+                "00\r\n" +
+                "\r\n";
+        final String expectedResponse = "HTTP/1.1 200 OK\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: text/plain; charset=utf-8\r\n" +
+                "\r\n" +
+                "04\r\n" +
+                "OK\r\n" +
+                "\r\n" +
+                "00\r\n" +
+                "\r\n";
+
+        assertMemoryLeak(() -> {
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration(
+                    new DefaultHttpContextConfiguration() {
+                        @Override
+                        public MillisecondClock getClock() {
+                            return () -> 0;
+                        }
+                    }
+            );
+
+            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+
+            try (
+                    MetricsRegistryImpl metricsRegistry = new MetricsRegistryImpl();
+                    IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                            new DefaultIODispatcherConfiguration(),
+                            new IOContextFactory<HttpConnectionContext>() {
+                                private final HttpConnectionMetrics metrics = new HttpConnectionMetrics(metricsRegistry);
+
+                                @Override
+                                public HttpConnectionContext newInstance(long fd, IODispatcher<HttpConnectionContext> dispatcher1) {
+                                    connectLatch.countDown();
+                                    return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration(), metrics) {
+                                        @Override
+                                        public void close() {
+                                            super.close();
+                                            contextClosedLatch.countDown();
+                                        }
+                                    }.of(fd, dispatcher1);
+                                }
+                            }
+                    )
+            ) {
+                final HttpRequestProcessorSelector selector = new HttpRequestProcessorSelector() {
+                    private final HttpRequestProcessor uploadProcessor = new UploadProcessor();
+                    private final HttpRequestProcessor statusProcessor = new HttpRequestProcessor() {
+                        @Override
+                        public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+                            context.simpleResponse().sendStatusWithDefaultMessage(200);
+                        }
+                    };
+
+                    @Override
+                    public HttpRequestProcessor select(CharSequence url) {
+                        return Chars.equals("/upload", url) ? uploadProcessor : null;
+                    }
+
+                    @Override
+                    public HttpRequestProcessor getDefaultProcessor() {
+                        return statusProcessor;
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+
+                new Thread(() -> {
+                    while (serverRunning.get()) {
+                        dispatcher.run(0);
+                        dispatcher.processIOQueue(
+                                (operation, context) -> context.handleClientOperation(operation, selector, EmptyRescheduleContext)
+                        );
+                    }
+                    serverHaltLatch.countDown();
+                }).start();
+
+                long fd = Net.socketTcp(true);
+                try {
+                    long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                    try {
+                        TestUtils.assertConnect(fd, sockAddr);
+                        connectLatch.await();
+
+                        // rejected request must not swallow requests pipelined behind it
+                        final String requests = rejectedRequest + request + request;
+                        final String expectedResponses = expectedRejectedResponse + expectedResponse + expectedResponse;
+                        final int len = Math.max(requests.length(), expectedResponses.length());
+                        long buffer = TestUtils.toMemory(requests);
+                        buffer = Unsafe.realloc(buffer, requests.length(), len, MemoryTag.NATIVE_DEFAULT);
+                        try {
+                            Assert.assertEquals(requests.length(), Net.send(fd, buffer, requests.length()));
+                            StringSink sink = new StringSink();
+                            final int expectedLen = expectedResponses.length();
+                            int read = 0;
+                            while (read < expectedLen) {
+                                int n = Net.recv(fd, buffer, expectedLen - read);
+                                Assert.assertTrue(n > 0);
+                                for (int i = 0; i < n; i++) {
+                                    sink.put((char) Unsafe.getUnsafe().getByte(buffer + i));
+                                }
+                                read += n;
+                            }
+                            TestUtils.assertEquals(expectedResponses, sink);
+                        } finally {
+                            Unsafe.free(buffer, len, MemoryTag.NATIVE_DEFAULT);
+                        }
+
+                        Assert.assertEquals(0, Net.close(fd));
+                        fd = -1;
+
+                        contextClosedLatch.await();
+                        serverRunning.set(false);
+                        serverHaltLatch.await();
+
+                        final StringSink sink = new StringSink();
+                        metricsRegistry.scrapeIntoPrometheus(sink);
+                        TestUtils.assertContains(sink, "questdb_http_pipelined_requests_total 2\n");
+                        TestUtils.assertContains(sink, "questdb_http_request_queue_time_millis_count 3\n");
+                    } finally {
+                        Net.freeSockAddr(sockAddr);
+                    }
+                } finally {
+                    if (fd != -1) {
+                        Net.close(fd);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPipelinedRequestQueueTime() throws Exception {
+        final String request = "GET /status HTTP/1.1\r\n" +
+                "Host: localhost:9000\r\n" +
+                "\r\n";
+
+        final String expectedResponse = "HTTP/1.1 200 OK\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: text/plain; charset=utf-8\r\n" +
+                "\r\n" +
+                "04\r\n" +
+                "OK\r\n" +
+                "\r\n" +
+                "00\r\n" +
+                "\r\n";
+
+        // pipelined requests are received together, each one waits
+        // for the processing of those in front of it
+        final String expectedQueueTimes = "count=0, total=0, max=0\n" +
+                "count=1, total=10, max=10\n" +
+                "count=2, total=30, max=20\n";
+
+        assertMemoryLeak(() -> {
+            final AtomicLong clock = new AtomicLong();
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration(
+                    new DefaultHttpContextConfiguration() {
+                        @Override
+                        public MillisecondClock getClock() {
+                            return clock::get;
+                        }
+                    }
+            );
+
+            SOCountDownLatch connectLatch = new SOCountDownLatch(1);
+            SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
+
+            try (IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration(),
+                    new IOContextFactory<HttpConnectionContext>() {
+                        @Override
+                        public HttpConnectionContext newInstance(long fd, IODispatcher<HttpConnectionContext> dispatcher1) {
+                            connectLatch.countDown();
+                            return new HttpConnectionContext(httpServerConfiguration.getHttpContextConfiguration()) {
+                                @Override
+                                public void close() {
+                                    super.close();
+                                    contextClosedLatch.countDown();
+                                }
+                            }.of(fd, dispatcher1);
+                        }
+                    }
+            )) {
+                StringSink sink = new StringSink();
+
+                final HttpRequestProcessorSelector selector = new HttpRequestProcessorSelector() {
+
+                    @Override
+                    public HttpRequestProcessor select(CharSequence url) {
+                        return null;
+                    }
+
+                    @Override
+                    public HttpRequestProcessor getDefaultProcessor() {
+                        return new HttpRequestProcessor() {
+                            @Override
+                            public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+                                sink.put("count=").put(context.getNPipelinedRequests())
+                                        .put(", total=").put(context.getTotalQueueTime())
+                                        .put(", max=").put(context.getMaxQueueTime())
+                                        .put('\n');
+                                clock.addAndGet(10);
+                                context.simpleResponse().sendStatusWithDefaultMessage(200);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+
+                AtomicBoolean serverRunning = new AtomicBoolean(true);
+                SOCountDownLatch serverHaltLatch = new SOCountDownLatch(1);
+
+                new Thread(() -> {
+                    while (serverRunning.get()) {
+                        dispatcher.run(0);
+                        dispatcher.processIOQueue(
+                                (operation, context) -> context.handleClientOperation(operation, selector, EmptyRescheduleContext)
+                        );
+                    }
+                    serverHaltLatch.countDown();
+                }).start();
+
+                long fd = Net.socketTcp(true);
+                try {
+                    long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                    try {
+                        TestUtils.assertConnect(fd, sockAddr);
+                        connectLatch.await();
+
+                        final String requests = request + request + request;
+                        final String expectedResponses = expectedResponse + expectedResponse + expectedResponse;
+                        final int len = Math.max(requests.length(), expectedResponses.length());
+                        long buffer = TestUtils.toMemory(requests);
+                        buffer = Unsafe.realloc(buffer, requests.length(), len, MemoryTag.NATIVE_DEFAULT);
+                        try {
+                            Assert.assertEquals(requests.length(), Net.send(fd, buffer, requests.length()));
+                            StringSink sink2 = new StringSink();
+                            final int expectedLen = expectedResponses.length();
+                            int read = 0;
+                            while (read < expectedLen) {
+                                int n = Net.recv(fd, buffer, expectedLen - read);
+                                Assert.assertTrue(n > 0);
+                                for (int i = 0; i < n; i++) {
+                                    sink2.put((char) Unsafe.getUnsafe().getByte(buffer + i));
+                                }
+                                read += n;
+                            }
+                            TestUtils.assertEquals(expectedResponses, sink2);
+                        } finally {
+                            Unsafe.free(buffer, len, MemoryTag.NATIVE_DEFAULT);
+                        }
+
+                        Assert.assertEquals(0, Net.close(fd));
+                        fd = -1;
+
+                        contextClosedLatch.await();
+                        serverRunning.set(false);
+                        serverHaltLatch.await();
+
+                        TestUtils.assertEquals(expectedQueueTimes, sink);
+                    } finally {
+                        Net.freeSockAddr(sockAddr);
+                    }
+                } finally {
+                    if (fd != -1) {
+                        Net.close(fd);
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testPostRequestToGetProcessor() throws Exception {
         testImport(
@@ -5667,7 +6029,14 @@ public class IODispatcherTest {
                 "\r\n";
 
         assertMemoryLeak(() -> {
-            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration(
+                    new DefaultHttpContextConfiguration() {
+                        @Override
+                        public MillisecondClock getClock() {
+                            return () -> 0;
+                        }
+                    }
+            );
 
             SOCountDownLatch connectLatch = new SOCountDownLatch(1);
             SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
@@ -5992,7 +6361,14 @@ public class IODispatcherTest {
                 "\r\n";
 
         assertMemoryLeak(() -> {
-            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration();
+            HttpServerConfiguration httpServerConfiguration = new DefaultHttpServerConfiguration(
+                    new DefaultHttpContextConfiguration() {
+                        @Override
+                        public MillisecondClock getClock() {
+                            return () -> 0;
+                        }
+                    }
+            );
 
             SOCountDownLatch connectLatch = new SOCountDownLatch(1);
             SOCountDownLatch contextClosedLatch = new SOCountDownLatch(1);
@@ -6123,6 +6499,219 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testShardedDispatcher() throws Exception {
+        LOG.info().$("started testShardedDispatcher").$();
+
+        assertMemoryLeak(() -> {
+            final int workerCount = 2;
+            final int connectionCount = 8;
+            final SOCountDownLatch connectLatch = new SOCountDownLatch(connectionCount);
+            final SOCountDownLatch contextClosedLatch = new SOCountDownLatch(connectionCount);
+
+            try (IODispatcher<HelloContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public int getDispatcherShardCount() {
+                            return workerCount;
+                        }
+
+                        @Override
+                        public int getInitialBias() {
+                            return IODispatcherConfiguration.BIAS_WRITE;
+                        }
+
+                        @Override
+                        public boolean getPeerNoLinger() {
+                            return false;
+                        }
+                    },
+                    (fd, dispatcher1) -> {
+                        connectLatch.countDown();
+                        return new HelloContext(fd, contextClosedLatch, dispatcher1);
+                    },
+                    workerCount
+            )) {
+                if (Os.type == Os.LINUX_AMD64 || Os.type == Os.LINUX_ARM64) {
+                    Assert.assertTrue(dispatcher instanceof ShardedIODispatcher);
+                    Assert.assertEquals(workerCount, ((ShardedIODispatcher<HelloContext>) dispatcher).getShardCount());
+                }
+
+                final AtomicBoolean serverRunning = new AtomicBoolean(true);
+                final SOCountDownLatch serverHaltLatch = new SOCountDownLatch(workerCount);
+
+                for (int i = 0; i < workerCount; i++) {
+                    final int workerId = i;
+                    new Thread(() -> {
+                        while (serverRunning.get()) {
+                            dispatcher.run(workerId);
+                            dispatcher.processIOQueue(
+                                    workerId,
+                                    (operation, context) -> {
+                                        if (operation == IOOperation.WRITE) {
+                                            Assert.assertEquals(1024, Net.send(context.getFd(), context.buffer, 1024));
+                                            context.getDispatcher().disconnect(context, IODispatcher.DISCONNECT_REASON_TEST);
+                                        }
+                                    }
+                            );
+                        }
+                        serverHaltLatch.countDown();
+                    }).start();
+                }
+
+                final long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                final long buffer = Unsafe.malloc(1024, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    for (int i = 0; i < connectionCount; i++) {
+                        long fd = Net.socketTcp(true);
+                        try {
+                            TestUtils.assertConnect(fd, sockAddr);
+                            int received = 0;
+                            while (received < 1024) {
+                                int n = Net.recv(fd, buffer + received, 1024 - received);
+                                Assert.assertTrue(n > -1);
+                                received += n;
+                            }
+                        } finally {
+                            Net.close(fd);
+                        }
+                    }
+                    connectLatch.await();
+                    contextClosedLatch.await();
+                } finally {
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+                    Unsafe.free(buffer, 1024, MemoryTag.NATIVE_DEFAULT);
+                    Net.freeSockAddr(sockAddr);
+                }
+                Assert.assertEquals(0, dispatcher.getConnectionCount());
+            }
+        });
+    }
+
+    @Test
+    public void testShardedDispatcherConnectionLimit() throws Exception {
+        LOG.info().$("started testShardedDispatcherConnectionLimit").$();
+
+        assertMemoryLeak(() -> {
+            final int workerCount = 2;
+            final int activeConnectionLimit = 2;
+            final int clientCount = 4;
+            final AtomicInteger openCount = new AtomicInteger();
+            final SOCountDownLatch contextClosedLatch = new SOCountDownLatch(clientCount);
+
+            try (IODispatcher<HelloContext> dispatcher = IODispatchers.create(
+                    new DefaultIODispatcherConfiguration() {
+                        @Override
+                        public int getActiveConnectionLimit() {
+                            return activeConnectionLimit;
+                        }
+
+                        @Override
+                        public int getDispatcherShardCount() {
+                            return workerCount;
+                        }
+
+                        @Override
+                        public long getQueuedConnectionTimeout() {
+                            return 300_000;
+                        }
+                    },
+                    (fd, dispatcher1) -> {
+                        openCount.incrementAndGet();
+                        return new HelloContext(fd, contextClosedLatch, dispatcher1);
+                    },
+                    workerCount
+            )) {
+                final AtomicBoolean serverRunning = new AtomicBoolean(true);
+                final AtomicInteger maxConnectionCount = new AtomicInteger();
+                final SOCountDownLatch serverHaltLatch = new SOCountDownLatch(workerCount);
+
+                for (int i = 0; i < workerCount; i++) {
+                    final int workerId = i;
+                    new Thread(() -> {
+                        while (serverRunning.get()) {
+                            dispatcher.run(workerId);
+                            maxConnectionCount.accumulateAndGet(dispatcher.getConnectionCount(), Math::max);
+                            dispatcher.processIOQueue(
+                                    workerId,
+                                    // the only read event is peer closing connection
+                                    (operation, context) -> context.getDispatcher().disconnect(context, IODispatcher.DISCONNECT_REASON_TEST)
+                            );
+                        }
+                        serverHaltLatch.countDown();
+                    }).start();
+                }
+
+                final long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                final LongList fds = new LongList();
+                try {
+                    for (int i = 0; i < clientCount; i++) {
+                        long fd = Net.socketTcp(true);
+                        fds.add(fd);
+                        TestUtils.assertConnect(fd, sockAddr);
+                    }
+
+                    while (openCount.get() < activeConnectionLimit) {
+                        Os.sleep(1);
+                    }
+                    // give other shard time to accept over the limit, if it was per shard
+                    Os.sleep(200);
+                    Assert.assertEquals(activeConnectionLimit, openCount.get());
+                    Assert.assertEquals(activeConnectionLimit, dispatcher.getConnectionCount());
+                } finally {
+                    for (int i = 0, n = fds.size(); i < n; i++) {
+                        Net.close(fds.getQuick(i));
+                    }
+                    Net.freeSockAddr(sockAddr);
+                }
+
+                try {
+                    // queued connections are accepted as slots are released
+                    contextClosedLatch.await();
+                    Assert.assertEquals(clientCount, openCount.get());
+                    Assert.assertTrue(maxConnectionCount.get() <= activeConnectionLimit);
+                } finally {
+                    serverRunning.set(false);
+                    serverHaltLatch.await();
+                }
+                Assert.assertEquals(0, dispatcher.getConnectionCount());
+            }
+        });
+    }
+
+    @Test
+    public void testTextQueryArrow() throws Exception {
+        new HttpQueryTestBuilder()
+                .withTempFolder(temp)
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(
+                        new HttpServerConfigurationBuilder()
+                                .withSendBufferSize(16 * 1024)
+                                .withServerKeepAlive(true)
+                )
+                .run((engine) -> {
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile(
+                                "create table x as (" +
+                                        "select rnd_symbol(5, 4, 8, 2) sym, rnd_str(3, 20, 2) s, rnd_double(2) d, rnd_long(0, 100, 2) l," +
+                                        " timestamp_sequence(0, 100000000) ts" +
+                                        " from long_sequence(2500)" +
+                                        ") timestamp(ts) partition by DAY",
+                                executionContext
+                        );
+                    }
+
+                    // page frames, results span multiple partitions, batches and response chunks
+                    Assert.assertEquals(2500, exportArrowRowCount("x"));
+                    Assert.assertEquals(20, exportArrowRowCount("x&limit=100,120"));
+                    // records
+                    Assert.assertEquals(1250, exportArrowRowCount("x+where+l+!%3D+-1+or+l+%3D+null+limit+1250"));
+                    Assert.assertEquals(0, exportArrowRowCount("x+where+1+%3D+2"));
+                });
+    }
+
     @Test
     public void testTextQueryCreateTable() throws Exception {
         testJsonQuery(
@@ -6577,6 +7166,75 @@ public class IODispatcherTest {
         return httpConfiguration;
     }
 
+    private static boolean endsWith(long address, int len, String suffix) {
+        if (len < suffix.length()) {
+            return false;
+        }
+        for (int i = 0, n = suffix.length(); i < n; i++) {
+            if (Unsafe.getUnsafe().getByte(address + len - n + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long exportArrowRowCount(String query) {
+        final String request = "GET /exp?query=" + query + "&fmt=arrow HTTP/1.1\r\n" +
+                "Host: localhost:9001\r\n" +
+                "Connection: keep-alive\r\n" +
+                "\r\n";
+        final int bufferSize = 4 * 1024 * 1024;
+        final long buffer = Unsafe.malloc(bufferSize, MemoryTag.NATIVE_DEFAULT);
+        final long fd = Net.socketTcp(true);
+        final long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+        try {
+            TestUtils.assertConnect(fd, sockAddr);
+            Chars.asciiStrCpy(request, request.length(), buffer);
+            Assert.assertEquals(request.length(), Net.send(fd, buffer, request.length()));
+
+            // read until terminating chunk
+            final String eof = "\r\n00\r\n\r\n";
+            int received = 0;
+            while (!endsWith(buffer, received, eof)) {
+                int n = Net.recv(fd, buffer + received, bufferSize - received);
+                Assert.assertTrue(n > -1);
+                received += n;
+            }
+
+            final String head = Chars.stringFromUtf8Bytes(buffer, buffer + Math.min(received, 512));
+            final int headerEnd = head.indexOf("\r\n\r\n");
+            Assert.assertTrue(head.substring(0, headerEnd).contains("Content-Type: application/vnd.apache.arrow.stream"));
+
+            // de-chunk body in place
+            long p = buffer + headerEnd + 4;
+            long size = 0;
+            final long hi = buffer + received;
+            while (true) {
+                while (Unsafe.getUnsafe().getByte(p) == '\r' || Unsafe.getUnsafe().getByte(p) == '\n') {
+                    p++;
+                }
+                long lineEnd = p;
+                while (Unsafe.getUnsafe().getByte(lineEnd) != '\r') {
+                    lineEnd++;
+                }
+                final long chunkSize = Long.parseLong(Chars.stringFromUtf8Bytes(p, lineEnd), 16);
+                if (chunkSize == 0) {
+                    break;
+                }
+                p = lineEnd + 2;
+                Assert.assertTrue(p + chunkSize <= hi);
+                Vect.memmove(buffer + size, p, chunkSize);
+                size += chunkSize;
+                p += chunkSize;
+            }
+            return ArrowStreamEncoderTest.assertStream(buffer, size);
+        } finally {
+            Net.freeSockAddr(sockAddr);
+            Net.close(fd);
+            Unsafe.free(buffer, bufferSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     private void testJsonQuery(int recordCount, String request, String expectedResponse, int requestCount, boolean telemetry) throws Exception {
         testJsonQuery0(2, engine -> {
             // create table with all column types
@@ -6720,6 +7378,20 @@ public class IODispatcherTest {
         boolean valid;
     }
 
+    private static class UploadProcessor implements HttpRequestProcessor, HttpMultipartContentListener {
+        @Override
+        public void onChunk(long lo, long hi) {
+        }
+
+        @Override
+        public void onPartBegin(HttpRequestHeader partHeader) {
+        }
+
+        @Override
+        public void onPartEnd() {
+        }
+    }
+
     private static class ByteArrayResponse extends AbstractCharSequence implements ByteSequence {
         private final byte[] bytes;
         private final int len;
@@ -35,6 +35,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.str.FloatingDirectCharSink;
+import io.questdb.std.str.Path;
 import org.junit.Assert;
 import org.junit.Before;
 
@@ -77,6 +78,10 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
             return 0;
         }
 
+        @Override
+        public void throttle(LineTcpMeasurementScheduler.TableUpdateDetails tableUpdateDetails) {
+        }
+
         @Override
         public boolean run(int workerId) {
             Assert.fail("This is a mock job, not designed to run in a worker pool");
@@ -312,6 +317,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         });
         Assert.assertFalse(context.invalid());
         Assert.assertEquals(FD, context.getFd());
+        workerPool.assignCleaner(Path.CLEANER);
         workerPool.start(LOG);
     }
 
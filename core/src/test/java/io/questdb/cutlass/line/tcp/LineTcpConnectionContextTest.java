@@ -30,9 +30,14 @@ import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.network.NetworkFacade;
 import io.questdb.std.Chars;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.LongList;
+import io.questdb.std.Os;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
@@ -397,6 +402,162 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testCommitLatencyTarget() throws Exception {
+        final LineTcpReceiverConfiguration defaultConfiguration = lineTcpConfiguration;
+        lineTcpConfiguration = new DefaultLineTcpReceiverConfiguration() {
+            @Override
+            public long getCommitLatencyTarget() {
+                return 10;
+            }
+
+            @Override
+            public long getMaintenanceInterval() {
+                // without the latency target rows would not be committed while the test waits
+                return 3_600_000;
+            }
+
+            @Override
+            public int getMaxMeasurementSize() {
+                return defaultConfiguration.getMaxMeasurementSize();
+            }
+
+            @Override
+            public NetworkFacade getNetworkFacade() {
+                return defaultConfiguration.getNetworkFacade();
+            }
+
+            @Override
+            public int getNetMsgBufferSize() {
+                return defaultConfiguration.getNetMsgBufferSize();
+            }
+        };
+        final String table = "commitLatencyTarget";
+        runInContext(() -> {
+            recvBuffer = makeMessages(table);
+            handleContextIO();
+            Assert.assertFalse(disconnected);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            long size = 0;
+            while (size < 7 && System.currentTimeMillis() < deadline) {
+                Os.sleep(10);
+                try (TableReader reader = new TableReader(configuration, table)) {
+                    size = reader.size();
+                }
+            }
+            Assert.assertEquals(7, size);
+
+            LongList histogram = new LongList();
+            Assert.assertTrue(scheduler.getVisibilityLatencyHistogram(table, histogram));
+            Assert.assertEquals(LineTcpMeasurementScheduler.VISIBILITY_LATENCY_BUCKET_COUNT, histogram.size());
+            long commitCount = 0;
+            for (int i = 0, n = histogram.size(); i < n; i++) {
+                commitCount += histogram.getQuick(i);
+            }
+            Assert.assertTrue(commitCount > 0);
+            closeContext();
+        });
+    }
+
+    @Test
+    public void testCommitLatencyTargetIdleO3() throws Exception {
+        final LineTcpReceiverConfiguration defaultConfiguration = lineTcpConfiguration;
+        lineTcpConfiguration = new DefaultLineTcpReceiverConfiguration() {
+            @Override
+            public long getCommitLatencyTarget() {
+                return 10;
+            }
+
+            @Override
+            public long getMaintenanceInterval() {
+                // without the latency target rows would not be committed while the test waits
+                return 3_600_000;
+            }
+
+            @Override
+            public int getMaxMeasurementSize() {
+                return defaultConfiguration.getMaxMeasurementSize();
+            }
+
+            @Override
+            public NetworkFacade getNetworkFacade() {
+                return defaultConfiguration.getNetworkFacade();
+            }
+
+            @Override
+            public int getNetMsgBufferSize() {
+                return defaultConfiguration.getNetMsgBufferSize();
+            }
+        };
+        final String table = "commitLatencyTargetIdleO3";
+        runInContext(() -> {
+            try (
+                    SqlCompiler compiler = new SqlCompiler(engine);
+                    SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)) {
+                compiler.compile(
+                        "create table " + table + " (location SYMBOL, temperature DOUBLE, timestamp TIMESTAMP) timestamp(timestamp) partition by DAY WITH commitLag=1h;",
+                        sqlExecutionContext);
+            } catch (SqlException ex) {
+                throw new RuntimeException(ex);
+            }
+            // out of order rows, all of them within the table's commit lag
+            recvBuffer = table + ",location=us-midwest temperature=82 1465839830102500200\n" +
+                    table + ",location=us-midwest temperature=83 1465839830102400200\n" +
+                    table + ",location=us-eastcoast temperature=81 1465839830101400200\n" +
+                    table + ",location=us-midwest temperature=85 1465839830100500200\n" +
+                    table + ",location=us-eastcoast temperature=89 1465839830100400200\n";
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+
+            // nothing more is sent, rows held back by the lag must still become visible
+            long deadline = System.currentTimeMillis() + 10_000;
+            long size = 0;
+            while (size < 5 && System.currentTimeMillis() < deadline) {
+                Os.sleep(10);
+                try (TableReader reader = new TableReader(configuration, table)) {
+                    size = reader.size();
+                }
+            }
+            Assert.assertEquals(5, size);
+            closeContext();
+        });
+    }
+
+    @Test
+    public void testCommitLatencyTargetDisabled() throws Exception {
+        final String table = "commitLatencyTargetDisabled";
+        runInContext(() -> {
+            Assert.assertEquals(0, lineTcpConfiguration.getCommitLatencyTarget());
+            recvBuffer = makeMessages(table);
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            long size = 0;
+            while (size < 7 && System.currentTimeMillis() < deadline) {
+                Os.sleep(10);
+                try (TableReader reader = new TableReader(configuration, table)) {
+                    size = reader.size();
+                }
+            }
+            Assert.assertEquals(7, size);
+
+            // rows are not timed when there is no target to meet
+            LongList histogram = new LongList();
+            Assert.assertTrue(scheduler.getVisibilityLatencyHistogram(table, histogram));
+            Assert.assertEquals(LineTcpMeasurementScheduler.VISIBILITY_LATENCY_BUCKET_COUNT, histogram.size());
+            for (int i = 0, n = histogram.size(); i < n; i++) {
+                Assert.assertEquals(0, histogram.getQuick(i));
+            }
+            closeContext();
+        });
+    }
+
     @Test
     public void testCairoExceptionOnAddColumn() throws Exception {
         String table = "columnEx";
@@ -1071,6 +1232,64 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testTableQueueLimit() throws Exception {
+        final int tableQueueLimit = 2;
+        final LineTcpReceiverConfiguration defaultConfiguration = lineTcpConfiguration;
+        lineTcpConfiguration = new DefaultLineTcpReceiverConfiguration() {
+            @Override
+            public int getMaxMeasurementSize() {
+                return defaultConfiguration.getMaxMeasurementSize();
+            }
+
+            @Override
+            public NetworkFacade getNetworkFacade() {
+                return defaultConfiguration.getNetworkFacade();
+            }
+
+            @Override
+            public int getNetMsgBufferSize() {
+                return defaultConfiguration.getNetMsgBufferSize();
+            }
+
+            @Override
+            public int getWriterTableQueueLimit() {
+                return tableQueueLimit;
+            }
+        };
+        nWriterThreads = 1;
+        final String table = "tableQueueLimit";
+        final int nRows = 1_000;
+        final AtomicInteger maxPendingEventCount = new AtomicInteger();
+        runInContext(() -> {
+            Assert.assertEquals(tableQueueLimit, scheduler.getTableQueueLimit());
+            long timestamp = 1465839830100400200L;
+            for (int i = 0; i < nRows; i += 10) {
+                sink.clear();
+                for (int j = 0; j < 10; j++) {
+                    sink.put(table).put(",location=us-midwest temperature=").put(i + j).put(' ').put(timestamp).put('\n');
+                    timestamp += 1000;
+                }
+                recvBuffer = sink.toString();
+                do {
+                    handleContextIO();
+                } while (recvBuffer.length() > 0);
+            }
+            waitForIOCompletion();
+            Assert.assertEquals(0, scheduler.getPendingEventCount(table));
+            final StringSink queueDepth = new StringSink();
+            scheduler.scrapePendingEventCounts((tableName, value) -> queueDepth.put(tableName).put('=').put(value).put('\n'));
+            TestUtils.assertEquals(table + "=0\n", queueDepth);
+            closeContext();
+            Assert.assertTrue(maxPendingEventCount.get() <= tableQueueLimit);
+            assertTableCount(table, nRows, timestamp - 1000);
+        }, () -> {
+            if (scheduler.getPendingEventCount(table) > maxPendingEventCount.get()) {
+                maxPendingEventCount.set(scheduler.getPendingEventCount(table));
+            }
+        });
+    }
+
     @Test
     public void testThreadsWithUnbalancedLoad() throws Exception {
         nWriterThreads = 3;
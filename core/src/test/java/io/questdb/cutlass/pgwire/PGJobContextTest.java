@@ -26,6 +26,7 @@ package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.GeoHashes;
 import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -58,8 +59,8 @@ import org.postgresql.core.BaseConnection;
 import org.postgresql.util.PGTimestamp;
 import org.postgresql.util.PSQLException;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.*;
 import java.text.SimpleDateFormat;
@@ -352,6 +353,70 @@ public class PGJobContextTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testBatchInsertAutoCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(2);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("create table test_batch(id long, val int)");
+                }
+                try (PreparedStatement batchInsert = connection.prepareStatement("insert into test_batch(id,val) values(?,?)")) {
+                    for (int i = 0; i < 10_000; i++) {
+                        batchInsert.setLong(1, i);
+                        batchInsert.setInt(2, i % 7);
+                        batchInsert.addBatch();
+                    }
+                    Assert.assertEquals(10_000, batchInsert.executeBatch().length);
+                }
+
+                // batch is committed at Sync and writer is released
+                try (TableWriter w = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "test_batch", "test")) {
+                    Assert.assertEquals(10_000, w.size());
+                }
+
+                StringSink sink = new StringSink();
+                try (ResultSet rs = connection.createStatement().executeQuery("select count(), sum(id) from test_batch")) {
+                    assertResultSet("count[BIGINT],sum[BIGINT]\n10000,49995000\n", sink, rs);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testBatchInsertErrorRollsBackBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(2);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("create table test_batch(id long, ts timestamp) timestamp(ts) partition by DAY");
+                }
+                try (PreparedStatement batchInsert = connection.prepareStatement("insert into test_batch values(?,?)")) {
+                    for (int i = 0; i < 10; i++) {
+                        batchInsert.setLong(1, i);
+                        batchInsert.setString(2, i == 5 ? "not a timestamp" : "2020-01-01T00:00:0" + i + ".000000Z");
+                        batchInsert.addBatch();
+                    }
+                    try {
+                        batchInsert.executeBatch();
+                        Assert.fail();
+                    } catch (BatchUpdateException e) {
+                        TestUtils.assertContains(e.getMessage(), "could not parse");
+                    }
+                }
+
+                StringSink sink = new StringSink();
+                try (ResultSet rs = connection.createStatement().executeQuery("select count() from test_batch")) {
+                    assertResultSet("count[BIGINT]\n0\n", sink, rs);
+                }
+            }
+        });
+    }
+
     @Test
     public void testBlobOverLimit() throws Exception {
         PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
@@ -669,6 +734,91 @@ public class PGJobContextTest extends AbstractGriffinTest {
         }
     }
 
+    @Test
+    public void testCopyOutBinary() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(2);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                createCopyOutTable(connection);
+
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                Assert.assertEquals(2, copyManager.copyOut("copy tab to stdout with (format binary)", out));
+
+                final DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+                final byte[] signature = new byte[11];
+                in.readFully(signature);
+                Assert.assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0}, signature);
+                Assert.assertEquals(0, in.readInt()); // flags
+                Assert.assertEquals(0, in.readInt()); // header extension
+
+                Assert.assertEquals(7, in.readShort());
+                Assert.assertEquals(4, in.readInt());
+                Assert.assertEquals(1, in.readInt());
+                Assert.assertEquals(8, in.readInt());
+                Assert.assertEquals(10, in.readLong());
+                Assert.assertEquals(8, in.readInt());
+                Assert.assertEquals(1.5, in.readDouble(), 0.000001);
+                final byte[] str = new byte[in.readInt()];
+                in.readFully(str);
+                Assert.assertEquals("a\tb\\c", new String(str, StandardCharsets.UTF_8));
+                final byte[] sym = new byte[in.readInt()];
+                in.readFully(sym);
+                Assert.assertEquals("x", new String(sym, StandardCharsets.UTF_8));
+                Assert.assertEquals(1, in.readInt());
+                Assert.assertEquals(1, in.readByte());
+                Assert.assertEquals(8, in.readInt());
+                // PG epoch starts at 2000
+                Assert.assertEquals(1_000_000L - Numbers.JULIAN_EPOCH_OFFSET_USEC, in.readLong());
+
+                Assert.assertEquals(7, in.readShort());
+                for (int i = 0; i < 5; i++) {
+                    Assert.assertEquals(-1, in.readInt());
+                }
+                Assert.assertEquals(1, in.readInt());
+                Assert.assertEquals(0, in.readByte());
+                Assert.assertEquals(-1, in.readInt());
+
+                // trailer
+                Assert.assertEquals(-1, in.readShort());
+                Assert.assertEquals(0, in.available());
+            }
+        });
+    }
+
+    @Test
+    public void testCopyOutText() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(2);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                createCopyOutTable(connection);
+
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                Assert.assertEquals(2, copyManager.copyOut("copy tab to stdout", out));
+                TestUtils.assertEquals(
+                        "1\t10\t1.5\ta\\tb\\\\c\tx\tt\t1970-01-01 00:00:01.000000\n" +
+                                "\\N\t\\N\t\\N\t\\N\t\\N\tf\t\\N\n",
+                        new String(out.toByteArray(), StandardCharsets.UTF_8)
+                );
+
+                // sub-query and the statement that follows the copy
+                out.reset();
+                Assert.assertEquals(1, copyManager.copyOut("copy (select i, s from tab where i = 1) to stdout with format text", out));
+                TestUtils.assertEquals("1\ta\\tb\\\\c\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+                try (ResultSet rs = connection.prepareStatement("select count() from tab").executeQuery()) {
+                    Assert.assertTrue(rs.next());
+                    Assert.assertEquals(2, rs.getLong(1));
+                }
+            }
+        });
+    }
+
     @Test
     public void testCursorFetch() throws Exception {
         assertMemoryLeak(() -> {
@@ -4215,6 +4365,15 @@ nodejs code:
         }
     }
 
+    private void createCopyOutTable(Connection connection) throws SQLException {
+        connection.prepareStatement("create table tab (i int, l long, d double, s string, sym symbol, b boolean, ts timestamp)").execute();
+        try (PreparedStatement insert = connection.prepareStatement("insert into tab values (1, 10, 1.5, ?, 'x', true, '1970-01-01T00:00:01.000000Z')")) {
+            insert.setString(1, "a\tb\\c");
+            insert.execute();
+        }
+        connection.prepareStatement("insert into tab values (null, null, null, null, null, false, null)").execute();
+    }
+
     private Connection getConnection(boolean simple, boolean binary) throws SQLException {
         Properties properties = new Properties();
         properties.setProperty("user", "admin");
@@ -31,10 +31,12 @@ import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
+import io.questdb.mp.SOUnboundedCountDownLatch;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.str.Path;
+import io.questdb.tasks.TextImportTask;
 import io.questdb.test.tools.TestUtils;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -1662,6 +1664,101 @@ public class TextLoaderTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testParallelLoad() throws Exception {
+        assertNoLeak(textLoader -> {
+            String csv = "name,value,ts\r\n" +
+                    "\"a,1\",1,2021-01-01T00:00:00.000000Z\r\n" +
+                    "\"b\nc\",2,2021-01-02T00:00:00.000000Z\r\n" +
+                    "\"d\"\"e\",3,2021-01-03T00:00:00.000000Z\n" +
+                    "\n" +
+                    "\"f\r\n\",4,2021-01-04T00:00:00.000000Z\n" +
+                    "g\"h,5,2021-01-05T00:00:00.000000Z\n" +
+                    "i,6,2021-01-06T00:00:00.000000Z";
+
+            String expected = "name\tvalue\tts\n" +
+                    "a,1\t1\t2021-01-01T00:00:00.000000Z\n" +
+                    "b\nc\t2\t2021-01-02T00:00:00.000000Z\n" +
+                    "d\"e\t3\t2021-01-03T00:00:00.000000Z\n" +
+                    "f\r\n\t4\t2021-01-04T00:00:00.000000Z\n" +
+                    "g\"h\t5\t2021-01-05T00:00:00.000000Z\n" +
+                    "i\t6\t2021-01-06T00:00:00.000000Z\n";
+
+            configureLoaderDefaults(textLoader, (byte) ',');
+            textLoader.setForceHeaders(true);
+            playText0(textLoader, csv, 1024, ENTITY_MANIPULATOR);
+            assertTable(expected);
+            final long expectedParsedLineCount = textLoader.getParsedLineCount();
+            textLoader.clear();
+
+            for (int chunkSize = 1; chunkSize < csv.length(); chunkSize += 7) {
+                for (int batchSize = 1; batchSize < 4; batchSize++) {
+                    try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "test", "testing")) {
+                        writer.truncate();
+                    }
+                    configureLoaderDefaults(textLoader, (byte) ',');
+                    textLoader.setForceHeaders(true);
+                    playTextParallel(textLoader, csv, chunkSize, batchSize);
+                    Assert.assertEquals(expectedParsedLineCount, textLoader.getParsedLineCount());
+                    Assert.assertEquals(6, textLoader.getWrittenLineCount());
+                    assertTable(expected);
+                    textLoader.clear();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testParallelLoadChunkBoundaries() {
+        String text = "a,\"b\nc\"\r\nd,\"e\"\"\n\"\ng\"h,i\nj,k";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        long buf = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < bytes.length; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, bytes[i]);
+            }
+            LongList boundaries = new LongList();
+            TextLoader.findChunkBoundaries(buf, buf + bytes.length, 1, (byte) ',', boundaries);
+            Assert.assertEquals(5, boundaries.size());
+            Assert.assertEquals(0, boundaries.getQuick(0) - buf);
+            Assert.assertEquals(text.indexOf('d'), boundaries.getQuick(1) - buf);
+            Assert.assertEquals(text.indexOf('g'), boundaries.getQuick(2) - buf);
+            Assert.assertEquals(text.indexOf('j'), boundaries.getQuick(3) - buf);
+            Assert.assertEquals(bytes.length, boundaries.getQuick(4) - buf);
+
+            TextLoader.findChunkBoundaries(buf, buf + bytes.length, bytes.length, (byte) ',', boundaries);
+            Assert.assertEquals(2, boundaries.size());
+        } finally {
+            Unsafe.free(buf, bytes.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testParallelLoadChunkError() {
+        final CairoException expected = CairoException.instance(0).put("chunk is broken");
+        try (
+                TextImportChunk chunk = new TextImportChunk(new DefaultTextConfiguration()) {
+                    @Override
+                    public void parse() {
+                        throw expected;
+                    }
+                }
+        ) {
+            final SOUnboundedCountDownLatch latch = new SOUnboundedCountDownLatch();
+            final TextImportTask task = new TextImportTask();
+            chunk.of(0, 0, (byte) ',', 1, false, false, "test");
+            task.of(chunk, latch);
+            // error must not escape into worker loop
+            Assert.assertTrue(task.run());
+            Assert.assertEquals(-1, latch.getCount());
+            Assert.assertSame(expected, chunk.getError());
+
+            // chunk reuse clears the error
+            chunk.of(0, 0, (byte) ',', 1, false, false, "test");
+            Assert.assertNull(chunk.getError());
+        }
+    }
+
     @Test
     public void testOverrideDoubleWithFloat() throws Exception {
         assertNoLeak(textLoader -> {
@@ -3199,6 +3296,21 @@ public class TextLoaderTest extends AbstractGriffinTest {
         }
     }
 
+    private void playTextParallel(TextLoader textLoader, String text, long chunkSize, int batchSize) throws TextException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int len = bytes.length;
+        long buf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, bytes[i]);
+            }
+            textLoader.parseParallel(buf, buf + len, len, chunkSize, batchSize, AllowAllCairoSecurityContext.INSTANCE);
+            textLoader.wrapUp();
+        } finally {
+            Unsafe.free(buf, len, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     private void playJson(TextLoader textLoader, String jsonStr) throws TextException {
         byte[] json = jsonStr.getBytes(StandardCharsets.UTF_8);
         textLoader.setState(TextLoader.LOAD_JSON_METADATA);
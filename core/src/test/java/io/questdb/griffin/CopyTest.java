@@ -24,7 +24,14 @@
 
 package io.questdb.griffin;
 
+import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.text.TextImportJob;
+import io.questdb.griffin.model.CopyModel;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -67,6 +74,128 @@ public class CopyTest extends AbstractGriffinTest {
         ));
     }
 
+    @Test
+    public void testCopyToStdout() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a, cast(x as string) b from long_sequence(3))", sqlExecutionContext);
+            final CompiledQuery cc = compiler.compile("copy x to stdout with format binary", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.COPY_OUT, cc.getType());
+            Assert.assertEquals(CopyModel.FORMAT_BINARY, cc.getCopyFormat());
+            try (RecordCursorFactory factory = cc.getRecordCursorFactory()) {
+                assertFactoryCursor("a\tb\n1\t1\n2\t2\n3\t3\n", null, factory, true, sqlExecutionContext, true, true);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutBadFormat() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy x to stdout with format csv",
+                "create table x as (select x a from long_sequence(1))",
+                29,
+                "'binary' or 'text' expected"
+        ));
+    }
+
+    @Test
+    public void testCopyToStdoutBadTarget() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy x to stdin",
+                "create table x as (select x a from long_sequence(1))",
+                10,
+                "'stdout' expected"
+        ));
+    }
+
+    @Test
+    public void testCopyToStdoutSubQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            final CompiledQuery cc = compiler.compile("copy (select x from long_sequence(2) where x > 1) to stdout with (format text)", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.COPY_OUT, cc.getType());
+            Assert.assertEquals(CopyModel.FORMAT_TEXT, cc.getCopyFormat());
+            try (RecordCursorFactory factory = cc.getRecordCursorFactory()) {
+                assertFactoryCursor("x\n2\n", null, factory, true, sqlExecutionContext, true, false);
+            }
+        });
+    }
+
+    @Test
+    public void testParallelCopy() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlCopyParallelChunkSize = 1024;
+            compiler.compile("copy x from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            sqlCopyParallelChunkSize = 0;
+            compiler.compile("copy y from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+        });
+    }
+
+    @Test
+    public void testParallelCopyIntoPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            final String ddl = "(StrSym symbol, IntSym symbol, Int_Col int, DoubleCol double, IsoDate timestamp, Fmt1Date timestamp," +
+                    " Fmt2Date date, Phone string, boolean boolean, long long) timestamp(IsoDate) partition by DAY";
+            compiler.compile("create table x " + ddl, sqlExecutionContext);
+            compiler.compile("create table y " + ddl, sqlExecutionContext);
+            sqlCopyParallelChunkSize = 1024;
+            compiler.compile("copy x from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            sqlCopyParallelChunkSize = 0;
+            compiler.compile("copy y from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where StrSym = 'CMP1'", "x where StrSym = 'CMP1'", LOG);
+        });
+    }
+
+    @Test
+    public void testParallelCopyMalformed() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlCopyParallelChunkSize = 1024;
+            compiler.compile("copy x from '/src/test/resources/csv/test-import-malformed.csv'", sqlExecutionContext);
+            sqlCopyParallelChunkSize = 0;
+            compiler.compile("copy y from '/src/test/resources/csv/test-import-malformed.csv'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+        });
+    }
+
+    @Test
+    public void testParallelCopyWithWorkers() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(new WorkerPoolAwareConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+
+                @Override
+                public boolean isEnabled() {
+                    return true;
+                }
+            });
+            pool.assignCleaner(Path.CLEANER);
+            pool.assign(new TextImportJob(engine.getMessageBus()));
+            pool.start(LOG);
+            try {
+                sqlCopyParallelChunkSize = 512;
+                compiler.compile("copy x from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            } finally {
+                pool.halt();
+            }
+            sqlCopyParallelChunkSize = 0;
+            compiler.compile("copy y from '/src/test/resources/csv/test-import.csv'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+        });
+    }
+
     @Test
     public void testSimpleCopy() throws Exception {
         assertMemoryLeak(() -> {
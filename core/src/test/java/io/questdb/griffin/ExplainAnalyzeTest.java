@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExplainAnalyzeTest extends AbstractGriffinTest {
+
+    @Test
+    public void testFilterOrderLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(100)) timestamp(ts)", sqlExecutionContext);
+            assertProfile(
+                    "LimitRecordCursorFactory\t1\t10\t0\t10\n" +
+                            "  SortedLightRecordCursorFactory\t2\t10\t0\t-1\n" +
+                            "    FilteredRecordCursorFactory\t1\t50\t0\t-1\n" +
+                            "      DataFrameRecordCursorFactory\t1\t100\t0\t100\n",
+                    "explain analyze select * from x where x % 2 = 0 order by x desc limit 10"
+            );
+        });
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            compiler.compile("create table y as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(5)) timestamp(ts)", sqlExecutionContext);
+            assertProfile(
+                    "SelectedRecordCursorFactory\t1\t5\t0\t-1\n" +
+                            "  HashJoinLightRecordCursorFactory\t1\t5\t0\t-1\n" +
+                            "    DataFrameRecordCursorFactory\t1\t10\t0\t10\n" +
+                            "    DataFrameRecordCursorFactory\t1\t5\t0\t5\n",
+                    "explain analyze select * from x join y on (x)"
+            );
+        });
+    }
+
+    @Test
+    public void testPageFrames() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('a','b') s, rnd_double() d, timestamp_sequence(0, 3600000000) ts from long_sequence(100)) timestamp(ts) partition by day", sqlExecutionContext);
+            assertProfile(
+                    "GroupByRecordCursorFactory\t1\t2\t0\t2\n" +
+                            "  DataFrameRecordCursorFactory\t1\t0\t5\t100\n",
+                    "explain analyze select s, sum(d) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testProfileIsResetOnEveryExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(20))", sqlExecutionContext);
+            final String expected = "FilteredRecordCursorFactory\t1\t15\t0\t-1\n" +
+                    "  DataFrameRecordCursorFactory\t1\t20\t0\t20\n";
+            try (RecordCursorFactory factory = compiler.compile("explain analyze select * from x where x > 5", sqlExecutionContext).getRecordCursorFactory()) {
+                assertProfile(expected, factory);
+                assertProfile(expected, factory);
+            }
+        });
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x from long_sequence(3))", sqlExecutionContext);
+            assertProfile(
+                    "UnionAllRecordCursorFactory\t1\t5\t0\t-1\n" +
+                            "  DataFrameRecordCursorFactory\t2\t3\t0\t3\n" +
+                            "  FilteredRecordCursorFactory\t2\t2\t0\t-1\n" +
+                            "    DataFrameRecordCursorFactory\t2\t3\t0\t3\n",
+                    "explain analyze select * from x union all select * from x where x > 1"
+            );
+        });
+    }
+
+    @Test
+    public void testExpectedAnalyze() throws Exception {
+        assertFailure("explain select 1", null, 8, "expected 'analyze'");
+    }
+
+    @Test
+    public void testExpectedSelect() throws Exception {
+        assertFailure("explain analyze create table x (a int)", null, 16, "select query expected");
+    }
+
+    private static void assertProfile(String expected, String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            assertProfile(expected, factory);
+        }
+    }
+
+    private static void assertProfile(String expected, RecordCursorFactory factory) throws SqlException {
+        // timings are not stable, print the deterministic columns only
+        final StringSink sink = new StringSink();
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                Assert.assertTrue(record.getLong(3) >= 0);
+                Assert.assertTrue(record.getLong(4) >= 0);
+                sink.put(record.getStr(0)).put('\t')
+                        .put(record.getLong(1)).put('\t')
+                        .put(record.getLong(2)).put('\t')
+                        .put(record.getLong(5)).put('\t')
+                        .put(record.getLong(6)).put('\n');
+            }
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+}
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.LatestByScanJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
@@ -78,6 +79,26 @@ public class LatestByParallelTest {
         TestUtils.removeTestPath(root);
     }
 
+    @Test
+    public void testLatestByAllNonIndexedParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByAllNonIndexed);
+    }
+
+    @Test
+    public void testLatestByAllNonIndexedParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByAllNonIndexed);
+    }
+
+    @Test
+    public void testLatestByAllNonIndexedParallel3() throws Exception {
+        executeWithPool(4, 0, LatestByParallelTest::testLatestByAllNonIndexed);
+    }
+
+    @Test
+    public void testLatestByAllNonIndexedVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByAllNonIndexed);
+    }
+
     @Test
     public void testLatestByAllParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByAll);
@@ -98,6 +119,26 @@ public class LatestByParallelTest {
         executeVanilla(LatestByParallelTest::testLatestByAll);
     }
 
+    @Test
+    public void testLatestByFilteredNonIndexedParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByFilteredNonIndexed);
+    }
+
+    @Test
+    public void testLatestByFilteredNonIndexedParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByFilteredNonIndexed);
+    }
+
+    @Test
+    public void testLatestByFilteredNonIndexedParallel3() throws Exception {
+        executeWithPool(4, 0, LatestByParallelTest::testLatestByFilteredNonIndexed);
+    }
+
+    @Test
+    public void testLatestByFilteredNonIndexedVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByFilteredNonIndexed);
+    }
+
     @Test
     public void testLatestByFilteredParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByFiltered);
@@ -118,6 +159,26 @@ public class LatestByParallelTest {
         executeVanilla(LatestByParallelTest::testLatestByFiltered);
     }
 
+    @Test
+    public void testLatestByManyPartitionsParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByManyPartitions);
+    }
+
+    @Test
+    public void testLatestByManyPartitionsParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByManyPartitions);
+    }
+
+    @Test
+    public void testLatestByManyPartitionsParallel3() throws Exception {
+        executeWithPool(4, 0, LatestByParallelTest::testLatestByManyPartitions);
+    }
+
+    @Test
+    public void testLatestByManyPartitionsVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByManyPartitions);
+    }
+
     @Test
     public void testLatestByTimestampParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByTimestamp);
@@ -167,6 +228,34 @@ public class LatestByParallelTest {
         assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
     }
 
+    private static void testLatestByAllNonIndexed(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+
+        final String expected = "a\tb\tk\n" +
+                "23.90529010846525\tRXGZ\t1970-01-03T07:33:20.000000Z\n" +
+                "12.026122412833129\tHYRX\t1970-01-11T10:00:00.000000Z\n" +
+                "48.820511018586934\tVTJW\t1970-01-12T13:46:40.000000Z\n" +
+                "49.00510449885239\tPEHN\t1970-01-18T08:40:00.000000Z\n" +
+                "40.455469747939254\t\t1970-01-22T23:46:40.000000Z\n";
+
+        final String ddl = "create table x as " +
+                "(" +
+                "select" +
+                " rnd_double(0)*100 a," +
+                " rnd_symbol(5,4,4,1) b," +
+                " timestamp_sequence(0, 100000000000) k" +
+                " from" +
+                " long_sequence(20)" +
+                ") timestamp(k) partition by DAY";
+
+        final String query = "select * from x latest by b";
+
+        assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
+    }
+
     private static void testLatestByAll(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -195,6 +284,108 @@ public class LatestByParallelTest {
         assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
     }
 
+    private static void testLatestByFilteredNonIndexed(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+
+        final String expected = "a\tk\tb\n" +
+                "78.83065830055033\t1970-01-04T11:20:00.000000Z\tVTJW\n" +
+                "95.40069089049732\t1970-01-11T10:00:00.000000Z\tHYRX\n" +
+                "51.85631921367574\t1970-01-19T12:26:40.000000Z\tCPSW\n" +
+                "50.25890936351257\t1970-01-20T16:13:20.000000Z\tRXGZ\n" +
+                "72.604681060764\t1970-01-22T23:46:40.000000Z\t\n";
+
+        final String ddl = "create table x as " +
+                "(" +
+                "select" +
+                " timestamp_sequence(0, 100000000000) k," +
+                " rnd_double(0)*100 a1," +
+                " rnd_double(0)*100 a2," +
+                " rnd_double(0)*100 a3," +
+                " rnd_double(0)*100 a," +
+                " rnd_symbol(5,4,4,1) b" +
+                " from long_sequence(20)" +
+                ") timestamp(k) partition by DAY";
+
+        final String query = "select a,k,b from x latest by b where a > 40";
+
+        assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
+    }
+
+    private static void testLatestByManyPartitions(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        compiler.compile(
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_symbol(200,4,4,1) b," +
+                        " rnd_symbol(3,4,4,0) c," +
+                        " rnd_int(0, 999, 0) i," +
+                        " cast(rnd_int(0, 49, 0) as string) s," +
+                        " timestamp_sequence(0, 3600000000) k" +
+                        " from long_sequence(3000)" +
+                        ") timestamp(k) partition by DAY",
+                sqlExecutionContext
+        );
+
+        // timestamps are unique, so the latest row of each key is the one with max timestamp
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select b, max(k) k from x order by b",
+                "select b, k from (x latest by b) order by b",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select b, c, max(k) k from x order by b, c",
+                "select b, c, k from (x latest by b, c) order by b, c",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select i, max(k) k from x order by i",
+                "select i, k from (x latest by i) order by i",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select s, max(k) k from x order by s",
+                "select s, k from (x latest by s) order by s",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select b, max(k) k from x where a > 50 and c != 'XYZ' order by b",
+                "select b, k from (x latest by b where a > 50 and c != 'XYZ') order by b",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select b, max(k) k from x where b ~ 'B' order by b",
+                "select b, k from (x latest by b where b ~ 'B') order by b",
+                LOG
+        );
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select i, max(k) k from x where k > '1970-01-05' and k < '1970-01-10' order by i",
+                "select i, k from (x latest by i where k > '1970-01-05' and k < '1970-01-10') order by i",
+                LOG
+        );
+    }
+
     private static void testLatestByTimestamp(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -320,6 +511,7 @@ public class LatestByParallelTest {
                     if (pool != null) {
                         pool.assignCleaner(Path.CLEANER);
                         pool.assign(new LatestByAllIndexedJob(engine.getMessageBus()));
+                        pool.assign(new LatestByScanJob(engine.getMessageBus()));
                         pool.start(LOG);
                     }
 
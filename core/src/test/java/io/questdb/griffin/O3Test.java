@@ -507,6 +507,23 @@ public class O3Test extends AbstractO3Test {
         executeWithPool(4, O3Test::testPartitionedDataAppendOOPrependOOData0);
     }
 
+    @Test
+    public void testPartitionedDataMergeAsyncRead() throws Exception {
+        final SyncIOURingFacade rf = new SyncIOURingFacade();
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public IOURingFacade getIOURingFacade() {
+                return rf;
+            }
+        };
+        executeWithPool(0, (engine, compiler, sqlExecutionContext) -> {
+            testPartitionedDataMergeAsyncRead0(engine, compiler, sqlExecutionContext);
+            // column data before and after o3 block and the column top are copied via the ring
+            Assert.assertTrue(rf.readCount > 0);
+        }, ff);
+        FilesFacadeImpl.clearThreadLocals();
+    }
+
     @Test
     public void testPartitionedDataMergeData() throws Exception {
         executeVanilla(O3Test::testPartitionedDataMergeData0);
@@ -3509,6 +3526,60 @@ public class O3Test extends AbstractO3Test {
         );
     }
 
+    private static void testPartitionedDataMergeAsyncRead0(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        // columns are large enough to be copied via asynchronous reads
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_long() j," +
+                        " rnd_str(5,16,2) s," +
+                        " timestamp_sequence(450000000000L,100000L) ts" +
+                        " from long_sequence(100000)" +
+                        ") timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        compiler.compile("alter table x add column v long", sqlExecutionContext);
+        compiler.compile("alter table x add column w string", sqlExecutionContext);
+
+        compiler.compile(
+                "insert into x " +
+                        "select" +
+                        " rnd_long() j," +
+                        " rnd_str(5,16,2) s," +
+                        " timestamp_sequence(460000000000L,100000L) ts," +
+                        " rnd_long() v," +
+                        " rnd_str(5,16,2) w" +
+                        " from long_sequence(150000)",
+                sqlExecutionContext
+        );
+
+        compiler.compile(
+                "create table append as (" +
+                        "select" +
+                        " rnd_long() j," +
+                        " rnd_str(5,16,2) s," +
+                        " timestamp_sequence(450000050000L,1000000L) ts," +
+                        " rnd_long() v," +
+                        " rnd_str(5,16,2) w" +
+                        " from long_sequence(1000)" +
+                        ") timestamp (ts) partition by DAY",
+                sqlExecutionContext
+        );
+
+        assertO3DataConsistency(
+                engine,
+                compiler,
+                sqlExecutionContext,
+                "create table y as (x union all append)",
+                "insert into x select * from append"
+        );
+    }
+
     private static void testColumnTopLastDataOOOData0(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -6947,4 +7018,118 @@ public class O3Test extends AbstractO3Test {
             }
         }
     }
+
+    // executes reads synchronously when they are submitted
+    private static class SyncIOURingFacade implements IOURingFacade {
+        private volatile int readCount;
+
+        @Override
+        public int close(int fd) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int enter(int fd, int toSubmit, int minComplete, int flags) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int errno() {
+            return 0;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public IOURing newInstance(int capacity) {
+            return new IOURing() {
+                // id, fd, offset, address and length of queued reads
+                private final LongList queued = new LongList();
+                // id and result of completed reads
+                private final LongList completed = new LongList();
+                private int cqeIndex = -2;
+                private long idSeq;
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public long enqueueFsync(long fd) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long enqueueNop() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long enqueueRead(long fd, long offset, long bufPtr, int len) {
+                    if (queued.size() / 5 == capacity) {
+                        return -1;
+                    }
+                    final long id = idSeq++;
+                    queued.add(id);
+                    queued.add(fd);
+                    queued.add(offset);
+                    queued.add(bufPtr);
+                    queued.add(len);
+                    return id;
+                }
+
+                @Override
+                public long enqueueWrite(long fd, long offset, long bufPtr, int len) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long getCqeId() {
+                    return completed.getQuick(cqeIndex);
+                }
+
+                @Override
+                public int getCqeRes() {
+                    return (int) completed.getQuick(cqeIndex + 1);
+                }
+
+                @Override
+                public boolean nextCqe() {
+                    cqeIndex += 2;
+                    if (cqeIndex < completed.size()) {
+                        return true;
+                    }
+                    completed.clear();
+                    cqeIndex = -2;
+                    return false;
+                }
+
+                @Override
+                public int submit() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int submitAndWait() {
+                    final int n = queued.size() / 5;
+                    for (int i = 0; i < n; i++) {
+                        final int p = i * 5;
+                        completed.add(queued.getQuick(p));
+                        completed.add(Files.read(queued.getQuick(p + 1), queued.getQuick(p + 3), queued.getQuick(p + 4), queued.getQuick(p + 2)));
+                    }
+                    queued.clear();
+                    readCount += n;
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public int setup(int entries, long params) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.ObjList;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryRegistryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCancelInterruptsQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            final QueryRegistry registry = engine.getQueryRegistry();
+            final QueryRegistry.Entry entry = registry.register("select sum(x) from long_sequence(10)", 5, QueryRegistry.SOURCE_PGWIRE, null);
+            try {
+                final SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, 1)
+                        .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, 5, entry);
+                compiler.compile("cancel query " + entry.getId(), sqlExecutionContext);
+                Assert.assertTrue(entry.isCancelled());
+
+                try (RecordCursorFactory factory = compiler.compile(entry.getQuery(), context).getRecordCursorFactory()) {
+                    try (RecordCursor ignored = factory.getCursor(context)) {
+                        Assert.fail();
+                    }
+                } catch (CairoException e) {
+                    Assert.assertTrue(e.isInterruption());
+                    TestUtils.assertContains(e.getFlyweightMessage(), "query cancelled [id=" + entry.getId() + ']');
+                }
+            } finally {
+                registry.unregister(entry);
+            }
+        });
+    }
+
+    @Test
+    public void testCancelNotRunning() throws Exception {
+        assertFailure("cancel query 123456", 13, "query is not running [id=123456]");
+    }
+
+    @Test
+    public void testCancelSyntax() throws Exception {
+        assertFailure("cancel", 6, "expected 'query'");
+        assertFailure("cancel table", 7, "expected 'query'");
+        assertFailure("cancel query", 12, "query id expected");
+        assertFailure("cancel query abc", 13, "invalid query id [value=abc]");
+        assertFailure("cancel query 1 now", 15, "unexpected token [now]");
+    }
+
+    @Test
+    public void testQueryActivity() throws Exception {
+        assertMemoryLeak(() -> {
+            final QueryRegistry registry = engine.getQueryRegistry();
+            final QueryRegistry.Entry a = registry.register("select * from a", 10, QueryRegistry.SOURCE_HTTP, null);
+            final QueryRegistry.Entry b = registry.register("select * from b", 11, QueryRegistry.SOURCE_PGWIRE, null);
+            try {
+                b.setRowCount(42);
+                Assert.assertEquals(2, registry.getRunningCount());
+                TestUtils.assertSql(
+                        compiler,
+                        sqlExecutionContext,
+                        "select query_id - " + a.getId() + " id, source, fd, rows, cancelled, query from query_activity() order by 1",
+                        sink,
+                        "id\tsource\tfd\trows\tcancelled\tquery\n" +
+                                "0\thttp\t10\t0\tfalse\tselect * from a\n" +
+                                "1\tpgwire\t11\t42\tfalse\tselect * from b\n"
+                );
+
+                compiler.compile("cancel query " + a.getId() + ';', sqlExecutionContext);
+                TestUtils.assertSql(
+                        compiler,
+                        sqlExecutionContext,
+                        "select fd, cancelled from query_activity() order by fd",
+                        sink,
+                        "fd\tcancelled\n" +
+                                "10\ttrue\n" +
+                                "11\tfalse\n"
+                );
+            } finally {
+                registry.unregister(a);
+            }
+
+            try {
+                final ObjList<QueryRegistry.Entry> snapshot = new ObjList<>();
+                Assert.assertEquals(1, registry.snapshot(snapshot));
+                Assert.assertEquals(b.getId(), snapshot.getQuick(0).getId());
+                TestUtils.assertEquals("select * from b", snapshot.getQuick(0).getQuery());
+            } finally {
+                registry.unregister(b);
+            }
+
+            Assert.assertEquals(0, registry.getRunningCount());
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count() from query_activity()",
+                    sink,
+                    "count\n" +
+                            "0\n"
+            );
+        });
+    }
+
+    private static void assertFailure(String sql, int position, String message) throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile(sql, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), message);
+            }
+        });
+    }
+}
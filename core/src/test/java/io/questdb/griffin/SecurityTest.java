@@ -133,6 +133,25 @@ public class SecurityTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testCancelQueryDeniedOnNoWriteAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            final QueryRegistry registry = engine.getQueryRegistry();
+            final QueryRegistry.Entry entry = registry.register("select * from balances", 5, QueryRegistry.SOURCE_HTTP, null);
+            try {
+                try {
+                    compiler.compile("cancel query " + entry.getId(), readOnlyExecutionContext);
+                    Assert.fail();
+                } catch (Exception ex) {
+                    Assert.assertTrue(ex.toString().contains("permission denied"));
+                }
+                Assert.assertFalse(entry.isCancelled());
+            } finally {
+                registry.unregister(entry);
+            }
+        });
+    }
+
     @Test
     public void testCreateTableDeniedOnNoWriteAccess() throws Exception {
         assertMemoryLeak(() -> {
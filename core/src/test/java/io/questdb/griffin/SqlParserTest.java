@@ -133,6 +133,46 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameEndBeforeStart() throws Exception {
+        assertSyntaxError(
+                "select a,b, sum(c) over (order by ts rows between current row and 2 preceding) from xyz",
+                50,
+                "frame start cannot be after frame end",
+                modelOf("xyz").col("a", ColumnType.INT).col("b", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameInvalidBound() throws Exception {
+        assertSyntaxError(
+                "select a,b, sum(c) over (order by ts rows between 2 and current row) from xyz",
+                52,
+                "'preceding' or 'following' expected",
+                modelOf("xyz").col("a", ColumnType.INT).col("b", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameNegativeOffset() throws Exception {
+        assertSyntaxError(
+                "select a,b, sum(c) over (order by ts rows -1 preceding) from xyz",
+                42,
+                "'unbounded', 'current' or offset expected",
+                modelOf("xyz").col("a", ColumnType.INT).col("b", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameUnboundedFollowingStart() throws Exception {
+        assertSyntaxError(
+                "select a,b, sum(c) over (order by ts rows unbounded following) from xyz",
+                42,
+                "frame start cannot be UNBOUNDED FOLLOWING",
+                modelOf("xyz").col("a", ColumnType.INT).col("b", ColumnType.INT).col("c", ColumnType.INT).timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticFunctionReferencesSameColumnAsVirtual() throws Exception {
         assertQuery(
@@ -4012,6 +4052,45 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testOneAnalyticColumnRangeFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, b, avg(c) avg over (partition by b order by ts range between 300000000 preceding and current row) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, avg(c) over (partition by b order by ts range '5m' preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testOneAnalyticColumnRowsFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, b, sum(c) sum over (partition by b order by ts rows between 3 preceding and current row) from (select [a, b, c, ts] from xyz timestamp (ts))",
+                "select a,b, sum(c) over (partition by b order by ts rows between 3 preceding and current row) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testOneAnalyticColumnUnboundedFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, b, max(c) max over (partition by b rows between unbounded preceding and unbounded following) from (select [a, b, c] from xyz timestamp (ts))",
+                "select a,b, max(c) over (partition by b rows between unbounded preceding and unbounded following) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.INT)
+                        .timestamp("ts")
+        );
+    }
+
     @Test
     public void testOneAnalyticColumnAndLimit() throws Exception {
         assertQuery("select-analytic a, b, f(c) f over (partition by b order by ts) from (select [a, b, c, ts] from xyz timestamp (ts)) limit 200",
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllColumnTypes() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_boolean() a," +
+                            " rnd_byte() b," +
+                            " rnd_short() c," +
+                            " rnd_char() d," +
+                            " rnd_int() e," +
+                            " rnd_long() f," +
+                            " rnd_float() g," +
+                            " rnd_double() h," +
+                            " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) i," +
+                            " rnd_str(3,6,2) j," +
+                            " rnd_symbol('A','B',null) k," +
+                            " rnd_bin(4,8,2) l," +
+                            " rnd_long256() m," +
+                            " rnd_geohash(5) n," +
+                            " rnd_geohash(15) o," +
+                            " rnd_geohash(30) p," +
+                            " rnd_geohash(60) q," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(30)" +
+                            ") timestamp(ts)",
+                    sqlExecutionContext
+            );
+
+            final String query = "select * from x where e > 0";
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+            queryResultCacheSize = 1024 * 1024;
+            final QueryResultCache cache = engine.getQueryResultCache();
+            final long hits = cache.getHitCount();
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof QueryResultCacheRecordCursorFactory);
+                assertFactoryCursor(expected, factory);
+                assertFactoryCursor(expected, factory);
+                assertVariableColumns(factory, true);
+            }
+            Assert.assertEquals(hits + 2, cache.getHitCount());
+        });
+    }
+
+    @Test
+    public void testBindVariablesAreKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(10))", sqlExecutionContext);
+            queryResultCacheSize = 1024 * 1024;
+            try (RecordCursorFactory factory = compiler.compile("select a from x where a > $1 and a < $2", sqlExecutionContext).getRecordCursorFactory()) {
+                bindVariableService.setLong(0, 7);
+                bindVariableService.setLong(1, 10);
+                assertFactoryCursor("a\n8\n9\n", factory);
+
+                bindVariableService.setLong(0, 1);
+                bindVariableService.setLong(1, 4);
+                assertFactoryCursor("a\n2\n3\n", factory);
+
+                bindVariableService.setLong(0, 7);
+                bindVariableService.setLong(1, 10);
+                assertFactoryCursor("a\n8\n9\n", factory);
+            } finally {
+                bindVariableService.clear();
+            }
+        });
+    }
+
+    @Test
+    public void testCommitInvalidatesEntry() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(3))", sqlExecutionContext);
+            queryResultCacheSize = 1024 * 1024;
+            final QueryResultCache cache = engine.getQueryResultCache();
+            final long hits = cache.getHitCount();
+            final long misses = cache.getMissCount();
+
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select sum(a) from x", sink, "sum\n6\n");
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select   sum(a)\nfrom x", sink, "sum\n6\n");
+            Assert.assertEquals(hits + 1, cache.getHitCount());
+            Assert.assertEquals(misses + 1, cache.getMissCount());
+
+            executeInsert("insert into x values (10)");
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select sum(a) from x", sink, "sum\n16\n");
+            Assert.assertEquals(hits + 1, cache.getHitCount());
+            Assert.assertEquals(misses + 2, cache.getMissCount());
+        });
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(1000))", sqlExecutionContext);
+            queryResultCacheSize = 200 * 1024;
+            final QueryResultCache cache = engine.getQueryResultCache();
+            for (int i = 0; i < 10; i++) {
+                TestUtils.printSql(compiler, sqlExecutionContext, "select a from x where a > " + i, sink);
+                Assert.assertTrue(cache.getSize() <= queryResultCacheSize);
+            }
+            Assert.assertTrue(cache.getSize() > 0);
+        });
+    }
+
+    @Test
+    public void testLargeResultIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_str(100, 100, 0) s from long_sequence(100000))", sqlExecutionContext);
+            queryResultCacheSize = 1024 * 1024 * 1024;
+            final QueryResultCache cache = engine.getQueryResultCache();
+            try (RecordCursorFactory factory = compiler.compile("select count() from (select s from x where s <> 'a')", sqlExecutionContext).getRecordCursorFactory()) {
+                assertFactoryCursor("count\n100000\n", factory);
+            }
+            try (RecordCursorFactory factory = compiler.compile("select s from x where s <> 'a'", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof QueryResultCacheRecordCursorFactory);
+                assertRowCount(100000, factory);
+                // result is remembered as too large and is not copied again
+                final long misses = cache.getMissCount();
+                assertRowCount(100000, factory);
+                Assert.assertEquals(misses, cache.getMissCount());
+            }
+            // only aggregate result is small enough to be cached
+            Assert.assertTrue(cache.getSize() < configuration.getQueryResultCacheMaxEntrySize());
+        });
+    }
+
+    @Test
+    public void testNonDeterministicFunctionsAreNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(3))", sqlExecutionContext);
+            queryResultCacheSize = 1024 * 1024;
+            assertNotCached("select a, now() from x");
+            assertNotCached("select a from x where a > rnd_int(0, 2, 0)");
+            assertNotCached("select a from x where systimestamp() > 0");
+            assertNotCached("select * from (select a, rnd_double() d from x) where a > 1");
+            try (RecordCursorFactory factory = compiler.compile("select a, abs(a) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof QueryResultCacheRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testNormaliseQuery() {
+        final StringSink sink = new StringSink();
+        QueryResultCache.normaliseQuery("  select a,  b\n\tfrom x -- comment\nwhere s = '  now()  '  ", sink);
+        TestUtils.assertEquals("select a, b from x where s = '  now()  '", sink);
+
+        sink.clear();
+        QueryResultCache.normaliseQuery("select /* block\ncomment */ a from/**/x where s = '/* not a comment */'", sink);
+        TestUtils.assertEquals("select a from x where s = '/* not a comment */'", sink);
+
+        sink.clear();
+        QueryResultCache.normaliseQuery("select a from x /* unterminated", sink);
+        TestUtils.assertEquals("select a from x", sink);
+    }
+
+    @Test
+    public void testQueriesWithoutTablesAreNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            queryResultCacheSize = 1024 * 1024;
+            try (RecordCursorFactory factory = compiler.compile("select x from long_sequence(3)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof QueryResultCacheRecordCursorFactory);
+            }
+            compiler.compile("create table x as (select x a from long_sequence(3))", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select a, rnd_int() from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof QueryResultCacheRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testStructureChangeInvalidatesFactory() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a from long_sequence(3))", sqlExecutionContext);
+            queryResultCacheSize = 1024 * 1024;
+            try (RecordCursorFactory factory = compiler.compile("select * from x", sqlExecutionContext).getRecordCursorFactory()) {
+                assertFactoryCursor("a\n1\n2\n3\n", factory);
+                compiler.compile("alter table x add column b int", sqlExecutionContext);
+                try {
+                    factory.getCursor(sqlExecutionContext).close();
+                    Assert.fail();
+                } catch (ReaderOutOfDateException ignored) {
+                }
+            }
+        });
+    }
+
+    private static void assertNotCached(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof QueryResultCacheRecordCursorFactory);
+        }
+    }
+
+    private static void assertRowCount(long expected, RecordCursorFactory factory) throws SqlException {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            long count = 0;
+            while (cursor.hasNext()) {
+                count++;
+            }
+            Assert.assertEquals(expected, count);
+        }
+    }
+
+    private static void assertFactoryCursor(CharSequence expected, RecordCursorFactory factory) throws SqlException {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true, sink);
+            TestUtils.assertEquals(expected, sink);
+        }
+    }
+}
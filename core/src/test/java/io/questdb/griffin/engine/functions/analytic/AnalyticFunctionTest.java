@@ -0,0 +1,307 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Test;
+
+public class AnalyticFunctionTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " cast(x % 2 as int) k," +
+            " cast(case when x % 2 = 0 then 'a' else 'b' end as symbol) s," +
+            " x * 1.0 v," +
+            " timestamp_sequence(0, 60000000) ts" +
+            " from long_sequence(6)" +
+            ") timestamp(ts)";
+
+    @Test
+    public void testAvgRangeFrame() throws Exception {
+        assertQuery(
+                "ts\tv\tavg\n" +
+                        "1970-01-01T00:00:00.000000Z\t1.0\t1.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t2.0\t1.5\n" +
+                        "1970-01-01T00:02:00.000000Z\t3.0\t2.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t4.0\t2.5\n" +
+                        "1970-01-01T00:04:00.000000Z\t5.0\t3.5\n" +
+                        "1970-01-01T00:05:00.000000Z\t6.0\t4.5\n",
+                "select ts, v, avg(v) over (order by ts range '3m' preceding) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testCountRowsFrame() throws Exception {
+        assertQuery(
+                "ts\tk\tcount\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t1\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t2\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t2\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t2\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t2\n",
+                "select ts, k, count() over (partition by k order by ts rows 1 preceding) from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testFirstLastValue() throws Exception {
+        assertQuery(
+                "k\tv\tfirst\tlast\n" +
+                        "1\t1.0\t1.0\t5.0\n" +
+                        "0\t2.0\t2.0\t6.0\n" +
+                        "1\t3.0\t1.0\t5.0\n" +
+                        "0\t4.0\t2.0\t6.0\n" +
+                        "1\t5.0\t1.0\t5.0\n" +
+                        "0\t6.0\t2.0\t6.0\n",
+                "select k, v, first_value(v) over (partition by k order by ts) first, last_value(v) over (partition by k) last from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testFrameEndOffsetNotSupported() throws Exception {
+        assertFailure(
+                "select sum(v) over (order by ts rows between 2 preceding and 1 preceding) from x",
+                DDL,
+                32,
+                "frame end must be CURRENT ROW or UNBOUNDED FOLLOWING"
+        );
+    }
+
+    @Test
+    public void testIntegerArgumentsReturnLong() throws Exception {
+        assertQuery(
+                "k\tsum\tmin\tmax\tfirst\tlast\tlag\tlead\n" +
+                        "1\t1\t1\t1\t1\t1\tNaN\t0.0\n" +
+                        "0\t1\t0\t1\t1\t0\t1\t1.0\n" +
+                        "1\t2\t0\t1\t1\t1\t0\t0.0\n" +
+                        "0\t2\t0\t1\t1\t0\t1\t1.0\n" +
+                        "1\t3\t0\t1\t1\t1\t0\t0.0\n" +
+                        "0\t3\t0\t1\t1\t0\t1\t0.5\n",
+                "select k," +
+                        " sum(k) over (order by ts rows unbounded preceding)," +
+                        " min(k) over (order by ts rows unbounded preceding)," +
+                        " max(k) over (order by ts rows unbounded preceding)," +
+                        " first_value(k) over (order by ts) first," +
+                        " last_value(k) over (order by ts rows unbounded preceding) last," +
+                        " lag(k) over (order by ts)," +
+                        " lead(k, 1, 0.5) over (order by ts)" +
+                        " from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertQuery(
+                "v\tlag\tlead\n" +
+                        "1.0\tNaN\t3.0\n" +
+                        "2.0\t1.0\t4.0\n" +
+                        "3.0\t2.0\t5.0\n" +
+                        "4.0\t3.0\t6.0\n" +
+                        "5.0\t4.0\t0.0\n" +
+                        "6.0\t5.0\t0.0\n",
+                "select v, lag(v) over (order by ts), lead(v, 2, 0) over (order by ts) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLagNonConstantOffset() throws Exception {
+        assertFailure(
+                "select lag(v, k) over (order by ts) from x",
+                DDL,
+                14,
+                "constant offset expected"
+        );
+    }
+
+    @Test
+    public void testMinMaxWholePartition() throws Exception {
+        assertQuery(
+                "k\tv\tmin\tmax\n" +
+                        "1\t1.0\t1.0\t5.0\n" +
+                        "0\t2.0\t2.0\t6.0\n" +
+                        "1\t3.0\t1.0\t5.0\n" +
+                        "0\t4.0\t2.0\t6.0\n" +
+                        "1\t5.0\t1.0\t5.0\n" +
+                        "0\t6.0\t2.0\t6.0\n",
+                "select k, v, min(v) over (partition by k order by ts), max(v) over (partition by k) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeOffsetRequiresTimestampOrder() throws Exception {
+        assertFailure(
+                "select sum(v) over (order by v range 3 preceding) from x",
+                DDL,
+                31,
+                "RANGE with offset requires ORDER BY single timestamp column in ascending order"
+        );
+    }
+
+    @Test
+    public void testRankDenseRank() throws Exception {
+        assertQuery(
+                "k\trank\tdense_rank\n" +
+                        "1\t4\t2\n" +
+                        "0\t1\t1\n" +
+                        "1\t4\t2\n" +
+                        "0\t1\t1\n" +
+                        "1\t4\t2\n" +
+                        "0\t1\t1\n",
+                "select k, rank() over (order by k), dense_rank() over (order by k) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRowNumberNoPartition() throws Exception {
+        assertQuery(
+                "ts\trow_number\n" +
+                        "1970-01-01T00:00:00.000000Z\t0\n" +
+                        "1970-01-01T00:01:00.000000Z\t1\n" +
+                        "1970-01-01T00:02:00.000000Z\t2\n" +
+                        "1970-01-01T00:03:00.000000Z\t3\n" +
+                        "1970-01-01T00:04:00.000000Z\t4\n" +
+                        "1970-01-01T00:05:00.000000Z\t5\n",
+                "select ts, row_number() over (order by ts) from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSumRangeIncludesPeers() throws Exception {
+        assertQuery(
+                "k\tv\tsum\tcount\n" +
+                        "1\t1.0\t21.0\t6\n" +
+                        "0\t2.0\t12.0\t3\n" +
+                        "1\t3.0\t21.0\t6\n" +
+                        "0\t4.0\t12.0\t3\n" +
+                        "1\t5.0\t21.0\t6\n" +
+                        "0\t6.0\t12.0\t3\n",
+                "select k, v, sum(v) over (order by k), count() over (order by k range unbounded preceding) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testSumRowsExcludesPeers() throws Exception {
+        assertQuery(
+                "k\tv\tsum\n" +
+                        "1\t1.0\t13.0\n" +
+                        "0\t2.0\t2.0\n" +
+                        "1\t3.0\t16.0\n" +
+                        "0\t4.0\t6.0\n" +
+                        "1\t5.0\t21.0\n" +
+                        "0\t6.0\t12.0\n",
+                "select k, v, sum(v) over (order by k, ts rows unbounded preceding) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testSumRowsFrameStreaming() throws Exception {
+        assertQuery(
+                "ts\tk\tv\tsum\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\t1.0\t1.0\n" +
+                        "1970-01-01T00:01:00.000000Z\t0\t2.0\t2.0\n" +
+                        "1970-01-01T00:02:00.000000Z\t1\t3.0\t4.0\n" +
+                        "1970-01-01T00:03:00.000000Z\t0\t4.0\t6.0\n" +
+                        "1970-01-01T00:04:00.000000Z\t1\t5.0\t8.0\n" +
+                        "1970-01-01T00:05:00.000000Z\t0\t6.0\t10.0\n",
+                "select ts, k, v, sum(v) over (partition by k order by ts rows between 1 preceding and current row) from x",
+                DDL,
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSumSymbolPartitionCached() throws Exception {
+        assertQuery(
+                "s\tv\tsum\n" +
+                        "b\t1.0\t9.0\n" +
+                        "a\t2.0\t12.0\n" +
+                        "b\t3.0\t8.0\n" +
+                        "a\t4.0\t10.0\n" +
+                        "b\t5.0\t5.0\n" +
+                        "a\t6.0\t6.0\n",
+                "select s, v, sum(v) over (partition by s order by ts desc) from x",
+                DDL,
+                null,
+                true,
+                true,
+                false
+        );
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.groupby.vect.GroupByNotKeyedVectorRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ApproxCountDistinctGroupByFunctionFactoryTest.class);
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tl\ts\n" +
+                        "a\t995\t33152\n" +
+                        "b\t995\t32956\n" +
+                        "c\t995\t33737\n",
+                "select a, approx_count_distinct(x % 1000) l, approx_count_distinct(s) s from x order by a",
+                "create table x as (select rnd_symbol('a','b','c') a, x, rnd_str(5, 5, 0) s from long_sequence(100000))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyed() throws Exception {
+        assertQuery(
+                "l\tm\ts\n" +
+                        "994976\t100\t6\n",
+                "select approx_count_distinct(x) l, approx_count_distinct(x % 100) m, approx_count_distinct(s) s from x",
+                "create table x as (select x, rnd_symbol('344', 'xx2', '00s', '544', 'rraa', '0llp') s from long_sequence(1000000))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedWithNulls() throws Exception {
+        assertQuery(
+                "i\ts\n" +
+                        "19\t4\n",
+                "select approx_count_distinct(i) i, approx_count_distinct(s) s from x",
+                "create table x as (select rnd_int(1, 20, 2) i, rnd_symbol(null, 'xx2', '00s', '544', 'rraa', null) s from long_sequence(100))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t5\n" +
+                        "1970-01-01T00:00:01.000000Z\t5\n" +
+                        "1970-01-01T00:00:02.000000Z\t6\n" +
+                        "1970-01-01T00:00:03.000000Z\t5\n" +
+                        "1970-01-01T00:00:04.000000Z\t6\n",
+                "select ts, approx_count_distinct(s) from x sample by 1s",
+                "create table x as (select rnd_str('344', 'xx2', '00s', '544', 'rraa', '0llp') s, timestamp_sequence(0, 100000) ts from long_sequence(50)) timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testVectorKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_long(0, 50000, 2) l, rnd_int(0, 1000, 2) i, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY",
+                "select a, approx_count_distinct(l) l, approx_count_distinct(i) i from x",
+                "select a, approx_count_distinct(l + 0) l, approx_count_distinct(i + 0) i from x",
+                " order by a",
+                GroupByRecordCursorFactory.class
+        );
+    }
+
+    @Test
+    public void testVectorNotKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_long(0, 50000, 2) l, rnd_int(0, 1000, 2) i, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY",
+                "select approx_count_distinct(l) l, approx_count_distinct(i) i from x",
+                "select approx_count_distinct(l + 0) l, approx_count_distinct(i + 0) i from x",
+                "",
+                GroupByNotKeyedVectorRecordCursorFactory.class
+        );
+    }
+
+    private static void assertVectorAggregate(String ddl, String vectorQuery, String rowQuery, String orderBy, Class<?> factoryClass) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(ddl, sqlExecutionContext);
+            final SqlExecutionContext context = new SqlExecutionContextImpl(engine, 2)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            try (RecordCursorFactory factory = compiler.compile(vectorQuery, context).getRecordCursorFactory()) {
+                Assert.assertSame(factoryClass, factory.getClass());
+            }
+
+            // the calling thread aggregates as worker 0, this one as worker 1, their states are merged
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final SOCountDownLatch haltLatch = new SOCountDownLatch(1);
+            final GroupByJob job = new GroupByJob(engine.getMessageBus());
+            new Thread(() -> {
+                while (running.get()) {
+                    job.run(1);
+                }
+                haltLatch.countDown();
+            }).start();
+
+            try {
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        context,
+                        "select * from (" + rowQuery + ")" + orderBy,
+                        "select * from (" + vectorQuery + ")" + orderBy,
+                        LOG
+                );
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+}
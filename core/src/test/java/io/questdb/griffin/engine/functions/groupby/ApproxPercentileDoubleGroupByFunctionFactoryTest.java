@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.groupby.vect.GroupByNotKeyedVectorRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(ApproxPercentileDoubleGroupByFunctionFactoryTest.class);
+
+    @Test
+    public void testAllNulls() throws Exception {
+        assertQuery(
+                "approx_median\n" +
+                        "NaN\n",
+                "select approx_median(d) from x",
+                "create table x as (select cast(null as double) d from long_sequence(10))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tp99\tmedian\n" +
+                        "a\t982.5779489474345\t497.7794014558156\n" +
+                        "b\t982.5779489474345\t497.7794014558156\n" +
+                        "c\t982.5779489474345\t497.7794014558156\n",
+                "select a, approx_percentile(d, 0.99) p99, approx_median(d) median from x order by a",
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_double() * 1000 d from long_sequence(100000))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyed() throws Exception {
+        assertQuery(
+                "p0\tp50\tp99\tp100\tmedian\n" +
+                        "0.9900000000000001\t497.7794014558156\t982.5779489474345\t1002.42800852213\t0.0\n",
+                "select approx_percentile(x, 0) p0, approx_percentile(x, 0.5) p50, approx_percentile(x, 0.99) p99, approx_percentile(x, 1) p100, approx_median(x - 500) median from long_sequence(1000)",
+                null,
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testInvalidPercentile() throws Exception {
+        assertFailure(
+                "select approx_percentile(x, 1.5) from long_sequence(10)",
+                null,
+                28,
+                "percentile must be between 0 and 1"
+        );
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertQuery(
+                "ts\tapprox_percentile\n" +
+                        "1970-01-01T00:00:00.000000Z\t0.8436178514993653\n" +
+                        "1970-01-01T00:00:01.000000Z\t0.6770142190379066\n" +
+                        "1970-01-01T00:00:02.000000Z\t0.8780477199413351\n",
+                "select ts, approx_percentile(d, 0.9) from x sample by 1s",
+                "create table x as (select rnd_double() d, timestamp_sequence(0, 100000) ts from long_sequence(30)) timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testVectorHourKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_double(2) * 1000 - 300 d, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY",
+                "select hour(ts) h, approx_percentile(d, 0.99) p99, approx_median(d) median from x",
+                "select hour(ts) h, approx_percentile(d + 0, 0.99) p99, approx_median(d + 0) median from x",
+                " order by h",
+                GroupByRecordCursorFactory.class
+        );
+    }
+
+    @Test
+    public void testVectorKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_double(2) * 1000 - 300 d, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY",
+                "select a, approx_percentile(d, 0.99) p99, approx_median(d) median from x",
+                "select a, approx_percentile(d + 0, 0.99) p99, approx_median(d + 0) median from x",
+                " order by a",
+                GroupByRecordCursorFactory.class
+        );
+    }
+
+    @Test
+    public void testVectorNotKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_double(2) * 1000 - 300 d, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY",
+                "select approx_percentile(d, 0.01) p1, approx_median(d) median from x",
+                "select approx_percentile(d + 0, 0.01) p1, approx_median(d + 0) median from x",
+                "",
+                GroupByNotKeyedVectorRecordCursorFactory.class
+        );
+    }
+
+    private static void assertVectorAggregate(String ddl, String vectorQuery, String rowQuery, String orderBy, Class<?> factoryClass) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(ddl, sqlExecutionContext);
+            final SqlExecutionContext context = new SqlExecutionContextImpl(engine, 2)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            try (RecordCursorFactory factory = compiler.compile(vectorQuery, context).getRecordCursorFactory()) {
+                Assert.assertSame(factoryClass, factory.getClass());
+            }
+
+            // the calling thread aggregates as worker 0, this one as worker 1, their states are merged
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final SOCountDownLatch haltLatch = new SOCountDownLatch(1);
+            final GroupByJob job = new GroupByJob(engine.getMessageBus());
+            new Thread(() -> {
+                while (running.get()) {
+                    job.run(1);
+                }
+                haltLatch.countDown();
+            }).start();
+
+            try {
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        context,
+                        "select * from (" + rowQuery + ")" + orderBy,
+                        "select * from (" + vectorQuery + ")" + orderBy,
+                        LOG
+                );
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+}
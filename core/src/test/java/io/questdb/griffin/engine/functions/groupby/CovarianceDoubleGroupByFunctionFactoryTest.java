@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Test;
+
+public class CovarianceDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "k\tcovar_samp\tcorr\tregr_slope\tregr_intercept\n" +
+                        "0\t120.0\t0.9811049102515929\t12.0\t-28.0\n" +
+                        "1\t-10.0\t-1.0\t-1.0\t10.0\n",
+                "select k, covar_samp(y, x), corr(y, x), regr_slope(y, x), regr_intercept(y, x) from x order by k",
+                "create table x as (select x % 2 k, cast(x as double) x, case when x % 2 = 0 then x * x else 10 - x end y from long_sequence(10))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyed() throws Exception {
+        assertQuery(
+                "covar_pop\tcovar_samp\tcorr\tregr_slope\tregr_intercept\n" +
+                        "4.0\t5.0\t1.0\t2.0\t1.0\n",
+                "select covar_pop(y, x), covar_samp(y, x), corr(y, x), regr_slope(y, x), regr_intercept(y, x) from x",
+                "create table x as (select cast(x as double) x, 2.0 * x + 1 y from long_sequence(5))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testNullsAreSkipped() throws Exception {
+        assertQuery(
+                "covar_pop\tcorr\tregr_slope\n" +
+                        "8.5\t1.0\t2.0\n",
+                "select covar_pop(y, x), corr(y, x), regr_slope(y, x) from x",
+                "create table x as (select case when x = 3 then cast(null as double) else x end x, case when x = 4 then cast(null as double) else 2.0 * x end y from long_sequence(6))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testZeroVariance() throws Exception {
+        assertQuery(
+                "covar_pop\tcorr\tregr_slope\tregr_intercept\n" +
+                        "0.0\tNaN\tNaN\tNaN\n",
+                "select covar_pop(y, x), corr(y, x), regr_slope(y, x), regr_intercept(y, x) from x",
+                "create table x as (select 1.0 x, cast(x as double) y from long_sequence(5))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DDSketchTest {
+
+    @Test
+    public void testCollapseLowestBuckets() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            long store = DDSketch.alloc();
+            try {
+                // values span far more buckets than store retains
+                for (int i = -300; i <= 300; i++) {
+                    store = DDSketch.add(store, DDSketch.key(Math.pow(10, i)), 1);
+                }
+                Assert.assertEquals(DDSketch.MAX_BINS, DDSketch.getLength(store));
+                long total = 0;
+                for (int i = 0, n = DDSketch.getLength(store); i < n; i++) {
+                    total += DDSketch.getCount(store, i);
+                }
+                Assert.assertEquals(601, total);
+                // upper quantiles are unaffected by collapsing
+                Assert.assertEquals(1e300, DDSketch.quantile(0, 0, store, 601, 1), 1e300 * DDSketch.RELATIVE_ACCURACY);
+                Assert.assertEquals(1e290, DDSketch.quantile(0, 0, store, 601, 590.0 / 600), 1e290 * DDSketch.RELATIVE_ACCURACY);
+            } finally {
+                DDSketch.free(store);
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            long a = DDSketch.alloc();
+            long b = DDSketch.alloc();
+            long all = DDSketch.alloc();
+            try {
+                for (int i = 1; i <= 10_000; i++) {
+                    final int key = DDSketch.key(i);
+                    if (i % 3 == 0) {
+                        a = DDSketch.add(a, key, 1);
+                    } else {
+                        b = DDSketch.add(b, key, 1);
+                    }
+                    all = DDSketch.add(all, key, 1);
+                }
+                a = DDSketch.merge(a, b);
+                Assert.assertEquals(DDSketch.getMinKey(all), DDSketch.getMinKey(a));
+                Assert.assertEquals(DDSketch.getLength(all), DDSketch.getLength(a));
+                for (int i = 0, n = DDSketch.getLength(all); i < n; i++) {
+                    Assert.assertEquals(DDSketch.getCount(all, i), DDSketch.getCount(a, i));
+                }
+            } finally {
+                DDSketch.free(a);
+                DDSketch.free(b);
+                DDSketch.free(all);
+            }
+        });
+    }
+
+    @Test
+    public void testQuantileRelativeAccuracy() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            long positive = DDSketch.alloc();
+            long negative = DDSketch.alloc();
+            try {
+                // -1000..-1, 0 and 1..1000
+                for (int i = 1; i <= 1000; i++) {
+                    positive = DDSketch.add(positive, DDSketch.key(i), 1);
+                    negative = DDSketch.add(negative, DDSketch.key(i), 1);
+                }
+                final long count = 2001;
+                for (double q : new double[]{0, 0.01, 0.25, 0.5, 0.75, 0.9, 0.99, 1}) {
+                    final double exact = Math.round(q * (count - 1)) - 1000;
+                    final double value = DDSketch.quantile(negative, 1, positive, count, q);
+                    Assert.assertEquals("q=" + q, exact, value, Math.abs(exact) * DDSketch.RELATIVE_ACCURACY);
+                }
+            } finally {
+                DDSketch.free(positive);
+                DDSketch.free(negative);
+            }
+        });
+    }
+}
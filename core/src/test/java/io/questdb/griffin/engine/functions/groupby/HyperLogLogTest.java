@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.std.Hash;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testEstimate() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int precision = HyperLogLog.DEFAULT_PRECISION;
+            final long sketch = HyperLogLog.alloc(precision);
+            try {
+                for (int n : new int[]{10, 1_000, 100_000}) {
+                    HyperLogLog.clear(sketch, precision);
+                    for (long i = 0; i < n; i++) {
+                        HyperLogLog.add(sketch, precision, Hash.murmur3ToLong(i));
+                        // duplicates do not change the estimate
+                        HyperLogLog.add(sketch, precision, Hash.murmur3ToLong(i));
+                    }
+                    final long estimate = HyperLogLog.estimate(
+                            HyperLogLog.sum(sketch, precision),
+                            HyperLogLog.zeros(sketch, precision),
+                            precision
+                    );
+                    Assert.assertEquals(n, estimate, n * 0.03);
+                }
+            } finally {
+                HyperLogLog.free(sketch, precision);
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int precision = HyperLogLog.DEFAULT_PRECISION;
+            final long a = HyperLogLog.alloc(precision);
+            final long b = HyperLogLog.alloc(precision);
+            final long all = HyperLogLog.alloc(precision);
+            try {
+                for (long i = 0; i < 300_000; i++) {
+                    final long hash = Hash.murmur3ToLong(i);
+                    // sketches overlap in the middle third
+                    if (i < 200_000) {
+                        HyperLogLog.add(a, precision, hash);
+                    }
+                    if (i >= 100_000) {
+                        HyperLogLog.add(b, precision, hash);
+                    }
+                    HyperLogLog.add(all, precision, hash);
+                }
+                HyperLogLog.merge(a, b, precision);
+                for (long i = 0, n = HyperLogLog.sizeOf(precision); i < n; i++) {
+                    Assert.assertEquals(
+                            Unsafe.getUnsafe().getByte(all + i),
+                            Unsafe.getUnsafe().getByte(a + i)
+                    );
+                }
+                final long estimate = HyperLogLog.estimate(HyperLogLog.sum(a, precision), HyperLogLog.zeros(a, precision), precision);
+                Assert.assertEquals(300_000, estimate, 300_000 * 0.03);
+            } finally {
+                HyperLogLog.free(a, precision);
+                HyperLogLog.free(b, precision);
+                HyperLogLog.free(all, precision);
+            }
+        });
+    }
+}
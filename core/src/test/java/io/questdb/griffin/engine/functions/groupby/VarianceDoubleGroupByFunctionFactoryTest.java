@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.groupby.vect.GroupByNotKeyedVectorRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class VarianceDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(VarianceDoubleGroupByFunctionFactoryTest.class);
+    private static final String VECTOR_DDL = "create table x as (select rnd_symbol('a','b','c') a, rnd_double(2) * 1000 + 1000000 d, rnd_int(0, 1000, 2) i, rnd_long(0, 1000000, 2) l, timestamp_sequence(0, 17280000) ts from long_sequence(100000)) timestamp(ts) partition by DAY";
+
+    @Test
+    public void testAllNulls() throws Exception {
+        assertQuery(
+                "var_samp\tvar_pop\tstddev_samp\tstddev_pop\n" +
+                        "NaN\tNaN\tNaN\tNaN\n",
+                "select var_samp(d), var_pop(d), stddev_samp(d), stddev_pop(d) from x",
+                "create table x as (select cast(null as double) d from long_sequence(10))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "k\tvar_samp\tvar_pop\tstddev_samp\tstddev_pop\n" +
+                        "0\t9.0\t6.0\t3.0\t2.449489742783178\n" +
+                        "1\t15.0\t11.25\t3.872983346207417\t3.3541019662496847\n" +
+                        "2\t9.0\t6.0\t3.0\t2.449489742783178\n",
+                "select k, var_samp(x), var_pop(x), stddev_samp(x), stddev_pop(x) from x order by k",
+                "create table x as (select x % 3 k, x from long_sequence(10))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyed() throws Exception {
+        assertQuery(
+                "var_samp\tvar_pop\tstddev_samp\tstddev_pop\n" +
+                        "2.5\t2.0\t1.5811388300841898\t1.4142135623730951\n",
+                "select var_samp(x), var_pop(x), stddev_samp(x), stddev_pop(x) from long_sequence(5)",
+                null,
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testLargeOffset() throws Exception {
+        // sum of squares would lose all significant digits here
+        assertQuery(
+                "var_samp\tstddev_pop\n" +
+                        "2.5\t1.4142135623730951\n",
+                "select var_samp(1e9 + x), stddev_pop(1e9 + x) from long_sequence(5)",
+                null,
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleByFillLinear() throws Exception {
+        assertQuery(
+                "ts\tvar_pop\n" +
+                        "1970-01-01T00:00:00.000000Z\t2.25\n" +
+                        "1970-01-01T00:00:01.000000Z\t7.25\n" +
+                        "1970-01-01T00:00:02.000000Z\t12.25\n" +
+                        "1970-01-01T00:00:03.000000Z\t21.25\n" +
+                        "1970-01-01T00:00:04.000000Z\t30.25\n",
+                "select ts, var_pop(d) from x sample by 1s fill(linear)",
+                // two rows every other second
+                "create table x as (" +
+                        "select cast(x * x as double) d, cast((x - 1) / 2 * 2000000 as timestamp) ts from long_sequence(6)" +
+                        ") timestamp(ts)",
+                "ts",
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSingleValue() throws Exception {
+        assertQuery(
+                "var_samp\tvar_pop\tstddev_samp\tstddev_pop\n" +
+                        "NaN\t0.0\tNaN\t0.0\n",
+                "select var_samp(x), var_pop(x), stddev_samp(x), stddev_pop(x) from long_sequence(1)",
+                null,
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testVectorHourKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "select hour(ts) h, var_samp(d) vs, var_pop(i) vp, stddev_samp(l) ss, stddev_pop(d) sp from x",
+                "select hour(ts) h, var_samp(d + 0) vs, var_pop(i + 0) vp, stddev_samp(l + 0) ss, stddev_pop(d + 0) sp from x",
+                "select h, round(vs, 4) vs, round(vp, 4) vp, round(ss, 4) ss, round(sp, 4) sp",
+                " order by h",
+                GroupByRecordCursorFactory.class
+        );
+    }
+
+    @Test
+    public void testVectorKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "select a, var_samp(d) vs, var_pop(i) vp, stddev_samp(l) ss, stddev_pop(d) sp from x",
+                "select a, var_samp(d + 0) vs, var_pop(i + 0) vp, stddev_samp(l + 0) ss, stddev_pop(d + 0) sp from x",
+                "select a, round(vs, 4) vs, round(vp, 4) vp, round(ss, 4) ss, round(sp, 4) sp",
+                " order by a",
+                GroupByRecordCursorFactory.class
+        );
+    }
+
+    @Test
+    public void testVectorNotKeyedParallel() throws Exception {
+        assertVectorAggregate(
+                "select var_samp(d) vs, var_pop(i) vp, stddev_samp(l) ss, stddev_pop(d) sp from x",
+                "select var_samp(d + 0) vs, var_pop(i + 0) vp, stddev_samp(l + 0) ss, stddev_pop(d + 0) sp from x",
+                "select round(vs, 4) vs, round(vp, 4) vp, round(ss, 4) ss, round(sp, 4) sp",
+                "",
+                GroupByNotKeyedVectorRecordCursorFactory.class
+        );
+    }
+
+    private static void assertVectorAggregate(String vectorQuery, String rowQuery, String projection, String orderBy, Class<?> factoryClass) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(VECTOR_DDL, sqlExecutionContext);
+            final SqlExecutionContext context = new SqlExecutionContextImpl(engine, 2)
+                    .with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+            try (RecordCursorFactory factory = compiler.compile(vectorQuery, context).getRecordCursorFactory()) {
+                Assert.assertSame(factoryClass, factory.getClass());
+            }
+
+            // the calling thread aggregates as worker 0, this one as worker 1, their states are merged
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final SOCountDownLatch haltLatch = new SOCountDownLatch(1);
+            final GroupByJob job = new GroupByJob(engine.getMessageBus());
+            new Thread(() -> {
+                while (running.get()) {
+                    job.run(1);
+                }
+                haltLatch.countDown();
+            }).start();
+
+            try {
+                // merged states differ from a single pass in the last bits only
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        context,
+                        projection + " from (" + rowQuery + ")" + orderBy,
+                        projection + " from (" + vectorQuery + ")" + orderBy,
+                        LOG
+                );
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+}
@@ -24,12 +24,20 @@
 
 package io.questdb.metrics;
 
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class MetricsRegistryTest {
+    private final StringSink sink = new StringSink();
 
     @Test
     public void testCounterWithoutLabels() {
@@ -87,6 +95,253 @@ public class MetricsRegistryTest {
         assertScrapable(counter, expected);
     }
 
+    @Test
+    public void testCounterAdd() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        Counter counter = metricsRegistry.newCounter("counter");
+
+        counter.add(41);
+        counter.inc();
+
+        String expected = "# TYPE questdb_counter_total counter\n" +
+                "questdb_counter_total 42\n" +
+                "\n";
+        assertScrapable(counter, expected);
+    }
+
+    @Test
+    public void testHistogram() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        try {
+            Histogram histogram = metricsRegistry.newHistogram("histogram");
+
+            histogram.record(0);
+            histogram.record(1);
+            histogram.record(2);
+            histogram.record(3);
+            histogram.record(1000);
+            histogram.record(Long.MAX_VALUE / 2);
+
+            sink.clear();
+            histogram.scrapeIntoPrometheus(sink);
+            String actual = sink.toString();
+            Assert.assertTrue(actual.startsWith("# TYPE questdb_histogram histogram\n" +
+                    "questdb_histogram_bucket{le=\"3\"} 4\n" +
+                    "questdb_histogram_bucket{le=\"15\"} 4\n" +
+                    "questdb_histogram_bucket{le=\"63\"} 4\n" +
+                    "questdb_histogram_bucket{le=\"255\"} 4\n" +
+                    "questdb_histogram_bucket{le=\"1023\"} 5\n" +
+                    "questdb_histogram_bucket{le=\"4095\"} 5\n"
+            ));
+            // one bucket per power of four up to 2^36 and +Inf
+            int bucketLines = 0;
+            for (int i = actual.indexOf("_bucket{"); i > -1; i = actual.indexOf("_bucket{", i + 1)) {
+                bucketLines++;
+            }
+            Assert.assertEquals(19, bucketLines);
+            Assert.assertTrue(actual.contains("questdb_histogram_bucket{le=\"68719476735\"} 5\n" +
+                    "questdb_histogram_bucket{le=\"+Inf\"} 6\n"
+            ));
+            Assert.assertTrue(actual.endsWith("questdb_histogram_bucket{le=\"+Inf\"} 6\n" +
+                    "questdb_histogram_sum " + (1006 + Long.MAX_VALUE / 2) + "\n" +
+                    "questdb_histogram_count 6\n" +
+                    "\n"
+            ));
+        } finally {
+            metricsRegistry.close();
+        }
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        try (LogLinearHistogram histogram = new LogLinearHistogram("histogram", 2, 10)) {
+            Assert.assertEquals(0, histogram.bucketIndex(-1));
+            for (long value = 0; value < 1024; value++) {
+                int index = histogram.bucketIndex(value);
+                Assert.assertTrue(value <= histogram.bucketUpperBound(index));
+                if (index > 0) {
+                    Assert.assertTrue(value > histogram.bucketUpperBound(index - 1));
+                }
+                // bucket width is within 25% of its lower bound
+                if (index > 3) {
+                    long lo = histogram.bucketUpperBound(index - 1) + 1;
+                    Assert.assertTrue(histogram.bucketUpperBound(index) - lo + 1 <= Math.max(1, lo / 4));
+                }
+            }
+            Assert.assertEquals(1023, histogram.bucketUpperBound(histogram.bucketIndex(1023)));
+            int infIndex = histogram.bucketIndex(1024);
+            Assert.assertEquals(infIndex, histogram.bucketIndex(Long.MAX_VALUE));
+            Assert.assertEquals(histogram.bucketIndex(1023) + 1, infIndex);
+        }
+    }
+
+    @Test
+    public void testHistogramEmpty() {
+        try (LogLinearHistogram histogram = new LogLinearHistogram("histogram", 2, 4)) {
+            String expected = "# TYPE questdb_histogram histogram\n" +
+                    "questdb_histogram_bucket{le=\"3\"} 0\n" +
+                    "questdb_histogram_bucket{le=\"15\"} 0\n" +
+                    "questdb_histogram_bucket{le=\"+Inf\"} 0\n" +
+                    "questdb_histogram_sum 0\n" +
+                    "questdb_histogram_count 0\n" +
+                    "\n";
+            assertScrapable(histogram, expected);
+        }
+    }
+
+    @Test
+    public void testHistogramRecordAfterClose() {
+        final long memUsed = Unsafe.getMemUsed();
+        LogLinearHistogram histogram = new LogLinearHistogram("histogram", 2, 4);
+        histogram.record(1);
+        Assert.assertTrue(Unsafe.getMemUsed() > memUsed);
+        histogram.close();
+        Assert.assertEquals(memUsed, Unsafe.getMemUsed());
+
+        // late producer does not allocate memory again
+        histogram.record(1);
+        Assert.assertEquals(memUsed, Unsafe.getMemUsed());
+        histogram.close();
+
+        String expected = "# TYPE questdb_histogram histogram\n" +
+                "questdb_histogram_bucket{le=\"3\"} 0\n" +
+                "questdb_histogram_bucket{le=\"15\"} 0\n" +
+                "questdb_histogram_bucket{le=\"+Inf\"} 0\n" +
+                "questdb_histogram_sum 0\n" +
+                "questdb_histogram_count 0\n" +
+                "\n";
+        assertScrapable(histogram, expected);
+    }
+
+    @Test
+    public void testHistogramConcurrentRecord() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 100_000;
+        try (LogLinearHistogram histogram = new LogLinearHistogram("histogram")) {
+            final CyclicBarrier start = new CyclicBarrier(threadCount);
+            final CountDownLatch done = new CountDownLatch(threadCount);
+            final AtomicInteger errors = new AtomicInteger();
+            for (int t = 0; t < threadCount; t++) {
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            histogram.record(i & 1023);
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            done.await();
+            Assert.assertEquals(0, errors.get());
+
+            sink.clear();
+            histogram.scrapeIntoPrometheus(sink);
+            String actual = sink.toString();
+            long expectedSum = (long) threadCount * (iterations / 1024) * (1023 * 1024 / 2);
+            for (int i = 0, n = iterations % 1024; i < n; i++) {
+                expectedSum += (long) threadCount * i;
+            }
+            Assert.assertTrue(actual.endsWith("questdb_histogram_bucket{le=\"+Inf\"} " + threadCount * iterations + "\n" +
+                    "questdb_histogram_sum " + expectedSum + "\n" +
+                    "questdb_histogram_count " + threadCount * iterations + "\n" +
+                    "\n"
+            ));
+        }
+    }
+
+    @Test
+    public void testNullHistogram() {
+        MetricsRegistry metricsRegistry = new NullMetricsRegistry();
+        Histogram histogram = metricsRegistry.newHistogram("histogram");
+
+        histogram.record(42);
+        assetNull(histogram);
+    }
+
+    @Test
+    public void testVirtualCounter() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        long[] value = {10};
+        Scrapable counter = metricsRegistry.newVirtualCounter("counter", () -> value[0]);
+
+        String expected1 = "# TYPE questdb_counter_total counter\n" +
+                "questdb_counter_total 10\n" +
+                "\n";
+        assertScrapable(counter, expected1);
+
+        value[0] = 12;
+        String expected2 = "# TYPE questdb_counter_total counter\n" +
+                "questdb_counter_total 12\n" +
+                "\n";
+        assertScrapable(counter, expected2);
+    }
+
+    @Test
+    public void testVirtualGauge() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        long[] value = {3};
+        Scrapable gauge = metricsRegistry.newVirtualGauge("gauge", () -> value[0]);
+
+        String expected1 = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge 3\n" +
+                "\n";
+        assertScrapable(gauge, expected1);
+
+        value[0] = 1;
+        String expected2 = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge 1\n" +
+                "\n";
+        assertScrapable(gauge, expected2);
+    }
+
+    @Test
+    public void testVirtualGaugeWithOneLabel() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        Scrapable gauge = metricsRegistry.newVirtualGauge("gauge", "label0", new CharSequence[]{"A", "B"}, i -> i * 10 + 1);
+
+        String expected = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge{label0=\"A\"} 1\n" +
+                "questdb_gauge{label0=\"B\"} 11\n" +
+                "\n";
+        assertScrapable(gauge, expected);
+    }
+
+    @Test
+    public void testVirtualGaugeWithDynamicLabel() {
+        MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        final ObjList<CharSequence> labelValues = new ObjList<>();
+        labelValues.add("A");
+        Scrapable gauge = metricsRegistry.newVirtualGauge("gauge", "label0", sink -> {
+            for (int i = 0, n = labelValues.size(); i < n; i++) {
+                sink.put(labelValues.getQuick(i), i * 10 + 1);
+            }
+        });
+
+        String expected1 = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge{label0=\"A\"} 1\n" +
+                "\n";
+        assertScrapable(gauge, expected1);
+
+        labelValues.add("B");
+        String expected2 = "# TYPE questdb_gauge gauge\n" +
+                "questdb_gauge{label0=\"A\"} 1\n" +
+                "questdb_gauge{label0=\"B\"} 11\n" +
+                "\n";
+        assertScrapable(gauge, expected2);
+    }
+
+    @Test
+    public void testNullVirtualGauge() {
+        MetricsRegistry metricsRegistry = new NullMetricsRegistry();
+        assetNull(metricsRegistry.newVirtualGauge("gauge", () -> 1));
+        assetNull(metricsRegistry.newVirtualCounter("counter", () -> 1));
+        assetNull(metricsRegistry.newVirtualGauge("gauge", "label0", sink -> sink.put("A", 1)));
+    }
+
     @Test
     public void testNullCounter() {
         MetricsRegistry metricsRegistry = new NullMetricsRegistry();
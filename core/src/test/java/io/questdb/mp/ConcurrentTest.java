@@ -37,6 +37,7 @@ import java.util.Arrays;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -652,6 +653,70 @@ public class ConcurrentTest {
         }
     }
 
+    @Test
+    public void testOneToOneWaitingSpinPark() throws Exception {
+        LOG.info().$("testOneToOneWaitingSpinPark").$();
+        int cycle = 1024;
+        int size = 64 * cycle;
+        RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, cycle);
+        Sequence pubSeq = new SPSequence(cycle);
+        // lost wakeup would make consumer wait for the timeout
+        Sequence subSeq = new SCSequence(new SpinParkWaitStrategy(100, TimeUnit.MINUTES.toNanos(1)));
+        pubSeq.then(subSeq).then(pubSeq);
+
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        SOCountDownLatch latch = new SOCountDownLatch(1);
+
+        WaitingConsumer consumer = new WaitingConsumer(size, subSeq, queue, barrier, latch);
+        consumer.start();
+
+        barrier.await();
+        int i = 0;
+        do {
+            long cursor = pubSeq.nextBully();
+            queue.get(cursor).value = i++;
+            pubSeq.done(cursor);
+            if ((i & 4095) == 0) {
+                // let consumer run out of items and park
+                Os.sleep(1);
+            }
+        } while (i != size);
+
+        publishEOE(queue, pubSeq);
+
+        Assert.assertTrue(latch.await(TimeUnit.SECONDS.toNanos(30)));
+
+        int[] buf = consumer.buf;
+        for (i = 0; i < buf.length; i++) {
+            Assert.assertEquals(i, buf[i]);
+        }
+    }
+
+    @Test
+    public void testSpinParkWaitStrategyAlert() throws Exception {
+        final SpinParkWaitStrategy waitStrategy = new SpinParkWaitStrategy(10, TimeUnit.MINUTES.toNanos(1));
+        final Sequence pubSeq = new SPSequence(16);
+        final Sequence subSeq = new SCSequence(waitStrategy);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        final SOCountDownLatch latch = new SOCountDownLatch(1);
+        final AtomicInteger alerted = new AtomicInteger();
+        new Thread(() -> {
+            try {
+                subSeq.waitForNext();
+            } catch (AlertedException e) {
+                alerted.incrementAndGet();
+            } finally {
+                latch.countDown();
+            }
+        }).start();
+
+        Os.sleep(10);
+        waitStrategy.alert();
+        Assert.assertTrue(latch.await(TimeUnit.SECONDS.toNanos(30)));
+        Assert.assertEquals(1, alerted.get());
+    }
+
     @Test
     public void testOneToParallelMany() throws Exception {
         LOG.info().$("testOneToParallelMany").$();
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+import io.questdb.metrics.MetricsRegistryImpl;
+import io.questdb.std.Os;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkerPoolTest {
+
+    @Test
+    public void testHighPriorityJobsRunBetweenNormalJobs() {
+        final StringBuilder trace = new StringBuilder();
+        final SOCountDownLatch done = new SOCountDownLatch(1);
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration());
+        pool.assign(tracingJob(trace, 'A', true, done), JobPriority.NORMAL);
+        pool.assign(tracingJob(trace, 'B', true, done), JobPriority.NORMAL);
+        pool.assign(tracingJob(trace, 'H', false, done), JobPriority.HIGH);
+        pool.assign(tracingJob(trace, 'L', false, done), JobPriority.LOW);
+        pool.start(null);
+        done.await();
+        pool.halt();
+        TestUtils.assertEquals("HAHBHHAHBHHAHBHH", trace.substring(0, 16));
+    }
+
+    @Test
+    public void testJobTimeMetrics() {
+        try (MetricsRegistryImpl metricsRegistry = new MetricsRegistryImpl()) {
+            final WorkerPoolMetrics metrics = new WorkerPoolMetrics(metricsRegistry);
+            final SOCountDownLatch done = new SOCountDownLatch(1);
+            final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration());
+            metrics.of(pool);
+            pool.setMetrics(metrics);
+            pool.assign(new Job() {
+                private int runs;
+
+                @Override
+                public boolean run(int workerId) {
+                    runs++;
+                    if (runs == 1) {
+                        // time spent doing work
+                        Os.sleep(50);
+                        return true;
+                    }
+                    if (runs == 1000) {
+                        done.countDown();
+                    }
+                    return false;
+                }
+            });
+            pool.start(null);
+            done.await();
+            pool.halt();
+
+            Assert.assertTrue(pool.getBusyMicros() >= 50_000);
+            // time spent finding nothing to do is not busy
+            Assert.assertTrue(pool.getBusyMicros() < 1_000_000);
+            Assert.assertTrue(pool.getIdleMicros() > 0);
+
+            final StringSink sink = new StringSink();
+            metricsRegistry.scrapeIntoPrometheus(sink);
+            TestUtils.assertContains(sink, "questdb_worker_busy_micros_total " + pool.getBusyMicros() + "\n");
+            TestUtils.assertContains(sink, "questdb_worker_idle_micros_total " + pool.getIdleMicros() + "\n");
+        }
+    }
+
+    @Test
+    public void testJobWaitMetrics() {
+        try (MetricsRegistryImpl metricsRegistry = new MetricsRegistryImpl()) {
+            final WorkerPoolMetrics metrics = new WorkerPoolMetrics(metricsRegistry);
+            final SOCountDownLatch done = new SOCountDownLatch(1);
+            final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration());
+            metrics.of(pool);
+            pool.setMetrics(metrics);
+            pool.assign(new Job() {
+                private boolean first = true;
+
+                @Override
+                public boolean run(int workerId) {
+                    if (first) {
+                        first = false;
+                        done.countDown();
+                        return true;
+                    }
+                    return false;
+                }
+            }, JobPriority.HIGH);
+            pool.start(null);
+            done.await();
+            pool.halt();
+
+            final StringSink sink = new StringSink();
+            metricsRegistry.scrapeIntoPrometheus(sink);
+            TestUtils.assertContains(sink, "questdb_worker_high_priority_job_wait_micros_count 1\n");
+            TestUtils.assertContains(sink, "questdb_worker_normal_priority_job_wait_micros_count 0\n");
+            TestUtils.assertContains(sink, "questdb_worker_low_priority_job_wait_micros_count 0\n");
+        }
+    }
+
+    @Test
+    public void testLowPriorityJobsAreNotStarved() {
+        final AtomicInteger normalRuns = new AtomicInteger();
+        final int[] lowRunsAt = new int[3];
+        final SOCountDownLatch done = new SOCountDownLatch(1);
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration());
+        pool.assign(workerId -> {
+            normalRuns.incrementAndGet();
+            // always busy
+            return true;
+        });
+        pool.assign(new Job() {
+            private int runs;
+
+            @Override
+            public boolean run(int workerId) {
+                if (runs < lowRunsAt.length) {
+                    lowRunsAt[runs++] = normalRuns.get();
+                    if (runs == lowRunsAt.length) {
+                        done.countDown();
+                    }
+                }
+                return false;
+            }
+        }, JobPriority.LOW);
+        pool.start(null);
+        done.await();
+        pool.halt();
+        Assert.assertEquals(64, lowRunsAt[0]);
+        Assert.assertEquals(128, lowRunsAt[1]);
+        Assert.assertEquals(192, lowRunsAt[2]);
+    }
+
+    @Test
+    public void testLowPriorityJobsRunWhenIdle() {
+        final AtomicInteger normalRuns = new AtomicInteger();
+        final AtomicInteger lowRuns = new AtomicInteger();
+        final SOCountDownLatch done = new SOCountDownLatch(1);
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration());
+        pool.assign(workerId -> {
+            normalRuns.incrementAndGet();
+            return false;
+        });
+        pool.assign(workerId -> {
+            if (lowRuns.incrementAndGet() == 10) {
+                done.countDown();
+            }
+            return false;
+        }, JobPriority.LOW);
+        pool.start(null);
+        done.await();
+        pool.halt();
+        Assert.assertTrue(normalRuns.get() >= 10);
+        Assert.assertTrue(normalRuns.get() - lowRuns.get() <= 1);
+    }
+
+    @Test
+    public void testWakeUpParkedWorker() {
+        final SOCountDownLatch done = new SOCountDownLatch(1);
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration() {
+            @Override
+            public long getSleepThreshold() {
+                return 0;
+            }
+
+            @Override
+            public long getSleepTimeout() {
+                // worker would not wake up on its own
+                return TimeUnit.MINUTES.toMillis(1);
+            }
+        });
+        final SPSequence pubSeq = new SPSequence(16);
+        final SCSequence subSeq = new SCSequence(pool.getWakeUpStrategy());
+        pubSeq.then(subSeq).then(pubSeq);
+        final AtomicInteger idleRuns = new AtomicInteger();
+        pool.assign(workerId -> {
+            final long cursor = subSeq.next();
+            if (cursor > -1) {
+                subSeq.done(cursor);
+                done.countDown();
+                return true;
+            }
+            idleRuns.incrementAndGet();
+            return false;
+        });
+        pool.start(null);
+        try {
+            // worker announces parking after the first idle pass and parks after the second
+            while (idleRuns.get() < 2) {
+                Os.sleep(1);
+            }
+            Os.sleep(10);
+            final int runsBeforePublish = idleRuns.get();
+            Os.sleep(100);
+            Assert.assertEquals(runsBeforePublish, idleRuns.get());
+
+            pubSeq.done(pubSeq.next());
+            Assert.assertTrue(done.await(TimeUnit.SECONDS.toNanos(30)));
+        } finally {
+            // halt wakes parked worker up too
+            pool.halt();
+        }
+    }
+
+    private static Job tracingJob(StringBuilder trace, char name, boolean useful, SOCountDownLatch done) {
+        return workerId -> {
+            if (trace.length() < 16) {
+                trace.append(name);
+                if (trace.length() == 16) {
+                    done.countDown();
+                }
+            }
+            return useful;
+        };
+    }
+
+    private static class TestWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        @Override
+        public int[] getWorkerAffinity() {
+            return new int[]{-1};
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return 1;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+    }
+}
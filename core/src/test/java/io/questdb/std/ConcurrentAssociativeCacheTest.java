@@ -0,0 +1,123 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentAssociativeCacheTest {
+
+    @Test
+    public void testCheckoutIsExclusive() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final String[] keys = {"a", "b", "c", "d", "e"};
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 4, 16);
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final Rnd rnd = new Rnd(t, t);
+            threads[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int i = 0; i < iterations; i++) {
+                        String key = keys[rnd.nextPositiveInt() % keys.length];
+                        Value value = cache.poll(key);
+                        if (value == null) {
+                            value = new Value(closed);
+                            created.incrementAndGet();
+                        }
+                        if (value.owners.incrementAndGet() != 1) {
+                            errors.incrementAndGet();
+                        }
+                        value.owners.decrementAndGet();
+                        cache.put(key, value);
+                    }
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+
+        for (int t = 0; t < threadCount; t++) {
+            threads[t].join();
+        }
+        cache.close();
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(created.get(), closed.get());
+    }
+
+    @Test
+    public void testPollPut() {
+        final AtomicInteger closed = new AtomicInteger();
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(4, 8, 16)) {
+            Value x = new Value(closed);
+            Value y = new Value(closed);
+            cache.put("X", x);
+            cache.put("Y", y);
+
+            Assert.assertSame(x, cache.poll("X"));
+            // value is checked out
+            Assert.assertNull(cache.poll("X"));
+            Assert.assertNull(cache.poll("Z"));
+
+            cache.put("X", x);
+            Assert.assertSame(x, cache.poll("X"));
+            Assert.assertSame(y, cache.poll("Y"));
+
+            cache.put("X", x);
+            cache.put("Y", y);
+            cache.clear();
+            Assert.assertEquals(2, closed.get());
+            Assert.assertNull(cache.poll("X"));
+        }
+    }
+
+    private static class Value implements Closeable {
+        private final AtomicInteger owners = new AtomicInteger();
+        private final AtomicInteger closed;
+
+        private Value(AtomicInteger closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IOURingTest {
+    @ClassRule
+    public static final TemporaryFolder temp = new TemporaryFolder();
+    private static final IOURingFacade rf = IOURingFacadeImpl.INSTANCE;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(rf.isAvailable());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (IOURing ring = rf.newInstance(4)) {
+                for (int i = 0; i < 4; i++) {
+                    Assert.assertEquals(i, ring.enqueueNop());
+                }
+                Assert.assertEquals(-1, ring.enqueueNop());
+                Assert.assertEquals(4, ring.submitAndWait());
+
+                int completed = 0;
+                while (completed < 4) {
+                    if (ring.nextCqe()) {
+                        Assert.assertEquals(0, ring.getCqeRes());
+                        completed++;
+                    }
+                }
+                Assert.assertEquals(4, ring.enqueueNop());
+            }
+        });
+    }
+
+    @Test
+    public void testWriteFsyncRead() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int blockSize = 4096;
+            final int blockCount = 8;
+            final long buf = Unsafe.malloc(blockSize * blockCount, MemoryTag.NATIVE_DEFAULT);
+            try (
+                    Path path = new Path().of(temp.newFile().getAbsolutePath()).$();
+                    IOURing ring = rf.newInstance(16)
+            ) {
+                final long fd = Files.openRW(path);
+                Assert.assertTrue(fd > -1);
+                try {
+                    for (int i = 0; i < blockCount; i++) {
+                        Vect.memset(buf + (long) i * blockSize, blockSize, i + 1);
+                        Assert.assertEquals(i, ring.enqueueWrite(fd, (long) i * blockSize, buf + (long) i * blockSize, blockSize));
+                    }
+                    Assert.assertEquals(blockCount, ring.submitAndWait());
+                    drain(ring, blockCount, blockSize);
+
+                    ring.enqueueFsync(fd);
+                    ring.submitAndWait();
+                    drain(ring, 1, 0);
+
+                    Vect.memset(buf, (long) blockSize * blockCount, 0);
+                    for (int i = blockCount - 1; i > -1; i--) {
+                        ring.enqueueRead(fd, (long) i * blockSize, buf + (long) i * blockSize, blockSize);
+                    }
+                    ring.submitAndWait();
+                    drain(ring, blockCount, blockSize);
+
+                    for (int i = 0; i < blockCount; i++) {
+                        Assert.assertEquals(i + 1, Unsafe.getUnsafe().getByte(buf + (long) i * blockSize));
+                        Assert.assertEquals(i + 1, Unsafe.getUnsafe().getByte(buf + (long) i * blockSize + blockSize - 1));
+                    }
+                } finally {
+                    Files.close(fd);
+                }
+            } finally {
+                Unsafe.free(buf, blockSize * blockCount, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static void drain(IOURing ring, int expectedCount, int expectedRes) {
+        int completed = 0;
+        while (completed < expectedCount) {
+            if (ring.nextCqe()) {
+                Assert.assertEquals(expectedRes, ring.getCqeRes());
+                completed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std.datetime.microtime;
+
+import io.questdb.std.Rnd;
+import io.questdb.std.datetime.DateFormat;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class DayCachingTimestampFormatTest {
+
+    private final StringSink expected = new StringSink();
+    private final StringSink actual = new StringSink();
+
+    @Test
+    public void testFormat() throws Exception {
+        DayCachingTimestampFormat format = new DayCachingTimestampFormat(TimestampFormatUtils.USEC_UTC_FORMAT, "Z");
+        assertFormat(format, "2022-03-04T00:00:00.000000Z", TimestampFormatUtils.parseTimestamp("2022-03-04T00:00:00.000000Z"));
+        assertFormat(format, "2022-03-04T23:59:59.999999Z", TimestampFormatUtils.parseTimestamp("2022-03-04T23:59:59.999999Z"));
+        assertFormat(format, "2022-03-05T00:00:00.000001Z", TimestampFormatUtils.parseTimestamp("2022-03-05T00:00:00.000001Z"));
+        assertFormat(format, "2022-03-04T12:01:02.030405Z", TimestampFormatUtils.parseTimestamp("2022-03-04T12:01:02.030405Z"));
+        assertFormat(format, "1970-01-01T00:00:00.000000Z", 0);
+    }
+
+    @Test
+    public void testMatchesIsoFormat() {
+        assertMatchesFormat(TimestampFormatUtils.USEC_UTC_FORMAT, "Z");
+    }
+
+    @Test
+    public void testMatchesPgFormat() {
+        assertMatchesFormat(TimestampFormatUtils.PG_TIMESTAMP_FORMAT, null);
+    }
+
+    private void assertFormat(DayCachingTimestampFormat format, String expected, long micros) {
+        actual.clear();
+        format.format(micros, actual);
+        TestUtils.assertEquals(expected, actual);
+    }
+
+    private void assertMatchesFormat(DateFormat dateFormat, CharSequence timeZoneName) {
+        final DayCachingTimestampFormat format = new DayCachingTimestampFormat(dateFormat, timeZoneName);
+        final Rnd rnd = new Rnd();
+        long micros = rnd.nextPositiveLong() % (Timestamps.DAY_MICROS * 365 * 100);
+        for (int i = 0; i < 10_000; i++) {
+            // mostly ascending timestamps with an occasional jump, including before epoch and far future
+            switch (rnd.nextInt(16)) {
+                case 0:
+                    micros = -rnd.nextPositiveLong() % (Timestamps.DAY_MICROS * 365 * 100);
+                    break;
+                case 1:
+                    micros = rnd.nextPositiveLong();
+                    break;
+                default:
+                    micros += rnd.nextPositiveLong() % Timestamps.HOUR_MICROS;
+                    break;
+            }
+            expected.clear();
+            dateFormat.format(micros, null, timeZoneName, expected);
+            actual.clear();
+            format.format(micros, actual);
+            TestUtils.assertEquals(expected, actual);
+        }
+    }
+}